@@ -0,0 +1,81 @@
+package eu.ai4work.sws;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The application scenarios measured by the benchmarks, each with the example input of the README and the range of
+ * every input variable, as documented in the FCL file of the scenario.
+ */
+public enum BenchmarkScenario {
+    LOGISTICS(Map.of(
+            "numberOfTrucksInQueue", 7,
+            "positionOfTruckToBePrioritized", 5,
+            "materialUrgency", 30,
+            "operationalWorkload", 80),
+            Map.of(
+                    "numberOfTrucksInQueue", 20,
+                    "positionOfTruckToBePrioritized", 20,
+                    "materialUrgency", 100,
+                    "operationalWorkload", 100)),
+    CONSTRUCTION(Map.of(
+            "timeTheRobotIsAlreadyMoving", 4,
+            "robotBatteryStatus", 65,
+            "noOfHumansInTheRoom", 10),
+            Map.of(
+                    "timeTheRobotIsAlreadyMoving", 15,
+                    "robotBatteryStatus", 100,
+                    "noOfHumansInTheRoom", 20)),
+    AGRICULTURE(Map.of(
+            "distanceToCentralCollectionPoint", 250,
+            "fatigueLevelOfWorker", 80,
+            "droneBatteryLevel", 80,
+            "isDroneCurrentlyAvailable", 1),
+            Map.of(
+                    "distanceToCentralCollectionPoint", 300,
+                    "fatigueLevelOfWorker", 100,
+                    "droneBatteryLevel", 100,
+                    "isDroneCurrentlyAvailable", 1));
+
+    private final Map<String, Object> slidingDecisionInputParameters;
+    private final Map<String, Integer> maximumInputValues;
+
+    BenchmarkScenario(Map<String, Object> slidingDecisionInputParameters, Map<String, Integer> maximumInputValues) {
+        this.slidingDecisionInputParameters = slidingDecisionInputParameters;
+        this.maximumInputValues = maximumInputValues;
+    }
+
+    public Map<String, Object> getSlidingDecisionInputParameters() {
+        return slidingDecisionInputParameters;
+    }
+
+    /**
+     * @return a whole number between zero and the maximum of its range for every input variable, like a client sends them.
+     */
+    public Map<String, Object> createRandomSlidingDecisionInputParameters(Random random) {
+        Map<String, Object> randomSlidingDecisionInputParameters = new LinkedHashMap<>();
+        // in a fixed order, so the same seed gives the same input values
+        slidingDecisionInputParameters.keySet().stream().sorted().forEach(inputVariableName ->
+                randomSlidingDecisionInputParameters.put(inputVariableName, random.nextInt(maximumInputValues.get(inputVariableName) + 1)));
+        return randomSlidingDecisionInputParameters;
+    }
+
+    /**
+     * Starts the application (without web server) with the Spring profile of this scenario.
+     *
+     * @param ruleEngine the configured rule engine, e.g. {@code jfuzzylogic} or {@code compiled}.
+     */
+    public ConfigurableApplicationContext startApplication(String ruleEngine) {
+        return new SpringApplicationBuilder(SlidingWorkSharingApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.profiles.active=" + name().toLowerCase(),
+                        "--application-scenario-config.rule-engine=" + ruleEngine,
+                        "--logging.level.eu.ai4work.sws=info");
+    }
+}
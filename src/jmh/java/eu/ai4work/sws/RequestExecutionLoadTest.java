@@ -0,0 +1,189 @@
+package eu.ai4work.sws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the latency of single sliding decision requests in each request execution mode, with the real web server.
+ * <p>
+ * For each mode, the application is started on a random port and loaded by {@code clients} clients that send requests
+ * one after the other, while {@code slowClients} further clients occupy connections by sending their request body
+ * slowly (after {@code slowClientDelay}), like clients on a poor network. After the warm-up, the latencies of the fast
+ * clients are recorded for {@code duration}, and the throughput, the percentiles and the number of rejected requests
+ * ({@code 503 Service Unavailable}) are printed per mode.
+ * <p>
+ * Run it with the {@code benchmark} Maven profile, e.g.
+ * {@code mvn -P benchmark verify -DskipTests -Dbenchmark.main=eu.ai4work.sws.RequestExecutionLoadTest -Dbenchmark.args="clients=64 slowClients=400"},
+ * all arguments are optional: {@code modes} (comma-separated, default all), {@code scenario}, {@code clients},
+ * {@code slowClients}, {@code slowClientDelay}, {@code warmup} and {@code duration} (ISO-8601 durations, e.g. {@code PT20S}).
+ */
+public final class RequestExecutionLoadTest {
+    private static final String[] ALL_MODES = {"platform-threads", "virtual-threads", "evaluation-executor"};
+
+    private RequestExecutionLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new HashMap<>();
+        for (String argument : args) {
+            String[] nameAndValue = argument.split("=", 2);
+            arguments.put(nameAndValue[0], nameAndValue.length > 1 ? nameAndValue[1] : "");
+        }
+        String[] modes = arguments.getOrDefault("modes", String.join(",", ALL_MODES)).split(",");
+        BenchmarkScenario scenario = BenchmarkScenario.valueOf(arguments.getOrDefault("scenario", "logistics").toUpperCase());
+        int clients = Integer.parseInt(arguments.getOrDefault("clients", "64"));
+        int slowClients = Integer.parseInt(arguments.getOrDefault("slowClients", "256"));
+        Duration slowClientDelay = Duration.parse(arguments.getOrDefault("slowClientDelay", "PT0.5S"));
+        Duration warmup = Duration.parse(arguments.getOrDefault("warmup", "PT10S"));
+        Duration duration = Duration.parse(arguments.getOrDefault("duration", "PT20S"));
+
+        List<String> results = new ArrayList<>();
+        for (String mode : modes) {
+            results.add(String.format("%-20s %s", mode, runLoad(mode, scenario, clients, slowClients, slowClientDelay, warmup, duration)));
+        }
+        System.out.printf("%n%d clients, %d slow clients (%s delay), %s, %s%n", clients, slowClients, slowClientDelay, scenario, duration);
+        results.forEach(System.out::println);
+    }
+
+    private static String runLoad(String mode, BenchmarkScenario scenario, int clients, int slowClients, Duration slowClientDelay,
+                                  Duration warmup, Duration duration) throws Exception {
+        try (ConfigurableApplicationContext applicationContext = new SpringApplicationBuilder(SlidingWorkSharingApplication.class)
+                .logStartupInfo(false)
+                .run("--spring.profiles.active=" + scenario.name().toLowerCase(),
+                        "--server.port=0",
+                        "--application-scenario-config.request-execution.mode=" + mode,
+                        "--logging.level.eu.ai4work.sws=warn")) {
+            int port = Integer.parseInt(applicationContext.getEnvironment().getProperty("local.server.port"));
+            URI uri = URI.create("http://localhost:" + port + "/sliding-decision?explanationLevel=none");
+            byte[] requestBody = applicationContext.getBean(ObjectMapper.class)
+                    .writeValueAsBytes(Map.of("slidingDecisionInputParameters", scenario.getSlidingDecisionInputParameters()));
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicBoolean recording = new AtomicBoolean(false);
+            LongAdder rejectedRequests = new LongAdder();
+            LongAdder failedRequests = new LongAdder();
+            long[][] latenciesPerClient = new long[clients][];
+            int[] recordedLatenciesPerClient = new int[clients];
+
+            try (HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+                 ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int slowClient = 0; slowClient < slowClients; slowClient++) {
+                    clientThreads.execute(() -> {
+                        while (running.get()) {
+                            sendSlowly(port, requestBody, slowClientDelay);
+                        }
+                    });
+                }
+                for (int client = 0; client < clients; client++) {
+                    int clientIndex = client;
+                    latenciesPerClient[client] = new long[1 << 16];
+                    clientThreads.execute(() -> {
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody))
+                                .build();
+                        while (running.get()) {
+                            long start = System.nanoTime();
+                            int statusCode;
+                            try {
+                                statusCode = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            } catch (IOException | InterruptedException exception) {
+                                statusCode = -1;
+                            }
+                            long latency = System.nanoTime() - start;
+                            if (!recording.get()) {
+                                continue;
+                            }
+                            if (statusCode == 503) {
+                                rejectedRequests.increment();
+                            } else if (statusCode != 200) {
+                                failedRequests.increment();
+                            } else {
+                                long[] latencies = latenciesPerClient[clientIndex];
+                                if (recordedLatenciesPerClient[clientIndex] == latencies.length) {
+                                    latenciesPerClient[clientIndex] = latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                                }
+                                latencies[recordedLatenciesPerClient[clientIndex]++] = latency;
+                            }
+                        }
+                    });
+                }
+
+                Thread.sleep(warmup.toMillis());
+                recording.set(true);
+                Thread.sleep(duration.toMillis());
+                recording.set(false);
+                running.set(false);
+            }
+
+            int numberOfLatencies = Arrays.stream(recordedLatenciesPerClient).sum();
+            long[] latencies = new long[numberOfLatencies];
+            int offset = 0;
+            for (int client = 0; client < clients; client++) {
+                System.arraycopy(latenciesPerClient[client], 0, latencies, offset, recordedLatenciesPerClient[client]);
+                offset += recordedLatenciesPerClient[client];
+            }
+            Arrays.sort(latencies);
+            return String.format("%10.0f req/s   p50 %8.3f ms   p99 %8.3f ms   p99.9 %8.3f ms   max %8.3f ms   rejected %d   failed %d",
+                    numberOfLatencies / (duration.toNanos() / 1e9), percentile(latencies, 0.5), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), percentile(latencies, 1), rejectedRequests.sum(), failedRequests.sum());
+        }
+    }
+
+    /**
+     * Sends the request headers at once and the body after the delay, so the connection is occupied in between.
+     */
+    private static void sendSlowly(int port, byte[] requestBody, Duration delay) {
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(("POST /sliding-decision?explanationLevel=none HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + "Content-Length: " + requestBody.length + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            Thread.sleep(delay.toMillis());
+            outputStream.write(requestBody);
+            outputStream.flush();
+            socket.getInputStream().readAllBytes(); // until the server closes the connection
+        } catch (IOException exception) {
+            // the load goes on, e.g. after the server closed the connection
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the latency in milliseconds below which the given fraction of the sorted latencies are.
+     */
+    private static double percentile(long[] sortedLatencies, double fraction) {
+        if (sortedLatencies.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(fraction * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1e6;
+    }
+}
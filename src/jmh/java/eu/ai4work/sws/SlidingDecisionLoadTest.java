@@ -0,0 +1,215 @@
+package eu.ai4work.sws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the latency of the sliding decision endpoint at constant arrival rates, to size a deployment and to compare
+ * the latency percentiles of a release with those of the last one.
+ * <p>
+ * The load is open-loop: for each rate of {@code rates} (requests per second), the requests are sent at fixed intervals,
+ * each on its own virtual thread, whether the previous requests have been answered or not, like by many independent
+ * clients. The latency of a request is measured from the time it was due to be sent, so a server (or load generator)
+ * that falls behind shows the full waiting time in the percentiles, instead of hiding it by sending fewer requests
+ * (coordinated omission). The request bodies are drawn from {@code payloads} random inputs of the {@code scenario},
+ * within the ranges of its FCL file (see {@link BenchmarkScenario}), with the fixed {@code seed}.
+ * <p>
+ * After the warm-up of each rate, the latencies of the successful requests due in {@code duration} are recorded in an
+ * HdrHistogram. Per rate, the achieved throughput, the mean number of requests in flight (the concurrency, by Little's
+ * law), the percentiles p50, p99 and p99.9, the rejected ({@code 503 Service Unavailable}) and failed requests and
+ * whether the p99 is within {@code p99Slo} are printed, followed by the highest rate within the SLO. The report is also
+ * written to {@code <reportDirectory>/<scenario>-report.csv}, with the percentile distribution of every rate in
+ * {@code <scenario>-<rate>.hgrm} (in milliseconds), which can be plotted and compared with HdrHistogram's tools.
+ * <p>
+ * Run it with the {@code benchmark} Maven profile, e.g.
+ * {@code mvn -P benchmark verify -DskipTests -Dbenchmark.main=eu.ai4work.sws.SlidingDecisionLoadTest -Dbenchmark.args="scenario=agriculture rates=500,1000,2000"},
+ * all arguments are optional: {@code scenario}, {@code rates} (comma-separated), {@code warmup} and {@code duration}
+ * (ISO-8601 durations, e.g. {@code PT20S}), {@code p99Slo}, {@code explanationLevel}, {@code payloads}, {@code seed}
+ * and {@code reportDirectory}. The application is started on a random port with the Spring profile of the scenario (and
+ * the request execution {@code mode}, if given), unless the {@code url} of a running deployment is given, e.g.
+ * {@code url=http://localhost:8080/scenarios/agriculture/sliding-decision}.
+ */
+public final class SlidingDecisionLoadTest {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private SlidingDecisionLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new HashMap<>();
+        for (String argument : args) {
+            String[] nameAndValue = argument.split("=", 2);
+            arguments.put(nameAndValue[0], nameAndValue.length > 1 ? nameAndValue[1] : "");
+        }
+        BenchmarkScenario scenario = BenchmarkScenario.valueOf(arguments.getOrDefault("scenario", "logistics").toUpperCase());
+        int[] rates = Arrays.stream(arguments.getOrDefault("rates", "250,500,1000,2000,4000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration warmup = Duration.parse(arguments.getOrDefault("warmup", "PT5S"));
+        Duration duration = Duration.parse(arguments.getOrDefault("duration", "PT20S"));
+        Duration p99Slo = Duration.parse(arguments.getOrDefault("p99Slo", "PT0.05S"));
+        String explanationLevel = arguments.getOrDefault("explanationLevel", "none");
+        int numberOfPayloads = Integer.parseInt(arguments.getOrDefault("payloads", "1000"));
+        long seed = Long.parseLong(arguments.getOrDefault("seed", "42"));
+        Path reportDirectory = Path.of(arguments.getOrDefault("reportDirectory", "target/load-test"));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Random random = new Random(seed);
+        byte[][] requestBodies = new byte[numberOfPayloads][];
+        for (int payload = 0; payload < numberOfPayloads; payload++) {
+            requestBodies[payload] = objectMapper.writeValueAsBytes(
+                    Map.of("slidingDecisionInputParameters", scenario.createRandomSlidingDecisionInputParameters(random)));
+        }
+
+        ConfigurableApplicationContext applicationContext = null;
+        String url = arguments.get("url");
+        if (url == null) {
+            List<String> applicationArguments = new ArrayList<>(List.of(
+                    "--spring.profiles.active=" + scenario.name().toLowerCase(),
+                    "--server.port=0",
+                    "--logging.level.eu.ai4work.sws=warn"));
+            if (arguments.containsKey("mode")) {
+                applicationArguments.add("--application-scenario-config.request-execution.mode=" + arguments.get("mode"));
+            }
+            applicationContext = new SpringApplicationBuilder(SlidingWorkSharingApplication.class)
+                    .logStartupInfo(false)
+                    .run(applicationArguments.toArray(String[]::new));
+            url = "http://localhost:" + applicationContext.getEnvironment().getProperty("local.server.port") + "/sliding-decision";
+        }
+        URI uri = URI.create(url + "?explanationLevel=" + explanationLevel);
+
+        List<String> results = new ArrayList<>();
+        List<String> reportLines = new ArrayList<>(List.of(
+                "targetRate,throughput,concurrency,p50Milliseconds,p99Milliseconds,p999Milliseconds,maxMilliseconds,rejected,failed,withinP99Slo"));
+        int highestRateWithinSlo = 0;
+        Files.createDirectories(reportDirectory);
+        try (HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            for (int rate : rates) {
+                RateResult result = runRate(httpClient, uri, requestBodies, rate, warmup, duration);
+                Histogram latencies = result.latencies();
+                boolean withinSlo = latencies.getTotalCount() > 0 && latencies.getValueAtPercentile(99) <= p99Slo.toNanos()
+                        && result.failedRequests() == 0 && result.rejectedRequests() == 0;
+                if (withinSlo) {
+                    highestRateWithinSlo = Math.max(highestRateWithinSlo, rate);
+                }
+                double throughput = latencies.getTotalCount() / (duration.toNanos() / 1e9);
+                double concurrency = latencies.getTotalCount() * latencies.getMean() / duration.toNanos();
+                results.add(String.format("rate %6d req/s   throughput %8.0f req/s   concurrency %7.1f   p50 %8.3f ms   p99 %8.3f ms   p99.9 %8.3f ms   max %8.3f ms   rejected %d   failed %d   %s",
+                        rate, throughput, concurrency, toMilliseconds(latencies.getValueAtPercentile(50)),
+                        toMilliseconds(latencies.getValueAtPercentile(99)), toMilliseconds(latencies.getValueAtPercentile(99.9)),
+                        toMilliseconds(latencies.getMaxValue()), result.rejectedRequests(), result.failedRequests(),
+                        withinSlo ? "within SLO" : "SLO missed"));
+                reportLines.add(String.format("%d,%.1f,%.2f,%.3f,%.3f,%.3f,%.3f,%d,%d,%b", rate, throughput, concurrency,
+                        toMilliseconds(latencies.getValueAtPercentile(50)), toMilliseconds(latencies.getValueAtPercentile(99)),
+                        toMilliseconds(latencies.getValueAtPercentile(99.9)), toMilliseconds(latencies.getMaxValue()),
+                        result.rejectedRequests(), result.failedRequests(), withinSlo));
+                try (PrintStream percentileDistribution = new PrintStream(
+                        Files.newOutputStream(reportDirectory.resolve(scenario.name().toLowerCase() + "-" + rate + ".hgrm")))) {
+                    latencies.outputPercentileDistribution(percentileDistribution, 1e6);
+                }
+            }
+        } finally {
+            if (applicationContext != null) {
+                applicationContext.close();
+            }
+        }
+        Files.write(reportDirectory.resolve(scenario.name().toLowerCase() + "-report.csv"), reportLines);
+
+        System.out.printf("%n%s, %s per rate, %d payloads (seed %d), p99 SLO %s%n",
+                uri, duration, numberOfPayloads, seed, p99Slo);
+        results.forEach(System.out::println);
+        System.out.println(highestRateWithinSlo > 0 ? "Highest rate within the p99 SLO: " + highestRateWithinSlo + " req/s"
+                : "No rate is within the p99 SLO");
+    }
+
+    private static RateResult runRate(HttpClient httpClient, URI uri, byte[][] requestBodies, int rate, Duration warmup,
+                                      Duration duration) {
+        HttpRequest[] requests = new HttpRequest[requestBodies.length];
+        for (int payload = 0; payload < requestBodies.length; payload++) {
+            requests[payload] = HttpRequest.newBuilder(uri)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(requestBodies[payload]))
+                    .build();
+        }
+        ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        LongAdder rejectedRequests = new LongAdder();
+        LongAdder failedRequests = new LongAdder();
+        long intervalNanos = 1_000_000_000L / rate;
+        long startTime = System.nanoTime();
+        long recordingStartTime = startTime + warmup.toNanos();
+        long endTime = recordingStartTime + duration.toNanos();
+
+        try (ExecutorService requestThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long request = 0; ; request++) {
+                long intendedStartTime = startTime + request * intervalNanos;
+                if (intendedStartTime >= endTime) {
+                    break;
+                }
+                long waitingTime = intendedStartTime - System.nanoTime();
+                if (waitingTime > 0) {
+                    LockSupport.parkNanos(waitingTime);
+                }
+                HttpRequest httpRequest = requests[(int) (request % requests.length)];
+                boolean recorded = intendedStartTime >= recordingStartTime;
+                requestThreads.execute(() -> {
+                    int statusCode;
+                    try {
+                        statusCode = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException exception) {
+                        statusCode = -1;
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        statusCode = -1;
+                    }
+                    // from the time the request was due, not from when it was sent
+                    long latency = System.nanoTime() - intendedStartTime;
+                    if (!recorded) {
+                        return;
+                    }
+                    if (statusCode == 503) {
+                        rejectedRequests.increment();
+                    } else if (statusCode != 200) {
+                        failedRequests.increment();
+                    } else {
+                        latencies.recordValue(latency);
+                    }
+                });
+            }
+        } // waits for the requests in flight
+        return new RateResult(latencies, rejectedRequests.sum(), failedRequests.sum());
+    }
+
+    private static double toMilliseconds(long nanoseconds) {
+        return nanoseconds / 1e6;
+    }
+
+    private record RateResult(Histogram latencies, long rejectedRequests, long failedRequests) {
+    }
+}
@@ -0,0 +1,210 @@
+package eu.ai4work.sws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Measures the cold start of the packaged application in separate JVMs: the time from launching the JVM until the
+ * first sliding decision is answered, and the resident set size (RSS) of the JVM right after that decision.
+ * <p>
+ * Each variant launches the application differently: {@code jar} runs the packaged jar, {@code extracted} the jar
+ * extracted by the {@code aot} Maven profile, {@code aot} additionally with the Spring AOT initialization and
+ * {@code aot-cache} additionally with the JDK AOT cache of the training run. Each variant is started with the rules
+ * parsed from the FCL file ({@code fcl}) and built from a precompiled rule set file ({@code precompiled}). Variants
+ * whose artifacts were not built are skipped. Every combination is started once without measuring (which also writes
+ * the precompiled rule set file), then {@code runs} times; the median, minimum and maximum are printed.
+ * <p>
+ * Run it after packaging with the {@code aot} and {@code benchmark} Maven profiles, e.g.
+ * {@code mvn -P aot,benchmark verify -DskipTests -Dbenchmark.main=eu.ai4work.sws.StartupBenchmark -Dbenchmark.args="runs=5"},
+ * all arguments are optional: {@code variants} and {@code ruleSets} (comma-separated, default all), {@code scenario},
+ * {@code runs}, {@code jar} (default the jar in {@code target}) and {@code jvmArgs} (comma-separated, e.g.
+ * {@code -Xmx256m,-XX:+UseSerialGC}). The RSS is only measured on Linux.
+ */
+public final class StartupBenchmark {
+    private static final String[] ALL_VARIANTS = {"jar", "extracted", "aot", "aot-cache"};
+    private static final String[] ALL_RULE_SETS = {"fcl", "precompiled"};
+    private static final Path OUTPUT_DIRECTORY = Path.of("target", "startup-benchmark");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new HashMap<>();
+        for (String argument : args) {
+            String[] nameAndValue = argument.split("=", 2);
+            arguments.put(nameAndValue[0], nameAndValue.length > 1 ? nameAndValue[1] : "");
+        }
+        String[] variants = arguments.getOrDefault("variants", String.join(",", ALL_VARIANTS)).split(",");
+        String[] ruleSets = arguments.getOrDefault("ruleSets", String.join(",", ALL_RULE_SETS)).split(",");
+        BenchmarkScenario scenario = BenchmarkScenario.valueOf(arguments.getOrDefault("scenario", "logistics").toUpperCase());
+        int runs = Integer.parseInt(arguments.getOrDefault("runs", "5"));
+        Path jar = arguments.containsKey("jar") ? Path.of(arguments.get("jar")) : findPackagedJar();
+        List<String> jvmArguments = arguments.containsKey("jvmArgs") ? List.of(arguments.get("jvmArgs").split(",")) : List.of();
+        Files.createDirectories(OUTPUT_DIRECTORY);
+
+        List<String> results = new ArrayList<>();
+        for (String variant : variants) {
+            List<String> launchArguments = getLaunchArguments(variant, jar);
+            if (launchArguments == null) {
+                results.add(String.format("%-12s skipped, its artifacts were not built (run 'mvn -P aot package' first)", variant));
+                continue;
+            }
+            for (String ruleSet : ruleSets) {
+                List<String> command = new ArrayList<>();
+                command.add(ProcessHandle.current().info().command().orElse("java"));
+                command.addAll(jvmArguments);
+                command.addAll(launchArguments);
+                command.add("--spring.profiles.active=" + scenario.name().toLowerCase());
+                command.add("--logging.level.eu.ai4work.sws=warn");
+                if (ruleSet.equals("precompiled")) {
+                    command.add("--application-scenario-config.precompiled-rule-set-file="
+                            + OUTPUT_DIRECTORY.resolve(scenario.name().toLowerCase() + ".swsr"));
+                } else if (!ruleSet.equals("fcl")) {
+                    throw new IllegalArgumentException("Unknown rule set '" + ruleSet + "', use fcl or precompiled");
+                }
+                results.add(String.format("%-12s %-12s %s", variant, ruleSet, measureStartups(command, scenario, runs,
+                        OUTPUT_DIRECTORY.resolve(variant + "-" + ruleSet + ".log").toFile())));
+            }
+        }
+        System.out.printf("%n%s, %d runs per variant, JVM arguments %s%n", scenario, runs, jvmArguments);
+        System.out.printf("%-12s %-12s %s%n", "variant", "rule set", "time to first decision (median, min, max), RSS after it (median), peak RSS (median)");
+        results.forEach(System.out::println);
+    }
+
+    /**
+     * @return the JVM arguments that launch the application in the given variant, or null if its artifacts are missing.
+     */
+    private static List<String> getLaunchArguments(String variant, Path jar) throws IOException {
+        Path extractedJar = jar.resolveSibling("application").resolve(jar.getFileName());
+        Path aotCache = extractedJar.resolveSibling(jar.getFileName().toString().replaceFirst("\\.jar$", ".aot"));
+        return switch (variant) {
+            case "jar" -> List.of("-jar", jar.toString());
+            case "extracted" -> Files.exists(extractedJar) ? List.of("-jar", extractedJar.toString()) : null;
+            case "aot" -> Files.exists(extractedJar) && isAotProcessed(jar)
+                    ? List.of("-Dspring.aot.enabled=true", "-jar", extractedJar.toString()) : null;
+            case "aot-cache" -> Files.exists(aotCache) && isAotProcessed(jar)
+                    ? List.of("-XX:AOTCache=" + aotCache, "-Dspring.aot.enabled=true", "-jar", extractedJar.toString()) : null;
+            default -> throw new IllegalArgumentException("Unknown variant '" + variant + "', use one of " + Arrays.toString(ALL_VARIANTS));
+        };
+    }
+
+    private static boolean isAotProcessed(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            return jarFile.getEntry("BOOT-INF/classes/eu/ai4work/sws/SlidingWorkSharingApplication__ApplicationContextInitializer.class") != null;
+        }
+    }
+
+    private static Path findPackagedJar() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("target"))) {
+            return files.filter(file -> file.getFileName().toString().matches("sliding-work-sharing-.*\\.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No packaged jar in target, run 'mvn package' first or pass jar=<path>"));
+        }
+    }
+
+    private static String measureStartups(List<String> command, BenchmarkScenario scenario, int runs, File logFile) throws Exception {
+        byte[] requestBody = new ObjectMapper().writeValueAsBytes(Map.of("slidingDecisionInputParameters", scenario.getSlidingDecisionInputParameters()));
+        measureStartup(command, requestBody, logFile); // not measured, e.g. to fill the page cache and write the precompiled rule set
+        long[] timesToFirstDecision = new long[runs];
+        long[] residentSetSizes = new long[runs];
+        long[] peakResidentSetSizes = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long[] measurement = measureStartup(command, requestBody, logFile);
+            timesToFirstDecision[run] = measurement[0];
+            residentSetSizes[run] = measurement[1];
+            peakResidentSetSizes[run] = measurement[2];
+        }
+        Arrays.sort(timesToFirstDecision);
+        Arrays.sort(residentSetSizes);
+        Arrays.sort(peakResidentSetSizes);
+        return String.format("%8.0f ms %8.0f ms %8.0f ms   %s   %s", timesToFirstDecision[runs / 2] / 1e6,
+                timesToFirstDecision[0] / 1e6, timesToFirstDecision[runs - 1] / 1e6,
+                formatResidentSetSize(residentSetSizes[runs / 2]), formatResidentSetSize(peakResidentSetSizes[runs / 2]));
+    }
+
+    private static String formatResidentSetSize(long kilobytes) {
+        return kilobytes < 0 ? "     n/a" : String.format("%8.1f MB", kilobytes / 1024.0);
+    }
+
+    /**
+     * Launches the application, sends the sliding decision request until it is answered and stops the application.
+     *
+     * @return the nanoseconds until the first decision, and the current and peak RSS in kB after it (-1 if unknown).
+     */
+    private static long[] measureStartup(List<String> command, byte[] requestBody, File logFile) throws Exception {
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        List<String> commandOnPort = new ArrayList<>(command);
+        commandOnPort.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/sliding-decision?explanationLevel=none"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody))
+                .build();
+
+        try (HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            long startTime = System.nanoTime();
+            Process process = new ProcessBuilder(commandOnPort).redirectErrorStream(true).redirectOutput(logFile).start();
+            try {
+                while (true) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("The application exited with " + process.exitValue() + ", see " + logFile);
+                    }
+                    if (System.nanoTime() - startTime > STARTUP_TIMEOUT.toNanos()) {
+                        throw new IllegalStateException("No sliding decision within " + STARTUP_TIMEOUT + ", see " + logFile);
+                    }
+                    try {
+                        if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                            long timeToFirstDecision = System.nanoTime() - startTime;
+                            return new long[]{timeToFirstDecision, readStatusValue(process.pid(), "VmRSS"), readStatusValue(process.pid(), "VmHWM")};
+                        }
+                    } catch (IOException exception) {
+                        // not listening yet
+                    }
+                    Thread.sleep(POLL_INTERVAL.toMillis());
+                }
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the value in kB of a line of {@code /proc/<pid>/status}, e.g. {@code VmRSS}, or -1 if not on Linux.
+     */
+    private static long readStatusValue(long pid, String name) {
+        try (Stream<String> lines = Files.lines(Path.of("/proc", Long.toString(pid), "status"))) {
+            return lines.filter(line -> line.startsWith(name + ":"))
+                    .map(line -> line.substring(name.length() + 1).trim().split("\\s+")[0])
+                    .mapToLong(Long::parseLong)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException exception) {
+            return -1;
+        }
+    }
+}
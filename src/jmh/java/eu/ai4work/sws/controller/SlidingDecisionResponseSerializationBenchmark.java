@@ -0,0 +1,113 @@
+package eu.ai4work.sws.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ai4work.sws.BenchmarkScenario;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.model.SlidingDecisionResponse;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import eu.ai4work.sws.service.SlidingDecisionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JSON serialization of a sliding decision with the application's Jackson configuration: as an object
+ * tree of a {@link SlidingDecisionResponse}, like before, and directly with the {@link SlidingDecisionJsonWriter}. The
+ * {@code evaluateAnd...} benchmarks include the evaluation, where the writer reads the decisions of the compiled rule
+ * engine straight from its working memory. Run with {@code -prof gc} to compare the allocations per response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SlidingDecisionResponseSerializationBenchmark {
+    @Param
+    public BenchmarkScenario scenario;
+
+    @Param({"jfuzzylogic", "compiled"})
+    public String ruleEngine;
+
+    private ConfigurableApplicationContext applicationContext;
+    private ObjectMapper objectMapper;
+    private SlidingDecisionService slidingDecisionService;
+    private SlidingDecisionResponseMapper slidingDecisionResponseMapper;
+    private SlidingDecisionJsonWriter slidingDecisionJsonWriter;
+    private Scenario defaultScenario;
+    private RuleSet ruleSet;
+    private Map<String, Object> slidingDecisionInputParameters;
+    private SlidingDecision slidingDecision;
+    private SlidingDecisionResponse slidingDecisionResponse;
+
+    @Setup(Level.Trial)
+    public void createSlidingDecisionResponse() {
+        applicationContext = scenario.startApplication(ruleEngine);
+        objectMapper = applicationContext.getBean(ObjectMapper.class);
+        slidingDecisionService = applicationContext.getBean(SlidingDecisionService.class);
+        slidingDecisionResponseMapper = applicationContext.getBean(SlidingDecisionResponseMapper.class);
+        slidingDecisionJsonWriter = applicationContext.getBean(SlidingDecisionJsonWriter.class);
+        defaultScenario = applicationContext.getBean(ScenarioRegistry.class).getDefaultScenario();
+        ruleSet = defaultScenario.getActiveRuleSet().get();
+        slidingDecisionInputParameters = scenario.getSlidingDecisionInputParameters();
+        slidingDecision = slidingDecisionService.getSlidingDecision(defaultScenario, slidingDecisionInputParameters, ExplanationLevel.FULL);
+        slidingDecisionResponse = slidingDecisionResponseMapper.createResponse(defaultScenario, slidingDecision);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] serializeSlidingDecisionResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(slidingDecisionResponse);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] serializeSlidingDecisionResponseMultiThreaded() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(slidingDecisionResponse);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] writeSlidingDecision() {
+        return slidingDecisionJsonWriter.handleSlidingDecision(ruleSet, slidingDecision);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] evaluateAndSerializeSlidingDecisionResponse() throws JsonProcessingException {
+        SlidingDecision evaluatedSlidingDecision = slidingDecisionService.getSlidingDecision(defaultScenario, slidingDecisionInputParameters,
+                ExplanationLevel.FULL);
+        return objectMapper.writeValueAsBytes(slidingDecisionResponseMapper.createResponse(defaultScenario, evaluatedSlidingDecision));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] evaluateAndWriteSlidingDecision() {
+        return slidingDecisionService.getSlidingDecision(defaultScenario, slidingDecisionInputParameters, ExplanationLevel.FULL,
+                slidingDecisionJsonWriter);
+    }
+}
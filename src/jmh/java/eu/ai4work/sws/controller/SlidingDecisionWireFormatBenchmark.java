@@ -0,0 +1,104 @@
+package eu.ai4work.sws.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ai4work.sws.BenchmarkScenario;
+import eu.ai4work.sws.engine.DecisionVectorSchema;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.model.SlidingDecisionRequest;
+import eu.ai4work.sws.model.SlidingDecisionResponse;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import eu.ai4work.sws.service.SlidingDecisionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of the wire formats of a single sliding decision without explanation: reading the JSON request
+ * and writing the JSON response, versus reading the input vector and writing the decision vector of the
+ * {@link DecisionVectorSchema}. The evaluation itself is the same for both and not measured. The payload sizes of both
+ * formats are printed once per scenario.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Thread)
+public class SlidingDecisionWireFormatBenchmark {
+    @Param
+    public BenchmarkScenario scenario;
+
+    private ConfigurableApplicationContext applicationContext;
+    private ObjectMapper objectMapper;
+    private SlidingDecisionResponseMapper slidingDecisionResponseMapper;
+    private Scenario defaultScenario;
+    private DecisionVectorSchema decisionVectorSchema;
+    private SlidingDecision slidingDecision;
+    private byte[] jsonRequest;
+    private byte[] inputVector;
+    private double[] inputValues;
+
+    @Setup(Level.Trial)
+    public void createRequests() throws IOException {
+        applicationContext = scenario.startApplication("jfuzzylogic");
+        objectMapper = applicationContext.getBean(ObjectMapper.class);
+        slidingDecisionResponseMapper = applicationContext.getBean(SlidingDecisionResponseMapper.class);
+        defaultScenario = applicationContext.getBean(ScenarioRegistry.class).getDefaultScenario();
+        RuleSet ruleSet = defaultScenario.getActiveRuleSet().get();
+        decisionVectorSchema = ruleSet.getDecisionVectorSchema();
+        slidingDecision = applicationContext.getBean(SlidingDecisionService.class)
+                .getSlidingDecision(defaultScenario, scenario.getSlidingDecisionInputParameters(), ExplanationLevel.NONE);
+
+        SlidingDecisionRequest slidingDecisionRequest = new SlidingDecisionRequest();
+        slidingDecisionRequest.setSlidingDecisionInputParameters(scenario.getSlidingDecisionInputParameters());
+        jsonRequest = objectMapper.writeValueAsBytes(slidingDecisionRequest);
+        ByteBuffer inputBuffer = ByteBuffer.allocate(decisionVectorSchema.getInputVariableNames().size() * Double.BYTES);
+        for (String inputVariableName : decisionVectorSchema.getInputVariableNames()) {
+            inputBuffer.putDouble(((Number) scenario.getSlidingDecisionInputParameters().get(inputVariableName)).doubleValue());
+        }
+        inputVector = inputBuffer.array();
+        inputValues = new double[decisionVectorSchema.getInputVariableNames().size()];
+
+        System.out.printf("%n%s: JSON request %d bytes, response %d bytes; decision vector request %d bytes, response %d bytes%n",
+                scenario, jsonRequest.length, jsonRoundTrip().length, inputVector.length, decisionVectorRoundTrip().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public byte[] jsonRoundTrip() throws IOException {
+        SlidingDecisionRequest slidingDecisionRequest = objectMapper.readValue(jsonRequest, SlidingDecisionRequest.class);
+        if (slidingDecisionRequest.getSlidingDecisionInputParameters().isEmpty()) {
+            throw new IllegalStateException("The request has no input parameters");
+        }
+        SlidingDecisionResponse slidingDecisionResponse = slidingDecisionResponseMapper.createResponse(defaultScenario, slidingDecision);
+        return objectMapper.writeValueAsBytes(slidingDecisionResponse);
+    }
+
+    @Benchmark
+    public byte[] decisionVectorRoundTrip() {
+        decisionVectorSchema.readInputVector(inputVector, inputValues);
+        return decisionVectorSchema.writeDecisionVector(slidingDecision.getDecisionResultPerOutputParameter());
+    }
+}
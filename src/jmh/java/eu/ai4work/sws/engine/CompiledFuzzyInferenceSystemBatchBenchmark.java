@@ -0,0 +1,100 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.BenchmarkScenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluating a sweep of input combinations row by row (one {@link CompiledEvaluationState} evaluation per
+ * row, the fastest way before batches) with {@link CompiledFuzzyInferenceSystem#evaluateBatch}, on one thread and on
+ * all processors. The input values are random, between zero and twice the example input of the scenario.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class CompiledFuzzyInferenceSystemBatchBenchmark {
+    @Param
+    public BenchmarkScenario scenario;
+
+    @Param({"1000000"})
+    public int numberOfRows;
+
+    private ConfigurableApplicationContext applicationContext;
+    private CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem;
+    private CompiledEvaluationState evaluationState;
+    private ForkJoinPool singleThreadPool;
+    private double[][] inputColumns;
+
+    @Setup(Level.Trial)
+    public void createInputColumns() {
+        applicationContext = scenario.startApplication("compiled");
+        compiledFuzzyInferenceSystem = applicationContext.getBean(ScenarioRegistry.class).getDefaultScenario()
+                .getActiveRuleSet().get().getCompiledFuzzyInferenceSystem().orElseThrow();
+        evaluationState = compiledFuzzyInferenceSystem.newEvaluationState();
+        singleThreadPool = new ForkJoinPool(1);
+
+        Random random = new Random(42);
+        inputColumns = new double[compiledFuzzyInferenceSystem.getNumberOfInputVariables()][numberOfRows];
+        for (int inputVariable = 0; inputVariable < inputColumns.length; inputVariable++) {
+            double exampleValue = ((Number) scenario.getSlidingDecisionInputParameters()
+                    .get(compiledFuzzyInferenceSystem.getInputVariableName(inputVariable))).doubleValue();
+            for (int row = 0; row < numberOfRows; row++) {
+                inputColumns[inputVariable][row] = random.nextDouble() * 2 * exampleValue;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        singleThreadPool.close();
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public int[][] rowByRow() {
+        double[][] outputValues = new double[compiledFuzzyInferenceSystem.getNumberOfOutputVariables()][numberOfRows];
+        int[][] winningOutputTerms = new int[outputValues.length][numberOfRows];
+        for (int row = 0; row < numberOfRows; row++) {
+            for (int inputVariable = 0; inputVariable < inputColumns.length; inputVariable++) {
+                evaluationState.setInputValue(inputVariable, inputColumns[inputVariable][row]);
+            }
+            compiledFuzzyInferenceSystem.evaluate(evaluationState);
+            for (int outputVariable = 0; outputVariable < outputValues.length; outputVariable++) {
+                double outputValue = evaluationState.getOutputValue(outputVariable);
+                outputValues[outputVariable][row] = outputValue;
+                winningOutputTerms[outputVariable][row] = compiledFuzzyInferenceSystem.getWinningOutputTerm(outputVariable, outputValue);
+            }
+        }
+        return winningOutputTerms;
+    }
+
+    @Benchmark
+    public BatchEvaluationResult batchSingleThreaded() {
+        return compiledFuzzyInferenceSystem.evaluateBatch(inputColumns, singleThreadPool);
+    }
+
+    @Benchmark
+    public BatchEvaluationResult batchParallel() {
+        return compiledFuzzyInferenceSystem.evaluateBatch(inputColumns);
+    }
+}
@@ -0,0 +1,197 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.BenchmarkScenario;
+import eu.ai4work.sws.config.RuleSetFactory;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.RuleExplanation;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.model.VariableExplanation;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks the stages of the rule evaluation: the complete {@link RuleEngineService#applySlidingDecisionRules(Map, ExplanationLevel)},
+ * the plain {@link FIS#evaluate()} and the explanation building. Each stage is measured single-threaded and with
+ * one thread per available processor, so the two throughputs show how the evaluation scales with the number of threads.
+ * The complete evaluation is also measured with random inputs that differ per thread, like concurrent requests do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RuleEngineServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ApplicationState {
+        @Param
+        public BenchmarkScenario scenario;
+
+        @Param({"jfuzzylogic"})
+        public String ruleEngine;
+
+        @Param({"FULL"})
+        public ExplanationLevel explanationLevel;
+
+        ConfigurableApplicationContext applicationContext;
+        RuleEngineService ruleEngineService;
+        RuleExplanationTexts ruleExplanationTexts;
+
+        @Setup(Level.Trial)
+        public void startApplication() {
+            applicationContext = scenario.startApplication(ruleEngine);
+            ruleEngineService = applicationContext.getBean(RuleEngineService.class);
+            ruleExplanationTexts = applicationContext.getBean(ScenarioRegistry.class).getDefaultScenario().getActiveRuleSet().get().getRuleExplanationTexts();
+        }
+
+        @TearDown(Level.Trial)
+        public void stopApplication() {
+            applicationContext.close();
+        }
+    }
+
+    /**
+     * Random inputs of the scenario, walked through by each benchmark thread from a different seed.
+     */
+    @State(Scope.Thread)
+    public static class VaryingInputState {
+        private static final int NUMBER_OF_INPUTS = 1_000;
+        private static final AtomicLong seeds = new AtomicLong(42);
+
+        List<Map<String, Object>> slidingDecisionInputParameters;
+        int nextInput;
+
+        @Setup(Level.Trial)
+        public void createInputs(ApplicationState applicationState) {
+            Random random = new Random(seeds.getAndIncrement());
+            slidingDecisionInputParameters = new ArrayList<>(NUMBER_OF_INPUTS);
+            for (int input = 0; input < NUMBER_OF_INPUTS; input++) {
+                slidingDecisionInputParameters.add(applicationState.scenario.createRandomSlidingDecisionInputParameters(random));
+            }
+        }
+
+        Map<String, Object> nextSlidingDecisionInputParameters() {
+            Map<String, Object> inputParameters = slidingDecisionInputParameters.get(nextInput);
+            nextInput = (nextInput + 1) % slidingDecisionInputParameters.size();
+            return inputParameters;
+        }
+    }
+
+    /**
+     * A FIS per benchmark thread, evaluated once with the scenario input so that it can be explained.
+     */
+    @State(Scope.Thread)
+    public static class FuzzyInferenceSystemState {
+        FIS fuzzyInferenceSystem;
+        FunctionBlock functionBlock;
+
+        @Setup(Level.Trial)
+        public void parseFuzzyInferenceSystem(ApplicationState applicationState) throws IOException {
+            byte[] fclRulesSource = RuleSetFactory.readFclRulesSource(
+                    applicationState.applicationContext.getBean(ScenarioRegistry.class).getDefaultScenario().getFclRulesFilePath());
+            fuzzyInferenceSystem = FIS.load(new ByteArrayInputStream(fclRulesSource), false);
+            functionBlock = fuzzyInferenceSystem.getFunctionBlock(null);
+            applicationState.scenario.getSlidingDecisionInputParameters().forEach((parameterName, parameterValue) ->
+                    fuzzyInferenceSystem.getVariable(parameterName).setValue(((Number) parameterValue).doubleValue()));
+            fuzzyInferenceSystem.evaluate();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public SlidingDecision applySlidingDecisionRules(ApplicationState applicationState) {
+        return applySlidingDecisionRulesOf(applicationState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public SlidingDecision applySlidingDecisionRulesMultiThreaded(ApplicationState applicationState) {
+        return applySlidingDecisionRulesOf(applicationState);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public SlidingDecision applySlidingDecisionRulesOfVaryingInputs(ApplicationState applicationState, VaryingInputState varyingInputState) {
+        return applicationState.ruleEngineService.applySlidingDecisionRules(
+                varyingInputState.nextSlidingDecisionInputParameters(), applicationState.explanationLevel);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public SlidingDecision applySlidingDecisionRulesOfVaryingInputsMultiThreaded(ApplicationState applicationState,
+                                                                                 VaryingInputState varyingInputState) {
+        return applicationState.ruleEngineService.applySlidingDecisionRules(
+                varyingInputState.nextSlidingDecisionInputParameters(), applicationState.explanationLevel);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public FIS evaluateFuzzyInferenceSystem(FuzzyInferenceSystemState fuzzyInferenceSystemState) {
+        return evaluate(fuzzyInferenceSystemState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public FIS evaluateFuzzyInferenceSystemMultiThreaded(FuzzyInferenceSystemState fuzzyInferenceSystemState) {
+        return evaluate(fuzzyInferenceSystemState);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<RuleExplanation> getAppliedRules(ApplicationState applicationState, FuzzyInferenceSystemState fuzzyInferenceSystemState) {
+        return applicationState.ruleEngineService.getAppliedRules(applicationState.ruleExplanationTexts, fuzzyInferenceSystemState.functionBlock);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<RuleExplanation> getAppliedRulesMultiThreaded(ApplicationState applicationState, FuzzyInferenceSystemState fuzzyInferenceSystemState) {
+        return applicationState.ruleEngineService.getAppliedRules(applicationState.ruleExplanationTexts, fuzzyInferenceSystemState.functionBlock);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Map<String, VariableExplanation> extractFuzzyVariableExplanation(ApplicationState applicationState, FuzzyInferenceSystemState fuzzyInferenceSystemState) {
+        return applicationState.ruleEngineService.extractFuzzyVariableExplanation(fuzzyInferenceSystemState.functionBlock, Variable::isInput);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Map<String, VariableExplanation> extractFuzzyVariableExplanationMultiThreaded(ApplicationState applicationState, FuzzyInferenceSystemState fuzzyInferenceSystemState) {
+        return applicationState.ruleEngineService.extractFuzzyVariableExplanation(fuzzyInferenceSystemState.functionBlock, Variable::isInput);
+    }
+
+    private static SlidingDecision applySlidingDecisionRulesOf(ApplicationState applicationState) {
+        return applicationState.ruleEngineService.applySlidingDecisionRules(
+                applicationState.scenario.getSlidingDecisionInputParameters(), applicationState.explanationLevel);
+    }
+
+    private static FIS evaluate(FuzzyInferenceSystemState fuzzyInferenceSystemState) {
+        fuzzyInferenceSystemState.fuzzyInferenceSystem.evaluate();
+        return fuzzyInferenceSystemState.fuzzyInferenceSystem;
+    }
+}
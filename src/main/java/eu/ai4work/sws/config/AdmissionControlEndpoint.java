@@ -0,0 +1,31 @@
+package eu.ai4work.sws.config;
+
+import eu.ai4work.sws.controller.ClientRateLimitInterceptor;
+import eu.ai4work.sws.controller.SlidingDecisionRequestExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Reports the admission control at the actuator {@code /actuator/admission} endpoint: the rejected requests per limit,
+ * the current adaptive concurrency limit, and the clients with the most rate limited requests, to find a misbehaving
+ * client without a metric per client.
+ */
+@Component
+@Endpoint(id = "admission")
+@RequiredArgsConstructor
+public class AdmissionControlEndpoint {
+    private static final int NUMBER_OF_TOP_CLIENTS = 10;
+    private final ClientRateLimitInterceptor clientRateLimitInterceptor;
+    private final SlidingDecisionRequestExecutor slidingDecisionRequestExecutor;
+
+    @ReadOperation
+    public Map<String, Object> admissionStatistics() {
+        return Map.of(
+                "clientRateLimit", clientRateLimitInterceptor.getStatistics(NUMBER_OF_TOP_CLIENTS),
+                "concurrencyLimit", slidingDecisionRequestExecutor.getConcurrencyLimitStatistics());
+    }
+}
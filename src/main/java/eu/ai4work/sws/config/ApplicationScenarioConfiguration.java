@@ -3,13 +3,428 @@ package eu.ai4work.sws.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "application-scenario-config")
 public class ApplicationScenarioConfiguration {
+    /**
+     * The FCL file of the default scenario, which is served at the endpoints without scenario name. Optional if
+     * {@link #scenarios} are configured.
+     */
     private String fclRulesFilePath;
+    /**
+     * Whether a changed FCL file on the file system is loaded and activated without restarting the application.
+     */
+    private boolean reloadFclRulesFileOnChange = false;
     private Map<String, String> decisionResultsDescription;
+    /**
+     * Number of independently parsed FIS instances that can evaluate requests in parallel.
+     * Defaults to the number of available processors.
+     */
+    private int fuzzyInferenceSystemPoolSize = Runtime.getRuntime().availableProcessors();
+    /**
+     * The engine that evaluates the sliding decision rules.
+     */
+    private RuleEngine ruleEngine = RuleEngine.JFUZZYLOGIC;
+    /**
+     * Whether the independent function blocks of an FCL file with several function blocks are evaluated concurrently
+     * on the common fork-join pool. Function blocks that depend on the output variables of others are always evaluated
+     * after them.
+     */
+    private boolean evaluateFunctionBlocksConcurrently = true;
+    /**
+     * Number of input parameter sets of a batch request that are evaluated in parallel before their results are
+     * written to the response.
+     */
+    private int batchEvaluationChunkSize = 256;
+    /**
+     * Whether input values outside the universe of their input variable (the range covered by its linguistic terms)
+     * are rejected as invalid, disabled by default. Values that are not finite numbers are always rejected.
+     */
+    private boolean rejectInputValuesOutsideUniverse = false;
+    /**
+     * How single sliding decision requests are executed, and when they are rejected because of overload.
+     */
+    private RequestExecution requestExecution = new RequestExecution();
+    /**
+     * Which sliding decision requests are admitted, per client and in total, before they are executed.
+     */
+    private AdmissionControl admissionControl = new AdmissionControl();
+    /**
+     * The WebSocket streams of sliding decisions.
+     */
+    private DecisionStream decisionStream = new DecisionStream();
+    /**
+     * The stateful decision sessions, which re-evaluate only what depends on the changed input values.
+     */
+    private DecisionSessions decisionSessions = new DecisionSessions();
+    /**
+     * The optional cache of sliding decisions in front of the rule engine.
+     */
+    private DecisionCache decisionCache = new DecisionCache();
+    /**
+     * The optional precomputed decision lookup table.
+     */
+    private LookupTable lookupTable = new LookupTable();
+    /**
+     * The audit log of all sliding decisions of all scenarios.
+     */
+    private AuditLog auditLog = new AuditLog();
+    /**
+     * The cluster of application nodes that share the scenarios and agree on their rule sets.
+     */
+    private Cluster cluster = new Cluster();
+    /**
+     * Optional precompiled rule set file of the default scenario, see {@link ScenarioConfiguration#precompiledRuleSetFile}.
+     */
+    private String precompiledRuleSetFile;
+    /**
+     * Defuzzification per output variable of the default scenario, see {@link ScenarioConfiguration#defuzzification}.
+     */
+    private Map<String, String> defuzzification = new HashMap<>();
+    /**
+     * Further application scenarios by name, each served at {@code /scenarios/{name}/sliding-decision} with its own
+     * rule set. The default scenario is also available as {@code /scenarios/default/sliding-decision}.
+     */
+    private Map<String, ScenarioConfiguration> scenarios = new LinkedHashMap<>();
+
+    public enum RuleEngine {
+        /**
+         * Evaluates the rules with the jFuzzyLogic library, using the pool of FIS instances.
+         */
+        JFUZZYLOGIC,
+        /**
+         * Evaluates the rules with the compiled, allocation-free evaluator. Only available for rule sets that can be
+         * compiled, otherwise the application does not start.
+         */
+        COMPILED
+    }
+
+    /**
+     * The configuration of a named scenario. The rule engine, the pool size and the reloading of changed FCL files are
+     * configured once for all scenarios.
+     */
+    @Data
+    public static class ScenarioConfiguration {
+        private String fclRulesFilePath;
+        private Map<String, String> decisionResultsDescription = new HashMap<>();
+        private DecisionCache decisionCache = new DecisionCache();
+        private LookupTable lookupTable = new LookupTable();
+        /**
+         * Defuzzification per output variable as {@code method} or {@code method:resolution}, e.g.
+         * {@code suggestedApproach: "COG:100"}. The method (COG, COGS, COA, MM, LM or RM) replaces the one of the FCL
+         * file, and the resolution is the number of points at which the universe of the output variable is sampled by
+         * jFuzzyLogic. Output variables without an entry are defuzzified as defined in the FCL file.
+         */
+        private Map<String, String> defuzzification = new HashMap<>();
+        /**
+         * Optional file of the rule set in a precompiled binary form, from which the FIS instances are built without
+         * parsing the FCL file. It is read if it was precompiled from the same FCL file, otherwise it is (re)written at
+         * startup.
+         */
+        private String precompiledRuleSetFile;
+    }
+
+    @Data
+    public static class DecisionCache {
+        /**
+         * Whether sliding decisions are cached, disabled by default.
+         */
+        private boolean enabled = false;
+        /**
+         * Maximum number of cached sliding decisions, the least recently used are evicted first.
+         */
+        private long maximumSize = 10_000;
+        /**
+         * Quantization step per input variable, e.g. {@code materialUrgency: 5}. Values are rounded to the nearest
+         * multiple of the step before the decision is looked up (and evaluated on a cache miss), so all values of a step
+         * share one cache entry. Input variables without a step are cached by their exact value.
+         */
+        private Map<String, Double> quantization = new HashMap<>();
+    }
+
+    @Data
+    public static class RequestExecution {
+        /**
+         * The threads that receive and evaluate single sliding decision requests.
+         */
+        private Mode mode = Mode.PLATFORM_THREADS;
+        /**
+         * Number of requests that are evaluated at the same time in the modes {@code VIRTUAL_THREADS} and
+         * {@code EVALUATION_EXECUTOR}. Defaults to the number of available processors.
+         */
+        private int evaluationThreads = Runtime.getRuntime().availableProcessors();
+        /**
+         * Number of requests that wait for one of the {@link #evaluationThreads} in the modes {@code VIRTUAL_THREADS}
+         * and {@code EVALUATION_EXECUTOR}. Further requests are rejected at once with {@code 503 Service Unavailable},
+         * instead of waiting until they time out.
+         */
+        private int maximumQueuedRequests = 1_000;
+
+        public enum Mode {
+            /**
+             * Requests are received and evaluated on the platform threads of the web server (Tomcat's thread pool), which
+             * alone limits them.
+             */
+            PLATFORM_THREADS,
+            /**
+             * Every request is received and evaluated on its own virtual thread, so slow clients and waiting requests do
+             * not block platform threads.
+             */
+            VIRTUAL_THREADS,
+            /**
+             * Requests are received on the platform threads of the web server and handed over to a bounded executor with
+             * {@link #evaluationThreads} platform threads, which releases the web server thread while they wait.
+             */
+            EVALUATION_EXECUTOR
+        }
+    }
+
+    @Data
+    public static class DecisionStream {
+        /**
+         * Number of received input parameter sets per connection that wait for their evaluation.
+         */
+        private int maximumPendingInputs = 1;
+        /**
+         * What happens to an input parameter set that is received while {@link #maximumPendingInputs} are waiting.
+         */
+        private OverflowStrategy overflowStrategy = OverflowStrategy.DROP_OLDEST;
+        /**
+         * Number of threads that evaluate the input parameter sets of all connections.
+         */
+        private int evaluationThreads = Runtime.getRuntime().availableProcessors();
+        /**
+         * A connection is closed if sending a decision takes longer than this, or if more than
+         * {@link #sendBufferSizeLimit} bytes wait to be sent to a slow client.
+         */
+        private Duration sendTimeLimit = Duration.ofSeconds(10);
+        private int sendBufferSizeLimit = 512 * 1024;
+
+        public enum OverflowStrategy {
+            /**
+             * The oldest waiting input parameter set is dropped, so a burst is coalesced into its latest input.
+             */
+            DROP_OLDEST,
+            /**
+             * No further messages are read from the connection until an input parameter set was evaluated, which slows
+             * down the client.
+             */
+            BLOCK
+        }
+    }
+
+    @Data
+    public static class DecisionSessions {
+        /**
+         * Whether decision sessions are available, disabled by default. They are evaluated by the compiled evaluator
+         * (whatever the configured {@code rule-engine} is), so the application does not start if a rule set cannot be
+         * compiled.
+         */
+        private boolean enabled = false;
+        /**
+         * Maximum number of open sessions, the least recently used are closed first.
+         */
+        private long maximumSessions = 10_000;
+        /**
+         * Sessions that are not used for this long are closed.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class LookupTable {
+        /**
+         * Whether requests without explanation ({@code explanationLevel=none}) are answered from a precomputed table
+         * instead of evaluating the rules, disabled by default.
+         */
+        private boolean enabled = false;
+        /**
+         * Grid per input variable as {@code minimum:maximum:step}, e.g. {@code numberOfTrucksInQueue: "0:20:1"}.
+         */
+        private Map<String, String> grid = new HashMap<>();
+        /**
+         * Number of grid points over the universe of input variables without a configured grid.
+         */
+        private int defaultNumberOfGridPoints = 21;
+        /**
+         * Whether the output values are interpolated between grid points, otherwise the nearest grid point is used.
+         */
+        private boolean interpolate = true;
+        /**
+         * The application does not start if the output values of the table deviate more than this from the rule
+         * evaluation, at any of the {@code deviationSamples} random points.
+         */
+        private double maximumDeviation = 0.05;
+        private int deviationSamples = 10_000;
+        /**
+         * Optional table file. It is memory-mapped if it was built for the same FCL file and grid, otherwise it is
+         * (re)built and written at startup.
+         */
+        private String file;
+    }
+
+    @Data
+    public static class AuditLog {
+        /**
+         * Whether every sliding decision is recorded with its input values, decided terms and fired rules, disabled by
+         * default.
+         */
+        private boolean enabled = false;
+        /**
+         * The directory of the segment files.
+         */
+        private String directory = "audit";
+        /**
+         * Number of decisions that wait in memory until the writer thread appends them to the current segment, rounded
+         * up to a power of two.
+         */
+        private int ringBufferCapacity = 65_536;
+        /**
+         * What happens to a decision when {@link #ringBufferCapacity} decisions are waiting.
+         */
+        private OverflowStrategy overflowStrategy = OverflowStrategy.BLOCK;
+        /**
+         * The size of a segment file, a new segment is started when it is full.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        /**
+         * A new segment is started when the current one is older than this, so a query of a time window only has to
+         * scan the segments of that window.
+         */
+        private Duration segmentDuration = Duration.ofHours(1);
+        /**
+         * Segments that ended longer than this ago are deleted.
+         */
+        private Duration retention = Duration.ofDays(30);
+        /**
+         * The written decisions are forced to the segment file at this interval. Decisions that are not forced yet
+         * survive a crash of the application, but not of the operating system.
+         */
+        private Duration forceInterval = Duration.ofSeconds(1);
+
+        public enum OverflowStrategy {
+            /**
+             * The request waits until the writer thread has made room, so no decision is missing in the audit log.
+             */
+            BLOCK,
+            /**
+             * The decision is not recorded and counted in the {@code sliding.decision.audit.dropped} metric, so a
+             * slow disk never delays the requests.
+             */
+            DROP
+        }
+    }
+
+    @Data
+    public static class AdmissionControl {
+        /**
+         * The request header that identifies the client, not set by default, so every client is identified by its
+         * remote address. Only set it if the header is set by a trusted proxy or API gateway, which overwrites the
+         * value sent by the client, since a client that chooses its own id can make up a new one for every request.
+         * Requests without it are identified by their remote address.
+         */
+        private String clientIdHeader;
+        private ClientRateLimit clientRateLimit = new ClientRateLimit();
+        private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+    }
+
+    /**
+     * A token bucket per client: every request takes a token, and tokens are refilled at a constant rate up to the
+     * burst size. Requests without a token are rejected with {@code 429 Too Many Requests}.
+     */
+    @Data
+    public static class ClientRateLimit {
+        /**
+         * Whether the requests of every client are limited, disabled by default.
+         */
+        private boolean enabled = false;
+        /**
+         * The sustained number of requests per second of one client.
+         */
+        private double requestsPerSecond = 100;
+        /**
+         * The number of requests a client can send at once after it was idle, i.e. the size of its bucket.
+         */
+        private int burst = 200;
+        /**
+         * Number of clients whose buckets are kept. The buckets that are full again expire, since a new bucket starts
+         * full anyway; while all buckets are taken, the other clients share one bucket.
+         */
+        private int maximumTrackedClients = 10_000;
+    }
+
+    /**
+     * A limit of the requests of all clients that are evaluated or waiting at the same time, which adapts to the
+     * latency: it grows while the latency stays near its long-term average, and shrinks when requests start to
+     * queue up. Requests beyond the limit are rejected with {@code 503 Service Unavailable}.
+     */
+    @Data
+    public static class ConcurrencyLimit {
+        /**
+         * Whether the requests of all clients are limited by the adaptive limit, disabled by default.
+         */
+        private boolean enabled = false;
+        private int initialLimit = 4 * Runtime.getRuntime().availableProcessors();
+        /**
+         * The limit never drops below this. Defaults to the number of available processors.
+         */
+        private int minimumLimit = Runtime.getRuntime().availableProcessors();
+        private int maximumLimit = 1_000;
+        /**
+         * How much higher than the long-term average the latency may be before the limit shrinks, e.g. {@code 1.5}
+         * tolerates 50% more latency.
+         */
+        private double latencyTolerance = 1.5;
+        /**
+         * Number of completed requests whose average latency is compared to the long-term average to adapt the limit.
+         */
+        private int sampleWindow = 100;
+    }
+
+    /**
+     * Several nodes of the application that serve the same scenarios. Every scenario and every decision session is
+     * owned by one node, selected by consistent hashing, so its decision cache and its sessions are kept by that node
+     * only; the other nodes forward its requests. The nodes agree on the rule set of every scenario without a
+     * coordination service, by polling each other.
+     */
+    @Data
+    public static class Cluster {
+        /**
+         * Whether this node is part of a cluster, disabled by default.
+         */
+        private boolean enabled = false;
+        /**
+         * The base URL at which the other nodes reach this node, e.g. {@code http://localhost:8081}. It must be one of
+         * the {@link #members}.
+         */
+        private String nodeUrl;
+        /**
+         * The base URLs of all nodes of the cluster, including this one, in the same form on every node.
+         */
+        private List<String> members = new ArrayList<>();
+        /**
+         * Number of points of every node on the hash ring. More points spread the scenarios and sessions more evenly.
+         */
+        private int virtualNodesPerMember = 128;
+        /**
+         * The interval at which this node asks the other nodes for their rule sets, which also tells whether they are
+         * reachable.
+         */
+        private Duration ruleSetSyncInterval = Duration.ofSeconds(5);
+        /**
+         * A forwarded request fails with {@code 503 Service Unavailable} if the owning node does not respond within
+         * this time.
+         */
+        private Duration forwardTimeout = Duration.ofSeconds(5);
+    }
 }
@@ -0,0 +1,216 @@
+package eu.ai4work.sws.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ai4work.sws.controller.ClusterController;
+import eu.ai4work.sws.model.ClusterRuleSetState;
+import eu.ai4work.sws.service.ClusterMembership;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.RuleSetChangedEvent;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets the nodes of a cluster agree on the rule set of every scenario, without a coordination service: every node
+ * periodically asks every other node for its active rule sets (see {@link ClusterController}). If another node has a
+ * newer rule set of a scenario, i.e. one of a higher revision in the header of its FCL file (see
+ * {@link RuleSetFactory#readFclRulesRevision(byte[])}), this node fetches its FCL file and activates it like a changed
+ * local FCL file. A different rule set of the same revision, or one of an FCL file without revision (e.g. the classpath
+ * resources), is never activated: the conflict is logged and both nodes keep their own rule set, as the order of
+ * modification times or hashes says nothing about which rule set is the intended one.
+ * <p>
+ * So a changed FCL file with a higher revision that is reloaded on one node (see {@link FclRulesFileWatcher}) is
+ * activated on all nodes, and a restarted node with an outdated FCL file gets the newer rule set from the others, but a
+ * node that still runs an older revision during a rolling deployment never replaces the rule set of the upgraded nodes.
+ * A node that does not respond is taken off the hash ring of the {@link ClusterMembership} until it responds again. Only
+ * active if the cluster is enabled.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application-scenario-config.cluster", name = "enabled", havingValue = "true")
+public class ClusterRuleSetSynchronizer {
+    private static final Logger logger = LogManager.getLogger(ClusterRuleSetSynchronizer.class);
+
+    private final ClusterMembership clusterMembership;
+    private final ScenarioRegistry scenarioRegistry;
+    private final RuleSetFactory ruleSetFactory;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Duration ruleSetSyncInterval;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    /**
+     * The conflicting rule sets that were logged, so each conflict is logged once.
+     */
+    private final Set<String> reportedConflicts = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService synchronizationExecutor;
+
+    public ClusterRuleSetSynchronizer(ClusterMembership clusterMembership, ScenarioRegistry scenarioRegistry, RuleSetFactory ruleSetFactory,
+                                      ApplicationEventPublisher applicationEventPublisher, ObjectMapper objectMapper,
+                                      ApplicationScenarioConfiguration applicationScenarioConfiguration) {
+        this.clusterMembership = clusterMembership;
+        this.scenarioRegistry = scenarioRegistry;
+        this.ruleSetFactory = ruleSetFactory;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.objectMapper = objectMapper;
+        this.ruleSetSyncInterval = applicationScenarioConfiguration.getCluster().getRuleSetSyncInterval();
+        this.requestTimeout = applicationScenarioConfiguration.getCluster().getForwardTimeout();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    @PostConstruct
+    public void startSynchronizing() {
+        synchronizationExecutor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("cluster-rule-set-sync").factory());
+        synchronizationExecutor.scheduleWithFixedDelay(this::synchronizeRuleSets, 0, ruleSetSyncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopSynchronizing() {
+        synchronizationExecutor.shutdownNow();
+    }
+
+    /**
+     * Compares the rule sets of this node with those of every other node, and activates the newer ones.
+     */
+    void synchronizeRuleSets() {
+        for (String member : clusterMembership.getOtherMembers()) {
+            ClusterRuleSetState[] ruleSetStates;
+            try {
+                HttpResponse<byte[]> response = send(member, "/cluster/rule-sets");
+                ruleSetStates = objectMapper.readValue(response.body(), ClusterRuleSetState[].class);
+                clusterMembership.setReachable(member, true);
+            } catch (IOException exception) {
+                logger.debug("Cluster member " + member + " did not respond: " + exception);
+                clusterMembership.setReachable(member, false);
+                continue;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (ClusterRuleSetState ruleSetState : ruleSetStates) {
+                try {
+                    synchronizeRuleSet(member, ruleSetState);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception exception) {
+                    logger.error("The rule set version " + ruleSetState.getRuleSetVersion() + " of scenario " + ruleSetState.getScenarioName()
+                            + " of cluster member " + member + " could not be activated", exception);
+                }
+            }
+        }
+    }
+
+    private void synchronizeRuleSet(String member, ClusterRuleSetState ruleSetState) throws IOException, InterruptedException {
+        Scenario scenario = scenarioRegistry.getScenarios().stream()
+                .filter(localScenario -> localScenario.getName().equals(ruleSetState.getScenarioName()))
+                .findAny()
+                .orElse(null);
+        if (scenario == null) {
+            logger.debug("Cluster member " + member + " serves the scenario " + ruleSetState.getScenarioName() + ", which this node does not");
+            return;
+        }
+        RuleSet currentRuleSet = scenario.getActiveRuleSet().get();
+        if (ruleSetState.getFclRulesSha256().equals(currentRuleSet.getFclRulesSha256())) {
+            return;
+        }
+        if (!isNewer(ruleSetState, currentRuleSet)) {
+            if (!isOlder(ruleSetState, currentRuleSet)) {
+                reportConflict(member, ruleSetState, currentRuleSet);
+            }
+            return;
+        }
+        HttpResponse<byte[]> response = send(member, "/cluster/rule-sets/" + URLEncoder.encode(scenario.getName(), StandardCharsets.UTF_8) + "/fcl");
+        byte[] fclRulesSource = response.body();
+        Instant fclRulesModifiedAt = response.headers().firstValue(ClusterController.FCL_RULES_MODIFIED_AT_HEADER)
+                .map(Instant::parse)
+                .orElse(Instant.EPOCH);
+        ClusterRuleSetState fetchedRuleSetState = new ClusterRuleSetState(scenario.getName(), RuleSetFactory.computeSha256(fclRulesSource),
+                null, RuleSetFactory.readFclRulesRevision(fclRulesSource));
+        // the member may have activated yet another rule set in the meantime, which is only taken if it is newer as well
+        if (!isNewer(fetchedRuleSetState, currentRuleSet)) {
+            return;
+        }
+        RuleSet newRuleSet = ruleSetFactory.createRuleSet(scenario.getName(), scenario.getConfiguration(), fclRulesSource, fclRulesModifiedAt);
+        if (!scenario.getActiveRuleSet().activate(currentRuleSet, newRuleSet)) {
+            // the local FCL file changed while the rule set was created, it is compared again with the next synchronization
+            return;
+        }
+        logger.info("Activated rule set version " + newRuleSet.getVersion() + " (revision " + newRuleSet.getFclRulesRevision() + ") of scenario "
+                + scenario.getName() + " of cluster member " + member + " (previous version " + currentRuleSet.getVersion()
+                + ", revision " + currentRuleSet.getFclRulesRevision() + ")");
+        applicationEventPublisher.publishEvent(new RuleSetChangedEvent(scenario.getName(), newRuleSet.getVersion()));
+    }
+
+    /**
+     * @return whether the rule set of another node replaces the rule set of this node: both have a revision, and the
+     * one of the other node is higher.
+     */
+    static boolean isNewer(ClusterRuleSetState ruleSetState, RuleSet ruleSet) {
+        return hasRevisions(ruleSetState, ruleSet) && ruleSetState.getFclRulesRevision() > ruleSet.getFclRulesRevision();
+    }
+
+    /**
+     * @return whether the rule set of this node replaces the rule set of another node, on the other node.
+     */
+    static boolean isOlder(ClusterRuleSetState ruleSetState, RuleSet ruleSet) {
+        return hasRevisions(ruleSetState, ruleSet) && ruleSetState.getFclRulesRevision() < ruleSet.getFclRulesRevision();
+    }
+
+    private static boolean hasRevisions(ClusterRuleSetState ruleSetState, RuleSet ruleSet) {
+        return ruleSetState.getFclRulesRevision() != RuleSet.NO_REVISION && ruleSet.getFclRulesRevision() != RuleSet.NO_REVISION;
+    }
+
+    /**
+     * Logs once per pair of rule sets that another node has a different rule set of a scenario, which neither node
+     * activates because it is not of a higher revision.
+     */
+    private void reportConflict(String member, ClusterRuleSetState ruleSetState, RuleSet ruleSet) {
+        String conflict = ruleSetState.getScenarioName() + ' ' + member + ' ' + ruleSetState.getFclRulesSha256() + ' ' + ruleSet.getFclRulesSha256();
+        if (reportedConflicts.add(conflict)) {
+            logger.warn("Cluster member " + member + " has the rule set version " + ruleSetState.getRuleSetVersion() + " ("
+                    + describeRevision(ruleSetState.getFclRulesRevision()) + ") of scenario " + ruleSetState.getScenarioName()
+                    + ", this node keeps its rule set version " + ruleSet.getVersion() + " (" + describeRevision(ruleSet.getFclRulesRevision())
+                    + "). Give the FCL file that is meant to be active a higher VERSION in its header.");
+        }
+    }
+
+    private static String describeRevision(long revision) {
+        return revision == RuleSet.NO_REVISION ? "without revision" : "revision " + revision;
+    }
+
+    /**
+     * @throws IOException if the member does not respond in time or responds with an error status.
+     */
+    private HttpResponse<byte[]> send(String member, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(member + path)).timeout(requestTimeout).GET().build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + path + " responded with status " + response.statusCode());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,158 @@
+package eu.ai4work.sws.config;
+
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.RuleSetChangedEvent;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Watches the external FCL rules files of all scenarios and activates a new rule set whenever the content of a file
+ * changes.
+ * <p>
+ * The new rule set is parsed, compiled and validated on the watcher thread, off the request path. Only if that
+ * succeeds, it is activated atomically; otherwise the current rule set stays active. Requests that are in progress
+ * finish with the rule set they started with. This is only done if {@code reloadFclRulesFileOnChange} is {@code true},
+ * and only for FCL files on the file system (not classpath resources).
+ */
+@Component
+@ConditionalOnProperty(prefix = "application-scenario-config", name = "reload-fcl-rules-file-on-change", havingValue = "true")
+@RequiredArgsConstructor
+public class FclRulesFileWatcher {
+    private final static Logger logger = LogManager.getLogger(FclRulesFileWatcher.class);
+    /**
+     * Editors often write a file in several steps, so the file is read once no more changes arrive for this time.
+     */
+    private static final long SETTLE_TIME_MILLISECONDS = 200;
+
+    private final RuleSetFactory ruleSetFactory;
+    private final ScenarioRegistry scenarioRegistry;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    /**
+     * The scenarios by their watched FCL file, several scenarios may share one file.
+     */
+    private final Map<Path, List<Scenario>> scenariosByFclRulesFile = new HashMap<>();
+    private WatchService watchService;
+
+    @PostConstruct
+    public void startWatching() throws IOException {
+        for (Scenario scenario : scenarioRegistry.getScenarios()) {
+            Path fclRulesFile = Path.of(scenario.getFclRulesFilePath()).toAbsolutePath().normalize();
+            if (Files.isRegularFile(fclRulesFile)) {
+                scenariosByFclRulesFile.computeIfAbsent(fclRulesFile, file -> new ArrayList<>()).add(scenario);
+            } else {
+                logger.warn("The FCL file " + scenario.getFclRulesFilePath() + " of scenario " + scenario.getName()
+                        + " is not on the file system, so it is not watched for changes");
+            }
+        }
+        if (scenariosByFclRulesFile.isEmpty()) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        // the directories are watched, as editors and deployments often replace a file instead of modifying it
+        Set<Path> watchedDirectories = new LinkedHashSet<>();
+        for (Path fclRulesFile : scenariosByFclRulesFile.keySet()) {
+            if (watchedDirectories.add(fclRulesFile.getParent())) {
+                fclRulesFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+            logger.info("Watching the FCL file " + fclRulesFile + " for changes");
+        }
+        Thread.ofPlatform().daemon().name("fcl-rules-file-watcher").start(this::watchForChanges);
+    }
+
+    @PreDestroy
+    public void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watchForChanges() {
+        try {
+            while (true) {
+                Set<Path> changedFclRulesFiles = new LinkedHashSet<>();
+                collectChangedFclRulesFiles(watchService.take(), changedFclRulesFiles);
+                if (changedFclRulesFiles.isEmpty()) {
+                    continue;
+                }
+                // wait until the files are completely written, collecting the further events of this change
+                WatchKey furtherChange;
+                do {
+                    Thread.sleep(SETTLE_TIME_MILLISECONDS);
+                    furtherChange = watchService.poll();
+                    if (furtherChange != null) {
+                        collectChangedFclRulesFiles(furtherChange, changedFclRulesFiles);
+                    }
+                } while (furtherChange != null);
+                for (Path changedFclRulesFile : changedFclRulesFiles) {
+                    for (Scenario scenario : scenariosByFclRulesFile.get(changedFclRulesFile)) {
+                        reloadFclRulesFile(scenario, changedFclRulesFile);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException exception) {
+            logger.info("Stopped watching the FCL files");
+        }
+    }
+
+    private void collectChangedFclRulesFiles(WatchKey watchKey, Set<Path> changedFclRulesFiles) {
+        Path directory = (Path) watchKey.watchable();
+        for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
+            if (watchEvent.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events were lost, so any file of the directory may have changed
+                scenariosByFclRulesFile.keySet().stream()
+                        .filter(fclRulesFile -> fclRulesFile.getParent().equals(directory))
+                        .forEach(changedFclRulesFiles::add);
+            } else if (scenariosByFclRulesFile.containsKey(directory.resolve((Path) watchEvent.context()))) {
+                changedFclRulesFiles.add(directory.resolve((Path) watchEvent.context()));
+            }
+        }
+        watchKey.reset();
+    }
+
+    /**
+     * Creates a rule set from the current content of the FCL file of a scenario and activates it, unless the content
+     * is unchanged or invalid.
+     */
+    private void reloadFclRulesFile(Scenario scenario, Path fclRulesFile) {
+        RuleSet currentRuleSet = scenario.getActiveRuleSet().get();
+        try {
+            byte[] fclRulesSource = Files.readAllBytes(fclRulesFile);
+            if (RuleSetFactory.computeSha256(fclRulesSource).equals(currentRuleSet.getFclRulesSha256())) {
+                logger.debug("The content of the FCL file " + fclRulesFile + " is unchanged");
+                return;
+            }
+            RuleSet newRuleSet = ruleSetFactory.createRuleSet(scenario.getName(), scenario.getConfiguration(), fclRulesSource);
+            scenario.getActiveRuleSet().activate(newRuleSet);
+            logger.info("Activated rule set version " + newRuleSet.getVersion() + " of scenario " + scenario.getName()
+                    + " (previous version " + currentRuleSet.getVersion() + ")");
+            applicationEventPublisher.publishEvent(new RuleSetChangedEvent(scenario.getName(), newRuleSet.getVersion()));
+        } catch (Exception exception) {
+            logger.error("The changed FCL file " + fclRulesFile + " could not be loaded, rule set version "
+                    + currentRuleSet.getVersion() + " of scenario " + scenario.getName() + " stays active.", exception);
+        }
+    }
+}
@@ -1,58 +1,123 @@
 package eu.ai4work.sws.config;
 
 import eu.ai4work.sws.exception.InvalidFclFileException;
+import eu.ai4work.sws.service.ActiveRuleSet;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import eu.ai4work.sws.service.SlidingDecisionCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import net.sourceforge.jFuzzyLogic.FIS;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 @Configuration
 @RequiredArgsConstructor
 public class FuzzyInferenceSystemInitializer {
     private final static Logger logger = LogManager.getLogger(FuzzyInferenceSystemInitializer.class);
+    /**
+     * Scenario names are part of the request path.
+     */
+    private static final Pattern SCENARIO_NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
     private final ApplicationScenarioConfiguration applicationScenarioConfiguration;
 
     /**
-     * Initializes a Fuzzy Inference System (FIS) based on the Fuzzy Control Language (FCL) rules file.
-     * This process executes on application startup.
+     * Initializes the rule set of every scenario from its Fuzzy Control Language (FCL) rules file: the Fuzzy Inference
+     * System (FIS), the pool of FIS instances that evaluate the requests, the input and output parameter lists and
+     * (if configured) the compiled rule set, the decision lookup table and the sliding decision cache. This process
+     * executes on application startup; later versions of the FCL files can be activated by the {@link FclRulesFileWatcher}.
      *
-     * @return fuzzyInferenceSystem    an initialized FIS object.
-     * @throws FileNotFoundException   if the FCL file cannot be found at the specified path.
-     * @throws InvalidFclFileException if the FCL file cannot be parsed.
+     * @return scenarioRegistry        the scenarios by name, the top-level configuration as {@value ScenarioRegistry#DEFAULT_SCENARIO_NAME}.
+     * @throws IOException              if an FCL file cannot be found or read.
+     * @throws InvalidFclFileException  if an FCL file cannot be parsed.
+     * @throws IllegalArgumentException if no scenario is configured, a scenario name is invalid, or the quantization of a
+     *                                  decision cache refers to unknown input variables or is not positive.
      */
-    @Bean(name = "fuzzyInferenceSystem")
-    public FIS initializeFuzzyInferenceSystem() throws FileNotFoundException, InvalidFclFileException {
-        String fclRulesFilePath = applicationScenarioConfiguration.getFclRulesFilePath();
-        logger.info("Initializing a Fuzzy Inference System (FIS) from FCL file: " + fclRulesFilePath);
-
-        // Try external file system
-        File externalFuzzyRuleFile = new File(fclRulesFilePath);
-        if (externalFuzzyRuleFile.exists()) {
-            return parseFclFile(new FileInputStream(externalFuzzyRuleFile));
+    @Bean
+    public ScenarioRegistry scenarioRegistry(RuleSetFactory ruleSetFactory, MeterRegistry meterRegistry) throws IOException {
+        Map<String, Scenario> scenariosByName = new LinkedHashMap<>();
+        for (Map.Entry<String, ApplicationScenarioConfiguration.ScenarioConfiguration> scenarioConfiguration : getScenarioConfigurations().entrySet()) {
+            String scenarioName = scenarioConfiguration.getKey();
+            logger.info("Initializing scenario " + scenarioName);
+            scenariosByName.put(scenarioName, createScenario(scenarioName, scenarioConfiguration.getValue(), ruleSetFactory, meterRegistry));
         }
+        return new ScenarioRegistry(scenariosByName);
+    }
 
-        // Then try classpath resources
-        InputStream internalFuzzyRuleResourceFile = getClass().getClassLoader().getResourceAsStream(fclRulesFilePath);
-        if (internalFuzzyRuleResourceFile != null) {
-            return parseFclFile(internalFuzzyRuleResourceFile);
+    /**
+     * @return the configurations of all scenarios, starting with the default scenario (if configured).
+     */
+    private Map<String, ApplicationScenarioConfiguration.ScenarioConfiguration> getScenarioConfigurations() {
+        Map<String, ApplicationScenarioConfiguration.ScenarioConfiguration> scenarioConfigurations = new LinkedHashMap<>();
+        if (applicationScenarioConfiguration.getFclRulesFilePath() != null) {
+            ApplicationScenarioConfiguration.ScenarioConfiguration defaultScenarioConfiguration = new ApplicationScenarioConfiguration.ScenarioConfiguration();
+            defaultScenarioConfiguration.setFclRulesFilePath(applicationScenarioConfiguration.getFclRulesFilePath());
+            defaultScenarioConfiguration.setDecisionResultsDescription(applicationScenarioConfiguration.getDecisionResultsDescription());
+            defaultScenarioConfiguration.setDecisionCache(applicationScenarioConfiguration.getDecisionCache());
+            defaultScenarioConfiguration.setLookupTable(applicationScenarioConfiguration.getLookupTable());
+            defaultScenarioConfiguration.setPrecompiledRuleSetFile(applicationScenarioConfiguration.getPrecompiledRuleSetFile());
+            defaultScenarioConfiguration.setDefuzzification(applicationScenarioConfiguration.getDefuzzification());
+            scenarioConfigurations.put(ScenarioRegistry.DEFAULT_SCENARIO_NAME, defaultScenarioConfiguration);
         }
+        applicationScenarioConfiguration.getScenarios().forEach((scenarioName, scenarioConfiguration) -> {
+            if (!SCENARIO_NAME_PATTERN.matcher(scenarioName).matches()) {
+                throw new IllegalArgumentException("Invalid scenario name '" + scenarioName + "', only letters, digits, '_' and '-' are allowed.");
+            }
+            if (scenarioConfigurations.containsKey(scenarioName)) {
+                throw new IllegalArgumentException("The scenario name '" + scenarioName + "' is reserved for the scenario of the top-level fclRulesFilePath.");
+            }
+            if (scenarioConfiguration.getFclRulesFilePath() == null) {
+                throw new IllegalArgumentException("The scenario '" + scenarioName + "' has no fclRulesFilePath.");
+            }
+            scenarioConfigurations.put(scenarioName, scenarioConfiguration);
+        });
+        if (scenarioConfigurations.isEmpty()) {
+            throw new IllegalArgumentException("No scenario configured: set the fclRulesFilePath of the application-scenario-config, or configure its scenarios.");
+        }
+        return scenarioConfigurations;
+    }
 
-        throw new FileNotFoundException("Fuzzy Control Language (FCL) file not found: " + fclRulesFilePath);
+    private Scenario createScenario(String scenarioName, ApplicationScenarioConfiguration.ScenarioConfiguration scenarioConfiguration,
+                                    RuleSetFactory ruleSetFactory, MeterRegistry meterRegistry) throws IOException {
+        RuleSet ruleSet = ruleSetFactory.createRuleSet(scenarioName, scenarioConfiguration,
+                RuleSetFactory.readFclRulesSource(scenarioConfiguration.getFclRulesFilePath()));
+        return Scenario.builder()
+                .name(scenarioName)
+                .configuration(scenarioConfiguration)
+                .activeRuleSet(new ActiveRuleSet(ruleSet))
+                .slidingDecisionCache(createSlidingDecisionCache(scenarioName, scenarioConfiguration.getDecisionCache(), ruleSet, meterRegistry))
+                .slidingDecisionTimer(Timer.builder("sliding.decisions")
+                        .description("Sliding decisions of a scenario, including the verification of the input parameters")
+                        .tag("scenario", scenarioName)
+                        .register(meterRegistry))
+                .build();
     }
 
-    private static FIS parseFclFile(InputStream inputStream) {
-        try {
-            return FIS.load(inputStream, true);
-        } catch (Exception exception) {
-            throw new InvalidFclFileException("Failed to parse Fuzzy Control Language (FCL) file: ", exception);
+    /**
+     * Initializes the sliding decision cache of a scenario. This is only done if {@code decisionCache.enabled} is {@code true}.
+     *
+     * @return slidingDecisionCache     the cache keyed on the quantized input vector, or null if it is disabled.
+     * @throws IllegalArgumentException if the quantization refers to unknown input variables or is not positive.
+     */
+    private static SlidingDecisionCache createSlidingDecisionCache(String scenarioName, ApplicationScenarioConfiguration.DecisionCache decisionCache,
+                                                                   RuleSet ruleSet, MeterRegistry meterRegistry) {
+        if (!decisionCache.isEnabled()) {
+            return null;
         }
+        logger.info("Initializing a sliding decision cache for up to " + decisionCache.getMaximumSize()
+                + " decisions with quantization " + decisionCache.getQuantization());
+        SlidingDecisionCache slidingDecisionCache = new SlidingDecisionCache(scenarioName, decisionCache.getQuantization(),
+                decisionCache.getMaximumSize(), meterRegistry);
+        slidingDecisionCache.verifyQuantization(ruleSet);
+        return slidingDecisionCache;
     }
 }
@@ -0,0 +1,62 @@
+package eu.ai4work.sws.config;
+
+import eu.ai4work.sws.controller.ClientRateLimitInterceptor;
+import eu.ai4work.sws.controller.ClusterForwardingInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Optional;
+
+/**
+ * Configures the threads of the web server for the {@link ApplicationScenarioConfiguration.RequestExecution.Mode}, and
+ * the {@link ClusterForwardingInterceptor} and {@link ClientRateLimitInterceptor} in front of the sliding decision
+ * requests; the evaluation itself is limited by the {@link eu.ai4work.sws.controller.SlidingDecisionRequestExecutor}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RequestExecutionConfiguration implements WebMvcConfigurer {
+    private static final Logger logger = LogManager.getLogger(RequestExecutionConfiguration.class);
+    private final ApplicationScenarioConfiguration applicationScenarioConfiguration;
+    private final ClientRateLimitInterceptor clientRateLimitInterceptor;
+    /**
+     * Only present if the cluster is enabled.
+     */
+    private final Optional<ClusterForwardingInterceptor> clusterForwardingInterceptor;
+
+    /**
+     * In the mode {@code VIRTUAL_THREADS}, Tomcat runs every request on a new virtual thread instead of its pool of
+     * platform threads (like {@code spring.threads.virtual.enabled}, but for this application only).
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> requestExecutionProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (applicationScenarioConfiguration.getRequestExecution().getMode() == ApplicationScenarioConfiguration.RequestExecution.Mode.VIRTUAL_THREADS) {
+                logger.info("Requests are received on virtual threads");
+                protocolHandler.setExecutor(new VirtualThreadExecutor("sliding-decision-request-"));
+            }
+        };
+    }
+
+    /**
+     * Limits the single and batch sliding decision requests of all scenarios, in JSON and in the binary vector form. In
+     * a cluster, these requests, the decision sessions and the vector schemas are first routed to the node that owns
+     * them, so only that node limits them.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        clusterForwardingInterceptor.ifPresent(interceptor -> registry.addInterceptor(interceptor).addPathPatterns(
+                "/sliding-decision", "/sliding-decision/batch", "/sliding-decision/vector-schema", "/sliding-decision/sessions",
+                "/sliding-decision/sessions/*", "/scenarios/*/sliding-decision", "/scenarios/*/sliding-decision/batch",
+                "/scenarios/*/sliding-decision/vector-schema", "/scenarios/*/sliding-decision/sessions"));
+        registry.addInterceptor(clientRateLimitInterceptor).addPathPatterns("/sliding-decision", "/sliding-decision/batch",
+                "/scenarios/*/sliding-decision", "/scenarios/*/sliding-decision/batch");
+    }
+}
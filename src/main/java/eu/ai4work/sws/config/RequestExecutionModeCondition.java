@@ -0,0 +1,50 @@
+package eu.ai4work.sws.config;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Matches if the configured {@link ApplicationScenarioConfiguration.RequestExecution.Mode} is one of the given modes.
+ * Unlike {@code @ConditionalOnProperty}, the mode is bound like the configuration itself, so e.g.
+ * {@code evaluation-executor} and {@code EVALUATION_EXECUTOR} are the same mode, and a missing mode is the default.
+ */
+public abstract class RequestExecutionModeCondition implements Condition {
+    private final Set<ApplicationScenarioConfiguration.RequestExecution.Mode> modes;
+
+    protected RequestExecutionModeCondition(Set<ApplicationScenarioConfiguration.RequestExecution.Mode> modes) {
+        this.modes = modes;
+    }
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        ApplicationScenarioConfiguration.RequestExecution.Mode mode = Binder.get(context.getEnvironment())
+                .bind("application-scenario-config.request-execution.mode", ApplicationScenarioConfiguration.RequestExecution.Mode.class)
+                .orElse(new ApplicationScenarioConfiguration.RequestExecution().getMode());
+        return modes.contains(mode);
+    }
+
+    /**
+     * Requests are evaluated on the thread that received them, in the modes {@code PLATFORM_THREADS} and
+     * {@code VIRTUAL_THREADS}.
+     */
+    public static class OnReceivingThread extends RequestExecutionModeCondition {
+        public OnReceivingThread() {
+            super(EnumSet.of(ApplicationScenarioConfiguration.RequestExecution.Mode.PLATFORM_THREADS,
+                    ApplicationScenarioConfiguration.RequestExecution.Mode.VIRTUAL_THREADS));
+        }
+    }
+
+    /**
+     * Requests are evaluated asynchronously on the evaluation executor, in the mode {@code EVALUATION_EXECUTOR}.
+     */
+    public static class OnEvaluationExecutor extends RequestExecutionModeCondition {
+        public OnEvaluationExecutor() {
+            super(EnumSet.of(ApplicationScenarioConfiguration.RequestExecution.Mode.EVALUATION_EXECUTOR));
+        }
+    }
+}
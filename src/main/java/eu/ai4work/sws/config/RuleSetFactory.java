@@ -0,0 +1,354 @@
+package eu.ai4work.sws.config;
+
+import eu.ai4work.sws.engine.CompiledFuzzyInferenceSystem;
+import eu.ai4work.sws.engine.DecisionLookupTable;
+import eu.ai4work.sws.engine.DecisionVectorSchema;
+import eu.ai4work.sws.engine.Defuzzification;
+import eu.ai4work.sws.engine.FunctionBlockGraph;
+import eu.ai4work.sws.engine.GridAxis;
+import eu.ai4work.sws.engine.InputSchema;
+import eu.ai4work.sws.engine.OutputTermClassifier;
+import eu.ai4work.sws.engine.PrecompiledRuleSet;
+import eu.ai4work.sws.exception.InvalidFclFileException;
+import eu.ai4work.sws.exception.LookupTableAccuracyException;
+import eu.ai4work.sws.exception.RuleSetCompilationException;
+import eu.ai4work.sws.service.DecisionPipelineMetrics;
+import eu.ai4work.sws.service.FuzzyInferenceSystemPool;
+import eu.ai4work.sws.service.RuleExplanationTexts;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.SlidingDecisionResponseTexts;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates a {@link RuleSet} from the content of an FCL rules file, according to the configuration of its scenario.
+ * Everything is parsed, compiled and validated before the rule set is returned, so an invalid FCL file never becomes active.
+ */
+@Component
+@RequiredArgsConstructor
+public class RuleSetFactory {
+    private final static Logger logger = LogManager.getLogger(RuleSetFactory.class);
+    private static final int VERSION_LENGTH = 12;
+    private static final Pattern FCL_RULES_REVISION_PATTERN = Pattern.compile("^(?://|/\\*|\\(\\*|\\*)\\s*VERSION\\s*[:=]?\\s*(\\d+)\\b");
+    private final ApplicationScenarioConfiguration applicationScenarioConfiguration;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Reads the content of a Fuzzy Control Language (FCL) rules file, so that all FIS instances of a rule set are
+     * parsed from the very same source.
+     *
+     * @param fclRulesFilePath       the path of the FCL file on the file system, or of a classpath resource.
+     * @return fclRulesSource         the raw content of the FCL file.
+     * @throws FileNotFoundException if the FCL file cannot be found at the specified path.
+     * @throws IOException           if the FCL file cannot be read.
+     */
+    public static byte[] readFclRulesSource(String fclRulesFilePath) throws IOException {
+        logger.info("Reading Fuzzy Control Language (FCL) file: " + fclRulesFilePath);
+
+        // Try external file system
+        File externalFuzzyRuleFile = new File(fclRulesFilePath);
+        if (externalFuzzyRuleFile.exists()) {
+            try (InputStream externalFuzzyRuleFileStream = new FileInputStream(externalFuzzyRuleFile)) {
+                return externalFuzzyRuleFileStream.readAllBytes();
+            }
+        }
+
+        // Then try classpath resources
+        try (InputStream internalFuzzyRuleResourceFile = RuleSetFactory.class.getClassLoader().getResourceAsStream(fclRulesFilePath)) {
+            if (internalFuzzyRuleResourceFile != null) {
+                return internalFuzzyRuleResourceFile.readAllBytes();
+            }
+        }
+
+        throw new FileNotFoundException("Fuzzy Control Language (FCL) file not found: " + fclRulesFilePath);
+    }
+
+    /**
+     * Reads when an FCL rules file was last modified, to tell which of two versions is the newer one.
+     *
+     * @param fclRulesFilePath the path of the FCL file on the file system, or of a classpath resource.
+     * @return fclRulesModifiedAt the last modification time of the file, or {@link Instant#EPOCH} for a classpath resource.
+     */
+    public static Instant readFclRulesModifiedAt(String fclRulesFilePath) {
+        try {
+            Path fclRulesFile = Path.of(fclRulesFilePath);
+            return Files.isRegularFile(fclRulesFile) ? Files.getLastModifiedTime(fclRulesFile).toInstant() : Instant.EPOCH;
+        } catch (IOException | InvalidPathException exception) {
+            return Instant.EPOCH;
+        }
+    }
+
+    /**
+     * Reads the revision of an FCL rules file from its header, a comment line {@code // VERSION: <revision>} (or the same
+     * in a block comment) before the first FCL statement. Of two rule sets of a scenario, only the one of the higher
+     * revision is activated on all nodes of a cluster.
+     *
+     * @return the revision, a positive number, or {@link RuleSet#NO_REVISION} if the header has none.
+     */
+    public static long readFclRulesRevision(byte[] fclRulesSource) {
+        for (String line : new String(fclRulesSource, StandardCharsets.UTF_8).lines().toList()) {
+            String trimmedLine = line.strip();
+            if (trimmedLine.isEmpty()) {
+                continue;
+            }
+            if (!(trimmedLine.startsWith("//") || trimmedLine.startsWith("/*") || trimmedLine.startsWith("(*")
+                    || trimmedLine.startsWith("*"))) {
+                break; // the header ends at the first FCL statement
+            }
+            Matcher revisionMatcher = FCL_RULES_REVISION_PATTERN.matcher(trimmedLine);
+            if (revisionMatcher.find()) {
+                try {
+                    long revision = Long.parseLong(revisionMatcher.group(1));
+                    return revision > 0 ? revision : RuleSet.NO_REVISION;
+                } catch (NumberFormatException exception) {
+                    return RuleSet.NO_REVISION;
+                }
+            }
+        }
+        return RuleSet.NO_REVISION;
+    }
+
+    /**
+     * Creates the rule set of the FCL file of a scenario on this node, with the current modification time of the file.
+     *
+     * @see #createRuleSet(String, ApplicationScenarioConfiguration.ScenarioConfiguration, byte[], Instant)
+     */
+    public RuleSet createRuleSet(String scenarioName, ApplicationScenarioConfiguration.ScenarioConfiguration scenarioConfiguration,
+                                 byte[] fclRulesSource) {
+        return createRuleSet(scenarioName, scenarioConfiguration, fclRulesSource,
+                readFclRulesModifiedAt(scenarioConfiguration.getFclRulesFilePath()));
+    }
+
+    /**
+     * @param scenarioName          the name of the scenario the rule set belongs to, tagged on its metrics.
+     * @param scenarioConfiguration the configuration of the scenario the rule set belongs to.
+     * @param fclRulesSource        the raw content of the FCL file.
+     * @param fclRulesModifiedAt    when the FCL file was last modified, on this node or on the node it was fetched from.
+     * @return the rule set, ready to be activated.
+     * @throws InvalidFclFileException       if the FCL file cannot be parsed, or its function blocks cannot be chained.
+     * @throws NoSuchElementException        if the FCL file has no output variable.
+     * @throws IllegalArgumentException      if a configured defuzzification is invalid or for an unknown output variable.
+     * @throws RuleSetCompilationException   if the compiled rule engine, the decision sessions or a precompiled rule set
+     *                                       file are configured and the rules cannot be compiled, or if they or the
+     *                                       decision lookup table are configured for an FCL file with several function blocks.
+     * @throws LookupTableAccuracyException  if the decision lookup table is enabled and not accurate enough.
+     */
+    public RuleSet createRuleSet(String scenarioName, ApplicationScenarioConfiguration.ScenarioConfiguration scenarioConfiguration,
+                                 byte[] fclRulesSource, Instant fclRulesModifiedAt) {
+        String fclRulesSha256 = computeSha256(fclRulesSource);
+        logger.info("Initializing a Fuzzy Inference System (FIS) from FCL file: " + scenarioConfiguration.getFclRulesFilePath()
+                + " (version " + fclRulesSha256.substring(0, VERSION_LENGTH) + ")");
+        Map<String, Defuzzification> defuzzifications = Defuzzification.parseAll(scenarioConfiguration.getDefuzzification());
+        if (!defuzzifications.isEmpty()) {
+            logger.info("Defuzzifying the output variables " + defuzzifications);
+        }
+        Supplier<FIS> fuzzyInferenceSystemFactory = Defuzzification.configure(
+                createFuzzyInferenceSystemFactory(scenarioConfiguration.getPrecompiledRuleSetFile(), fclRulesSource), defuzzifications);
+        FIS fuzzyInferenceSystem = fuzzyInferenceSystemFactory.get();
+        FunctionBlockGraph functionBlockGraph = FunctionBlockGraph.of(fuzzyInferenceSystem, applicationScenarioConfiguration.isEvaluateFunctionBlocksConcurrently());
+        if (!functionBlockGraph.hasSingleFunctionBlock()) {
+            logger.info("Evaluating " + functionBlockGraph.getNumberOfFunctionBlocks() + " function blocks in the stages " + functionBlockGraph.getStages());
+        }
+        FunctionBlock functionBlock = functionBlockGraph.createDecisionFunctionBlock(fuzzyInferenceSystem);
+        InputSchema inputSchema = InputSchema.compile(functionBlock, applicationScenarioConfiguration.isRejectInputValuesOutsideUniverse());
+
+        RuleSet.RuleSetBuilder ruleSet = RuleSet.builder()
+                .version(fclRulesSha256.substring(0, VERSION_LENGTH))
+                .scenarioName(scenarioName)
+                .fclRulesSha256(fclRulesSha256)
+                .fclRulesSource(fclRulesSource)
+                .fclRulesModifiedAt(fclRulesModifiedAt)
+                .fclRulesRevision(readFclRulesRevision(fclRulesSource))
+                .loadedAt(Instant.now())
+                .fuzzyInferenceSystem(fuzzyInferenceSystem)
+                .functionBlock(functionBlock)
+                .functionBlockGraph(functionBlockGraph)
+                .requiredFuzzyInputParameters(getRequiredInputParameters(functionBlock))
+                .inputSchema(inputSchema)
+                .decisionVectorSchema(DecisionVectorSchema.compile(functionBlock, inputSchema))
+                .outputVariableNames(getOutputVariableNames(functionBlock))
+                .outputTermClassifier(OutputTermClassifier.compile(functionBlock))
+                .ruleExplanationTexts(new RuleExplanationTexts(functionBlock))
+                .decisionPipelineMetrics(DecisionPipelineMetrics.register(meterRegistry, scenarioName, functionBlock));
+
+        boolean compiledRuleEngine = applicationScenarioConfiguration.getRuleEngine() == ApplicationScenarioConfiguration.RuleEngine.COMPILED;
+        CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem = null;
+        if (compiledRuleEngine || applicationScenarioConfiguration.getDecisionSessions().isEnabled()) {
+            logger.info("Compiling the Fuzzy Inference System (FIS) for the " + (compiledRuleEngine ? "compiled rule engine" : "decision sessions"));
+            FunctionBlockGraph.requireSingleFunctionBlock(fuzzyInferenceSystem, compiledRuleEngine ? "The compiled rule engine" : "The decision sessions");
+            compiledFuzzyInferenceSystem = CompiledFuzzyInferenceSystem.compile(functionBlock);
+            ruleSet.compiledFuzzyInferenceSystem(compiledFuzzyInferenceSystem)
+                    .evaluatedByCompiledRuleEngine(compiledRuleEngine);
+        }
+        ruleSet.slidingDecisionResponseTexts(new SlidingDecisionResponseTexts(fclRulesSha256.substring(0, VERSION_LENGTH),
+                scenarioConfiguration.getDecisionResultsDescription(), compiledFuzzyInferenceSystem));
+
+        if (scenarioConfiguration.getLookupTable().isEnabled()) {
+            FunctionBlockGraph.requireSingleFunctionBlock(fuzzyInferenceSystem, "The decision lookup table");
+            ruleSet.decisionLookupTable(createDecisionLookupTable(scenarioConfiguration.getLookupTable(), fclRulesSource,
+                    defuzzifications, fuzzyInferenceSystemFactory, functionBlock));
+        }
+
+        // the pool is created last, as it holds the most FIS instances; further instances are created on demand, and
+        // none at all if the compiled rule engine evaluates the requests
+        int poolSize = applicationScenarioConfiguration.getFuzzyInferenceSystemPoolSize();
+        int initialPoolSize = compiledRuleEngine ? 0 : 1;
+        logger.info("Initializing a pool of up to " + poolSize + " Fuzzy Inference System (FIS) instances, " + initialPoolSize + " created at startup");
+        ruleSet.fuzzyInferenceSystemPool(new FuzzyInferenceSystemPool(fuzzyInferenceSystemFactory, inputSchema, functionBlockGraph,
+                poolSize, initialPoolSize));
+
+        return ruleSet.build();
+    }
+
+    /**
+     * Selects how the FIS instances of a rule set are created: built from a precompiled rule set file if one is
+     * configured, otherwise parsed from the FCL source. The file is (re)written if it does not exist or belongs to
+     * another FCL source. If the FIS built from it does not reproduce the reference evaluations of the parsed FIS, e.g.
+     * after an update of jFuzzyLogic, it is not used and the FCL source is parsed instead.
+     *
+     * @return fuzzyInferenceSystemFactory creates a new, independent FIS on each call.
+     * @throws InvalidFclFileException     if the FCL file cannot be parsed.
+     * @throws RuleSetCompilationException if the rules use features that cannot be precompiled.
+     */
+    private static Supplier<FIS> createFuzzyInferenceSystemFactory(String precompiledRuleSetFile, byte[] fclRulesSource) {
+        Supplier<FIS> parsingFuzzyInferenceSystemFactory = () -> parseFclFile(fclRulesSource);
+        if (precompiledRuleSetFile == null) {
+            return parsingFuzzyInferenceSystemFactory;
+        }
+        Path file = Path.of(precompiledRuleSetFile);
+        byte[] ruleSetKey = PrecompiledRuleSet.computeRuleSetKey(fclRulesSource);
+
+        try {
+            Optional<PrecompiledRuleSet> precompiledRuleSet = PrecompiledRuleSet.load(file, ruleSetKey);
+            if (precompiledRuleSet.isPresent()) {
+                logger.info("Read precompiled rule set " + file);
+            } else {
+                logger.info("Precompiling the rule set to " + file);
+                FIS parsedFuzzyInferenceSystem = parsingFuzzyInferenceSystemFactory.get();
+                FunctionBlockGraph.requireSingleFunctionBlock(parsedFuzzyInferenceSystem, "The precompiled rule set");
+                PrecompiledRuleSet.precompile(parsedFuzzyInferenceSystem.getFunctionBlock(null)).write(file, ruleSetKey);
+                precompiledRuleSet = PrecompiledRuleSet.load(file, ruleSetKey);
+            }
+            if (!precompiledRuleSet.orElseThrow().reproducesReferenceEvaluations()) {
+                logger.warn("The precompiled rule set " + file + " does not reproduce the evaluations of the FCL file, parsing the FCL file instead");
+                return parsingFuzzyInferenceSystemFactory;
+            }
+            return precompiledRuleSet.orElseThrow()::createFuzzyInferenceSystem;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read or write the precompiled rule set file " + file, exception);
+        }
+    }
+
+    private static List<String> getRequiredInputParameters(FunctionBlock functionBlock) {
+        return functionBlock.getVariables().values().stream()
+                .filter(Variable::isInput)
+                .map(Variable::getName)
+                .toList();
+    }
+
+    private static List<String> getOutputVariableNames(FunctionBlock functionBlock) {
+        List<String> outputVariables = functionBlock.getVariables().values().stream()
+                .filter(Variable::isOutput)
+                .map(Variable::getName)
+                .toList();
+
+        if (outputVariables.isEmpty()) {
+            throw new NoSuchElementException("Output variable(s) missing in the provided FCL file. Please define at least one output variable.");
+        }
+        return outputVariables;
+    }
+
+    /**
+     * Loads or builds the decision lookup table and verifies its accuracy against the rule evaluation.
+     *
+     * @return decisionLookupTable          the table, memory-mapped if a table file is configured.
+     * @throws LookupTableAccuracyException if the table deviates more than the configured maximum deviation.
+     */
+    private DecisionLookupTable createDecisionLookupTable(ApplicationScenarioConfiguration.LookupTable lookupTable,
+                                                          byte[] fclRulesSource, Map<String, Defuzzification> defuzzifications,
+                                                          Supplier<FIS> fuzzyInferenceSystemSupplier, FunctionBlock functionBlock) {
+        List<GridAxis> gridAxes = GridAxis.of(functionBlock, lookupTable.getGrid(), lookupTable.getDefaultNumberOfGridPoints());
+        byte[] ruleSetKey = DecisionLookupTable.computeRuleSetKey(fclRulesSource, gridAxes, defuzzifications);
+        Path tableFile = lookupTable.getFile() == null ? null : Path.of(lookupTable.getFile());
+
+        try {
+            Optional<DecisionLookupTable> decisionLookupTable = tableFile == null ? Optional.empty()
+                    : DecisionLookupTable.load(tableFile, functionBlock, gridAxes, ruleSetKey, lookupTable.isInterpolate());
+            if (decisionLookupTable.isPresent()) {
+                logger.info("Memory-mapped decision lookup table " + tableFile);
+            } else {
+                logger.info("Building decision lookup table over " + gridAxes);
+                DecisionLookupTable builtDecisionLookupTable = DecisionLookupTable.build(fuzzyInferenceSystemSupplier, gridAxes, lookupTable.isInterpolate());
+                if (tableFile != null) {
+                    builtDecisionLookupTable.write(tableFile, ruleSetKey);
+                    decisionLookupTable = DecisionLookupTable.load(tableFile, functionBlock, gridAxes, ruleSetKey, lookupTable.isInterpolate());
+                    logger.info("Wrote and memory-mapped decision lookup table " + tableFile);
+                } else {
+                    decisionLookupTable = Optional.of(builtDecisionLookupTable);
+                }
+            }
+
+            DecisionLookupTable.DeviationReport deviationReport = decisionLookupTable.orElseThrow().measureDeviation(
+                    fuzzyInferenceSystemSupplier, lookupTable.getDeviationSamples(), DecisionLookupTable.DEVIATION_SAMPLES_SEED);
+            logger.info("Decision lookup table deviation from rule evaluation: " + deviationReport);
+            if (deviationReport.maximumDeviation() > lookupTable.getMaximumDeviation()) {
+                throw new LookupTableAccuracyException("The decision lookup table is not accurate enough (" + deviationReport
+                        + ", allowed maximum deviation " + lookupTable.getMaximumDeviation() + "). Use a finer grid or disable the lookup table.");
+            }
+            return decisionLookupTable.orElseThrow();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read or write the decision lookup table file " + tableFile, exception);
+        }
+    }
+
+    static FIS parseFclFile(byte[] fclRulesSource) {
+        FIS fuzzyInferenceSystem;
+        try {
+            fuzzyInferenceSystem = FIS.load(new ByteArrayInputStream(fclRulesSource), true);
+        } catch (Exception exception) {
+            throw new InvalidFclFileException("Failed to parse Fuzzy Control Language (FCL) file: ", exception);
+        }
+        // jFuzzyLogic reports some syntax errors only by returning no FIS or no function block
+        if (fuzzyInferenceSystem == null || fuzzyInferenceSystem.getFunctionBlock(null) == null) {
+            throw new InvalidFclFileException("Failed to parse Fuzzy Control Language (FCL) file: no function block found");
+        }
+        return fuzzyInferenceSystem;
+    }
+
+    static String computeSha256(byte[] fclRulesSource) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(fclRulesSource));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package eu.ai4work.sws.config;
+
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports the active rule set of every scenario at the actuator {@code /actuator/info} endpoint, to verify which FCL
+ * files are in effect.
+ */
+@Component
+@RequiredArgsConstructor
+public class RuleSetInfoContributor implements InfoContributor {
+    private final ScenarioRegistry scenarioRegistry;
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        Map<String, Object> ruleSetsByScenario = new LinkedHashMap<>();
+        for (Scenario scenario : scenarioRegistry.getScenarios()) {
+            RuleSet ruleSet = scenario.getActiveRuleSet().get();
+            Map<String, Object> ruleSetDetails = new LinkedHashMap<>();
+            ruleSetDetails.put("version", ruleSet.getVersion());
+            ruleSetDetails.put("sha256", ruleSet.getFclRulesSha256());
+            ruleSetDetails.put("fclRulesFilePath", scenario.getFclRulesFilePath());
+            ruleSetDetails.put("fclRulesModifiedAt", ruleSet.getFclRulesModifiedAt().toString());
+            ruleSetDetails.put("fclRulesRevision", ruleSet.getFclRulesRevision());
+            ruleSetDetails.put("loadedAt", ruleSet.getLoadedAt().toString());
+            ruleSetDetails.put("functionBlocks", ruleSet.getFunctionBlockGraph().getStages());
+            ruleSetsByScenario.put(scenario.getName(), ruleSetDetails);
+        }
+        builder.withDetail("ruleSets", ruleSetsByScenario);
+    }
+}
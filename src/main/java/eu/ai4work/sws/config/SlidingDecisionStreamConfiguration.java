@@ -0,0 +1,23 @@
+package eu.ai4work.sws.config;
+
+import eu.ai4work.sws.controller.SlidingDecisionStreamHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the WebSocket endpoints of the sliding decision streams, next to the REST endpoints of single requests.
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class SlidingDecisionStreamConfiguration implements WebSocketConfigurer {
+    private final SlidingDecisionStreamHandler slidingDecisionStreamHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(slidingDecisionStreamHandler, "/sliding-decision/stream", "/scenarios/*/sliding-decision/stream");
+    }
+}
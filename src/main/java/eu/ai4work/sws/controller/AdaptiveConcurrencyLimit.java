@@ -0,0 +1,140 @@
+package eu.ai4work.sws.controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A limit of the requests in flight that adapts to their latency with a gradient algorithm.
+ * <p>
+ * The completed requests are sampled in windows of {@code sampleWindow} requests. The average latency of a window (the
+ * short-term latency) is compared to an exponential moving average over many windows (the long-term latency), which
+ * gives the gradient {@code latencyTolerance * longTermLatency / shortTermLatency}, clamped to between 0.5 and 1. The
+ * target limit of a window is {@code limit * gradient + sqrt(limit)}, and the limit moves a fifth of the way towards
+ * it. So while the short-term latency is at most {@code latencyTolerance} times the long-term one, the limit grows by a
+ * fifth of its square root per window; when requests start to queue up and the latency rises further, it shrinks once
+ * {@code limit * (1 - gradient)} exceeds {@code sqrt(limit)}, by at most a tenth of the limit per window. The limit never
+ * leaves the range between the minimum and the maximum limit, and it does not grow in windows in which less than half
+ * of it was used.
+ * <p>
+ * Acquiring and releasing a permit are lock-free; the limit is adapted by whichever releasing thread completes a window,
+ * and the other threads skip the update instead of waiting for it.
+ */
+public final class AdaptiveConcurrencyLimit {
+    /**
+     * The number of windows the long-term latency averages over.
+     */
+    private static final int LONG_TERM_WINDOWS = 20;
+    /**
+     * The weight of a new limit, so that a single window with an outlying latency does not halve the limit.
+     */
+    private static final double SMOOTHING = 0.2;
+    private static final double MINIMUM_GRADIENT = 0.5;
+
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final double latencyTolerance;
+    private final int sampleWindow;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    /**
+     * The highest number of requests in flight in the current window.
+     */
+    private final AtomicInteger peakInFlightRequests = new AtomicInteger();
+    private final LongAdder sampledLatencyNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile int limit;
+    /**
+     * Guarded by the update lock.
+     */
+    private double estimatedLimit;
+    private double longTermLatencyNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minimumLimit, int maximumLimit, double latencyTolerance, int sampleWindow) {
+        if (minimumLimit < 1 || maximumLimit < minimumLimit || latencyTolerance < 1 || sampleWindow < 1) {
+            throw new IllegalArgumentException("The concurrency limit needs 1 <= minimumLimit <= maximumLimit, a latency tolerance of at least 1 and a sample window of at least 1 request.");
+        }
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.sampleWindow = sampleWindow;
+        this.estimatedLimit = Math.clamp(initialLimit, minimumLimit, maximumLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return whether the request is admitted; if it is, {@link #release} must be called when it is completed.
+     */
+    public boolean tryAcquire() {
+        int requests;
+        do {
+            requests = inFlightRequests.get();
+            if (requests >= limit) {
+                return false;
+            }
+        } while (!inFlightRequests.compareAndSet(requests, requests + 1));
+        if (requests + 1 > peakInFlightRequests.get()) {
+            peakInFlightRequests.accumulateAndGet(requests + 1, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * Releases the permit of a completed request and samples its latency.
+     */
+    public void release(long latencyNanos) {
+        inFlightRequests.decrementAndGet();
+        sampledLatencyNanos.add(latencyNanos);
+        samples.increment();
+        if (samples.sum() >= sampleWindow && updateLock.tryLock()) {
+            try {
+                adaptLimit();
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Releases the permit of a request whose latency says nothing about the load, e.g. one that failed.
+     */
+    public void releaseWithoutSample() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    private void adaptLimit() {
+        long numberOfSamples = samples.sumThenReset();
+        long latencyNanos = sampledLatencyNanos.sumThenReset();
+        int peakRequests = peakInFlightRequests.getAndSet(inFlightRequests.get());
+        if (numberOfSamples == 0) {
+            return;
+        }
+        double shortTermLatencyNanos = Math.max(1, (double) latencyNanos / numberOfSamples);
+        if (longTermLatencyNanos == 0) {
+            longTermLatencyNanos = shortTermLatencyNanos;
+        } else {
+            longTermLatencyNanos += (shortTermLatencyNanos - longTermLatencyNanos) / LONG_TERM_WINDOWS;
+            // after an overload, the long-term latency follows a lower latency faster, so that the limit recovers
+            if (longTermLatencyNanos > 2 * shortTermLatencyNanos) {
+                longTermLatencyNanos *= 0.95;
+            }
+        }
+
+        double gradient = Math.clamp(latencyTolerance * longTermLatencyNanos / shortTermLatencyNanos, MINIMUM_GRADIENT, 1.0);
+        if (gradient == 1.0 && peakRequests < estimatedLimit / 2) {
+            // the clients did not use the limit, so the latency says nothing about whether it could be higher
+            return;
+        }
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.clamp(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING, minimumLimit, maximumLimit);
+        limit = (int) estimatedLimit;
+    }
+}
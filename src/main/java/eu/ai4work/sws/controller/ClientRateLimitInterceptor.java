@@ -0,0 +1,105 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.exception.ClientRateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the sliding decision requests per client with a {@link ClientRateLimiter}, before their body is read, so one
+ * misbehaving client cannot starve the others. The client is identified by its remote address, or by the client id
+ * header if one is configured, which a trusted proxy has to set. A request that another node of the cluster forwarded
+ * keeps the client id of the original client, see {@link #FORWARDED_CLIENT_ID_ATTRIBUTE}. Requests beyond the rate are rejected with {@code 429 Too Many Requests} and a
+ * {@code Retry-After} header; a batch request counts as one request.
+ * <p>
+ * The rejected requests are counted in the metric {@code sliding.decision.admission.rejected} with the
+ * {@code reason} {@code client-rate-limit}.
+ */
+@Component
+public class ClientRateLimitInterceptor implements HandlerInterceptor {
+    /**
+     * The request attribute with the client id of a request that another node of the cluster forwarded, set by the
+     * {@link ClusterForwardingInterceptor} once it verified the forwarding node.
+     */
+    public static final String FORWARDED_CLIENT_ID_ATTRIBUTE = ClientRateLimitInterceptor.class.getName() + ".forwardedClientId";
+    private final String clientIdHeader;
+    /**
+     * Null if the requests of the clients are not limited.
+     */
+    private final ClientRateLimiter clientRateLimiter;
+    private final Counter rejectedRequestsCounter;
+
+    public ClientRateLimitInterceptor(ApplicationScenarioConfiguration applicationScenarioConfiguration, MeterRegistry meterRegistry) {
+        ApplicationScenarioConfiguration.AdmissionControl admissionControl = applicationScenarioConfiguration.getAdmissionControl();
+        ApplicationScenarioConfiguration.ClientRateLimit clientRateLimit = admissionControl.getClientRateLimit();
+        this.clientIdHeader = admissionControl.getClientIdHeader();
+        if (clientRateLimit.isEnabled()) {
+            this.clientRateLimiter = new ClientRateLimiter(clientRateLimit.getRequestsPerSecond(), clientRateLimit.getBurst(),
+                    clientRateLimit.getMaximumTrackedClients());
+            Gauge.builder("sliding.decision.admission.clients", clientRateLimiter, ClientRateLimiter::getNumberOfTrackedClients)
+                    .description("Clients whose sliding decision requests are rate limited")
+                    .register(meterRegistry);
+        } else {
+            this.clientRateLimiter = null;
+        }
+        this.rejectedRequestsCounter = Counter.builder("sliding.decision.admission.rejected")
+                .description("Sliding decision requests that were rejected by the admission control")
+                .tag("reason", "client-rate-limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws ClientRateLimitExceededException if the client has sent too many requests.
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the asynchronous dispatch of an evaluated request was already admitted
+        if (clientRateLimiter == null || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String clientId = getClientId(request);
+        long waitNanos = clientRateLimiter.tryAcquire(clientId, System.nanoTime());
+        if (waitNanos > 0) {
+            rejectedRequestsCounter.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new ClientRateLimitExceededException("The sliding decision request was rejected, because the client "
+                    + clientId + " exceeded its rate limit.", retryAfterSeconds);
+        }
+        return true;
+    }
+
+    /**
+     * @return the rejected requests in total and of the clients with the most rejected requests.
+     */
+    public Map<String, Object> getStatistics(int numberOfTopClients) {
+        if (clientRateLimiter == null) {
+            return Map.of("enabled", false);
+        }
+        return Map.of(
+                "enabled", true,
+                "rejectedRequests", (long) rejectedRequestsCounter.count(),
+                "trackedClients", clientRateLimiter.getNumberOfTrackedClients(),
+                "rejectedRequestsOfTopClients", clientRateLimiter.getRejectedRequestsOfTopClients(numberOfTopClients));
+    }
+
+    /**
+     * @return the client id of a forwarded request, otherwise the value of the client id header, if configured and
+     * present, otherwise the remote address.
+     */
+    public String getClientId(HttpServletRequest request) {
+        if (request.getAttribute(FORWARDED_CLIENT_ID_ATTRIBUTE) instanceof String forwardedClientId) {
+            return forwardedClientId;
+        }
+        String clientId = clientIdHeader != null ? request.getHeader(clientIdHeader) : null;
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+}
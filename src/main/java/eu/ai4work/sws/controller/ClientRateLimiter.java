@@ -0,0 +1,117 @@
+package eu.ai4work.sws.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A token bucket per client, without locks.
+ * <p>
+ * The bucket of a client is a single {@link AtomicLong}: the time at which it will be full again (the "theoretical
+ * arrival time" of the generic cell rate algorithm). A request takes a token by moving this time one refill interval
+ * into the future, with one compare-and-set; it is admitted as long as the time stays within the burst size of refill
+ * intervals ahead of now. So concurrent requests of the same client never wait for each other, and requests of
+ * different clients only share the cache of buckets.
+ * <p>
+ * At most {@code maximumTrackedClients} buckets are kept. A bucket that was not used for the time it takes to refill
+ * it is full again and expires, since a new bucket starts full anyway. While all buckets are taken, the clients
+ * without one share a single overflow bucket, so a client that makes up new client ids neither gets a full bucket for
+ * each of them nor evicts the buckets of the other clients.
+ */
+public final class ClientRateLimiter {
+    /**
+     * The client id under which the rejected requests of the overflow bucket are reported.
+     */
+    public static final String OVERFLOW_CLIENT_ID = "(untracked clients)";
+
+    private final long refillIntervalNanos;
+    /**
+     * How long it takes to refill an empty bucket, i.e. how far the time of a full bucket may be ahead of now.
+     */
+    private final long bucketRefillNanos;
+    private final int maximumTrackedClients;
+    private final Cache<String, ClientBucket> bucketsByClient;
+    private final ClientBucket overflowBucket = new ClientBucket(System.nanoTime());
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, int maximumTrackedClients) {
+        if (requestsPerSecond <= 0 || burst < 1 || maximumTrackedClients < 1) {
+            throw new IllegalArgumentException("The client rate limit needs more than 0 requests per second, a burst of at least 1 request and at least 1 tracked client.");
+        }
+        this.refillIntervalNanos = Math.max(1, Math.round(1e9 / requestsPerSecond));
+        this.bucketRefillNanos = burst * refillIntervalNanos;
+        this.maximumTrackedClients = maximumTrackedClients;
+        // the maximum size is only a backstop for concurrently added buckets, tryAcquire does not add beyond it
+        this.bucketsByClient = Caffeine.newBuilder()
+                .maximumSize(maximumTrackedClients)
+                .expireAfterAccess(Duration.ofNanos(bucketRefillNanos))
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the client, if it has one.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client has a token again.
+     */
+    public long tryAcquire(String clientId, long nowNanos) {
+        ClientBucket bucket = bucketsByClient.getIfPresent(clientId);
+        if (bucket == null) {
+            bucket = bucketsByClient.estimatedSize() < maximumTrackedClients
+                    ? bucketsByClient.get(clientId, client -> new ClientBucket(nowNanos))
+                    : overflowBucket;
+        }
+
+        while (true) {
+            long fullNanos = bucket.fullNanos.get();
+            long newFullNanos = (fullNanos - nowNanos > 0 ? fullNanos : nowNanos) + refillIntervalNanos;
+            long waitNanos = newFullNanos - nowNanos - bucketRefillNanos;
+            if (waitNanos > 0) {
+                bucket.rejectedRequests.increment();
+                return waitNanos;
+            }
+            if (bucket.fullNanos.compareAndSet(fullNanos, newFullNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public int getNumberOfTrackedClients() {
+        return (int) bucketsByClient.estimatedSize();
+    }
+
+    /**
+     * @return the number of rejected requests of the clients with the most rejected requests, in descending order; the
+     * clients that shared the overflow bucket are reported as {@value #OVERFLOW_CLIENT_ID}.
+     */
+    public Map<String, Long> getRejectedRequestsOfTopClients(int numberOfClients) {
+        Map<String, Long> rejectedRequestsByClient = new LinkedHashMap<>();
+        bucketsByClient.asMap().forEach((clientId, bucket) -> rejectedRequestsByClient.put(clientId, bucket.rejectedRequests.sum()));
+        rejectedRequestsByClient.put(OVERFLOW_CLIENT_ID, overflowBucket.rejectedRequests.sum());
+        List<Map.Entry<String, Long>> topRejectedRequestsByClient = rejectedRequestsByClient.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(numberOfClients)
+                .toList();
+        Map<String, Long> topClients = new LinkedHashMap<>();
+        topRejectedRequestsByClient.forEach(entry -> topClients.put(entry.getKey(), entry.getValue()));
+        return topClients;
+    }
+
+    private static final class ClientBucket {
+        /**
+         * The {@link System#nanoTime()} at which the bucket is full again; a full bucket has this in the past.
+         */
+        private final AtomicLong fullNanos;
+        private final LongAdder rejectedRequests = new LongAdder();
+
+        private ClientBucket(long nowNanos) {
+            this.fullNanos = new AtomicLong(nowNanos);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.exception.NotAClusterMemberException;
+import eu.ai4work.sws.exception.UnknownScenarioException;
+import eu.ai4work.sws.model.ClusterRuleSetState;
+import eu.ai4work.sws.service.ClusterMembership;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the internal requests between the nodes of a cluster: the active rule sets of this node, which the other nodes
+ * poll to agree on the rule set of every scenario, and the FCL files of these rule sets. The rule sets are only served
+ * to requests from the hosts of the other members, like the forwarding headers are only trusted from them (see
+ * {@link ClusterForwardingInterceptor}). Only available if the cluster is enabled.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "application-scenario-config.cluster", name = "enabled", havingValue = "true")
+public class ClusterController {
+    public static final String FCL_RULES_MODIFIED_AT_HEADER = "Fcl-Rules-Modified-At";
+    private final ScenarioRegistry scenarioRegistry;
+    private final ClusterMembership clusterMembership;
+
+    /**
+     * @return the active rule set of every scenario of this node.
+     * @throws NotAClusterMemberException if the request is not sent from the host of another member.
+     */
+    @GetMapping("/cluster/rule-sets")
+    public List<ClusterRuleSetState> getRuleSetStates(HttpServletRequest request) {
+        requireOtherMember(request);
+        return scenarioRegistry.getScenarios().stream()
+                .map(scenario -> {
+                    RuleSet ruleSet = scenario.getActiveRuleSet().get();
+                    return new ClusterRuleSetState(scenario.getName(), ruleSet.getFclRulesSha256(), ruleSet.getVersion(),
+                            ruleSet.getFclRulesRevision());
+                })
+                .toList();
+    }
+
+    /**
+     * @return the content of the FCL file of the active rule set of the scenario, and when it was last modified in the
+     * header {@value #FCL_RULES_MODIFIED_AT_HEADER}.
+     * @throws UnknownScenarioException   if there is no scenario with this name.
+     * @throws NotAClusterMemberException if the request is not sent from the host of another member.
+     */
+    @GetMapping(value = "/cluster/rule-sets/{scenarioName}/fcl", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<byte[]> getFclRules(@PathVariable String scenarioName, HttpServletRequest request) {
+        requireOtherMember(request);
+        Scenario scenario = scenarioRegistry.getScenario(scenarioName);
+        RuleSet ruleSet = scenario.getActiveRuleSet().get();
+        return ResponseEntity.ok()
+                .header(FCL_RULES_MODIFIED_AT_HEADER, ruleSet.getFclRulesModifiedAt().toString())
+                .body(ruleSet.getFclRulesSource());
+    }
+
+    /**
+     * @return this node, whether each member of the cluster is reachable from it, and the node that owns each scenario.
+     */
+    @GetMapping("/cluster/members")
+    public Map<String, Object> getMembers() {
+        Map<String, String> ownerByScenario = new LinkedHashMap<>();
+        for (Scenario scenario : scenarioRegistry.getScenarios()) {
+            ownerByScenario.put(scenario.getName(), clusterMembership.getOwner(ClusterMembership.getScenarioKey(scenario.getName())));
+        }
+        return Map.of(
+                "nodeUrl", clusterMembership.getNodeUrl(),
+                "reachableByMember", clusterMembership.getReachableByMember(),
+                "ownerByScenario", ownerByScenario);
+    }
+
+    private void requireOtherMember(HttpServletRequest request) {
+        if (!clusterMembership.isSentFromOtherMember(request.getRemoteAddr())) {
+            throw new NotAClusterMemberException("The rule sets of this node are only served to the other cluster members, not to "
+                    + request.getRemoteAddr());
+        }
+    }
+}
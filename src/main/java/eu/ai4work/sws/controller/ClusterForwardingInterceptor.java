@@ -0,0 +1,184 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.exception.ClusterNodeUnavailableException;
+import eu.ai4work.sws.service.ClusterMembership;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routes the sliding decision requests of a cluster to the node that owns their scenario, or their decision session,
+ * see {@link ClusterMembership}. A request for another node is forwarded to it unchanged, over HTTP with the header
+ * {@value #FORWARDED_BY_HEADER}, and its response is relayed to the client; both bodies are streamed through without
+ * holding them in memory. The client id of the original client is sent along in the header
+ * {@value #FORWARDED_CLIENT_HEADER}, so the owning node limits the rate of the original client. A forwarded request is
+ * always handled by the node it is forwarded to, even if the nodes see different reachable members for a moment, so a
+ * request is forwarded at most once.
+ * <p>
+ * The two headers are only honored if the request comes from the address of the member named in
+ * {@value #FORWARDED_BY_HEADER}; otherwise they are ignored and replaced when the request is forwarded, so a client can
+ * neither bypass the routing nor choose the client id its rate is limited by.
+ * <p>
+ * Every response has the header {@value #CLUSTER_NODE_HEADER} with the node that handled the request. The forwarded
+ * requests are counted in the metric {@code sliding.decision.cluster.forwarded}. Only active if the cluster is enabled.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application-scenario-config.cluster", name = "enabled", havingValue = "true")
+public class ClusterForwardingInterceptor implements HandlerInterceptor {
+    public static final String FORWARDED_BY_HEADER = "Sws-Forwarded-By";
+    public static final String FORWARDED_CLIENT_HEADER = "Sws-Forwarded-Client";
+    public static final String CLUSTER_NODE_HEADER = "Sws-Cluster-Node";
+    private static final String SESSIONS_PATH = "/sliding-decision/sessions/";
+    private static final String SCENARIOS_PATH = "/scenarios/";
+    /**
+     * Headers that belong to one HTTP connection, and that the HTTP client or the web server set themselves.
+     */
+    private static final Set<String> NOT_FORWARDED_HEADERS = Set.of("connection", "content-length", "date", "expect", "host", "keep-alive",
+            "transfer-encoding", "upgrade", "te", "trailer", "proxy-connection", "http2-settings",
+            FORWARDED_BY_HEADER.toLowerCase(), FORWARDED_CLIENT_HEADER.toLowerCase());
+
+    private final ClusterMembership clusterMembership;
+    private final ClientRateLimitInterceptor clientRateLimitInterceptor;
+    private final Duration forwardTimeout;
+    private final HttpClient httpClient;
+    private final Counter forwardedRequestsCounter;
+    private final Counter failedForwardedRequestsCounter;
+
+    public ClusterForwardingInterceptor(ClusterMembership clusterMembership, ClientRateLimitInterceptor clientRateLimitInterceptor,
+                                        ApplicationScenarioConfiguration applicationScenarioConfiguration, MeterRegistry meterRegistry) {
+        this.clusterMembership = clusterMembership;
+        this.clientRateLimitInterceptor = clientRateLimitInterceptor;
+        this.forwardTimeout = applicationScenarioConfiguration.getCluster().getForwardTimeout();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(forwardTimeout)
+                .build();
+        this.forwardedRequestsCounter = Counter.builder("sliding.decision.cluster.forwarded")
+                .description("Sliding decision requests that were forwarded to the node of the cluster that owns them")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failedForwardedRequestsCounter = Counter.builder("sliding.decision.cluster.forwarded")
+                .description("Sliding decision requests that were forwarded to the node of the cluster that owns them")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if this node handles the request, false if it was forwarded and its response is written.
+     * @throws ClusterNodeUnavailableException if the owning node does not respond in time.
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // the asynchronous dispatch of an evaluated request was already routed
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String forwardedBy = request.getHeader(FORWARDED_BY_HEADER);
+        if (forwardedBy != null && clusterMembership.isSentByOtherMember(forwardedBy, request.getRemoteAddr())) {
+            String forwardedClientId = request.getHeader(FORWARDED_CLIENT_HEADER);
+            if (forwardedClientId != null) {
+                request.setAttribute(ClientRateLimitInterceptor.FORWARDED_CLIENT_ID_ATTRIBUTE, forwardedClientId);
+            }
+            response.setHeader(CLUSTER_NODE_HEADER, clusterMembership.getNodeUrl());
+            return true;
+        }
+        String owner = clusterMembership.getOwner(getRoutingKey(request));
+        if (owner.equals(clusterMembership.getNodeUrl())) {
+            response.setHeader(CLUSTER_NODE_HEADER, owner);
+            return true;
+        }
+        forward(request, response, owner);
+        return false;
+    }
+
+    /**
+     * @return the routing key of the session in the path, otherwise of the scenario in the path or the default scenario.
+     */
+    static String getRoutingKey(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(SESSIONS_PATH)) {
+            return ClusterMembership.getSessionKey(path.substring(SESSIONS_PATH.length()));
+        }
+        if (path.startsWith(SCENARIOS_PATH)) {
+            int scenarioNameEnd = path.indexOf('/', SCENARIOS_PATH.length());
+            return ClusterMembership.getScenarioKey(path.substring(SCENARIOS_PATH.length(), scenarioNameEnd < 0 ? path.length() : scenarioNameEnd));
+        }
+        return ClusterMembership.getScenarioKey(ScenarioRegistry.DEFAULT_SCENARIO_NAME);
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, String owner) throws IOException {
+        String pathAndQuery = request.getRequestURI() + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        HttpRequest.Builder forwardedRequest = HttpRequest.newBuilder(URI.create(owner + pathAndQuery))
+                .timeout(forwardTimeout)
+                .method(request.getMethod(), hasBody(request)
+                        ? HttpRequest.BodyPublishers.ofInputStream(() -> getInputStream(request))
+                        : HttpRequest.BodyPublishers.noBody());
+        for (String headerName : Collections.list(request.getHeaderNames())) {
+            if (!NOT_FORWARDED_HEADERS.contains(headerName.toLowerCase())) {
+                for (String headerValue : Collections.list(request.getHeaders(headerName))) {
+                    forwardedRequest.header(headerName, headerValue);
+                }
+            }
+        }
+        forwardedRequest.header(FORWARDED_BY_HEADER, clusterMembership.getNodeUrl());
+        forwardedRequest.header(FORWARDED_CLIENT_HEADER, clientRateLimitInterceptor.getClientId(request));
+
+        HttpResponse<InputStream> forwardedResponse;
+        try {
+            forwardedResponse = httpClient.send(forwardedRequest.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException exception) {
+            failedForwardedRequestsCounter.increment();
+            throw new ClusterNodeUnavailableException("The request could not be forwarded to the cluster node " + owner + ".", exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            failedForwardedRequestsCounter.increment();
+            throw new ClusterNodeUnavailableException("Forwarding the request to the cluster node " + owner + " was interrupted.", exception);
+        }
+        forwardedRequestsCounter.increment();
+
+        response.setStatus(forwardedResponse.statusCode());
+        for (Map.Entry<String, List<String>> header : forwardedResponse.headers().map().entrySet()) {
+            if (!header.getKey().startsWith(":") && !NOT_FORWARDED_HEADERS.contains(header.getKey().toLowerCase())) {
+                header.getValue().forEach(headerValue -> response.addHeader(header.getKey(), headerValue));
+            }
+        }
+        try (InputStream forwardedResponseBody = forwardedResponse.body()) {
+            forwardedResponseBody.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * @return whether the request has a body, i.e. a content length above 0 or a chunked body of unknown length.
+     */
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+    }
+
+    private static InputStream getInputStream(HttpServletRequest request) {
+        try {
+            return request.getInputStream();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
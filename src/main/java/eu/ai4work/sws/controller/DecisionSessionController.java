@@ -0,0 +1,106 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import eu.ai4work.sws.exception.UnknownDecisionSessionException;
+import eu.ai4work.sws.exception.UnknownScenarioException;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecisionRequest;
+import eu.ai4work.sws.model.SlidingDecisionResponse;
+import eu.ai4work.sws.service.DecisionSession;
+import eu.ai4work.sws.service.DecisionSessionService;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Serves stateful decision sessions, see {@link DecisionSession}. Only available if decision sessions are enabled.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "application-scenario-config.decision-sessions", name = "enabled", havingValue = "true")
+public class DecisionSessionController {
+    private static final String SESSIONS_PATH = "/sliding-decision/sessions/";
+    private final DecisionSessionService decisionSessionService;
+    private final ScenarioRegistry scenarioRegistry;
+    private final SlidingDecisionResponseMapper slidingDecisionResponseMapper;
+
+    /**
+     * Opens a decision session of the default scenario with all input parameters and returns the first sliding decision.
+     *
+     * @param request          The request body containing all input parameters
+     * @param explanationLevel Optional query parameter: none, summary or full (default) explanation of every decision of the session
+     * @return SlidingDecisionResponse with the sessionId, the session is also referenced in the Location header.
+     * @throws UnknownScenarioException if no default scenario is configured.
+     */
+    @PostMapping("/sliding-decision/sessions")
+    public ResponseEntity<SlidingDecisionResponse> openSession(@RequestBody SlidingDecisionRequest request,
+                                                               @RequestParam(required = false) String explanationLevel) {
+        return openSession(scenarioRegistry.getDefaultScenario(), request, explanationLevel);
+    }
+
+    /**
+     * Opens a decision session of the named scenario, like a session of the default scenario.
+     *
+     * @throws UnknownScenarioException if there is no scenario with this name.
+     */
+    @PostMapping("/scenarios/{scenarioName}/sliding-decision/sessions")
+    public ResponseEntity<SlidingDecisionResponse> openScenarioSession(@PathVariable String scenarioName,
+                                                                       @RequestBody SlidingDecisionRequest request,
+                                                                       @RequestParam(required = false) String explanationLevel) {
+        return openSession(scenarioRegistry.getScenario(scenarioName), request, explanationLevel);
+    }
+
+    private ResponseEntity<SlidingDecisionResponse> openSession(Scenario scenario, SlidingDecisionRequest request, String explanationLevel) {
+        assureInputParametersAreNotEmpty(request.getSlidingDecisionInputParameters());
+        DecisionSessionService.SessionDecision openedSession = decisionSessionService.openSession(scenario, request.getSlidingDecisionInputParameters(),
+                slidingDecisionResponseMapper.resolveExplanationLevel(explanationLevel, request.getExplanationLevel(), ExplanationLevel.FULL));
+
+        SlidingDecisionResponse slidingDecisionResponse = slidingDecisionResponseMapper.createResponse(scenario, openedSession.slidingDecision());
+        slidingDecisionResponse.setSessionId(openedSession.sessionId());
+        return ResponseEntity.created(URI.create(SESSIONS_PATH + openedSession.sessionId())).body(slidingDecisionResponse);
+    }
+
+    /**
+     * Updates the input parameters that changed since the last decision of the session and returns the new sliding decision.
+     *
+     * @param request          The request body containing only the changed input parameters
+     * @param explanationLevel Optional query parameter that overrides the explanation level of the session for this decision
+     * @throws UnknownDecisionSessionException if the session was closed or expired.
+     * @throws InvalidInputParameterException  if an input parameter is unknown or not a valid number.
+     */
+    @PatchMapping("/sliding-decision/sessions/{sessionId}")
+    public SlidingDecisionResponse updateSession(@PathVariable String sessionId, @RequestBody SlidingDecisionRequest request,
+                                                 @RequestParam(required = false) String explanationLevel) {
+        assureInputParametersAreNotEmpty(request.getSlidingDecisionInputParameters());
+        // without explanation level, the level of the session applies
+        ExplanationLevel resolvedExplanationLevel = slidingDecisionResponseMapper.resolveExplanationLevel(explanationLevel,
+                request.getExplanationLevel(), null);
+        DecisionSessionService.SessionDecision sessionDecision = decisionSessionService.updateSession(sessionId,
+                request.getSlidingDecisionInputParameters(), resolvedExplanationLevel);
+        return slidingDecisionResponseMapper.createResponse(sessionDecision.scenario(), sessionDecision.slidingDecision());
+    }
+
+    @DeleteMapping("/sliding-decision/sessions/{sessionId}")
+    public ResponseEntity<Void> closeSession(@PathVariable String sessionId) {
+        decisionSessionService.closeSession(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private void assureInputParametersAreNotEmpty(Map<String, Object> slidingDecisionInputParameters) {
+        if (slidingDecisionInputParameters == null || slidingDecisionInputParameters.isEmpty()) {
+            throw new IllegalArgumentException("The sliding decision input parameters must not be null or empty.");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.config.RequestExecutionModeCondition;
+import eu.ai4work.sws.exception.ServiceOverloadedException;
+import eu.ai4work.sws.exception.UnknownScenarioException;
+import eu.ai4work.sws.model.SlidingDecisionRequest;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serves single sliding decision requests in the mode {@code EVALUATION_EXECUTOR}, where they are evaluated
+ * asynchronously on the evaluation executor, like the {@link ReceivingThreadSlidingDecisionController} serves them in
+ * the other modes. The web server thread is released while a request waits, and the response is written when the
+ * returned future completes.
+ */
+@RestController
+@RequiredArgsConstructor
+@Conditional(RequestExecutionModeCondition.OnEvaluationExecutor.class)
+public class EvaluationExecutorSlidingDecisionController {
+    private final ScenarioRegistry scenarioRegistry;
+    private final SlidingDecisionRequestProcessor slidingDecisionRequestProcessor;
+    private final SlidingDecisionRequestExecutor slidingDecisionRequestExecutor;
+
+    /**
+     * Processes a sliding decision request of the default scenario, see
+     * {@link ReceivingThreadSlidingDecisionController#processSlidingDecisionRequest}.
+     *
+     * @throws UnknownScenarioException if no default scenario is configured.
+     * @throws ServiceOverloadedException if too many requests are waiting for their evaluation.
+     */
+    @PostMapping(value = "/sliding-decision", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> processSlidingDecisionRequest(@RequestBody SlidingDecisionRequest request,
+                                                                                   @RequestParam(required = false) String explanationLevel) {
+        return slidingDecisionRequestExecutor.executeAsynchronously(slidingDecisionRequestProcessor.prepareSlidingDecision(
+                scenarioRegistry.getDefaultScenario(), request, explanationLevel));
+    }
+
+    /**
+     * Processes a sliding decision request of the named scenario, like the sliding decision request of the default scenario.
+     *
+     * @throws UnknownScenarioException if there is no scenario with this name.
+     */
+    @PostMapping(value = "/scenarios/{scenarioName}/sliding-decision", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> processScenarioSlidingDecisionRequest(@PathVariable String scenarioName,
+                                                                                           @RequestBody SlidingDecisionRequest request,
+                                                                                           @RequestParam(required = false) String explanationLevel) {
+        return slidingDecisionRequestExecutor.executeAsynchronously(slidingDecisionRequestProcessor.prepareSlidingDecision(
+                scenarioRegistry.getScenario(scenarioName), request, explanationLevel));
+    }
+
+    /**
+     * Processes a binary sliding decision request of the default scenario, see
+     * {@link ReceivingThreadSlidingDecisionController#processSlidingDecisionVectorRequest}.
+     *
+     * @throws UnknownScenarioException if no default scenario is configured.
+     * @throws ServiceOverloadedException if too many requests are waiting for their evaluation.
+     */
+    @PostMapping(value = "/sliding-decision", consumes = SlidingDecisionVectorController.DECISION_VECTOR_MEDIA_TYPE)
+    public CompletableFuture<ResponseEntity<byte[]>> processSlidingDecisionVectorRequest(
+            @RequestBody byte[] inputVector,
+            @RequestHeader(name = SlidingDecisionVectorController.DECISION_VECTOR_SCHEMA_HEADER, required = false) String expectedDecisionVectorSchema) {
+        return slidingDecisionRequestExecutor.executeAsynchronously(slidingDecisionRequestProcessor.prepareSlidingDecisionVector(
+                scenarioRegistry.getDefaultScenario(), inputVector, expectedDecisionVectorSchema));
+    }
+
+    /**
+     * Processes a binary sliding decision request of the named scenario, like the request of the default scenario.
+     *
+     * @throws UnknownScenarioException if there is no scenario with this name.
+     */
+    @PostMapping(value = "/scenarios/{scenarioName}/sliding-decision", consumes = SlidingDecisionVectorController.DECISION_VECTOR_MEDIA_TYPE)
+    public CompletableFuture<ResponseEntity<byte[]>> processScenarioSlidingDecisionVectorRequest(
+            @PathVariable String scenarioName,
+            @RequestBody byte[] inputVector,
+            @RequestHeader(name = SlidingDecisionVectorController.DECISION_VECTOR_SCHEMA_HEADER, required = false) String expectedDecisionVectorSchema) {
+        return slidingDecisionRequestExecutor.executeAsynchronously(slidingDecisionRequestProcessor.prepareSlidingDecisionVector(
+                scenarioRegistry.getScenario(scenarioName), inputVector, expectedDecisionVectorSchema));
+    }
+}
@@ -0,0 +1,104 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.config.RequestExecutionModeCondition;
+import eu.ai4work.sws.engine.DecisionVectorSchema;
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import eu.ai4work.sws.exception.ServiceOverloadedException;
+import eu.ai4work.sws.exception.UnknownScenarioException;
+import eu.ai4work.sws.model.SlidingDecisionRequest;
+import eu.ai4work.sws.model.SlidingDecisionResponse;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves single sliding decision requests in the modes {@code PLATFORM_THREADS} and {@code VIRTUAL_THREADS}, where they
+ * are evaluated on the thread that received them and answered synchronously, without an asynchronous dispatch.
+ */
+@RestController
+@RequiredArgsConstructor
+@Conditional(RequestExecutionModeCondition.OnReceivingThread.class)
+public class ReceivingThreadSlidingDecisionController {
+    private final ScenarioRegistry scenarioRegistry;
+    private final SlidingDecisionRequestProcessor slidingDecisionRequestProcessor;
+    private final SlidingDecisionRequestExecutor slidingDecisionRequestExecutor;
+
+    /**
+     * Processes a sliding decision request of the default scenario by validating the input parameters from the sliding
+     * decision request, calling the decision logic and returns a decision response.
+     *
+     * This method describes the "happy flow", while all exceptions that may potentially happen will be handled by the GlobalException handler.
+     * The request is evaluated according to the configured request execution mode, see {@link SlidingDecisionRequestExecutor}.
+     * The response is written as JSON by the {@link SlidingDecisionJsonWriter}, right after the evaluation.
+     *
+     * @param request          The request body containing input parameters for decision process
+     * @param explanationLevel Optional query parameter: none, summary or full (default) explanation
+     * @return The JSON of a {@link SlidingDecisionResponse} containing decision status, decision details and decision explanation.
+     * @throws UnknownScenarioException if no default scenario is configured.
+     * @throws ServiceOverloadedException if too many requests are waiting for their evaluation.
+     */
+    @PostMapping(value = "/sliding-decision", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> processSlidingDecisionRequest(@RequestBody SlidingDecisionRequest request,
+                                                                @RequestParam(required = false) String explanationLevel) {
+        return slidingDecisionRequestExecutor.execute(slidingDecisionRequestProcessor.prepareSlidingDecision(
+                scenarioRegistry.getDefaultScenario(), request, explanationLevel));
+    }
+
+    /**
+     * Processes a sliding decision request of the named scenario, like the sliding decision request of the default scenario.
+     *
+     * @param scenarioName     The name of the scenario whose rules are evaluated
+     * @param request          The request body containing input parameters for decision process
+     * @param explanationLevel Optional query parameter: none, summary or full (default) explanation
+     * @return The JSON of a {@link SlidingDecisionResponse} containing decision status, decision details and decision explanation.
+     * @throws UnknownScenarioException if there is no scenario with this name.
+     * @throws ServiceOverloadedException if too many requests are waiting for their evaluation.
+     */
+    @PostMapping(value = "/scenarios/{scenarioName}/sliding-decision", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> processScenarioSlidingDecisionRequest(@PathVariable String scenarioName,
+                                                                        @RequestBody SlidingDecisionRequest request,
+                                                                        @RequestParam(required = false) String explanationLevel) {
+        return slidingDecisionRequestExecutor.execute(slidingDecisionRequestProcessor.prepareSlidingDecision(
+                scenarioRegistry.getScenario(scenarioName), request, explanationLevel));
+    }
+
+    /**
+     * Processes a binary sliding decision request of the default scenario, see {@link SlidingDecisionVectorController}.
+     *
+     * @param inputVector                  One double per input variable, see {@link DecisionVectorSchema}
+     * @param expectedDecisionVectorSchema Optional header: the schema version the request was encoded with
+     * @return the index of the decided term of each output variable.
+     * @throws InvalidInputParameterException if the request does not match the schema, or a value is not a valid number.
+     * @throws UnknownScenarioException       if no default scenario is configured.
+     * @throws ServiceOverloadedException     if too many requests are waiting for their evaluation.
+     */
+    @PostMapping(value = "/sliding-decision", consumes = SlidingDecisionVectorController.DECISION_VECTOR_MEDIA_TYPE)
+    public ResponseEntity<byte[]> processSlidingDecisionVectorRequest(
+            @RequestBody byte[] inputVector,
+            @RequestHeader(name = SlidingDecisionVectorController.DECISION_VECTOR_SCHEMA_HEADER, required = false) String expectedDecisionVectorSchema) {
+        return slidingDecisionRequestExecutor.execute(slidingDecisionRequestProcessor.prepareSlidingDecisionVector(
+                scenarioRegistry.getDefaultScenario(), inputVector, expectedDecisionVectorSchema));
+    }
+
+    /**
+     * Processes a binary sliding decision request of the named scenario, like the request of the default scenario.
+     *
+     * @throws UnknownScenarioException if there is no scenario with this name.
+     */
+    @PostMapping(value = "/scenarios/{scenarioName}/sliding-decision", consumes = SlidingDecisionVectorController.DECISION_VECTOR_MEDIA_TYPE)
+    public ResponseEntity<byte[]> processScenarioSlidingDecisionVectorRequest(
+            @PathVariable String scenarioName,
+            @RequestBody byte[] inputVector,
+            @RequestHeader(name = SlidingDecisionVectorController.DECISION_VECTOR_SCHEMA_HEADER, required = false) String expectedDecisionVectorSchema) {
+        return slidingDecisionRequestExecutor.execute(slidingDecisionRequestProcessor.prepareSlidingDecisionVector(
+                scenarioRegistry.getScenario(scenarioName), inputVector, expectedDecisionVectorSchema));
+    }
+}
@@ -1,70 +1,106 @@
 package eu.ai4work.sws.controller;
 
-import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
-import eu.ai4work.sws.model.ResultForOutputVariable;
-import eu.ai4work.sws.model.SlidingDecisionStatus;
-import eu.ai4work.sws.model.SlidingDecision;
-import eu.ai4work.sws.model.SlidingDecisionRequest;
-import eu.ai4work.sws.model.SlidingDecisionResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ai4work.sws.exception.ServiceOverloadedException;
+import eu.ai4work.sws.exception.UnknownScenarioException;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecisionBatchRequest;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
 import eu.ai4work.sws.service.SlidingDecisionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Serves batches of sliding decision requests in every request execution mode; the single requests are served by the
+ * {@link ReceivingThreadSlidingDecisionController} or the {@link EvaluationExecutorSlidingDecisionController}.
+ */
 @RestController
 @RequiredArgsConstructor
 public class SlidingDecisionController {
     private final SlidingDecisionService slidingDecisionService;
-    private final ApplicationScenarioConfiguration applicationScenarioConfiguration;
+    private final ScenarioRegistry scenarioRegistry;
+    private final SlidingDecisionResponseMapper slidingDecisionResponseMapper;
+    private final SlidingDecisionRequestExecutor slidingDecisionRequestExecutor;
+    private final SlidingDecisionJsonWriter slidingDecisionJsonWriter;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Processes a sliding decision request by validating the input parameters from the sliding decision request,
-     * calling the decision logic and returns a decision response.
+     * Processes a batch of sliding decision requests of the default scenario. The input parameter sets are evaluated in parallel, and the
+     * responses are streamed in the order of the request, so large batches are never held in memory as a whole.
      *
-     * This method describes the "happy flow", while all exceptions that may potentially happen will be handled by the GlobalException handler.
+     * Invalid input parameter sets do not fail the batch: their response has the error status and the error details,
+     * like the error response of a single request. The batch is admitted by the {@link SlidingDecisionRequestExecutor}
+     * before its response is streamed, see {@link SlidingDecisionRequestExecutor#admitBatch()}.
      *
-     * @param request The request body containing input parameters for decision process
-     * @return SlidingDecisionResponse containing decision status, decision details and decision explanation.
+     * @param request          The request body containing a list of input parameter sets
+     * @param explanationLevel Optional query parameter: none, summary or full (default) explanation
+     * @return JSON object with the list "slidingDecisionResponses", containing one SlidingDecisionResponse per input parameter set.
+     * @throws UnknownScenarioException if no default scenario is configured.
+     * @throws ServiceOverloadedException if too many single requests are waiting for their evaluation.
      */
-    @PostMapping("/sliding-decision")
-    public SlidingDecisionResponse processSlidingDecisionRequest(@RequestBody SlidingDecisionRequest request) {
-        assureInputParametersAreNotEmpty(request.getSlidingDecisionInputParameters());
-
-        SlidingDecision slidingDecision = slidingDecisionService.getSlidingDecision(request.getSlidingDecisionInputParameters());
-
-        return createResponse(slidingDecision);
+    @PostMapping(value = "/sliding-decision/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> processSlidingDecisionBatchRequest(@RequestBody SlidingDecisionBatchRequest request,
+                                                                                    @RequestParam(required = false) String explanationLevel) {
+        return processSlidingDecisionBatchRequest(scenarioRegistry.getDefaultScenario(), request, explanationLevel);
     }
 
     /**
-     * Creates a response based on the sliding decision
+     * Processes a batch of sliding decision requests of the named scenario, like the batch of the default scenario.
      *
-     * @param slidingDecision Evaluated sliding decision after applying the decision rules
-     * @return SlidingDecisionResponse containing decision status, decision details and decision explanation.
+     * @throws UnknownScenarioException if there is no scenario with this name.
      */
-    private SlidingDecisionResponse createResponse(SlidingDecision slidingDecision) {
-        Map<String, ResultForOutputVariable> resultsByOutputVariables = new HashMap<>();
-
-        slidingDecision.getDecisionResultPerOutputParameter().forEach((outputVariableName, resultAsLinguisticTerm) -> {
-            ResultForOutputVariable resultForOutputVariable = new ResultForOutputVariable();
-            resultForOutputVariable.setSlidingDecision(resultAsLinguisticTerm);
-            resultForOutputVariable.setDescription(applicationScenarioConfiguration.getDecisionResultsDescription().get(resultAsLinguisticTerm));
-            resultsByOutputVariables.put(outputVariableName, resultForOutputVariable);
-        });
-
-        return SlidingDecisionResponse.builder()
-                .decisionStatus(SlidingDecisionStatus.RESPONSE)
-                .slidingDecisionOutputParameters(resultsByOutputVariables)
-                .decisionExplanation(slidingDecision.getDecisionExplanation())
-                .build();
+    @PostMapping(value = "/scenarios/{scenarioName}/sliding-decision/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> processScenarioSlidingDecisionBatchRequest(@PathVariable String scenarioName,
+                                                                                            @RequestBody SlidingDecisionBatchRequest request,
+                                                                                            @RequestParam(required = false) String explanationLevel) {
+        return processSlidingDecisionBatchRequest(scenarioRegistry.getScenario(scenarioName), request, explanationLevel);
     }
 
-    private void assureInputParametersAreNotEmpty(Map<String, Object> slidingDecisionInputParameters) {
-        if (slidingDecisionInputParameters == null || slidingDecisionInputParameters.isEmpty()) {
-            throw new IllegalArgumentException("The sliding decision input parameters must not be null or empty.");
+    private ResponseEntity<StreamingResponseBody> processSlidingDecisionBatchRequest(Scenario scenario, SlidingDecisionBatchRequest request,
+                                                                                     String explanationLevel) {
+        List<Map<String, Object>> slidingDecisionInputParameterSets = request.getSlidingDecisionInputParameters();
+        if (slidingDecisionInputParameterSets == null || slidingDecisionInputParameterSets.isEmpty()) {
+            throw new IllegalArgumentException("The list of sliding decision input parameters must not be null or empty.");
         }
+        ExplanationLevel resolvedExplanationLevel = slidingDecisionResponseMapper.resolveExplanationLevel(explanationLevel, request.getExplanationLevel(), ExplanationLevel.FULL);
+        slidingDecisionRequestExecutor.admitBatch();
+
+        StreamingResponseBody responseBody = outputStream -> {
+            // only describes the decision results, whichever rule set evaluates the batch
+            RuleSet ruleSet = scenario.getActiveRuleSet().get();
+            try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream)) {
+                jsonGenerator.writeStartObject();
+                jsonGenerator.writeArrayFieldStart("slidingDecisionResponses");
+                slidingDecisionService.getSlidingDecisions(scenario, slidingDecisionInputParameterSets, resolvedExplanationLevel, (slidingDecision, exception) -> {
+                    try {
+                        if (slidingDecision != null) {
+                            slidingDecisionJsonWriter.writeResponse(jsonGenerator, ruleSet, slidingDecision);
+                        } else {
+                            jsonGenerator.writeObject(slidingDecisionResponseMapper.createErrorResponse(exception));
+                        }
+                    } catch (IOException ioException) {
+                        throw new UncheckedIOException(ioException);
+                    }
+                });
+                jsonGenerator.writeEndArray();
+                jsonGenerator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(responseBody);
     }
 }
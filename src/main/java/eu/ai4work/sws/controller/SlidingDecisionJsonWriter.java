@@ -0,0 +1,336 @@
+package eu.ai4work.sws.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ai4work.sws.engine.CompiledEvaluationState;
+import eu.ai4work.sws.engine.CompiledFuzzyInferenceSystem;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.RuleExplanation;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.model.SlidingDecisionExplanation;
+import eu.ai4work.sws.model.SlidingDecisionResponse;
+import eu.ai4work.sws.model.VariableExplanation;
+import eu.ai4work.sws.service.DecisionPipelineMetrics;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.SlidingDecisionHandler;
+import eu.ai4work.sws.service.SlidingDecisionResponseTexts;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Writes sliding decisions directly as the JSON of a {@link SlidingDecisionResponse}, without creating the response and
+ * its explanation objects first. Decisions of the compiled rule engine are written straight from its working memory,
+ * on the thread that evaluated them; all texts of the rule set are taken pre-encoded from its
+ * {@link SlidingDecisionResponseTexts}.
+ * <p>
+ * The JSON is the same as the one of {@link SlidingDecisionResponseMapper#createResponse}, except for the order of the
+ * entries of the maps, which is the order of the variables and terms in the rule set for the compiled rule engine.
+ */
+@Component
+public class SlidingDecisionJsonWriter implements SlidingDecisionHandler<byte[]> {
+    private static final SerializedString DECISION_STATUS = new SerializedString("decisionStatus");
+    /**
+     * The JSON value of {@link eu.ai4work.sws.model.SlidingDecisionStatus#RESPONSE}.
+     */
+    private static final SerializedString DECISION_STATUS_RESPONSE = new SerializedString("Sliding Decision Response");
+    private static final SerializedString SLIDING_DECISION_OUTPUT_PARAMETERS = new SerializedString("slidingDecisionOutputParameters");
+    private static final SerializedString SLIDING_DECISION = new SerializedString("slidingDecision");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString DECISION_EXPLANATION = new SerializedString("decisionExplanation");
+    private static final SerializedString INPUT_VARIABLES = new SerializedString("inputVariables");
+    private static final SerializedString APPLIED_RULES = new SerializedString("appliedRules");
+    private static final SerializedString OUTPUT_VARIABLES = new SerializedString("outputVariables");
+    private static final SerializedString VALUE = new SerializedString("value");
+    private static final SerializedString MEMBERSHIP_VALUES = new SerializedString("membershipValues");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString CONDITION = new SerializedString("condition");
+    private static final SerializedString CONSEQUENCE = new SerializedString("consequence");
+    private static final SerializedString WEIGHT = new SerializedString("weight");
+    private static final SerializedString DEGREE_OF_SUPPORT = new SerializedString("degreeOfSupport");
+    private static final SerializedString RULE_SET_VERSION = new SerializedString("ruleSetVersion");
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final JsonFactory jsonFactory;
+
+    public SlidingDecisionJsonWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * @return the response of the sliding decision as UTF-8 encoded JSON.
+     */
+    @Override
+    public byte[] handleSlidingDecision(RuleSet ruleSet, SlidingDecision slidingDecision) {
+        return write(ruleSet, jsonGenerator -> writeSlidingDecisionResponse(jsonGenerator, ruleSet, slidingDecision));
+    }
+
+    /**
+     * @return the response of the decision in the working memory as UTF-8 encoded JSON.
+     */
+    @Override
+    public byte[] handleCompiledEvaluation(RuleSet ruleSet, CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem,
+                                           CompiledEvaluationState evaluationState, ExplanationLevel explanationLevel) {
+        return write(ruleSet, jsonGenerator -> writeCompiledResponse(jsonGenerator, ruleSet.getSlidingDecisionResponseTexts(),
+                compiledFuzzyInferenceSystem, evaluationState, explanationLevel));
+    }
+
+    /**
+     * Writes the response of a sliding decision to a generator, e.g. as an element of a batch response.
+     *
+     * @param ruleSet The rule set that describes the decision results.
+     */
+    public void writeResponse(JsonGenerator jsonGenerator, RuleSet ruleSet, SlidingDecision slidingDecision) throws IOException {
+        long startNanoTime = System.nanoTime();
+        writeSlidingDecisionResponse(jsonGenerator, ruleSet, slidingDecision);
+        ruleSet.getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.RESPONSE_MAPPING, startNanoTime);
+    }
+
+    private void writeSlidingDecisionResponse(JsonGenerator jsonGenerator, RuleSet ruleSet, SlidingDecision slidingDecision) throws IOException {
+        SlidingDecisionResponseTexts texts = ruleSet.getSlidingDecisionResponseTexts();
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeFieldName(DECISION_STATUS);
+        jsonGenerator.writeString(DECISION_STATUS_RESPONSE);
+
+        jsonGenerator.writeFieldName(SLIDING_DECISION_OUTPUT_PARAMETERS);
+        jsonGenerator.writeStartObject();
+        for (Map.Entry<String, String> decisionResult : slidingDecision.getDecisionResultPerOutputParameter().entrySet()) {
+            jsonGenerator.writeFieldName(decisionResult.getKey());
+            writeResultForOutputVariable(jsonGenerator, decisionResult.getValue(), texts.getDescription(decisionResult.getValue()));
+        }
+        jsonGenerator.writeEndObject();
+
+        SlidingDecisionExplanation decisionExplanation = slidingDecision.getDecisionExplanation();
+        if (decisionExplanation != null) {
+            jsonGenerator.writeFieldName(DECISION_EXPLANATION);
+            jsonGenerator.writeStartObject();
+            if (decisionExplanation.getInputVariables() != null) {
+                jsonGenerator.writeFieldName(INPUT_VARIABLES);
+                writeVariableExplanations(jsonGenerator, decisionExplanation.getInputVariables());
+            }
+            if (decisionExplanation.getAppliedRules() != null) {
+                jsonGenerator.writeFieldName(APPLIED_RULES);
+                jsonGenerator.writeStartArray();
+                for (RuleExplanation ruleExplanation : decisionExplanation.getAppliedRules()) {
+                    writeRuleExplanation(jsonGenerator, ruleExplanation);
+                }
+                jsonGenerator.writeEndArray();
+            }
+            if (decisionExplanation.getOutputVariables() != null) {
+                jsonGenerator.writeFieldName(OUTPUT_VARIABLES);
+                writeVariableExplanations(jsonGenerator, decisionExplanation.getOutputVariables());
+            }
+            jsonGenerator.writeEndObject();
+        }
+
+        if (slidingDecision.getRuleSetVersion() != null) {
+            jsonGenerator.writeFieldName(RULE_SET_VERSION);
+            // a cached decision may be from a former rule set
+            if (slidingDecision.getRuleSetVersion().equals(ruleSet.getVersion())) {
+                jsonGenerator.writeString(texts.getVersion());
+            } else {
+                jsonGenerator.writeString(slidingDecision.getRuleSetVersion());
+            }
+        }
+        jsonGenerator.writeEndObject();
+    }
+
+    private void writeCompiledResponse(JsonGenerator jsonGenerator, SlidingDecisionResponseTexts texts,
+                                       CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem, CompiledEvaluationState evaluationState,
+                                       ExplanationLevel explanationLevel) throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeFieldName(DECISION_STATUS);
+        jsonGenerator.writeString(DECISION_STATUS_RESPONSE);
+
+        jsonGenerator.writeFieldName(SLIDING_DECISION_OUTPUT_PARAMETERS);
+        jsonGenerator.writeStartObject();
+        for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+            int winningOutputTerm = evaluationState.getWinningOutputTerm(outputVariable);
+            jsonGenerator.writeFieldName(texts.getOutputVariableName(outputVariable));
+            writeResultForOutputVariable(jsonGenerator, texts.getOutputTermName(winningOutputTerm), texts.getOutputTermDescription(winningOutputTerm));
+        }
+        jsonGenerator.writeEndObject();
+
+        if (explanationLevel != ExplanationLevel.NONE) {
+            jsonGenerator.writeFieldName(DECISION_EXPLANATION);
+            jsonGenerator.writeStartObject();
+            if (explanationLevel == ExplanationLevel.FULL) {
+                writeCompiledInputVariableExplanations(jsonGenerator, texts, compiledFuzzyInferenceSystem, evaluationState);
+            }
+            jsonGenerator.writeFieldName(APPLIED_RULES);
+            jsonGenerator.writeStartArray();
+            for (int rule = 0; rule < compiledFuzzyInferenceSystem.getNumberOfRules(); rule++) {
+                double degreeOfSupport = evaluationState.getDegreeOfSupport(rule);
+                if (degreeOfSupport > 0) {
+                    jsonGenerator.writeStartObject();
+                    jsonGenerator.writeFieldName(NAME);
+                    jsonGenerator.writeString(texts.getRuleName(rule));
+                    if (explanationLevel == ExplanationLevel.FULL) {
+                        jsonGenerator.writeFieldName(CONDITION);
+                        jsonGenerator.writeString(texts.getRuleCondition(rule));
+                        jsonGenerator.writeFieldName(CONSEQUENCE);
+                        jsonGenerator.writeString(texts.getRuleConsequence(rule));
+                        jsonGenerator.writeFieldName(WEIGHT);
+                        jsonGenerator.writeString(texts.getRuleWeight(rule));
+                        jsonGenerator.writeFieldName(DEGREE_OF_SUPPORT);
+                        // the explanation has always written the degree of support as a string
+                        jsonGenerator.writeString(Double.toString(degreeOfSupport));
+                    }
+                    jsonGenerator.writeEndObject();
+                }
+            }
+            jsonGenerator.writeEndArray();
+            if (explanationLevel == ExplanationLevel.FULL) {
+                writeCompiledOutputVariableExplanations(jsonGenerator, texts, compiledFuzzyInferenceSystem, evaluationState);
+            }
+            jsonGenerator.writeEndObject();
+        }
+
+        jsonGenerator.writeFieldName(RULE_SET_VERSION);
+        jsonGenerator.writeString(texts.getVersion());
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writeCompiledInputVariableExplanations(JsonGenerator jsonGenerator, SlidingDecisionResponseTexts texts,
+                                                               CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem,
+                                                               CompiledEvaluationState evaluationState) throws IOException {
+        jsonGenerator.writeFieldName(INPUT_VARIABLES);
+        jsonGenerator.writeStartObject();
+        for (int inputVariable = 0; inputVariable < compiledFuzzyInferenceSystem.getNumberOfInputVariables(); inputVariable++) {
+            jsonGenerator.writeFieldName(texts.getInputVariableName(inputVariable));
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeFieldName(VALUE);
+            jsonGenerator.writeNumber(evaluationState.getInputValue(inputVariable));
+            jsonGenerator.writeFieldName(MEMBERSHIP_VALUES);
+            jsonGenerator.writeStartObject();
+            for (int inputTerm = compiledFuzzyInferenceSystem.getInputTermsStart(inputVariable); inputTerm < compiledFuzzyInferenceSystem.getInputTermsEnd(inputVariable); inputTerm++) {
+                double membershipValue = evaluationState.getInputTermMembership(inputTerm);
+                if (membershipValue > 0) {
+                    jsonGenerator.writeFieldName(texts.getInputTermName(inputTerm));
+                    jsonGenerator.writeNumber(membershipValue);
+                }
+            }
+            jsonGenerator.writeEndObject();
+            jsonGenerator.writeEndObject();
+        }
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writeCompiledOutputVariableExplanations(JsonGenerator jsonGenerator, SlidingDecisionResponseTexts texts,
+                                                                CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem,
+                                                                CompiledEvaluationState evaluationState) throws IOException {
+        jsonGenerator.writeFieldName(OUTPUT_VARIABLES);
+        jsonGenerator.writeStartObject();
+        for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+            double outputValue = evaluationState.getOutputValue(outputVariable);
+            jsonGenerator.writeFieldName(texts.getOutputVariableName(outputVariable));
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeFieldName(VALUE);
+            jsonGenerator.writeNumber(outputValue);
+            jsonGenerator.writeFieldName(MEMBERSHIP_VALUES);
+            jsonGenerator.writeStartObject();
+            for (int outputTerm = compiledFuzzyInferenceSystem.getOutputTermsStart(outputVariable); outputTerm < compiledFuzzyInferenceSystem.getOutputTermsEnd(outputVariable); outputTerm++) {
+                double membershipValue = compiledFuzzyInferenceSystem.getOutputTermMembership(outputTerm, outputValue);
+                if (membershipValue > 0) {
+                    jsonGenerator.writeFieldName(texts.getOutputTermName(outputTerm));
+                    jsonGenerator.writeNumber(membershipValue);
+                }
+            }
+            jsonGenerator.writeEndObject();
+            jsonGenerator.writeEndObject();
+        }
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writeResultForOutputVariable(JsonGenerator jsonGenerator, String term, SerializableString description) throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeFieldName(SLIDING_DECISION);
+        jsonGenerator.writeString(term);
+        writeDescription(jsonGenerator, description);
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writeResultForOutputVariable(JsonGenerator jsonGenerator, SerializableString term, SerializableString description) throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeFieldName(SLIDING_DECISION);
+        jsonGenerator.writeString(term);
+        writeDescription(jsonGenerator, description);
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writeDescription(JsonGenerator jsonGenerator, SerializableString description) throws IOException {
+        jsonGenerator.writeFieldName(DESCRIPTION);
+        if (description != null) {
+            jsonGenerator.writeString(description);
+        } else {
+            jsonGenerator.writeNull();
+        }
+    }
+
+    private static void writeVariableExplanations(JsonGenerator jsonGenerator, Map<String, VariableExplanation> variableExplanations) throws IOException {
+        jsonGenerator.writeStartObject();
+        for (Map.Entry<String, VariableExplanation> variableExplanation : variableExplanations.entrySet()) {
+            jsonGenerator.writeFieldName(variableExplanation.getKey());
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeFieldName(VALUE);
+            jsonGenerator.writeNumber(variableExplanation.getValue().getValue());
+            jsonGenerator.writeFieldName(MEMBERSHIP_VALUES);
+            Map<String, Double> membershipValues = variableExplanation.getValue().getMembershipValues();
+            if (membershipValues != null) {
+                jsonGenerator.writeStartObject();
+                for (Map.Entry<String, Double> membershipValue : membershipValues.entrySet()) {
+                    jsonGenerator.writeFieldName(membershipValue.getKey());
+                    jsonGenerator.writeNumber(membershipValue.getValue());
+                }
+                jsonGenerator.writeEndObject();
+            } else {
+                jsonGenerator.writeNull();
+            }
+            jsonGenerator.writeEndObject();
+        }
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writeRuleExplanation(JsonGenerator jsonGenerator, RuleExplanation ruleExplanation) throws IOException {
+        jsonGenerator.writeStartObject();
+        writeStringFieldIfPresent(jsonGenerator, NAME, ruleExplanation.getName());
+        writeStringFieldIfPresent(jsonGenerator, CONDITION, ruleExplanation.getCondition());
+        writeStringFieldIfPresent(jsonGenerator, CONSEQUENCE, ruleExplanation.getConsequence());
+        writeStringFieldIfPresent(jsonGenerator, WEIGHT, ruleExplanation.getWeight());
+        writeStringFieldIfPresent(jsonGenerator, DEGREE_OF_SUPPORT, ruleExplanation.getDegreeOfSupport());
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writeStringFieldIfPresent(JsonGenerator jsonGenerator, SerializableString fieldName, String value) throws IOException {
+        if (value != null) {
+            jsonGenerator.writeFieldName(fieldName);
+            jsonGenerator.writeString(value);
+        }
+    }
+
+    private byte[] write(RuleSet ruleSet, JsonWriting jsonWriting) {
+        long startNanoTime = System.nanoTime();
+        ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder(INITIAL_BUFFER_SIZE);
+        try (JsonGenerator jsonGenerator = jsonFactory.createGenerator(byteArrayBuilder)) {
+            jsonWriting.write(jsonGenerator);
+        } catch (IOException exception) {
+            // the generator writes to memory only
+            throw new UncheckedIOException(exception);
+        }
+        byte[] json = byteArrayBuilder.toByteArray();
+        byteArrayBuilder.release();
+        ruleSet.getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.RESPONSE_MAPPING, startNanoTime);
+        return json;
+    }
+
+    @FunctionalInterface
+    private interface JsonWriting {
+        void write(JsonGenerator jsonGenerator) throws IOException;
+    }
+}
@@ -0,0 +1,272 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executes single sliding decision requests according to the configured
+ * {@link ApplicationScenarioConfiguration.RequestExecution.Mode}.
+ * <p>
+ * With platform threads, a request is evaluated on the thread that received it without any further limit, since
+ * Tomcat's thread pool already bounds the requests that are evaluated at the same time. With virtual threads, it is
+ * evaluated on the thread that received it as soon as one of the evaluation permits is free. With the evaluation
+ * executor, it is evaluated on one of the executor's threads and the returned future completes afterward, while the
+ * web server thread is released. With virtual threads and the evaluation executor, at most {@code evaluationThreads}
+ * requests are evaluated at the same time and at most {@code maximumQueuedRequests} wait in first-come, first-served
+ * order; further requests are rejected at once, so an overloaded service answers quickly with
+ * {@code 503 Service Unavailable} instead of letting all requests time out.
+ * <p>
+ * Before that, the optional {@link AdaptiveConcurrencyLimit} limits the requests that are evaluated or waiting to what
+ * the service currently handles without a rising latency, measured from the admission of a request to the end of its
+ * evaluation. Requests beyond it are rejected with {@code 503 Service Unavailable} as well, and counted in the metric
+ * {@code sliding.decision.admission.rejected} with the {@code reason} {@code concurrency-limit}.
+ * <p>
+ * Batch requests are admitted, but not evaluated, by the executor, see {@link #admitBatch()}.
+ */
+@Component
+public class SlidingDecisionRequestExecutor {
+    private final ApplicationScenarioConfiguration.RequestExecution requestExecution;
+    /**
+     * The requests that are evaluated or waiting, only used in the mode {@code VIRTUAL_THREADS}, otherwise null.
+     */
+    private final Semaphore admittedRequests;
+    /**
+     * The requests that are evaluated, only used in the mode {@code VIRTUAL_THREADS}, otherwise null.
+     */
+    private final Semaphore evaluatingRequests;
+    /**
+     * Only used in the mode {@code EVALUATION_EXECUTOR}, otherwise null.
+     */
+    private final ThreadPoolExecutor evaluationExecutor;
+    private final Counter rejectedRequestsCounter;
+    /**
+     * Null if the requests are not limited by an adaptive concurrency limit.
+     */
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Counter concurrencyLimitRejectedRequestsCounter;
+
+    public SlidingDecisionRequestExecutor(ApplicationScenarioConfiguration applicationScenarioConfiguration, MeterRegistry meterRegistry) {
+        this.requestExecution = applicationScenarioConfiguration.getRequestExecution();
+        int evaluationThreads = Math.max(1, requestExecution.getEvaluationThreads());
+        int maximumQueuedRequests = Math.max(0, requestExecution.getMaximumQueuedRequests());
+
+        ApplicationScenarioConfiguration.RequestExecution.Mode mode = requestExecution.getMode();
+        if (mode == ApplicationScenarioConfiguration.RequestExecution.Mode.EVALUATION_EXECUTOR) {
+            BlockingQueue<Runnable> queuedRequests = maximumQueuedRequests > 0
+                    ? new ArrayBlockingQueue<>(maximumQueuedRequests)
+                    : new SynchronousQueue<>();
+            this.evaluationExecutor = new ThreadPoolExecutor(evaluationThreads, evaluationThreads, 0, TimeUnit.MILLISECONDS, queuedRequests,
+                    Thread.ofPlatform().name("sliding-decision-evaluation-", 0).daemon().factory(), new ThreadPoolExecutor.AbortPolicy());
+            this.admittedRequests = null;
+            this.evaluatingRequests = null;
+            Gauge.builder("sliding.decision.queued.requests", evaluationExecutor, executor -> executor.getQueue().size())
+                    .description("Sliding decision requests that wait for their evaluation")
+                    .register(meterRegistry);
+        } else if (mode == ApplicationScenarioConfiguration.RequestExecution.Mode.VIRTUAL_THREADS) {
+            this.evaluationExecutor = null;
+            this.admittedRequests = new Semaphore(evaluationThreads + maximumQueuedRequests);
+            this.evaluatingRequests = new Semaphore(evaluationThreads, true);
+            Gauge.builder("sliding.decision.queued.requests", evaluatingRequests, Semaphore::getQueueLength)
+                    .description("Sliding decision requests that wait for their evaluation")
+                    .register(meterRegistry);
+        } else {
+            this.evaluationExecutor = null;
+            this.admittedRequests = null;
+            this.evaluatingRequests = null;
+        }
+        this.rejectedRequestsCounter = Counter.builder("sliding.decision.rejected.requests")
+                .description("Sliding decision requests that were rejected because too many requests were waiting")
+                .register(meterRegistry);
+
+        ApplicationScenarioConfiguration.ConcurrencyLimit concurrencyLimitConfiguration
+                = applicationScenarioConfiguration.getAdmissionControl().getConcurrencyLimit();
+        if (concurrencyLimitConfiguration.isEnabled()) {
+            this.concurrencyLimit = new AdaptiveConcurrencyLimit(concurrencyLimitConfiguration.getInitialLimit(),
+                    concurrencyLimitConfiguration.getMinimumLimit(), concurrencyLimitConfiguration.getMaximumLimit(),
+                    concurrencyLimitConfiguration.getLatencyTolerance(), concurrencyLimitConfiguration.getSampleWindow());
+            Gauge.builder("sliding.decision.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("The adaptive limit of the sliding decision requests that are evaluated or waiting")
+                    .register(meterRegistry);
+            Gauge.builder("sliding.decision.admission.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlightRequests)
+                    .description("The admitted sliding decision requests that are evaluated or waiting")
+                    .register(meterRegistry);
+        } else {
+            this.concurrencyLimit = null;
+        }
+        this.concurrencyLimitRejectedRequestsCounter = Counter.builder("sliding.decision.admission.rejected")
+                .description("Sliding decision requests that were rejected by the admission control")
+                .tag("reason", "concurrency-limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Evaluates a request on the thread that received it, in the modes {@code PLATFORM_THREADS} and
+     * {@code VIRTUAL_THREADS}, or rejects it if too many requests are waiting.
+     *
+     * @param evaluation the complete processing of the request, from validating its input to creating its response.
+     * @return the result of the evaluation; its exceptions are thrown directly.
+     * @throws ServiceOverloadedException if the concurrency limit is reached, or the maximum number of requests is
+     *                                    already waiting for their evaluation.
+     */
+    public <T> T execute(Supplier<T> evaluation) {
+        if (concurrencyLimit == null) {
+            return evaluateOnReceivingThread(evaluation);
+        }
+        acquireConcurrencyLimit("sliding decision request");
+        long admissionNanoTime = System.nanoTime();
+        T result;
+        try {
+            result = evaluateOnReceivingThread(evaluation);
+        } catch (RuntimeException exception) {
+            concurrencyLimit.releaseWithoutSample();
+            throw exception;
+        }
+        concurrencyLimit.release(System.nanoTime() - admissionNanoTime);
+        return result;
+    }
+
+    /**
+     * Evaluates a request on the evaluation executor, in the mode {@code EVALUATION_EXECUTOR}, or rejects it if too many
+     * requests are waiting.
+     *
+     * @param evaluation the complete processing of the request, from validating its input to creating its response.
+     * @return the future result of the evaluation, which its exceptions complete as well.
+     * @throws ServiceOverloadedException if the concurrency limit is reached, or the maximum number of requests is
+     *                                    already waiting for their evaluation.
+     */
+    public <T> CompletableFuture<T> executeAsynchronously(Supplier<T> evaluation) {
+        if (evaluationExecutor == null) {
+            throw new IllegalStateException("Sliding decision requests are only evaluated asynchronously in the mode "
+                    + ApplicationScenarioConfiguration.RequestExecution.Mode.EVALUATION_EXECUTOR + ", not in " + requestExecution.getMode() + ".");
+        }
+        if (concurrencyLimit == null) {
+            return evaluateOnEvaluationExecutor(evaluation);
+        }
+        acquireConcurrencyLimit("sliding decision request");
+        long admissionNanoTime = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = evaluateOnEvaluationExecutor(evaluation);
+        } catch (RuntimeException exception) {
+            concurrencyLimit.releaseWithoutSample();
+            throw exception;
+        }
+        // only successful evaluations are sampled, since failed ones are usually faster and would hide a rising latency
+        result.whenComplete((value, exception) -> {
+            if (exception == null) {
+                concurrencyLimit.release(System.nanoTime() - admissionNanoTime);
+            } else {
+                concurrencyLimit.releaseWithoutSample();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Admits a batch request, before its response is streamed. A batch is rejected at once if single requests already
+     * reach the concurrency limit or wait in the maximum number, but it does not take a place among them: its input
+     * parameter sets are evaluated in parallel on the common fork-join pool, independently of the
+     * {@code evaluationThreads}, since their number is only known while the request is read.
+     *
+     * @throws ServiceOverloadedException if the concurrency limit is reached, or the maximum number of requests is
+     *                                    already waiting for their evaluation.
+     */
+    public void admitBatch() {
+        if (concurrencyLimit != null && concurrencyLimit.getInFlightRequests() >= concurrencyLimit.getLimit()) {
+            throw rejectByConcurrencyLimit("sliding decision batch request");
+        }
+        if (isQueueFull()) {
+            throw rejectRequest("sliding decision batch request");
+        }
+    }
+
+    public Map<String, Object> getConcurrencyLimitStatistics() {
+        if (concurrencyLimit == null) {
+            return Map.of("enabled", false);
+        }
+        return Map.of(
+                "enabled", true,
+                "rejectedRequests", (long) concurrencyLimitRejectedRequestsCounter.count(),
+                "limit", concurrencyLimit.getLimit(),
+                "inFlightRequests", concurrencyLimit.getInFlightRequests());
+    }
+
+    private <T> CompletableFuture<T> evaluateOnEvaluationExecutor(Supplier<T> evaluation) {
+        try {
+            return CompletableFuture.supplyAsync(evaluation, evaluationExecutor);
+        } catch (RejectedExecutionException exception) {
+            throw rejectRequest("sliding decision request");
+        }
+    }
+
+    private <T> T evaluateOnReceivingThread(Supplier<T> evaluation) {
+        if (admittedRequests == null) {
+            return evaluation.get();
+        }
+        if (!admittedRequests.tryAcquire()) {
+            throw rejectRequest("sliding decision request");
+        }
+        try {
+            evaluatingRequests.acquire();
+            try {
+                return evaluation.get();
+            } finally {
+                evaluatingRequests.release();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the evaluation of a sliding decision request.", exception);
+        } finally {
+            admittedRequests.release();
+        }
+    }
+
+    private boolean isQueueFull() {
+        if (evaluationExecutor != null) {
+            return evaluationExecutor.getQueue().remainingCapacity() == 0
+                    && evaluationExecutor.getActiveCount() >= evaluationExecutor.getMaximumPoolSize();
+        }
+        return admittedRequests != null && admittedRequests.availablePermits() == 0;
+    }
+
+    private void acquireConcurrencyLimit(String request) {
+        if (!concurrencyLimit.tryAcquire()) {
+            throw rejectByConcurrencyLimit(request);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (evaluationExecutor != null) {
+            evaluationExecutor.shutdownNow();
+        }
+    }
+
+    private ServiceOverloadedException rejectByConcurrencyLimit(String request) {
+        concurrencyLimitRejectedRequestsCounter.increment();
+        return new ServiceOverloadedException("The " + request + " was rejected, because the concurrency limit of "
+                + concurrencyLimit.getLimit() + " requests is reached.");
+    }
+
+    private ServiceOverloadedException rejectRequest(String request) {
+        rejectedRequestsCounter.increment();
+        return new ServiceOverloadedException("The " + request + " was rejected, because "
+                + requestExecution.getMaximumQueuedRequests() + " requests are already waiting for their evaluation.");
+    }
+}
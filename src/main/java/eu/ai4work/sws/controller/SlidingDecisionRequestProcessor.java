@@ -0,0 +1,85 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.engine.DecisionVectorSchema;
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.model.SlidingDecisionRequest;
+import eu.ai4work.sws.service.DecisionPipelineMetrics;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.SlidingDecisionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Prepares the evaluations of single sliding decision requests, in JSON and in the binary vector form, which the
+ * controller of the configured request execution mode hands to the {@link SlidingDecisionRequestExecutor}: the
+ * {@link ReceivingThreadSlidingDecisionController} or the {@link EvaluationExecutorSlidingDecisionController}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlidingDecisionRequestProcessor {
+    private static final MediaType DECISION_VECTOR_CONTENT_TYPE = MediaType.parseMediaType(SlidingDecisionVectorController.DECISION_VECTOR_MEDIA_TYPE);
+    private final SlidingDecisionService slidingDecisionService;
+    private final SlidingDecisionResponseMapper slidingDecisionResponseMapper;
+    private final SlidingDecisionJsonWriter slidingDecisionJsonWriter;
+
+    /**
+     * Validates a JSON sliding decision request on the receiving thread, and returns its evaluation, which writes the
+     * response as JSON by the {@link SlidingDecisionJsonWriter}.
+     */
+    public Supplier<ResponseEntity<byte[]>> prepareSlidingDecision(Scenario scenario, SlidingDecisionRequest request, String explanationLevel) {
+        assureInputParametersAreNotEmpty(request.getSlidingDecisionInputParameters());
+        ExplanationLevel resolvedExplanationLevel = slidingDecisionResponseMapper.resolveExplanationLevel(explanationLevel, request.getExplanationLevel(), ExplanationLevel.FULL);
+
+        return () -> {
+            byte[] slidingDecisionResponse = slidingDecisionService.getSlidingDecision(scenario, request.getSlidingDecisionInputParameters(),
+                    resolvedExplanationLevel, slidingDecisionJsonWriter);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(slidingDecisionResponse);
+        };
+    }
+
+    /**
+     * Returns the evaluation of a binary sliding decision request, which is validated against the
+     * {@link DecisionVectorSchema} of the rule set that evaluates it.
+     */
+    public Supplier<ResponseEntity<byte[]>> prepareSlidingDecisionVector(Scenario scenario, byte[] inputVector, String expectedDecisionVectorSchema) {
+        return () -> {
+            RuleSet ruleSet = scenario.getActiveRuleSet().get();
+            DecisionVectorSchema decisionVectorSchema = ruleSet.getDecisionVectorSchema();
+            if (expectedDecisionVectorSchema != null && !expectedDecisionVectorSchema.equals(decisionVectorSchema.getVersion())) {
+                throw new InvalidInputParameterException("Invalid decision vector: it was encoded for the decision vector schema "
+                        + expectedDecisionVectorSchema + ", but the active rule set has the schema " + decisionVectorSchema.getVersion()
+                        + ". Please get the current schema from the vector-schema endpoint.");
+            }
+            SlidingDecision slidingDecision;
+            double[] inputValues = ruleSet.getInputSchema().acquireInputValues();
+            try {
+                decisionVectorSchema.readInputVector(inputVector, inputValues);
+                slidingDecision = slidingDecisionService.getSlidingDecision(scenario, ruleSet, inputValues, ExplanationLevel.NONE);
+            } finally {
+                ruleSet.getInputSchema().releaseInputValues(inputValues);
+            }
+
+            long startNanoTime = System.nanoTime();
+            byte[] decisionVector = decisionVectorSchema.writeDecisionVector(slidingDecision.getDecisionResultPerOutputParameter());
+            ruleSet.getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.RESPONSE_MAPPING, startNanoTime);
+            return ResponseEntity.ok()
+                    .contentType(DECISION_VECTOR_CONTENT_TYPE)
+                    .header(SlidingDecisionVectorController.DECISION_VECTOR_SCHEMA_HEADER, decisionVectorSchema.getVersion())
+                    .body(decisionVector);
+        };
+    }
+
+    private void assureInputParametersAreNotEmpty(Map<String, Object> slidingDecisionInputParameters) {
+        if (slidingDecisionInputParameters == null || slidingDecisionInputParameters.isEmpty()) {
+            throw new IllegalArgumentException("The sliding decision input parameters must not be null or empty.");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import eu.ai4work.sws.model.DebugHint;
+import eu.ai4work.sws.model.ErrorDetails;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.ResultForOutputVariable;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.model.SlidingDecisionResponse;
+import eu.ai4work.sws.model.SlidingDecisionStatus;
+import eu.ai4work.sws.service.DecisionPipelineMetrics;
+import eu.ai4work.sws.service.Scenario;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps sliding decisions to responses, in the same form for every interface that serves them.
+ */
+@Component
+public class SlidingDecisionResponseMapper {
+    private static final Logger logger = LogManager.getLogger(SlidingDecisionResponseMapper.class);
+
+    /**
+     * Creates a response based on the sliding decision
+     *
+     * @param scenario        The scenario that describes the decision results
+     * @param slidingDecision Evaluated sliding decision after applying the decision rules
+     * @return SlidingDecisionResponse containing decision status, decision details and decision explanation.
+     */
+    public SlidingDecisionResponse createResponse(Scenario scenario, SlidingDecision slidingDecision) {
+        long startNanoTime = System.nanoTime();
+        Map<String, ResultForOutputVariable> resultsByOutputVariables = new HashMap<>();
+
+        slidingDecision.getDecisionResultPerOutputParameter().forEach((outputVariableName, resultAsLinguisticTerm) -> {
+            ResultForOutputVariable resultForOutputVariable = new ResultForOutputVariable();
+            resultForOutputVariable.setSlidingDecision(resultAsLinguisticTerm);
+            resultForOutputVariable.setDescription(scenario.getDecisionResultsDescription().get(resultAsLinguisticTerm));
+            resultsByOutputVariables.put(outputVariableName, resultForOutputVariable);
+        });
+
+        SlidingDecisionResponse slidingDecisionResponse = SlidingDecisionResponse.builder()
+                .decisionStatus(SlidingDecisionStatus.RESPONSE)
+                .slidingDecisionOutputParameters(resultsByOutputVariables)
+                .decisionExplanation(slidingDecision.getDecisionExplanation())
+                .ruleSetVersion(slidingDecision.getRuleSetVersion())
+                .build();
+        scenario.getActiveRuleSet().get().getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.RESPONSE_MAPPING, startNanoTime);
+        return slidingDecisionResponse;
+    }
+
+    /**
+     * Creates the response for input parameters that could not be evaluated, for the interfaces that report errors
+     * in the response body instead of an HTTP error status.
+     *
+     * @param exception The exception that prevented the sliding decision
+     * @return SlidingDecisionResponse containing the error status and the error details.
+     */
+    public SlidingDecisionResponse createErrorResponse(RuntimeException exception) {
+        DebugHint debugHint = DebugHint.UNKNOWN_INPUT;
+        if (!(exception instanceof InvalidInputParameterException)) {
+            logger.error("An unexpected exception occurred while evaluating input parameters.", exception);
+            debugHint = DebugHint.UNEXPECTED_ERROR;
+        }
+        return SlidingDecisionResponse.builder()
+                .decisionStatus(SlidingDecisionStatus.ERROR)
+                .errorDetails(new ErrorDetails(exception.getClass().getName(), exception.getMessage(), debugHint))
+                .build();
+    }
+
+    /**
+     * Resolves the explanation level of a request: the query parameter takes precedence over the request body.
+     *
+     * @param defaultExplanationLevel The explanation level if neither the query parameter nor the request body set one
+     * @throws InvalidInputParameterException if the query parameter is not a known explanation level.
+     */
+    public ExplanationLevel resolveExplanationLevel(String explanationLevelQueryParameter, ExplanationLevel explanationLevelOfRequestBody,
+                                                    ExplanationLevel defaultExplanationLevel) {
+        if (explanationLevelQueryParameter != null) {
+            return ExplanationLevel.parse(explanationLevelQueryParameter);
+        }
+        return explanationLevelOfRequestBody != null ? explanationLevelOfRequestBody : defaultExplanationLevel;
+    }
+}
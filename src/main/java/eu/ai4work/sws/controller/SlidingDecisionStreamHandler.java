@@ -0,0 +1,161 @@
+package eu.ai4work.sws.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import eu.ai4work.sws.exception.UnknownScenarioException;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecisionRequest;
+import eu.ai4work.sws.model.SlidingDecisionResponse;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import eu.ai4work.sws.service.SlidingDecisionService;
+import eu.ai4work.sws.service.SlidingDecisionStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves continuous streams of sliding decisions over WebSocket, at {@code /sliding-decision/stream} for the default
+ * scenario and at {@code /scenarios/{scenarioName}/sliding-decision/stream} for a named scenario.
+ * <p>
+ * The client sends one {@link SlidingDecisionRequest} per message and receives a {@link SlidingDecisionResponse}
+ * whenever the decision changes, or an error response for invalid input, see {@link SlidingDecisionStream}. The
+ * explanation level is chosen once per connection with the query parameter {@code explanationLevel} (default none).
+ */
+@Component
+public class SlidingDecisionStreamHandler extends TextWebSocketHandler {
+    private static final Logger logger = LogManager.getLogger(SlidingDecisionStreamHandler.class);
+    private static final String SLIDING_DECISION_STREAM_ATTRIBUTE = "slidingDecisionStream";
+    /**
+     * Decisions are sent by the evaluation threads, and errors of received messages by the receiving thread, so all of
+     * them are sent through one session decorator that serializes sending.
+     */
+    private static final String CONCURRENT_SESSION_ATTRIBUTE = "concurrentSession";
+    private static final String SCENARIOS_PATH_SEGMENT = "scenarios";
+    private final SlidingDecisionService slidingDecisionService;
+    private final ScenarioRegistry scenarioRegistry;
+    private final SlidingDecisionResponseMapper slidingDecisionResponseMapper;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationScenarioConfiguration.DecisionStream decisionStreamConfiguration;
+    private final ExecutorService evaluationExecutor;
+
+    public SlidingDecisionStreamHandler(SlidingDecisionService slidingDecisionService, ScenarioRegistry scenarioRegistry,
+                                        SlidingDecisionResponseMapper slidingDecisionResponseMapper, ObjectMapper objectMapper,
+                                        MeterRegistry meterRegistry, ApplicationScenarioConfiguration applicationScenarioConfiguration) {
+        this.slidingDecisionService = slidingDecisionService;
+        this.scenarioRegistry = scenarioRegistry;
+        this.slidingDecisionResponseMapper = slidingDecisionResponseMapper;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.decisionStreamConfiguration = applicationScenarioConfiguration.getDecisionStream();
+        this.evaluationExecutor = Executors.newFixedThreadPool(Math.max(1, decisionStreamConfiguration.getEvaluationThreads()),
+                Thread.ofPlatform().name("sliding-decision-stream-", 0).daemon().factory());
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        UriComponents uri = UriComponentsBuilder.fromUri(session.getUri()).build();
+        Scenario scenario;
+        ExplanationLevel explanationLevel;
+        try {
+            scenario = resolveScenario(uri.getPathSegments());
+            explanationLevel = slidingDecisionResponseMapper.resolveExplanationLevel(
+                    uri.getQueryParams().getFirst("explanationLevel"), null, ExplanationLevel.NONE);
+        } catch (UnknownScenarioException | InvalidInputParameterException exception) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason(exception.getMessage()));
+            return;
+        }
+
+        WebSocketSession concurrentSession = new ConcurrentWebSocketSessionDecorator(session,
+                (int) decisionStreamConfiguration.getSendTimeLimit().toMillis(), decisionStreamConfiguration.getSendBufferSizeLimit());
+        Counter droppedInputsCounter = Counter.builder("sliding.decision.stream.dropped.inputs")
+                .description("Input parameter sets of decision streams that were coalesced into a later one")
+                .tag("scenario", scenario.getName())
+                .register(meterRegistry);
+        SlidingDecisionStream slidingDecisionStream = new SlidingDecisionStream(scenario, explanationLevel, slidingDecisionService,
+                evaluationExecutor, decisionStreamConfiguration, droppedInputsCounter,
+                (slidingDecision, exception) -> send(concurrentSession, slidingDecision != null
+                        ? slidingDecisionResponseMapper.createResponse(scenario, slidingDecision)
+                        : slidingDecisionResponseMapper.createErrorResponse(exception)));
+        session.getAttributes().put(CONCURRENT_SESSION_ATTRIBUTE, concurrentSession);
+        session.getAttributes().put(SLIDING_DECISION_STREAM_ATTRIBUTE, slidingDecisionStream);
+        logger.debug("Opened sliding decision stream " + session.getId() + " of scenario " + scenario.getName());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws InterruptedException {
+        SlidingDecisionStream slidingDecisionStream = (SlidingDecisionStream) session.getAttributes().get(SLIDING_DECISION_STREAM_ATTRIBUTE);
+        if (slidingDecisionStream == null) {
+            return; // the connection was rejected
+        }
+        Map<String, Object> slidingDecisionInputParameters;
+        try {
+            slidingDecisionInputParameters = objectMapper.readValue(message.getPayload(), SlidingDecisionRequest.class)
+                    .getSlidingDecisionInputParameters();
+        } catch (JsonProcessingException exception) {
+            sendError(session, new InvalidInputParameterException("Invalid sliding decision stream message: " + exception.getOriginalMessage()));
+            return;
+        }
+        if (slidingDecisionInputParameters == null || slidingDecisionInputParameters.isEmpty()) {
+            sendError(session, new InvalidInputParameterException("The sliding decision input parameters must not be null or empty."));
+            return;
+        }
+        slidingDecisionStream.submit(slidingDecisionInputParameters);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        SlidingDecisionStream slidingDecisionStream = (SlidingDecisionStream) session.getAttributes().remove(SLIDING_DECISION_STREAM_ATTRIBUTE);
+        if (slidingDecisionStream != null) {
+            slidingDecisionStream.close();
+            logger.debug("Closed sliding decision stream " + session.getId() + ": " + status);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluationExecutor.shutdownNow();
+    }
+
+    /**
+     * @throws UnknownScenarioException if the path names a scenario that does not exist.
+     */
+    private Scenario resolveScenario(List<String> pathSegments) {
+        int scenariosSegment = pathSegments.indexOf(SCENARIOS_PATH_SEGMENT);
+        if (scenariosSegment >= 0 && scenariosSegment + 1 < pathSegments.size()) {
+            return scenarioRegistry.getScenario(pathSegments.get(scenariosSegment + 1));
+        }
+        return scenarioRegistry.getDefaultScenario();
+    }
+
+    private void sendError(WebSocketSession session, RuntimeException exception) {
+        send((WebSocketSession) session.getAttributes().get(CONCURRENT_SESSION_ATTRIBUTE), slidingDecisionResponseMapper.createErrorResponse(exception));
+    }
+
+    private void send(WebSocketSession session, SlidingDecisionResponse slidingDecisionResponse) {
+        try {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(slidingDecisionResponse)));
+        } catch (IOException exception) {
+            logger.debug("Failed to send to sliding decision stream " + session.getId(), exception);
+        }
+    }
+}
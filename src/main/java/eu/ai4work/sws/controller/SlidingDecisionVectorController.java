@@ -0,0 +1,66 @@
+package eu.ai4work.sws.controller;
+
+import eu.ai4work.sws.engine.DecisionVectorSchema;
+import eu.ai4work.sws.exception.UnknownScenarioException;
+import eu.ai4work.sws.model.DecisionVectorSchemaResponse;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves sliding decisions in the positional binary form of the {@link DecisionVectorSchema}, at the same paths as the
+ * JSON requests but with the content type {@value #DECISION_VECTOR_MEDIA_TYPE}. The decisions are evaluated without
+ * explanation; errors are reported like for JSON requests, with an HTTP error status and a JSON body.
+ * <p>
+ * The decision vectors are served, like the single JSON requests, by the {@link ReceivingThreadSlidingDecisionController}
+ * or the {@link EvaluationExecutorSlidingDecisionController} of the request execution mode; this controller describes
+ * their layout.
+ */
+@RestController
+@RequiredArgsConstructor
+public class SlidingDecisionVectorController {
+    public static final String DECISION_VECTOR_MEDIA_TYPE = "application/vnd.sws.decision-vector";
+    /**
+     * The version of the {@link DecisionVectorSchema} of a response; if a request has it, the request is only evaluated
+     * if the layout is still the same.
+     */
+    public static final String DECISION_VECTOR_SCHEMA_HEADER = "Decision-Vector-Schema";
+    private final ScenarioRegistry scenarioRegistry;
+
+    /**
+     * Describes the binary requests and responses of the default scenario.
+     *
+     * @throws UnknownScenarioException if no default scenario is configured.
+     */
+    @GetMapping("/sliding-decision/vector-schema")
+    public DecisionVectorSchemaResponse getDecisionVectorSchema() {
+        return createDecisionVectorSchemaResponse(scenarioRegistry.getDefaultScenario().getActiveRuleSet().get());
+    }
+
+    /**
+     * Describes the binary requests and responses of the named scenario.
+     *
+     * @throws UnknownScenarioException if there is no scenario with this name.
+     */
+    @GetMapping("/scenarios/{scenarioName}/sliding-decision/vector-schema")
+    public DecisionVectorSchemaResponse getScenarioDecisionVectorSchema(@PathVariable String scenarioName) {
+        return createDecisionVectorSchemaResponse(scenarioRegistry.getScenario(scenarioName).getActiveRuleSet().get());
+    }
+
+    private static DecisionVectorSchemaResponse createDecisionVectorSchemaResponse(RuleSet ruleSet) {
+        DecisionVectorSchema decisionVectorSchema = ruleSet.getDecisionVectorSchema();
+        List<DecisionVectorSchemaResponse.OutputVariable> outputVariables = new ArrayList<>();
+        for (int outputVariable = 0; outputVariable < decisionVectorSchema.getOutputVariableNames().size(); outputVariable++) {
+            outputVariables.add(new DecisionVectorSchemaResponse.OutputVariable(decisionVectorSchema.getOutputVariableNames().get(outputVariable),
+                    decisionVectorSchema.getOutputTermNames(outputVariable)));
+        }
+        return new DecisionVectorSchemaResponse(decisionVectorSchema.getVersion(), decisionVectorSchema.getInputVariableNames(),
+                outputVariables, ruleSet.getVersion());
+    }
+}
@@ -0,0 +1,39 @@
+package eu.ai4work.sws.engine;
+
+/**
+ * The results of a {@link CompiledFuzzyInferenceSystem#evaluateBatch batch evaluation}, as one column per output
+ * variable: the defuzzified values and the indices of the winning terms, row by row in the order of the input columns.
+ * <p>
+ * The columns are returned as they are, without copying, so they must not be modified while they are still read.
+ */
+public final class BatchEvaluationResult {
+    private final int numberOfRows;
+    final double[][] outputValues;
+    final int[][] winningOutputTerms;
+
+    BatchEvaluationResult(int numberOfOutputVariables, int numberOfRows) {
+        this.numberOfRows = numberOfRows;
+        this.outputValues = new double[numberOfOutputVariables][numberOfRows];
+        this.winningOutputTerms = new int[numberOfOutputVariables][numberOfRows];
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * @return the defuzzified value of the output variable for each row.
+     */
+    public double[] getOutputValues(int outputVariable) {
+        return outputValues[outputVariable];
+    }
+
+    /**
+     * @return for each row, the index of the output term with the highest membership degree for the defuzzified value,
+     * counted from the first term of the output variable, i.e. in the order of {@code Variable#getLinguisticTerms()}
+     * like in a {@link DecisionVectorSchema decision vector}.
+     */
+    public int[] getWinningOutputTerms(int outputVariable) {
+        return winningOutputTerms[outputVariable];
+    }
+}
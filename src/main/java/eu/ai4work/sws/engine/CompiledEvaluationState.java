@@ -0,0 +1,68 @@
+package eu.ai4work.sws.engine;
+
+/**
+ * The mutable working memory of one {@link CompiledFuzzyInferenceSystem} evaluation.
+ * <p>
+ * All arrays are allocated once, so evaluating does not allocate. A state must only be used by one thread at a time;
+ * after {@link CompiledFuzzyInferenceSystem#evaluate(CompiledEvaluationState)} it holds the results until the next
+ * evaluation.
+ */
+public final class CompiledEvaluationState {
+    final double[] inputValues;
+    final double[] inputTermMemberships;
+    final double[] expressionStack;
+    final double[] degreesOfSupport;
+    final double[] outputTermActivations;
+    final double[] outputValues;
+    final int[] winningOutputTerms;
+    final double[] defuzzificationBreakpoints;
+    final boolean[] rulesToEvaluate;
+
+    CompiledEvaluationState(int numberOfInputVariables, int numberOfInputTerms, int maximumExpressionDepth, int numberOfRules,
+                            int numberOfOutputTerms, int numberOfOutputVariables, int maximumDefuzzificationBreakpoints) {
+        this.inputValues = new double[numberOfInputVariables];
+        this.inputTermMemberships = new double[numberOfInputTerms];
+        this.expressionStack = new double[maximumExpressionDepth];
+        this.degreesOfSupport = new double[numberOfRules];
+        this.outputTermActivations = new double[numberOfOutputTerms];
+        this.outputValues = new double[numberOfOutputVariables];
+        this.winningOutputTerms = new int[numberOfOutputVariables];
+        this.defuzzificationBreakpoints = new double[maximumDefuzzificationBreakpoints];
+        this.rulesToEvaluate = new boolean[numberOfRules];
+    }
+
+    public void setInputValue(int inputVariable, double value) {
+        inputValues[inputVariable] = value;
+    }
+
+    /**
+     * @param values the value of each input variable, in the order of the input variables.
+     */
+    public void setInputValues(double[] values) {
+        System.arraycopy(values, 0, inputValues, 0, inputValues.length);
+    }
+
+    public double getInputValue(int inputVariable) {
+        return inputValues[inputVariable];
+    }
+
+    public double getInputTermMembership(int inputTerm) {
+        return inputTermMemberships[inputTerm];
+    }
+
+    public double getDegreeOfSupport(int rule) {
+        return degreesOfSupport[rule];
+    }
+
+    public double getOutputValue(int outputVariable) {
+        return outputValues[outputVariable];
+    }
+
+    /**
+     * @return the index of the output term that was decided for the output value, selected once per evaluation, see
+     * {@link CompiledFuzzyInferenceSystem#getWinningOutputTerm(int, double)}.
+     */
+    public int getWinningOutputTerm(int outputVariable) {
+        return winningOutputTerms[outputVariable];
+    }
+}
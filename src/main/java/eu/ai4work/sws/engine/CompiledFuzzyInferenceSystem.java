@@ -0,0 +1,837 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.exception.RuleSetCompilationException;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierCenterOfGravity;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
+import net.sourceforge.jFuzzyLogic.rule.RuleExpression;
+import net.sourceforge.jFuzzyLogic.rule.RuleTerm;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+import net.sourceforge.jFuzzyLogic.ruleAccumulationMethod.RuleAccumulationMethodMax;
+import net.sourceforge.jFuzzyLogic.ruleActivationMethod.RuleActivationMethodMin;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethod;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethodAndMin;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethodAndProduct;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethodOrMax;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethodOrProbOr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A fuzzy inference system compiled from a jFuzzyLogic {@link FunctionBlock} into flat primitive arrays.
+ * <p>
+ * Membership functions become piecewise-linear tables, rule conditions become small stack programs over term indices
+ * and the center of gravity (COG) is integrated analytically instead of sampling the output universe. Evaluating
+ * does not allocate; all intermediate values live in a {@link CompiledEvaluationState}.
+ * <p>
+ * Supported are piecewise-linear, triangular, trapezoidal and singleton (inputs only) membership functions,
+ * MIN/PROD for AND, MAX/PROBOR for OR, MIN activation, MAX accumulation and COG defuzzification. Any other rule set
+ * is rejected with a {@link RuleSetCompilationException}, so it can be evaluated by jFuzzyLogic instead.
+ * <p>
+ * Many input combinations, e.g. of a sweep over the input space, are evaluated by {@link #evaluateBatch}, which works on
+ * columns of values instead of one state per row.
+ */
+public final class CompiledFuzzyInferenceSystem {
+    private static final int PUSH_TERM = 0;
+    private static final int PUSH_NEGATED_TERM = 1;
+    private static final int NEGATE = 2;
+    private static final int AND_MIN = 3;
+    private static final int AND_PRODUCT = 4;
+    private static final int OR_MAX = 5;
+    private static final int OR_PROBABILISTIC = 6;
+    /**
+     * The number of rows of a batch that are fuzzified and fired together, small enough for the columns of the input
+     * terms and the output term activations to stay in the CPU cache.
+     */
+    private static final int BATCH_BLOCK_SIZE = 256;
+    /**
+     * The number of rows below which a batch evaluation task is not split further.
+     */
+    private static final int BATCH_TASK_SIZE = 8 * BATCH_BLOCK_SIZE;
+
+    private final String[] inputVariableNames;
+    private final Map<String, Integer> inputVariableIndexByName = new HashMap<>();
+    private final LinguisticTermTable inputTerms;
+
+    private final String[] outputVariableNames;
+    private final double[] outputDefaultValues;
+    private final LinguisticTermTable outputTerms;
+    private final OutputTermClassifier outputTermClassifier;
+    private final int[] staticBreakpointOffsets;
+    private final double[] staticBreakpoints;
+    private final int maximumDefuzzificationBreakpoints;
+
+    private final List<String> ruleNames = new ArrayList<>();
+    private final List<String> ruleConditions = new ArrayList<>();
+    private final List<String> ruleConsequences = new ArrayList<>();
+    private final double[] ruleWeights;
+    private final int[] ruleInstructionOffsets;
+    private final int[] instructionCodes;
+    private final int[] instructionOperands;
+    private final int[] ruleConsequentOffsets;
+    private final int[] consequentOutputTerms;
+    private final int maximumExpressionDepth;
+    /**
+     * The rules whose condition references an input variable, for {@link #evaluateChangedInputs}, as the rule
+     * indices {@code inputVariableRules[inputVariableRuleOffsets[v]]} to {@code inputVariableRules[inputVariableRuleOffsets[v + 1] - 1]}.
+     */
+    private final int[] inputVariableRuleOffsets;
+    private final int[] inputVariableRules;
+    /**
+     * The rules that conclude an output term, in the same layout as {@link #inputVariableRules}.
+     */
+    private final int[] outputTermRuleOffsets;
+    private final int[] outputTermRules;
+
+    private final WorkingMemoryPool<CompiledEvaluationState> evaluationStatePool
+            = new WorkingMemoryPool<>(this::newEvaluationState, WorkingMemoryPool.DEFAULT_CAPACITY);
+
+    /**
+     * Compiles the given function block.
+     *
+     * @param functionBlock the parsed function block, it is only read.
+     * @return the compiled fuzzy inference system.
+     * @throws RuleSetCompilationException if the function block uses features the compiled evaluator does not support.
+     */
+    public static CompiledFuzzyInferenceSystem compile(FunctionBlock functionBlock) throws RuleSetCompilationException {
+        return new CompiledFuzzyInferenceSystem(functionBlock);
+    }
+
+    private CompiledFuzzyInferenceSystem(FunctionBlock functionBlock) {
+        List<Variable> inputVariables = functionBlock.getVariables().values().stream().filter(Variable::isInput).toList();
+        List<Variable> outputVariables = functionBlock.getVariables().values().stream().filter(Variable::isOutput).toList();
+
+        inputVariableNames = inputVariables.stream().map(Variable::getName).toArray(String[]::new);
+        for (int inputVariable = 0; inputVariable < inputVariableNames.length; inputVariable++) {
+            inputVariableIndexByName.put(inputVariableNames[inputVariable], inputVariable);
+        }
+        inputTerms = LinguisticTermTable.compile(inputVariables, null, null);
+
+        outputVariableNames = outputVariables.stream().map(Variable::getName).toArray(String[]::new);
+        outputDefaultValues = new double[outputVariables.size()];
+        for (int outputVariable = 0; outputVariable < outputVariables.size(); outputVariable++) {
+            Variable variable = outputVariables.get(outputVariable);
+            if (!(variable.getDefuzzifier() instanceof DefuzzifierCenterOfGravity)) {
+                throw new RuleSetCompilationException("Unsupported defuzzification method for output variable '"
+                        + variable.getName() + "', only COG can be compiled.");
+            }
+            outputDefaultValues[outputVariable] = variable.getDefaultValue();
+        }
+        outputTerms = compileOutputTerms(outputVariables);
+        outputTermClassifier = OutputTermClassifier.compile(outputVariables);
+
+        staticBreakpointOffsets = new int[outputVariables.size() + 1];
+        List<double[]> staticBreakpointsPerOutputVariable = new ArrayList<>();
+        int maximumBreakpoints = 0;
+        for (int outputVariable = 0; outputVariable < outputVariables.size(); outputVariable++) {
+            double[] breakpoints = computeStaticBreakpoints(outputVariable);
+            staticBreakpointsPerOutputVariable.add(breakpoints);
+            staticBreakpointOffsets[outputVariable + 1] = staticBreakpointOffsets[outputVariable] + breakpoints.length;
+            maximumBreakpoints = Math.max(maximumBreakpoints, breakpoints.length + countActivationCrossings(outputVariable));
+        }
+        staticBreakpoints = new double[staticBreakpointOffsets[outputVariables.size()]];
+        for (int outputVariable = 0; outputVariable < outputVariables.size(); outputVariable++) {
+            double[] breakpoints = staticBreakpointsPerOutputVariable.get(outputVariable);
+            System.arraycopy(breakpoints, 0, staticBreakpoints, staticBreakpointOffsets[outputVariable], breakpoints.length);
+        }
+        maximumDefuzzificationBreakpoints = maximumBreakpoints;
+
+        Map<String, Integer> inputTermIndexByName = indexTermsByName(inputTerms, inputVariableNames);
+        Map<String, Integer> outputTermIndexByName = indexTermsByName(outputTerms, outputVariableNames);
+        List<Double> weights = new ArrayList<>();
+        List<Integer> instructionOffsets = new ArrayList<>(List.of(0));
+        List<Integer> codes = new ArrayList<>();
+        List<Integer> operands = new ArrayList<>();
+        List<Integer> consequentOffsets = new ArrayList<>(List.of(0));
+        List<Integer> consequentTerms = new ArrayList<>();
+        int expressionDepth = 1;
+
+        for (RuleBlock ruleBlock : functionBlock.getRuleBlocks().values()) {
+            if (!(ruleBlock.getRuleActivationMethod() instanceof RuleActivationMethodMin)
+                    || !(ruleBlock.getRuleAccumulationMethod() instanceof RuleAccumulationMethodMax)) {
+                throw new RuleSetCompilationException("Unsupported activation or accumulation method in rule block '"
+                        + ruleBlock.getName() + "', only MIN activation and MAX accumulation can be compiled.");
+            }
+            for (Rule rule : ruleBlock.getRules()) {
+                ruleNames.add(rule.getName());
+                ruleConditions.add("IF " + rule.getAntecedents().toString());
+                ruleConsequences.add("THEN " + rule.getConsequents().toString());
+                weights.add(rule.getWeight());
+
+                expressionDepth = Math.max(expressionDepth,
+                        compileExpression(rule.getAntecedents(), 0, inputTermIndexByName, codes, operands, rule.getName()));
+                instructionOffsets.add(codes.size());
+
+                for (RuleTerm consequent : rule.getConsequents()) {
+                    Integer outputTerm = outputTermIndexByName.get(termKey(consequent));
+                    if (outputTerm == null || consequent.isNegated()) {
+                        throw new RuleSetCompilationException("Unsupported consequence '" + consequent + "' in rule '"
+                                + rule.getName() + "', only non-negated output terms can be compiled.");
+                    }
+                    consequentTerms.add(outputTerm);
+                }
+                consequentOffsets.add(consequentTerms.size());
+            }
+        }
+
+        ruleWeights = weights.stream().mapToDouble(Double::doubleValue).toArray();
+        ruleInstructionOffsets = instructionOffsets.stream().mapToInt(Integer::intValue).toArray();
+        instructionCodes = codes.stream().mapToInt(Integer::intValue).toArray();
+        instructionOperands = operands.stream().mapToInt(Integer::intValue).toArray();
+        ruleConsequentOffsets = consequentOffsets.stream().mapToInt(Integer::intValue).toArray();
+        consequentOutputTerms = consequentTerms.stream().mapToInt(Integer::intValue).toArray();
+        maximumExpressionDepth = expressionDepth;
+
+        List<List<Integer>> rulesPerInputVariable = new ArrayList<>();
+        for (int inputVariable = 0; inputVariable < inputVariableNames.length; inputVariable++) {
+            rulesPerInputVariable.add(new ArrayList<>());
+        }
+        for (int rule = 0; rule < ruleWeights.length; rule++) {
+            for (int instruction = ruleInstructionOffsets[rule]; instruction < ruleInstructionOffsets[rule + 1]; instruction++) {
+                if (instructionCodes[instruction] == PUSH_TERM || instructionCodes[instruction] == PUSH_NEGATED_TERM) {
+                    List<Integer> rules = rulesPerInputVariable.get(inputTerms.termVariables[instructionOperands[instruction]]);
+                    if (rules.isEmpty() || rules.get(rules.size() - 1) != rule) {
+                        rules.add(rule);
+                    }
+                }
+            }
+        }
+        List<List<Integer>> rulesPerOutputTerm = new ArrayList<>();
+        for (int outputTerm = 0; outputTerm < outputTerms.numberOfTerms(); outputTerm++) {
+            rulesPerOutputTerm.add(new ArrayList<>());
+        }
+        for (int rule = 0; rule < ruleWeights.length; rule++) {
+            for (int consequent = ruleConsequentOffsets[rule]; consequent < ruleConsequentOffsets[rule + 1]; consequent++) {
+                rulesPerOutputTerm.get(consequentOutputTerms[consequent]).add(rule);
+            }
+        }
+        inputVariableRuleOffsets = new int[inputVariableNames.length + 1];
+        inputVariableRules = flatten(rulesPerInputVariable, inputVariableRuleOffsets);
+        outputTermRuleOffsets = new int[outputTerms.numberOfTerms() + 1];
+        outputTermRules = flatten(rulesPerOutputTerm, outputTermRuleOffsets);
+    }
+
+    private static int[] flatten(List<List<Integer>> lists, int[] offsets) {
+        for (int list = 0; list < lists.size(); list++) {
+            offsets[list + 1] = offsets[list] + lists.get(list).size();
+        }
+        return lists.stream().flatMap(List::stream).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Creates a new working memory for evaluations of this fuzzy inference system.
+     */
+    public CompiledEvaluationState newEvaluationState() {
+        return new CompiledEvaluationState(inputVariableNames.length, inputTerms.numberOfTerms(), maximumExpressionDepth,
+                ruleWeights.length, outputTerms.numberOfTerms(), outputVariableNames.length, maximumDefuzzificationBreakpoints);
+    }
+
+    /**
+     * Returns a working memory that is reused by the evaluations of all threads; it has to be
+     * {@link #releaseEvaluationState released} after the evaluation.
+     */
+    public CompiledEvaluationState acquireEvaluationState() {
+        return evaluationStatePool.acquire();
+    }
+
+    public void releaseEvaluationState(CompiledEvaluationState evaluationState) {
+        evaluationStatePool.release(evaluationState);
+    }
+
+    /**
+     * Evaluates all rules for the input values of the given state and stores the memberships of the input terms, the
+     * degrees of support of the rules, the defuzzified output values and their winning output terms in the state.
+     */
+    public void evaluate(CompiledEvaluationState state) {
+        double[] inputTermMemberships = state.inputTermMemberships;
+        for (int inputTerm = 0; inputTerm < inputTermMemberships.length; inputTerm++) {
+            inputTermMemberships[inputTerm] = inputTerms.membership(inputTerm, state.inputValues[inputTerms.termVariables[inputTerm]]);
+        }
+
+        double[] outputTermActivations = state.outputTermActivations;
+        Arrays.fill(outputTermActivations, 0);
+        for (int rule = 0; rule < ruleWeights.length; rule++) {
+            double degreeOfSupport = evaluateCondition(rule, state) * ruleWeights[rule];
+            state.degreesOfSupport[rule] = degreeOfSupport;
+            for (int consequent = ruleConsequentOffsets[rule]; consequent < ruleConsequentOffsets[rule + 1]; consequent++) {
+                // with MAX accumulation, each output term is clipped at the highest degree of support of its rules
+                int outputTerm = consequentOutputTerms[consequent];
+                outputTermActivations[outputTerm] = Math.max(outputTermActivations[outputTerm], degreeOfSupport);
+            }
+        }
+
+        for (int outputVariable = 0; outputVariable < outputVariableNames.length; outputVariable++) {
+            state.outputValues[outputVariable] = defuzzifyCenterOfGravity(outputVariable, state);
+            state.winningOutputTerms[outputVariable] = getWinningOutputTerm(outputVariable, state.outputValues[outputVariable]);
+        }
+    }
+
+    /**
+     * Re-evaluates a state that was {@link #evaluate evaluated} before, after some of its input values changed. Only the
+     * terms of the changed input variables are fuzzified again and only the rules that reference them are fired again;
+     * an output variable is only defuzzified again, and its winning term only selected again, if the activation of one
+     * of its terms changed. The state then holds
+     * exactly the same values as after a full evaluation of its input values.
+     *
+     * @param changedInputVariables whether the value of each input variable changed since the last evaluation.
+     */
+    public void evaluateChangedInputs(CompiledEvaluationState state, boolean[] changedInputVariables) {
+        boolean[] rulesToEvaluate = state.rulesToEvaluate;
+        for (int inputVariable = 0; inputVariable < inputVariableNames.length; inputVariable++) {
+            if (!changedInputVariables[inputVariable]) {
+                continue;
+            }
+            double inputValue = state.inputValues[inputVariable];
+            for (int inputTerm = inputTerms.variableTermOffsets[inputVariable]; inputTerm < inputTerms.variableTermOffsets[inputVariable + 1]; inputTerm++) {
+                state.inputTermMemberships[inputTerm] = inputTerms.membership(inputTerm, inputValue);
+            }
+            for (int dependentRule = inputVariableRuleOffsets[inputVariable]; dependentRule < inputVariableRuleOffsets[inputVariable + 1]; dependentRule++) {
+                rulesToEvaluate[inputVariableRules[dependentRule]] = true;
+            }
+        }
+
+        for (int rule = 0; rule < ruleWeights.length; rule++) {
+            if (rulesToEvaluate[rule]) {
+                rulesToEvaluate[rule] = false;
+                state.degreesOfSupport[rule] = evaluateCondition(rule, state) * ruleWeights[rule];
+            }
+        }
+
+        for (int outputVariable = 0; outputVariable < outputVariableNames.length; outputVariable++) {
+            boolean activationChanged = false;
+            for (int outputTerm = outputTerms.variableTermOffsets[outputVariable]; outputTerm < outputTerms.variableTermOffsets[outputVariable + 1]; outputTerm++) {
+                // a degree of support may also have decreased, so the activation is accumulated from all rules of the term
+                double activation = 0;
+                for (int concludingRule = outputTermRuleOffsets[outputTerm]; concludingRule < outputTermRuleOffsets[outputTerm + 1]; concludingRule++) {
+                    activation = Math.max(activation, state.degreesOfSupport[outputTermRules[concludingRule]]);
+                }
+                if (activation != state.outputTermActivations[outputTerm]) {
+                    state.outputTermActivations[outputTerm] = activation;
+                    activationChanged = true;
+                }
+            }
+            if (activationChanged) {
+                state.outputValues[outputVariable] = defuzzifyCenterOfGravity(outputVariable, state);
+                state.winningOutputTerms[outputVariable] = getWinningOutputTerm(outputVariable, state.outputValues[outputVariable]);
+            }
+        }
+    }
+
+    /**
+     * Evaluates a batch of input combinations on the common fork-join pool, see {@link #evaluateBatch(double[][], ForkJoinPool)}.
+     */
+    public BatchEvaluationResult evaluateBatch(double[][] inputColumns) {
+        return evaluateBatch(inputColumns, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates a batch of input combinations, with the same results as {@link #evaluate evaluating} each row on its
+     * own. The rows are split into blocks of {@value #BATCH_BLOCK_SIZE}, which are evaluated column by column: each input
+     * term is fuzzified for all rows of the block, each rule instruction and the MAX accumulation run over whole columns,
+     * and only the defuzzification is done row by row. These branch-free loops over primitive arrays are vectorized by
+     * the JIT compiler. The blocks are distributed over the threads of the fork-join pool.
+     *
+     * @param inputColumns one column per input variable, in the order of the input variables, all of the same length.
+     *                     The values must be finite numbers, see {@link InputSchema#checkInputValues(double[])}.
+     * @param forkJoinPool the pool that evaluates the blocks.
+     * @return the defuzzified values and winning terms of each output variable per row.
+     * @throws IllegalArgumentException if the number of columns or their lengths do not match.
+     */
+    public BatchEvaluationResult evaluateBatch(double[][] inputColumns, ForkJoinPool forkJoinPool) {
+        if (inputColumns.length != inputVariableNames.length) {
+            throw new IllegalArgumentException("Expected " + inputVariableNames.length + " input columns "
+                    + Arrays.toString(inputVariableNames) + ", but got " + inputColumns.length + ".");
+        }
+        int numberOfRows = inputColumns.length == 0 ? 0 : inputColumns[0].length;
+        for (int inputVariable = 0; inputVariable < inputColumns.length; inputVariable++) {
+            if (inputColumns[inputVariable].length != numberOfRows) {
+                throw new IllegalArgumentException("The input column of '" + inputVariableNames[inputVariable] + "' has "
+                        + inputColumns[inputVariable].length + " rows, but the first one has " + numberOfRows + ".");
+            }
+        }
+        BatchEvaluationResult result = new BatchEvaluationResult(outputVariableNames.length, numberOfRows);
+        forkJoinPool.invoke(new BatchEvaluationTask(inputColumns, result, 0, numberOfRows));
+        return result;
+    }
+
+    /**
+     * Evaluates the rows from {@code from} (inclusive) to {@code to} (exclusive), after splitting them in half (at a
+     * block boundary) until there are at most {@value #BATCH_TASK_SIZE} rows.
+     */
+    private final class BatchEvaluationTask extends RecursiveAction {
+        private final double[][] inputColumns;
+        private final BatchEvaluationResult result;
+        private final int from;
+        private final int to;
+
+        BatchEvaluationTask(double[][] inputColumns, BatchEvaluationResult result, int from, int to) {
+            this.inputColumns = inputColumns;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_TASK_SIZE) {
+                int middle = from + (to - from) / (2 * BATCH_BLOCK_SIZE) * BATCH_BLOCK_SIZE;
+                invokeAll(new BatchEvaluationTask(inputColumns, result, from, middle),
+                        new BatchEvaluationTask(inputColumns, result, middle, to));
+                return;
+            }
+            BatchWorkingMemory memory = new BatchWorkingMemory();
+            for (int blockStart = from; blockStart < to; blockStart += BATCH_BLOCK_SIZE) {
+                evaluateBlock(inputColumns, blockStart, Math.min(BATCH_BLOCK_SIZE, to - blockStart), memory, result);
+            }
+        }
+    }
+
+    /**
+     * The columns of one block of a batch evaluation, and a state for defuzzifying its rows.
+     */
+    private final class BatchWorkingMemory {
+        final double[][] inputTermMemberships = new double[inputTerms.numberOfTerms()][BATCH_BLOCK_SIZE];
+        final double[][] expressionStack = new double[maximumExpressionDepth][BATCH_BLOCK_SIZE];
+        final double[][] outputTermActivations = new double[outputTerms.numberOfTerms()][BATCH_BLOCK_SIZE];
+        final CompiledEvaluationState rowState = newEvaluationState();
+    }
+
+    private void evaluateBlock(double[][] inputColumns, int blockStart, int blockSize, BatchWorkingMemory memory,
+                               BatchEvaluationResult result) {
+        for (int inputTerm = 0; inputTerm < inputTerms.numberOfTerms(); inputTerm++) {
+            fuzzifyColumn(inputTerm, inputColumns[inputTerms.termVariables[inputTerm]], blockStart, blockSize,
+                    memory.inputTermMemberships[inputTerm]);
+        }
+
+        for (double[] outputTermActivation : memory.outputTermActivations) {
+            Arrays.fill(outputTermActivation, 0, blockSize, 0);
+        }
+        for (int rule = 0; rule < ruleWeights.length; rule++) {
+            double[] degreesOfSupport = evaluateConditionColumn(rule, blockSize, memory);
+            double ruleWeight = ruleWeights[rule];
+            for (int row = 0; row < blockSize; row++) {
+                degreesOfSupport[row] *= ruleWeight;
+            }
+            for (int consequent = ruleConsequentOffsets[rule]; consequent < ruleConsequentOffsets[rule + 1]; consequent++) {
+                double[] outputTermActivation = memory.outputTermActivations[consequentOutputTerms[consequent]];
+                for (int row = 0; row < blockSize; row++) {
+                    outputTermActivation[row] = Math.max(outputTermActivation[row], degreesOfSupport[row]);
+                }
+            }
+        }
+
+        CompiledEvaluationState rowState = memory.rowState;
+        for (int outputVariable = 0; outputVariable < outputVariableNames.length; outputVariable++) {
+            int firstTerm = outputTerms.variableTermOffsets[outputVariable];
+            int endTerm = outputTerms.variableTermOffsets[outputVariable + 1];
+            double[] outputValues = result.outputValues[outputVariable];
+            int[] winningOutputTerms = result.winningOutputTerms[outputVariable];
+            for (int row = 0; row < blockSize; row++) {
+                for (int outputTerm = firstTerm; outputTerm < endTerm; outputTerm++) {
+                    rowState.outputTermActivations[outputTerm] = memory.outputTermActivations[outputTerm][row];
+                }
+                double outputValue = defuzzifyCenterOfGravity(outputVariable, rowState);
+                outputValues[blockStart + row] = outputValue;
+                winningOutputTerms[blockStart + row] = outputTermClassifier.getWinningTerm(outputVariable, outputValue);
+            }
+        }
+    }
+
+    /**
+     * Calculates the membership degrees of a term for a column of values, with exactly the same arithmetic as
+     * {@link LinguisticTermTable#membership(int, double)}: instead of searching the segment of each value, each segment
+     * is applied to the values within it.
+     */
+    private void fuzzifyColumn(int inputTerm, double[] inputColumn, int blockStart, int blockSize, double[] memberships) {
+        double[] pointX = inputTerms.pointX;
+        double[] pointY = inputTerms.pointY;
+        int firstPoint = inputTerms.termPointOffsets[inputTerm];
+        int lastPoint = inputTerms.termPointOffsets[inputTerm + 1] - 1;
+        if (inputTerms.singletonTerms[inputTerm]) {
+            double singletonValue = pointX[firstPoint];
+            for (int row = 0; row < blockSize; row++) {
+                memberships[row] = inputColumn[blockStart + row] == singletonValue ? 1 : 0;
+            }
+            return;
+        }
+        Arrays.fill(memberships, 0, blockSize, pointY[firstPoint]);
+        for (int point = firstPoint + 1; point <= lastPoint; point++) {
+            double leftX = pointX[point - 1];
+            double rightX = pointX[point];
+            double leftY = pointY[point - 1];
+            double slope = (pointY[point] - leftY) / (rightX - leftX);
+            for (int row = 0; row < blockSize; row++) {
+                double value = inputColumn[blockStart + row];
+                memberships[row] = value > leftX && value <= rightX ? slope * (value - leftX) + leftY : memberships[row];
+            }
+        }
+        double lastX = pointX[lastPoint];
+        double lastY = pointY[lastPoint];
+        for (int row = 0; row < blockSize; row++) {
+            memberships[row] = inputColumn[blockStart + row] > lastX ? lastY : memberships[row];
+        }
+    }
+
+    /**
+     * Runs the instructions of a rule condition over columns, like {@link #evaluateCondition} for single values.
+     *
+     * @return the column of the condition values, which is the bottom of the expression stack.
+     */
+    private double[] evaluateConditionColumn(int rule, int blockSize, BatchWorkingMemory memory) {
+        double[][] stack = memory.expressionStack;
+        int top = -1;
+        for (int instruction = ruleInstructionOffsets[rule]; instruction < ruleInstructionOffsets[rule + 1]; instruction++) {
+            switch (instructionCodes[instruction]) {
+                case PUSH_TERM -> System.arraycopy(memory.inputTermMemberships[instructionOperands[instruction]], 0, stack[++top], 0, blockSize);
+                case PUSH_NEGATED_TERM -> {
+                    double[] memberships = memory.inputTermMemberships[instructionOperands[instruction]];
+                    double[] result = stack[++top];
+                    for (int row = 0; row < blockSize; row++) {
+                        result[row] = 1 - memberships[row];
+                    }
+                }
+                case NEGATE -> {
+                    double[] result = stack[top];
+                    for (int row = 0; row < blockSize; row++) {
+                        result[row] = 1 - result[row];
+                    }
+                }
+                case AND_MIN -> {
+                    double[] operand = stack[top--];
+                    double[] result = stack[top];
+                    for (int row = 0; row < blockSize; row++) {
+                        result[row] = Math.min(result[row], operand[row]);
+                    }
+                }
+                case AND_PRODUCT -> {
+                    double[] operand = stack[top--];
+                    double[] result = stack[top];
+                    for (int row = 0; row < blockSize; row++) {
+                        result[row] = result[row] * operand[row];
+                    }
+                }
+                case OR_MAX -> {
+                    double[] operand = stack[top--];
+                    double[] result = stack[top];
+                    for (int row = 0; row < blockSize; row++) {
+                        result[row] = Math.max(result[row], operand[row]);
+                    }
+                }
+                case OR_PROBABILISTIC -> {
+                    double[] operand = stack[top--];
+                    double[] result = stack[top];
+                    for (int row = 0; row < blockSize; row++) {
+                        result[row] = result[row] + operand[row] - result[row] * operand[row];
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown instruction: " + instructionCodes[instruction]);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Selects the output term with the highest membership degree for the given value, see {@link OutputTermClassifier}.
+     * On equal membership degrees, the term that comes first in {@link Variable#getLinguisticTerms()} is selected.
+     *
+     * @return the index of the selected output term.
+     */
+    public int getWinningOutputTerm(int outputVariable, double value) {
+        return outputTerms.variableTermOffsets[outputVariable] + outputTermClassifier.getWinningTerm(outputVariable, value);
+    }
+
+    public double getOutputTermMembership(int outputTerm, double value) {
+        return outputTerms.membership(outputTerm, value);
+    }
+
+    /**
+     * @return the index of the input variable, or -1 if there is no input variable with that name.
+     */
+    public int getInputVariableIndex(String inputVariableName) {
+        Integer inputVariable = inputVariableIndexByName.get(inputVariableName);
+        return inputVariable == null ? -1 : inputVariable;
+    }
+
+    public int getNumberOfInputVariables() {
+        return inputVariableNames.length;
+    }
+
+    public String getInputVariableName(int inputVariable) {
+        return inputVariableNames[inputVariable];
+    }
+
+    public int getInputTermsStart(int inputVariable) {
+        return inputTerms.variableTermOffsets[inputVariable];
+    }
+
+    public int getInputTermsEnd(int inputVariable) {
+        return inputTerms.variableTermOffsets[inputVariable + 1];
+    }
+
+    public String getInputTermName(int inputTerm) {
+        return inputTerms.termNames[inputTerm];
+    }
+
+    public int getNumberOfOutputVariables() {
+        return outputVariableNames.length;
+    }
+
+    public String getOutputVariableName(int outputVariable) {
+        return outputVariableNames[outputVariable];
+    }
+
+    public int getOutputTermsStart(int outputVariable) {
+        return outputTerms.variableTermOffsets[outputVariable];
+    }
+
+    public int getOutputTermsEnd(int outputVariable) {
+        return outputTerms.variableTermOffsets[outputVariable + 1];
+    }
+
+    public String getOutputTermName(int outputTerm) {
+        return outputTerms.termNames[outputTerm];
+    }
+
+    public int getNumberOfRules() {
+        return ruleWeights.length;
+    }
+
+    public String getRuleName(int rule) {
+        return ruleNames.get(rule);
+    }
+
+    public String getRuleCondition(int rule) {
+        return ruleConditions.get(rule);
+    }
+
+    public String getRuleConsequence(int rule) {
+        return ruleConsequences.get(rule);
+    }
+
+    public double getRuleWeight(int rule) {
+        return ruleWeights[rule];
+    }
+
+    private double evaluateCondition(int rule, CompiledEvaluationState state) {
+        double[] stack = state.expressionStack;
+        int top = -1;
+        for (int instruction = ruleInstructionOffsets[rule]; instruction < ruleInstructionOffsets[rule + 1]; instruction++) {
+            switch (instructionCodes[instruction]) {
+                case PUSH_TERM -> stack[++top] = state.inputTermMemberships[instructionOperands[instruction]];
+                case PUSH_NEGATED_TERM -> stack[++top] = 1 - state.inputTermMemberships[instructionOperands[instruction]];
+                case NEGATE -> stack[top] = 1 - stack[top];
+                case AND_MIN -> {
+                    top--;
+                    stack[top] = Math.min(stack[top], stack[top + 1]);
+                }
+                case AND_PRODUCT -> {
+                    top--;
+                    stack[top] = stack[top] * stack[top + 1];
+                }
+                case OR_MAX -> {
+                    top--;
+                    stack[top] = Math.max(stack[top], stack[top + 1]);
+                }
+                case OR_PROBABILISTIC -> {
+                    top--;
+                    stack[top] = stack[top] + stack[top + 1] - stack[top] * stack[top + 1];
+                }
+                default -> throw new IllegalStateException("Unknown instruction: " + instructionCodes[instruction]);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Integrates the aggregated output membership function exactly. Between two consecutive breakpoints (term points,
+     * intersections of terms with each other and with the activation levels) the aggregated function is linear, so
+     * its area and moment can be computed from two interior samples per interval.
+     */
+    private double defuzzifyCenterOfGravity(int outputVariable, CompiledEvaluationState state) {
+        double[] activations = state.outputTermActivations;
+        double[] breakpoints = state.defuzzificationBreakpoints;
+        int firstTerm = outputTerms.variableTermOffsets[outputVariable];
+        int endTerm = outputTerms.variableTermOffsets[outputVariable + 1];
+
+        int numberOfBreakpoints = staticBreakpointOffsets[outputVariable + 1] - staticBreakpointOffsets[outputVariable];
+        System.arraycopy(staticBreakpoints, staticBreakpointOffsets[outputVariable], breakpoints, 0, numberOfBreakpoints);
+        boolean anyTermActivated = false;
+        for (int term = firstTerm; term < endTerm; term++) {
+            if (!(activations[term] > 0)) {
+                continue;
+            }
+            anyTermActivated = true;
+            for (int levelTerm = firstTerm; levelTerm < endTerm; levelTerm++) {
+                double level = activations[levelTerm];
+                if (!(level > 0)) {
+                    continue;
+                }
+                for (int point = outputTerms.termPointOffsets[term] + 1; point < outputTerms.termPointOffsets[term + 1]; point++) {
+                    double leftY = outputTerms.pointY[point - 1];
+                    double rightY = outputTerms.pointY[point];
+                    if ((leftY - level) * (rightY - level) < 0) {
+                        double leftX = outputTerms.pointX[point - 1];
+                        breakpoints[numberOfBreakpoints++] = leftX + (level - leftY) / (rightY - leftY) * (outputTerms.pointX[point] - leftX);
+                    }
+                }
+            }
+        }
+        if (!anyTermActivated) {
+            return outputDefaultValues[outputVariable];
+        }
+        Arrays.sort(breakpoints, 0, numberOfBreakpoints);
+
+        double area = 0;
+        double moment = 0;
+        for (int breakpoint = 1; breakpoint < numberOfBreakpoints; breakpoint++) {
+            double left = breakpoints[breakpoint - 1];
+            double right = breakpoints[breakpoint];
+            double width = right - left;
+            if (width <= 0) {
+                continue;
+            }
+            double firstQuarterValue = aggregatedMembership(firstTerm, endTerm, left + width / 4, activations);
+            double thirdQuarterValue = aggregatedMembership(firstTerm, endTerm, left + 3 * width / 4, activations);
+            double leftValue = (3 * firstQuarterValue - thirdQuarterValue) / 2;
+            double rightValue = (3 * thirdQuarterValue - firstQuarterValue) / 2;
+            area += width * (leftValue + rightValue) / 2;
+            moment += width / 6 * ((2 * left + right) * leftValue + (left + 2 * right) * rightValue);
+        }
+        return area > 0 ? moment / area : outputDefaultValues[outputVariable];
+    }
+
+    private double aggregatedMembership(int firstTerm, int endTerm, double value, double[] activations) {
+        double aggregatedMembership = 0;
+        for (int term = firstTerm; term < endTerm; term++) {
+            if (activations[term] > 0) {
+                aggregatedMembership = Math.max(aggregatedMembership, Math.min(activations[term], outputTerms.membership(term, value)));
+            }
+        }
+        return aggregatedMembership;
+    }
+
+    /**
+     * Compiles the output terms, extended to the universe of their variable, so that each table covers the whole
+     * integration range.
+     */
+    private static LinguisticTermTable compileOutputTerms(List<Variable> outputVariables) {
+        LinguisticTermTable outputTerms = LinguisticTermTable.compileOverUniverse(outputVariables);
+        for (int term = 0; term < outputTerms.numberOfTerms(); term++) {
+            if (outputTerms.singletonTerms[term]) {
+                throw new RuleSetCompilationException("Unsupported singleton term '" + outputTerms.termNames[term]
+                        + "' in output variable '" + outputVariables.get(outputTerms.termVariables[term]).getName() + "'.");
+            }
+        }
+        return outputTerms;
+    }
+
+    /**
+     * Collects all points of the output terms and all intersections between two of them, these do not depend on the
+     * degrees of support.
+     */
+    private double[] computeStaticBreakpoints(int outputVariable) {
+        int firstTerm = outputTerms.variableTermOffsets[outputVariable];
+        int endTerm = outputTerms.variableTermOffsets[outputVariable + 1];
+        List<Double> breakpoints = new ArrayList<>();
+        for (int term = firstTerm; term < endTerm; term++) {
+            for (int point = outputTerms.termPointOffsets[term]; point < outputTerms.termPointOffsets[term + 1]; point++) {
+                breakpoints.add(outputTerms.pointX[point]);
+            }
+            for (int otherTerm = term + 1; otherTerm < endTerm; otherTerm++) {
+                outputTerms.addIntersections(term, otherTerm, breakpoints);
+            }
+        }
+        return breakpoints.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+    }
+
+    /**
+     * Counts the maximum number of intersections between output terms and activation levels, to size the working memory.
+     */
+    private int countActivationCrossings(int outputVariable) {
+        int firstTerm = outputTerms.variableTermOffsets[outputVariable];
+        int endTerm = outputTerms.variableTermOffsets[outputVariable + 1];
+        int numberOfSegments = outputTerms.termPointOffsets[endTerm] - outputTerms.termPointOffsets[firstTerm] - (endTerm - firstTerm);
+        return numberOfSegments * (endTerm - firstTerm);
+    }
+
+    /**
+     * Compiles a rule condition into postfix instructions.
+     *
+     * @return the maximum stack depth needed to evaluate the expression.
+     */
+    private static int compileExpression(Object expression, int stackDepth, Map<String, Integer> inputTermIndexByName,
+                                         List<Integer> codes, List<Integer> operands, String ruleName) {
+        if (expression instanceof RuleTerm ruleTerm) {
+            Integer inputTerm = inputTermIndexByName.get(termKey(ruleTerm));
+            if (inputTerm == null) {
+                throw new RuleSetCompilationException("Unsupported condition '" + ruleTerm + "' in rule '" + ruleName
+                        + "', only input terms can be compiled.");
+            }
+            codes.add(ruleTerm.isNegated() ? PUSH_NEGATED_TERM : PUSH_TERM);
+            operands.add(inputTerm);
+            return stackDepth + 1;
+        }
+        if (expression instanceof RuleExpression ruleExpression) {
+            Object firstTerm = ruleExpression.getTerm1();
+            Object secondTerm = ruleExpression.getTerm2();
+            int maximumStackDepth;
+            if (firstTerm != null && secondTerm != null) {
+                maximumStackDepth = Math.max(
+                        compileExpression(firstTerm, stackDepth, inputTermIndexByName, codes, operands, ruleName),
+                        compileExpression(secondTerm, stackDepth + 1, inputTermIndexByName, codes, operands, ruleName));
+                codes.add(compileConnectionMethod(ruleExpression.getRuleConnectionMethod(), ruleName));
+                operands.add(0);
+            } else if (firstTerm != null || secondTerm != null) {
+                maximumStackDepth = compileExpression(firstTerm != null ? firstTerm : secondTerm, stackDepth,
+                        inputTermIndexByName, codes, operands, ruleName);
+            } else {
+                throw new RuleSetCompilationException("Empty condition in rule '" + ruleName + "'.");
+            }
+            if (ruleExpression.isNegated()) {
+                codes.add(NEGATE);
+                operands.add(0);
+            }
+            return maximumStackDepth;
+        }
+        throw new RuleSetCompilationException("Unsupported condition in rule '" + ruleName + "': " + expression);
+    }
+
+    private static int compileConnectionMethod(RuleConnectionMethod ruleConnectionMethod, String ruleName) {
+        if (ruleConnectionMethod instanceof RuleConnectionMethodAndMin) {
+            return AND_MIN;
+        }
+        if (ruleConnectionMethod instanceof RuleConnectionMethodAndProduct) {
+            return AND_PRODUCT;
+        }
+        if (ruleConnectionMethod instanceof RuleConnectionMethodOrMax) {
+            return OR_MAX;
+        }
+        if (ruleConnectionMethod instanceof RuleConnectionMethodOrProbOr) {
+            return OR_PROBABILISTIC;
+        }
+        throw new RuleSetCompilationException("Unsupported connection method in rule '" + ruleName + "': " + ruleConnectionMethod);
+    }
+
+    private static Map<String, Integer> indexTermsByName(LinguisticTermTable terms, String[] variableNames) {
+        Map<String, Integer> termIndexByName = new HashMap<>();
+        for (int term = 0; term < terms.numberOfTerms(); term++) {
+            termIndexByName.put(termKey(variableNames[terms.termVariables[term]], terms.termNames[term]), term);
+        }
+        return termIndexByName;
+    }
+
+    private static String termKey(RuleTerm ruleTerm) {
+        return termKey(ruleTerm.getVariable().getName(), ruleTerm.getTermName());
+    }
+
+    private static String termKey(String variableName, String termName) {
+        return variableName + " IS " + termName;
+    }
+}
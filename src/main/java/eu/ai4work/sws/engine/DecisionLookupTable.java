@@ -0,0 +1,433 @@
+package eu.ai4work.sws.engine;
+
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * The defuzzified output values of a rule set, sampled on a grid over its input variables.
+ * <p>
+ * Sliding decisions for inputs within the grid are answered by looking up (and multilinearly interpolating) the
+ * output values and selecting the output term with the highest membership, instead of evaluating the rules.
+ * The values are stored as floats, either on the heap or memory-mapped from a table file, which is only reused if it
+ * was built from the same FCL source and grid.
+ */
+public final class DecisionLookupTable {
+    /**
+     * The seed of the random points of {@link #measureDeviation}, the same for the application and the tool.
+     */
+    public static final long DEVIATION_SAMPLES_SEED = 20240101L;
+    private static final int FILE_MAGIC = 0x53575354; // "SWST"
+    private static final int FILE_FORMAT_VERSION = 1;
+    private static final int RULE_SET_KEY_LENGTH = 32;
+    private static final int FILE_HEADER_LENGTH = 4 + 4 + RULE_SET_KEY_LENGTH + 8;
+
+    private final GridAxis[] gridAxes;
+    private final int[] gridStrides;
+    private final int numberOfPoints;
+    private final String[] outputVariableNames;
+    private final OutputTermClassifier outputTermClassifier;
+    private final FloatBuffer outputValues;
+    private final boolean interpolate;
+    private final WorkingMemoryPool<LookupMemory> lookupMemoryPool;
+
+    private DecisionLookupTable(List<GridAxis> gridAxes, FunctionBlock functionBlock, FloatBuffer outputValues, boolean interpolate) {
+        this.gridAxes = gridAxes.toArray(GridAxis[]::new);
+        this.gridStrides = new int[this.gridAxes.length];
+        this.numberOfPoints = countPoints(gridAxes);
+        int stride = 1;
+        for (int axis = this.gridAxes.length - 1; axis >= 0; axis--) {
+            gridStrides[axis] = stride;
+            stride *= this.gridAxes[axis].numberOfPoints();
+        }
+
+        this.outputTermClassifier = OutputTermClassifier.compile(functionBlock);
+        this.outputVariableNames = new String[outputTermClassifier.getNumberOfOutputVariables()];
+        for (int outputVariable = 0; outputVariable < outputVariableNames.length; outputVariable++) {
+            outputVariableNames[outputVariable] = outputTermClassifier.getOutputVariableName(outputVariable);
+        }
+        this.outputValues = outputValues;
+        this.interpolate = interpolate;
+        this.lookupMemoryPool = new WorkingMemoryPool<>(() -> new LookupMemory(this.gridAxes.length, outputVariableNames.length),
+                WorkingMemoryPool.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Builds the table by evaluating the rule set at every grid point, in parallel with one FIS per thread.
+     *
+     * @param fuzzyInferenceSystemSupplier parses a new FIS of the rule set.
+     * @param gridAxes                     the grid, one axis per input variable.
+     * @param interpolate                  whether lookups interpolate between grid points or use the nearest one.
+     * @throws IllegalArgumentException if the grid is too large for a table.
+     */
+    public static DecisionLookupTable build(Supplier<FIS> fuzzyInferenceSystemSupplier, List<GridAxis> gridAxes, boolean interpolate) {
+        FunctionBlock functionBlock = fuzzyInferenceSystemSupplier.get().getFunctionBlock(null);
+        String[] outputVariableNames = functionBlock.getVariables().values().stream()
+                .filter(Variable::isOutput).map(Variable::getName).toArray(String[]::new);
+        int numberOfPoints = countPoints(gridAxes);
+        if ((long) numberOfPoints * outputVariableNames.length > Integer.MAX_VALUE / Float.BYTES) {
+            throw new IllegalArgumentException("The lookup table grid " + gridAxes + " is too large");
+        }
+
+        float[] outputValues = new float[numberOfPoints * outputVariableNames.length];
+        ThreadLocal<FunctionBlock> functionBlockPerThread = ThreadLocal.withInitial(() -> fuzzyInferenceSystemSupplier.get().getFunctionBlock(null));
+        IntStream.range(0, numberOfPoints).parallel().forEach(point -> {
+            FunctionBlock evaluatedFunctionBlock = functionBlockPerThread.get();
+            int remainingPoint = point;
+            for (int axis = gridAxes.size() - 1; axis >= 0; axis--) {
+                GridAxis gridAxis = gridAxes.get(axis);
+                evaluatedFunctionBlock.getVariable(gridAxis.inputVariableName()).setValue(gridAxis.valueAt(remainingPoint % gridAxis.numberOfPoints()));
+                remainingPoint /= gridAxis.numberOfPoints();
+            }
+            evaluatedFunctionBlock.evaluate();
+            for (int outputVariable = 0; outputVariable < outputVariableNames.length; outputVariable++) {
+                outputValues[point * outputVariableNames.length + outputVariable] =
+                        (float) evaluatedFunctionBlock.getVariable(outputVariableNames[outputVariable]).getValue();
+            }
+        });
+        return new DecisionLookupTable(gridAxes, functionBlock, FloatBuffer.wrap(outputValues), interpolate);
+    }
+
+    /**
+     * Memory-maps a table file written by {@link #write(Path, byte[])}.
+     *
+     * @param tableFile     the table file.
+     * @param functionBlock the function block of the rule set, for the output terms.
+     * @param gridAxes      the grid the table must have been built for.
+     * @param ruleSetKey    the key the table must have been written with, see {@link #computeRuleSetKey(byte[], List)}.
+     * @param interpolate   whether lookups interpolate between grid points or use the nearest one.
+     * @return the mapped table, or empty if the file does not exist or belongs to another rule set or grid.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Optional<DecisionLookupTable> load(Path tableFile, FunctionBlock functionBlock, List<GridAxis> gridAxes,
+                                                     byte[] ruleSetKey, boolean interpolate) throws IOException {
+        if (!Files.isRegularFile(tableFile)) {
+            return Optional.empty();
+        }
+        try (FileChannel fileChannel = FileChannel.open(tableFile, StandardOpenOption.READ)) {
+            if (fileChannel.size() < FILE_HEADER_LENGTH) {
+                return Optional.empty();
+            }
+            ByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            byte[] fileRuleSetKey = new byte[RULE_SET_KEY_LENGTH];
+            int magic = header.getInt();
+            int formatVersion = header.getInt();
+            header.get(fileRuleSetKey);
+            long numberOfValues = header.getLong();
+            long expectedNumberOfValues = (long) countPoints(gridAxes)
+                    * functionBlock.getVariables().values().stream().filter(Variable::isOutput).count();
+            if (magic != FILE_MAGIC || formatVersion != FILE_FORMAT_VERSION || !Arrays.equals(fileRuleSetKey, ruleSetKey)
+                    || numberOfValues != expectedNumberOfValues
+                    || fileChannel.size() != FILE_HEADER_LENGTH + numberOfValues * Float.BYTES) {
+                return Optional.empty();
+            }
+            FloatBuffer outputValues = fileChannel.map(FileChannel.MapMode.READ_ONLY, FILE_HEADER_LENGTH, numberOfValues * Float.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            return Optional.of(new DecisionLookupTable(gridAxes, functionBlock, outputValues, interpolate));
+        }
+    }
+
+    /**
+     * Writes the table to a file, replacing it atomically, so that it can be memory-mapped by {@link #load}.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path tableFile, byte[] ruleSetKey) throws IOException {
+        Path temporaryFile = tableFile.resolveSibling(tableFile.getFileName() + ".tmp");
+        try (FileChannel fileChannel = FileChannel.open(temporaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(FILE_MAGIC).putInt(FILE_FORMAT_VERSION).put(ruleSetKey).putLong(outputValues.capacity()).flip();
+            writeFully(fileChannel, header);
+
+            ByteBuffer values = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int value = 0; value < outputValues.capacity(); value++) {
+                if (!values.hasRemaining()) {
+                    writeFully(fileChannel, values.flip());
+                    values.clear();
+                }
+                values.putFloat(outputValues.get(value));
+            }
+            writeFully(fileChannel, values.flip());
+        }
+        Files.move(temporaryFile, tableFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+    }
+
+    /**
+     * Computes the key that identifies the FCL source and grid a table was built for.
+     */
+    public static byte[] computeRuleSetKey(byte[] fclRulesSource, List<GridAxis> gridAxes) {
+        return computeRuleSetKey(fclRulesSource, gridAxes, Map.of());
+    }
+
+    /**
+     * Computes the key that identifies the FCL source, grid and configured defuzzifications a table was built for.
+     * Without configured defuzzifications, it is the key of {@link #computeRuleSetKey(byte[], List)}.
+     *
+     * @param defuzzifications the defuzzifications by output variable name, see {@link Defuzzification#parseAll}.
+     */
+    public static byte[] computeRuleSetKey(byte[] fclRulesSource, List<GridAxis> gridAxes, Map<String, Defuzzification> defuzzifications) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(fclRulesSource);
+            messageDigest.update(gridAxes.toString().getBytes(StandardCharsets.UTF_8));
+            if (!defuzzifications.isEmpty()) {
+                messageDigest.update(new TreeMap<>(defuzzifications).toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return messageDigest.digest();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    /**
+     * Looks up the sliding decision for the given input parameters.
+     *
+     * @param slidingDecisionInputParameters the verified input parameters, all numbers.
+     * @return the linguistic term per output variable, or null if the input is outside the grid.
+     */
+    public Map<String, String> lookupDecisions(Map<String, Object> slidingDecisionInputParameters) {
+        double[] inputValues = new double[gridAxes.length];
+        for (int axis = 0; axis < gridAxes.length; axis++) {
+            inputValues[axis] = ((Number) slidingDecisionInputParameters.get(gridAxes[axis].inputVariableName())).doubleValue();
+        }
+        return lookupDecisions(inputValues);
+    }
+
+    /**
+     * Looks up the sliding decision for the given input values.
+     *
+     * @param inputValues the verified input values in the order of the grid axes, which is the order of the input
+     *                    variables of the {@link InputSchema}.
+     * @return the linguistic term per output variable, or null if the input is outside the grid.
+     */
+    public Map<String, String> lookupDecisions(double[] inputValues) {
+        for (int axis = 0; axis < gridAxes.length; axis++) {
+            if (!isWithinGrid(axis, inputValues[axis])) {
+                return null;
+            }
+        }
+
+        LookupMemory lookupMemory = lookupMemoryPool.acquire();
+        try {
+            lookupOutputValues(inputValues, lookupMemory);
+            Map<String, String> decisions = HashMap.newHashMap(outputVariableNames.length);
+            for (int outputVariable = 0; outputVariable < outputVariableNames.length; outputVariable++) {
+                decisions.put(outputVariableNames[outputVariable],
+                        getWinningOutputTermName(outputVariable, lookupMemory.outputValues[outputVariable]));
+            }
+            return decisions;
+        } finally {
+            lookupMemoryPool.release(lookupMemory);
+        }
+    }
+
+    private boolean isWithinGrid(int axis, double inputValue) {
+        return inputValue >= gridAxes[axis].minimum() && inputValue <= gridAxes[axis].maximum();
+    }
+
+    /**
+     * Looks up the defuzzified value of an output variable for input values within the grid.
+     *
+     * @param inputValues    the input values in the order of the grid axes.
+     * @param outputVariable the index of the output variable.
+     */
+    public double lookupOutputValue(double[] inputValues, int outputVariable) {
+        LookupMemory lookupMemory = lookupMemoryPool.acquire();
+        try {
+            lookupOutputValues(inputValues, lookupMemory);
+            return lookupMemory.outputValues[outputVariable];
+        } finally {
+            lookupMemoryPool.release(lookupMemory);
+        }
+    }
+
+    /**
+     * Looks up the defuzzified values of all output variables in one pass: the surrounding grid points and their weights
+     * are computed once, and the output values of a grid point, which are stored next to each other, are read together.
+     */
+    private void lookupOutputValues(double[] inputValues, LookupMemory lookupMemory) {
+        int[] interpolatedAxes = lookupMemory.interpolatedAxes;
+        double[] fractions = lookupMemory.fractions;
+        double[] values = lookupMemory.outputValues;
+        int basePoint = 0;
+        int numberOfInterpolatedAxes = 0;
+        for (int axis = 0; axis < gridAxes.length; axis++) {
+            GridAxis gridAxis = gridAxes[axis];
+            if (gridAxis.numberOfPoints() == 1) {
+                continue;
+            }
+            double position = Math.clamp((inputValues[axis] - gridAxis.minimum()) / gridAxis.step(), 0, gridAxis.numberOfPoints() - 1);
+            if (!interpolate) {
+                basePoint += (int) Math.round(position) * gridStrides[axis];
+                continue;
+            }
+            int lowerPoint = Math.min((int) position, gridAxis.numberOfPoints() - 2);
+            basePoint += lowerPoint * gridStrides[axis];
+            double fraction = position - lowerPoint;
+            if (fraction > 0) {
+                interpolatedAxes[numberOfInterpolatedAxes] = axis;
+                fractions[numberOfInterpolatedAxes] = fraction;
+                numberOfInterpolatedAxes++;
+            }
+        }
+
+        // multilinear interpolation between the 2^n surrounding grid points of the n axes with a fraction
+        Arrays.fill(values, 0);
+        for (int corner = 0; corner < 1 << numberOfInterpolatedAxes; corner++) {
+            double weight = 1;
+            int point = basePoint;
+            for (int interpolatedAxis = 0; interpolatedAxis < numberOfInterpolatedAxes; interpolatedAxis++) {
+                if ((corner & (1 << interpolatedAxis)) != 0) {
+                    weight *= fractions[interpolatedAxis];
+                    point += gridStrides[interpolatedAxes[interpolatedAxis]];
+                } else {
+                    weight *= 1 - fractions[interpolatedAxis];
+                }
+            }
+            int firstValue = point * values.length;
+            for (int outputVariable = 0; outputVariable < values.length; outputVariable++) {
+                values[outputVariable] += weight * outputValues.get(firstValue + outputVariable);
+            }
+        }
+    }
+
+    /**
+     * Selects the output term with the highest membership degree for the given value, like the rule engine does, see
+     * {@link OutputTermClassifier}.
+     */
+    public String getWinningOutputTermName(int outputVariable, double value) {
+        return outputTermClassifier.getWinningTermName(outputVariable, value);
+    }
+
+    /**
+     * Compares the table with the evaluation of the rule set at random points within the grid.
+     *
+     * @param fuzzyInferenceSystemSupplier parses a new FIS of the rule set.
+     * @param numberOfSamples              the number of random points.
+     * @param seed                         the seed of the random points, so that reports can be reproduced.
+     * @return the maximum deviation of the output values and the number of differing decisions.
+     */
+    public DeviationReport measureDeviation(Supplier<FIS> fuzzyInferenceSystemSupplier, int numberOfSamples, long seed) {
+        FunctionBlock functionBlock = fuzzyInferenceSystemSupplier.get().getFunctionBlock(null);
+        Random random = new Random(seed);
+        double[] inputValues = new double[gridAxes.length];
+        LookupMemory lookupMemory = new LookupMemory(gridAxes.length, outputVariableNames.length);
+        double maximumDeviation = 0;
+        String outputVariableOfMaximumDeviation = null;
+        Map<String, Double> inputValuesOfMaximumDeviation = Map.of();
+        int differingDecisions = 0;
+
+        for (int sample = 0; sample < numberOfSamples; sample++) {
+            for (int axis = 0; axis < gridAxes.length; axis++) {
+                inputValues[axis] = gridAxes[axis].minimum() + random.nextDouble() * (gridAxes[axis].maximum() - gridAxes[axis].minimum());
+                functionBlock.getVariable(gridAxes[axis].inputVariableName()).setValue(inputValues[axis]);
+            }
+            functionBlock.evaluate();
+
+            lookupOutputValues(inputValues, lookupMemory);
+            boolean decisionDiffers = false;
+            for (int outputVariable = 0; outputVariable < outputVariableNames.length; outputVariable++) {
+                double evaluatedValue = functionBlock.getVariable(outputVariableNames[outputVariable]).getValue();
+                double lookedUpValue = lookupMemory.outputValues[outputVariable];
+                double deviation = Math.abs(lookedUpValue - evaluatedValue);
+                if (deviation > maximumDeviation) {
+                    maximumDeviation = deviation;
+                    outputVariableOfMaximumDeviation = outputVariableNames[outputVariable];
+                    inputValuesOfMaximumDeviation = new HashMap<>();
+                    for (int axis = 0; axis < gridAxes.length; axis++) {
+                        inputValuesOfMaximumDeviation.put(gridAxes[axis].inputVariableName(), inputValues[axis]);
+                    }
+                }
+                decisionDiffers |= !getWinningOutputTermName(outputVariable, lookedUpValue)
+                        .equals(getWinningOutputTermName(outputVariable, evaluatedValue));
+            }
+            if (decisionDiffers) {
+                differingDecisions++;
+            }
+        }
+        return new DeviationReport(numberOfSamples, maximumDeviation, outputVariableOfMaximumDeviation,
+                inputValuesOfMaximumDeviation, differingDecisions);
+    }
+
+    public int getNumberOfPoints() {
+        return numberOfPoints;
+    }
+
+    public List<GridAxis> getGridAxes() {
+        return List.of(gridAxes);
+    }
+
+    private static int countPoints(List<GridAxis> gridAxes) {
+        long numberOfPoints = 1;
+        for (GridAxis gridAxis : gridAxes) {
+            numberOfPoints *= gridAxis.numberOfPoints();
+            if (numberOfPoints > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The lookup table grid " + gridAxes + " is too large");
+            }
+        }
+        return (int) numberOfPoints;
+    }
+
+    /**
+     * The working memory of a lookup, so that the interpolation does not allocate.
+     */
+    private static final class LookupMemory {
+        private final int[] interpolatedAxes;
+        private final double[] fractions;
+        private final double[] outputValues;
+
+        private LookupMemory(int numberOfAxes, int numberOfOutputVariables) {
+            this.interpolatedAxes = new int[numberOfAxes];
+            this.fractions = new double[numberOfAxes];
+            this.outputValues = new double[numberOfOutputVariables];
+        }
+    }
+
+    /**
+     * The deviation of a lookup table from the evaluation of the rule set.
+     *
+     * @param numberOfSamples                  the number of compared random points.
+     * @param maximumDeviation                 the maximum absolute deviation of an output value.
+     * @param outputVariableOfMaximumDeviation the output variable with the maximum deviation (null if there is none).
+     * @param inputValuesOfMaximumDeviation    the input values with the maximum deviation.
+     * @param differingDecisions               the number of points where the decision of any output variable differs.
+     */
+    public record DeviationReport(int numberOfSamples, double maximumDeviation, String outputVariableOfMaximumDeviation,
+                                  Map<String, Double> inputValuesOfMaximumDeviation, int differingDecisions) {
+        @Override
+        public String toString() {
+            return "maximum deviation " + maximumDeviation + (outputVariableOfMaximumDeviation == null ? ""
+                    : " (" + outputVariableOfMaximumDeviation + " at " + inputValuesOfMaximumDeviation + ")")
+                    + ", differing decisions at " + differingDecisions + " of " + numberOfSamples + " random points";
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package eu.ai4work.sws.engine;
+
+import net.sourceforge.jFuzzyLogic.FIS;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Command line tool that builds a {@link DecisionLookupTable} file for an FCL rules file and reports its maximum
+ * deviation from the evaluation of the rules, so that the accuracy can be checked before the table is enabled.
+ * <p>
+ * Usage: {@code DecisionLookupTableTool <fclRulesFile> <tableFile> [<inputVariable>=<minimum>:<maximum>:<step> ...]
+ * [--points=<defaultNumberOfGridPoints>] [--samples=<deviationSamples>] [--nearest]}
+ * <p>
+ * The grid and points must match the {@code lookupTable} configuration of the application, otherwise the application
+ * does not reuse the table file.
+ */
+public final class DecisionLookupTableTool {
+
+    private DecisionLookupTableTool() {
+    }
+
+    public static void main(String[] arguments) throws Exception {
+        if (arguments.length < 2) {
+            System.err.println("Usage: DecisionLookupTableTool <fclRulesFile> <tableFile> [<inputVariable>=<minimum>:<maximum>:<step> ...]"
+                    + " [--points=<defaultNumberOfGridPoints>] [--samples=<deviationSamples>] [--nearest]");
+            System.exit(1);
+        }
+        byte[] fclRulesSource = Files.readAllBytes(Path.of(arguments[0]));
+        Path tableFile = Path.of(arguments[1]);
+        Map<String, String> gridSpecifications = new HashMap<>();
+        int defaultNumberOfGridPoints = 21;
+        int deviationSamples = 10_000;
+        boolean interpolate = true;
+        for (int argument = 2; argument < arguments.length; argument++) {
+            String option = arguments[argument];
+            if (option.startsWith("--points=")) {
+                defaultNumberOfGridPoints = Integer.parseInt(option.substring("--points=".length()));
+            } else if (option.startsWith("--samples=")) {
+                deviationSamples = Integer.parseInt(option.substring("--samples=".length()));
+            } else if (option.equals("--nearest")) {
+                interpolate = false;
+            } else if (option.contains("=")) {
+                gridSpecifications.put(option.substring(0, option.indexOf('=')), option.substring(option.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + option);
+            }
+        }
+
+        Supplier<FIS> fuzzyInferenceSystemSupplier = () -> FIS.load(new ByteArrayInputStream(fclRulesSource), true);
+        FIS fuzzyInferenceSystem = fuzzyInferenceSystemSupplier.get();
+        FunctionBlockGraph.requireSingleFunctionBlock(fuzzyInferenceSystem, "The decision lookup table");
+        List<GridAxis> gridAxes = GridAxis.of(fuzzyInferenceSystem.getFunctionBlock(null), gridSpecifications, defaultNumberOfGridPoints);
+
+        long startTime = System.nanoTime();
+        DecisionLookupTable decisionLookupTable = DecisionLookupTable.build(fuzzyInferenceSystemSupplier, gridAxes, interpolate);
+        System.out.printf("Built lookup table with %d points over %s in %d ms%n", decisionLookupTable.getNumberOfPoints(),
+                gridAxes, (System.nanoTime() - startTime) / 1_000_000);
+
+        decisionLookupTable.write(tableFile, DecisionLookupTable.computeRuleSetKey(fclRulesSource, gridAxes));
+        System.out.printf("Wrote %s (%d bytes)%n", tableFile, Files.size(tableFile));
+
+        System.out.println("Deviation from rule evaluation: "
+                + decisionLookupTable.measureDeviation(fuzzyInferenceSystemSupplier, deviationSamples, DecisionLookupTable.DEVIATION_SAMPLES_SEED));
+    }
+}
@@ -0,0 +1,137 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The positional binary form of sliding decisions, for clients that send many requests and cannot afford JSON.
+ * <p>
+ * A request is the vector of the input values as IEEE 754 doubles in big-endian byte order, in the order of the input
+ * variables of the {@link InputSchema}, without names. A response is the index of the decided linguistic term of each
+ * output variable as an unsigned 16-bit big-endian integer, in the order of the output variables. The names behind the
+ * positions are published once per rule set, together with the {@link #getVersion() version} of this layout, which only
+ * changes if a new rule set adds, removes or renames variables or terms.
+ */
+public final class DecisionVectorSchema {
+    private static final int VERSION_LENGTH = 12;
+    private final String version;
+    private final List<String> inputVariableNames;
+    private final List<String> outputVariableNames;
+    private final List<List<String>> outputTermNames;
+    private final List<Map<String, Integer>> outputTermIndexByName;
+
+    private DecisionVectorSchema(List<String> inputVariableNames, List<String> outputVariableNames, List<List<String>> outputTermNames) {
+        this.inputVariableNames = inputVariableNames;
+        this.outputVariableNames = outputVariableNames;
+        this.outputTermNames = outputTermNames;
+        this.outputTermIndexByName = new ArrayList<>();
+        for (List<String> termNames : outputTermNames) {
+            Map<String, Integer> termIndexByName = new HashMap<>();
+            for (int term = 0; term < termNames.size(); term++) {
+                termIndexByName.put(termNames.get(term), term);
+            }
+            outputTermIndexByName.add(termIndexByName);
+        }
+        this.version = computeVersion(inputVariableNames, outputVariableNames, outputTermNames);
+    }
+
+    /**
+     * Derives the layout from the input variables of the input schema and the output variables of the function block.
+     */
+    public static DecisionVectorSchema compile(FunctionBlock functionBlock, InputSchema inputSchema) {
+        List<String> inputVariableNames = new ArrayList<>();
+        for (int inputVariable = 0; inputVariable < inputSchema.getNumberOfInputVariables(); inputVariable++) {
+            inputVariableNames.add(inputSchema.getInputVariableName(inputVariable));
+        }
+        List<String> outputVariableNames = new ArrayList<>();
+        List<List<String>> outputTermNames = new ArrayList<>();
+        for (Variable variable : functionBlock.getVariables().values()) {
+            if (variable.isOutput()) {
+                outputVariableNames.add(variable.getName());
+                outputTermNames.add(List.copyOf(variable.getLinguisticTerms().keySet()));
+            }
+        }
+        return new DecisionVectorSchema(List.copyOf(inputVariableNames), List.copyOf(outputVariableNames), List.copyOf(outputTermNames));
+    }
+
+    /**
+     * Reads the input values of a request. The values are not validated, see {@link InputSchema#checkInputValues(double[])}.
+     *
+     * @param inputVector the request body.
+     * @param inputValues receives the value of each input variable at its index.
+     * @throws InvalidInputParameterException if the request does not have exactly one value per input variable.
+     */
+    public void readInputVector(byte[] inputVector, double[] inputValues) throws InvalidInputParameterException {
+        if (inputVector == null || inputVector.length != inputVariableNames.size() * Double.BYTES) {
+            throw new InvalidInputParameterException("Invalid decision vector: expected " + inputVariableNames.size() * Double.BYTES
+                    + " bytes (one double per input variable " + inputVariableNames + "), but got "
+                    + (inputVector == null ? 0 : inputVector.length) + ".");
+        }
+        ByteBuffer inputBuffer = ByteBuffer.wrap(inputVector);
+        for (int inputVariable = 0; inputVariable < inputValues.length; inputVariable++) {
+            inputValues[inputVariable] = inputBuffer.getDouble(inputVariable * Double.BYTES);
+        }
+    }
+
+    /**
+     * Writes the decided linguistic term of each output variable as its index.
+     *
+     * @param decisionResultPerOutputParameter the linguistic term per output variable of a sliding decision.
+     * @return the response body.
+     */
+    public byte[] writeDecisionVector(Map<String, String> decisionResultPerOutputParameter) {
+        byte[] decisionVector = new byte[outputVariableNames.size() * Short.BYTES];
+        ByteBuffer decisionBuffer = ByteBuffer.wrap(decisionVector);
+        for (int outputVariable = 0; outputVariable < outputVariableNames.size(); outputVariable++) {
+            String termName = decisionResultPerOutputParameter.get(outputVariableNames.get(outputVariable));
+            decisionBuffer.putShort(outputVariable * Short.BYTES, outputTermIndexByName.get(outputVariable).get(termName).shortValue());
+        }
+        return decisionVector;
+    }
+
+    /**
+     * @return the first 12 hex digits of the SHA-256 of the layout.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public List<String> getInputVariableNames() {
+        return inputVariableNames;
+    }
+
+    public List<String> getOutputVariableNames() {
+        return outputVariableNames;
+    }
+
+    /**
+     * @return the linguistic terms of the output variable, in the order of their indices.
+     */
+    public List<String> getOutputTermNames(int outputVariable) {
+        return outputTermNames.get(outputVariable);
+    }
+
+    private static String computeVersion(List<String> inputVariableNames, List<String> outputVariableNames, List<List<String>> outputTermNames) {
+        StringBuilder layout = new StringBuilder("input").append(inputVariableNames);
+        for (int outputVariable = 0; outputVariable < outputVariableNames.size(); outputVariable++) {
+            layout.append(";output ").append(outputVariableNames.get(outputVariable)).append(outputTermNames.get(outputVariable));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(layout.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, VERSION_LENGTH);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package eu.ai4work.sws.engine;
+
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.defuzzifier.Defuzzifier;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierCenterOfArea;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierCenterOfGravity;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierCenterOfGravitySingletons;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierContinuous;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierLeftMostMax;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierMeanMax;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierRightMostMax;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionSingleton;
+import net.sourceforge.jFuzzyLogic.rule.LinguisticTerm;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The defuzzification of an output variable, configured outside the FCL file: it replaces the {@code METHOD} of the
+ * variable's {@code DEFUZZIFY} block, and the number of points at which jFuzzyLogic samples the universe of the variable
+ * for the continuous methods (all except {@code COGS}). The sampling loop runs for every activated term of every
+ * evaluation, so a coarser resolution makes the evaluation faster, at the cost of less exact output values.
+ *
+ * @param method     the defuzzification method.
+ * @param resolution the number of sampling points, or {@link #DEFAULT_RESOLUTION} to keep the one of jFuzzyLogic.
+ */
+public record Defuzzification(Method method, int resolution) {
+    public static final int DEFAULT_RESOLUTION = 0;
+
+    public Defuzzification {
+        if (resolution < 0 || resolution == 1) {
+            throw new IllegalArgumentException("Invalid defuzzification resolution " + resolution + ", at least 2 points are needed");
+        }
+        if (resolution != DEFAULT_RESOLUTION && !method.isContinuous()) {
+            throw new IllegalArgumentException("The defuzzification method " + method + " does not sample the universe and has no resolution");
+        }
+    }
+
+    /**
+     * The defuzzification methods of jFuzzyLogic, named like in FCL.
+     */
+    public enum Method {
+        /**
+         * Center of gravity.
+         */
+        COG(DefuzzifierCenterOfGravity::new),
+        /**
+         * Center of gravity of singletons, only for output variables with singleton terms.
+         */
+        COGS(DefuzzifierCenterOfGravitySingletons::new),
+        /**
+         * Center of area.
+         */
+        COA(DefuzzifierCenterOfArea::new),
+        /**
+         * Mean of the values with the maximum membership degree.
+         */
+        MM(DefuzzifierMeanMax::new),
+        /**
+         * Leftmost value with the maximum membership degree.
+         */
+        LM(DefuzzifierLeftMostMax::new),
+        /**
+         * Rightmost value with the maximum membership degree.
+         */
+        RM(DefuzzifierRightMostMax::new);
+
+        private final Function<Variable, Defuzzifier> defuzzifierFactory;
+
+        Method(Function<Variable, Defuzzifier> defuzzifierFactory) {
+            this.defuzzifierFactory = defuzzifierFactory;
+        }
+
+        public boolean isContinuous() {
+            return this != COGS;
+        }
+    }
+
+    /**
+     * Parses a defuzzification specification of the form {@code method} or {@code method:resolution}, e.g. {@code COG:100}.
+     *
+     * @throws IllegalArgumentException if the specification is malformed.
+     */
+    public static Defuzzification parse(String outputVariableName, String specification) {
+        String[] parts = specification.split(":");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid defuzzification for output variable '" + outputVariableName + "': '"
+                    + specification + "', expected method or method:resolution");
+        }
+        Method method;
+        try {
+            method = Method.valueOf(parts[0].trim().toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Unknown defuzzification method for output variable '" + outputVariableName + "': '"
+                    + parts[0].trim() + "', expected one of " + Arrays.toString(Method.values()));
+        }
+        return new Defuzzification(method, parts.length == 2 ? Integer.parseInt(parts[1].trim()) : DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param specifications defuzzification specifications ({@code method[:resolution]}) by output variable name.
+     * @return the defuzzifications by output variable name, sorted by name.
+     * @throws IllegalArgumentException if a specification is malformed.
+     */
+    public static Map<String, Defuzzification> parseAll(Map<String, String> specifications) {
+        Map<String, Defuzzification> defuzzifications = new TreeMap<>();
+        specifications.forEach((outputVariableName, specification) -> defuzzifications.put(outputVariableName, parse(outputVariableName, specification)));
+        return defuzzifications;
+    }
+
+    /**
+     * Wraps a FIS factory, so every FIS it creates is defuzzified as configured. Output variables without a
+     * configured defuzzification keep the one of the FCL file.
+     *
+     * @param defuzzifications the defuzzifications by output variable name, see {@link #parseAll}.
+     */
+    public static Supplier<FIS> configure(Supplier<FIS> fuzzyInferenceSystemFactory, Map<String, Defuzzification> defuzzifications) {
+        if (defuzzifications.isEmpty()) {
+            return fuzzyInferenceSystemFactory;
+        }
+        return () -> apply(fuzzyInferenceSystemFactory.get(), defuzzifications);
+    }
+
+    /**
+     * Sets the defuzzifiers of the output variables of all function blocks of the FIS.
+     *
+     * @return the FIS.
+     * @throws IllegalArgumentException if a defuzzification is configured for an unknown output variable, or {@code COGS}
+     *                                  for an output variable with terms that are not singletons.
+     */
+    public static FIS apply(FIS fuzzyInferenceSystem, Map<String, Defuzzification> defuzzifications) {
+        Set<String> configuredOutputVariableNames = new HashSet<>();
+        for (FunctionBlock functionBlock : fuzzyInferenceSystem) {
+            for (Variable variable : functionBlock.getVariables().values()) {
+                Defuzzification defuzzification = defuzzifications.get(variable.getName());
+                if (variable.isOutput() && defuzzification != null) {
+                    defuzzification.apply(variable);
+                    configuredOutputVariableNames.add(variable.getName());
+                }
+            }
+        }
+        for (String outputVariableName : defuzzifications.keySet()) {
+            if (!configuredOutputVariableNames.contains(outputVariableName)) {
+                throw new IllegalArgumentException("Defuzzification configured for unknown output variable: " + outputVariableName);
+            }
+        }
+        return fuzzyInferenceSystem;
+    }
+
+    private void apply(Variable variable) {
+        if (method == Method.COGS) {
+            for (LinguisticTerm linguisticTerm : variable) {
+                if (!(linguisticTerm.getMembershipFunction() instanceof MembershipFunctionSingleton)) {
+                    throw new IllegalArgumentException("The defuzzification method COGS needs singleton terms, but term '"
+                            + linguisticTerm.getTermName() + "' of output variable '" + variable.getName() + "' is not one");
+                }
+            }
+        }
+        // like in the FCL source, the defuzzifier is created from the terms, which define the universe
+        Defuzzifier defuzzifier = method.defuzzifierFactory.apply(variable);
+        if (resolution != DEFAULT_RESOLUTION) {
+            DefuzzifierContinuous continuousDefuzzifier = (DefuzzifierContinuous) defuzzifier;
+            continuousDefuzzifier.init(continuousDefuzzifier.getMin(), continuousDefuzzifier.getMax(), resolution);
+        }
+        variable.setDefuzzifier(defuzzifier);
+    }
+
+    @Override
+    public String toString() {
+        return resolution == DEFAULT_RESOLUTION ? method.name() : method + ":" + resolution;
+    }
+}
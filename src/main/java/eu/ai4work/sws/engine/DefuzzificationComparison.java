@@ -0,0 +1,167 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.exception.RuleSetCompilationException;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * The latency and accuracy of a rule set with one {@link Defuzzification} of all its output variables, compared with a
+ * reference defuzzification (usually a fine resolution) at the same random input values.
+ *
+ * @param defuzzification                    the compared defuzzification, or null for the one of the FCL file.
+ * @param microsecondsPerEvaluation          the mean time of one evaluation by jFuzzyLogic, on one thread.
+ * @param numberOfSamples                    the number of compared random points.
+ * @param differingDecisions                 the number of points where the decision of any output variable differs
+ *                                           from the reference.
+ * @param differingDecisionsByOutputVariable the number of points where the decision differs, per output variable.
+ * @param maximumDeviation                   the maximum absolute deviation of an output value from the reference.
+ */
+public record DefuzzificationComparison(Defuzzification defuzzification, double microsecondsPerEvaluation, int numberOfSamples,
+                                        int differingDecisions, Map<String, Integer> differingDecisionsByOutputVariable,
+                                        double maximumDeviation) {
+    /**
+     * The seed of the random points, the same in every comparison.
+     */
+    public static final long SAMPLES_SEED = 20240101L;
+    private static final int MEASUREMENT_ROUNDS = 3;
+
+    /**
+     * Evaluates the rule set at random points within the universe of its input variables, first with the reference
+     * defuzzification and then with each compared one. The evaluations of all points are timed after a warm-up round,
+     * and the fastest of {@value #MEASUREMENT_ROUNDS} rounds is reported.
+     *
+     * @param fuzzyInferenceSystemSupplier parses a new FIS of the rule set.
+     * @param defuzzifications             the compared defuzzifications, null for the one of the FCL file.
+     * @param referenceDefuzzification     the defuzzification the decisions and output values are compared with.
+     * @return one comparison per compared defuzzification, in the same order.
+     * @throws RuleSetCompilationException if the rule set has several function blocks.
+     * @throws IllegalArgumentException    if a defuzzification does not fit the output variables, e.g. {@code COGS} for
+     *                                     terms that are not singletons.
+     */
+    public static List<DefuzzificationComparison> compare(Supplier<FIS> fuzzyInferenceSystemSupplier, List<Defuzzification> defuzzifications,
+                                                          Defuzzification referenceDefuzzification, int numberOfSamples, long seed) {
+        FunctionBlock referenceFunctionBlock = createFunctionBlock(fuzzyInferenceSystemSupplier, referenceDefuzzification);
+        OutputTermClassifier outputTermClassifier = OutputTermClassifier.compile(referenceFunctionBlock);
+        List<String> inputVariableNames = new ArrayList<>();
+        List<double[]> inputValueRanges = new ArrayList<>();
+        for (Variable variable : referenceFunctionBlock.getVariables().values()) {
+            if (variable.isInput()) {
+                inputVariableNames.add(variable.getName());
+                inputValueRanges.add(new double[]{variable.getUniverseMin(), variable.getUniverseMax()});
+            }
+        }
+        Random random = new Random(seed);
+        double[][] inputValues = new double[numberOfSamples][inputVariableNames.size()];
+        for (double[] sampleInputValues : inputValues) {
+            for (int inputVariable = 0; inputVariable < sampleInputValues.length; inputVariable++) {
+                double[] range = inputValueRanges.get(inputVariable);
+                sampleInputValues[inputVariable] = range[0] + random.nextDouble() * (range[1] - range[0]);
+            }
+        }
+        double[][] referenceOutputValues = new double[numberOfSamples][outputTermClassifier.getNumberOfOutputVariables()];
+        evaluate(referenceFunctionBlock, inputVariableNames, outputTermClassifier, inputValues, referenceOutputValues);
+
+        List<DefuzzificationComparison> comparisons = new ArrayList<>();
+        for (Defuzzification defuzzification : defuzzifications) {
+            FunctionBlock functionBlock = createFunctionBlock(fuzzyInferenceSystemSupplier, defuzzification);
+            double[][] outputValues = new double[numberOfSamples][outputTermClassifier.getNumberOfOutputVariables()];
+            evaluate(functionBlock, inputVariableNames, outputTermClassifier, inputValues, outputValues); // warm-up
+            long fastestRoundNanoseconds = Long.MAX_VALUE;
+            for (int round = 0; round < MEASUREMENT_ROUNDS; round++) {
+                long startTime = System.nanoTime();
+                evaluate(functionBlock, inputVariableNames, outputTermClassifier, inputValues, outputValues);
+                fastestRoundNanoseconds = Math.min(fastestRoundNanoseconds, System.nanoTime() - startTime);
+            }
+            comparisons.add(compareOutputValues(defuzzification, fastestRoundNanoseconds / 1e3 / Math.max(1, numberOfSamples),
+                    outputTermClassifier, referenceOutputValues, outputValues));
+        }
+        return comparisons;
+    }
+
+    private static FunctionBlock createFunctionBlock(Supplier<FIS> fuzzyInferenceSystemSupplier, Defuzzification defuzzification) {
+        FIS fuzzyInferenceSystem = fuzzyInferenceSystemSupplier.get();
+        FunctionBlockGraph.requireSingleFunctionBlock(fuzzyInferenceSystem, "The defuzzification comparison");
+        FunctionBlock functionBlock = fuzzyInferenceSystem.getFunctionBlock(null);
+        if (defuzzification != null) {
+            Map<String, Defuzzification> defuzzifications = new LinkedHashMap<>();
+            for (Variable variable : functionBlock.getVariables().values()) {
+                if (variable.isOutput()) {
+                    defuzzifications.put(variable.getName(), defuzzification);
+                }
+            }
+            Defuzzification.apply(fuzzyInferenceSystem, defuzzifications);
+        }
+        return functionBlock;
+    }
+
+    private static void evaluate(FunctionBlock functionBlock, List<String> inputVariableNames, OutputTermClassifier outputTermClassifier,
+                                 double[][] inputValues, double[][] outputValues) {
+        for (int sample = 0; sample < inputValues.length; sample++) {
+            for (int inputVariable = 0; inputVariable < inputVariableNames.size(); inputVariable++) {
+                functionBlock.getVariable(inputVariableNames.get(inputVariable)).setValue(inputValues[sample][inputVariable]);
+            }
+            functionBlock.evaluate();
+            for (int outputVariable = 0; outputVariable < outputValues[sample].length; outputVariable++) {
+                outputValues[sample][outputVariable] = functionBlock.getVariable(outputTermClassifier.getOutputVariableName(outputVariable)).getValue();
+            }
+        }
+    }
+
+    private static DefuzzificationComparison compareOutputValues(Defuzzification defuzzification, double microsecondsPerEvaluation,
+                                                                 OutputTermClassifier outputTermClassifier,
+                                                                 double[][] referenceOutputValues, double[][] outputValues) {
+        int[] differingDecisionsPerOutputVariable = new int[outputTermClassifier.getNumberOfOutputVariables()];
+        int differingDecisions = 0;
+        double maximumDeviation = 0;
+        for (int sample = 0; sample < outputValues.length; sample++) {
+            boolean decisionDiffers = false;
+            for (int outputVariable = 0; outputVariable < differingDecisionsPerOutputVariable.length; outputVariable++) {
+                double referenceOutputValue = referenceOutputValues[sample][outputVariable];
+                double outputValue = outputValues[sample][outputVariable];
+                // no rule fired (NaN) is a decision of its own
+                boolean outputVariableDecisionDiffers = Double.isNaN(referenceOutputValue) || Double.isNaN(outputValue)
+                        ? Double.isNaN(referenceOutputValue) != Double.isNaN(outputValue)
+                        : outputTermClassifier.getWinningTerm(outputVariable, referenceOutputValue) != outputTermClassifier.getWinningTerm(outputVariable, outputValue);
+                if (!Double.isNaN(referenceOutputValue) && !Double.isNaN(outputValue)) {
+                    maximumDeviation = Math.max(maximumDeviation, Math.abs(outputValue - referenceOutputValue));
+                }
+                if (outputVariableDecisionDiffers) {
+                    differingDecisionsPerOutputVariable[outputVariable]++;
+                    decisionDiffers = true;
+                }
+            }
+            if (decisionDiffers) {
+                differingDecisions++;
+            }
+        }
+        Map<String, Integer> differingDecisionsByOutputVariable = new LinkedHashMap<>();
+        for (int outputVariable = 0; outputVariable < differingDecisionsPerOutputVariable.length; outputVariable++) {
+            differingDecisionsByOutputVariable.put(outputTermClassifier.getOutputVariableName(outputVariable), differingDecisionsPerOutputVariable[outputVariable]);
+        }
+        return new DefuzzificationComparison(defuzzification, microsecondsPerEvaluation, outputValues.length, differingDecisions,
+                differingDecisionsByOutputVariable, maximumDeviation);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder differingDecisionsPerOutputVariable = new StringBuilder();
+        differingDecisionsByOutputVariable.forEach((outputVariableName, outputVariableDifferingDecisions) ->
+                differingDecisionsPerOutputVariable.append(differingDecisionsPerOutputVariable.isEmpty() ? "" : ", ")
+                        .append(outputVariableName).append(' ').append(formatPercentage(outputVariableDifferingDecisions)));
+        return String.format("%-10s %10.2f µs/evaluation   differing decisions %8s (%s)   maximum deviation %.4f",
+                defuzzification == null ? "FCL file" : defuzzification, microsecondsPerEvaluation, formatPercentage(differingDecisions),
+                differingDecisionsPerOutputVariable, maximumDeviation);
+    }
+
+    private String formatPercentage(int count) {
+        return String.format("%.2f %%", numberOfSamples == 0 ? 0 : 100.0 * count / numberOfSamples);
+    }
+}
@@ -0,0 +1,84 @@
+package eu.ai4work.sws.engine;
+
+import net.sourceforge.jFuzzyLogic.FIS;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Command line tool that compares defuzzifications of an FCL rules file, to choose the {@code defuzzification} of the
+ * configuration: for each method and resolution, it reports the time of one evaluation by jFuzzyLogic and how often the
+ * winning linguistic term of an output variable differs from the reference defuzzification, at random input values.
+ * Each defuzzification is applied to all output variables.
+ * <p>
+ * Usage: {@code DefuzzificationTool <fclRulesFile> [<method>[:<resolution>] ...] [--reference=<method>[:<resolution>]]
+ * [--samples=<samples>]}
+ * <p>
+ * Without defuzzifications, every continuous method is compared with the default resolution and with 200, 100, 50 and
+ * 20 points, as well as {@code COGS}. The reference defaults to {@code COG:10000}.
+ */
+public final class DefuzzificationTool {
+    private static final int[] DEFAULT_RESOLUTIONS = {Defuzzification.DEFAULT_RESOLUTION, 200, 100, 50, 20};
+
+    private DefuzzificationTool() {
+    }
+
+    public static void main(String[] arguments) throws Exception {
+        if (arguments.length < 1) {
+            System.err.println("Usage: DefuzzificationTool <fclRulesFile> [<method>[:<resolution>] ...] [--reference=<method>[:<resolution>]]"
+                    + " [--samples=<samples>]");
+            System.exit(1);
+        }
+        byte[] fclRulesSource = Files.readAllBytes(Path.of(arguments[0]));
+        List<Defuzzification> defuzzifications = new ArrayList<>();
+        Defuzzification referenceDefuzzification = new Defuzzification(Defuzzification.Method.COG, 10_000);
+        int numberOfSamples = 10_000;
+        for (int argument = 1; argument < arguments.length; argument++) {
+            String option = arguments[argument];
+            if (option.startsWith("--reference=")) {
+                referenceDefuzzification = Defuzzification.parse("reference", option.substring("--reference=".length()));
+            } else if (option.startsWith("--samples=")) {
+                numberOfSamples = Integer.parseInt(option.substring("--samples=".length()));
+            } else if (!option.startsWith("--")) {
+                defuzzifications.add(Defuzzification.parse("all", option));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + option);
+            }
+        }
+        if (defuzzifications.isEmpty()) {
+            for (Defuzzification.Method method : Defuzzification.Method.values()) {
+                if (!method.isContinuous()) {
+                    defuzzifications.add(new Defuzzification(method, Defuzzification.DEFAULT_RESOLUTION));
+                    continue;
+                }
+                for (int resolution : DEFAULT_RESOLUTIONS) {
+                    defuzzifications.add(new Defuzzification(method, resolution));
+                }
+            }
+        }
+
+        Supplier<FIS> fuzzyInferenceSystemSupplier = () -> FIS.load(new ByteArrayInputStream(fclRulesSource), true);
+        System.out.printf("Compared with %s at %d random points%n", referenceDefuzzification, numberOfSamples);
+        // the FCL file as it is first, as the baseline of the speedups
+        printComparison(fuzzyInferenceSystemSupplier, null, referenceDefuzzification, numberOfSamples);
+        for (Defuzzification defuzzification : defuzzifications) {
+            printComparison(fuzzyInferenceSystemSupplier, defuzzification, referenceDefuzzification, numberOfSamples);
+        }
+    }
+
+    private static void printComparison(Supplier<FIS> fuzzyInferenceSystemSupplier, Defuzzification defuzzification,
+                                        Defuzzification referenceDefuzzification, int numberOfSamples) {
+        List<Defuzzification> comparedDefuzzifications = new ArrayList<>();
+        comparedDefuzzifications.add(defuzzification);
+        try {
+            System.out.println(DefuzzificationComparison.compare(fuzzyInferenceSystemSupplier, comparedDefuzzifications,
+                    referenceDefuzzification, numberOfSamples, DefuzzificationComparison.SAMPLES_SEED).getFirst());
+        } catch (IllegalArgumentException exception) {
+            System.out.printf("%-10s not applicable: %s%n", defuzzification, exception.getMessage());
+        }
+    }
+}
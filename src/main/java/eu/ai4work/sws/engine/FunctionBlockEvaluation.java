@@ -0,0 +1,57 @@
+package eu.ai4work.sws.engine;
+
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Evaluates the function blocks of one FIS instance in the stages of its {@link FunctionBlockGraph}. Before a function
+ * block is evaluated, its chained input variables get the values of the output variables they depend on. The function
+ * blocks of a stage are evaluated concurrently on the common fork-join pool, if there are several and the graph is
+ * evaluated concurrently; the evaluating thread takes part in the evaluation and waits for the whole stage.
+ * <p>
+ * Like the FIS instance, an evaluation must only be used by one request at a time.
+ */
+public final class FunctionBlockEvaluation {
+    private final ChainedFunctionBlock[][] stages;
+    private final boolean evaluatedConcurrently;
+
+    FunctionBlockEvaluation(ChainedFunctionBlock[][] stages, boolean evaluatedConcurrently) {
+        this.stages = stages;
+        this.evaluatedConcurrently = evaluatedConcurrently;
+    }
+
+    /**
+     * Evaluates all function blocks with the input values that are set on their input variables.
+     */
+    public void evaluate() {
+        for (ChainedFunctionBlock[] stage : stages) {
+            if (stage.length == 1 || !evaluatedConcurrently) {
+                for (ChainedFunctionBlock functionBlock : stage) {
+                    functionBlock.evaluate();
+                }
+            } else {
+                ForkJoinTask<?>[] evaluations = new ForkJoinTask<?>[stage.length];
+                for (int functionBlock = 0; functionBlock < stage.length; functionBlock++) {
+                    evaluations[functionBlock] = ForkJoinTask.adapt(stage[functionBlock]::evaluate);
+                }
+                ForkJoinTask.invokeAll(evaluations);
+            }
+        }
+    }
+
+    /**
+     * A function block with its chained input variables and the output variables of other function blocks they get
+     * their values from, at the same index.
+     */
+    record ChainedFunctionBlock(FunctionBlock functionBlock, Variable[] chainedInputVariables, Variable[] producingOutputVariables) {
+
+        void evaluate() {
+            for (int chainedInputVariable = 0; chainedInputVariable < chainedInputVariables.length; chainedInputVariable++) {
+                chainedInputVariables[chainedInputVariable].setValue(producingOutputVariables[chainedInputVariable].getValue());
+            }
+            functionBlock.evaluate();
+        }
+    }
+}
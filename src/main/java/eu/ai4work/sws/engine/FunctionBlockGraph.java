@@ -0,0 +1,215 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.exception.InvalidFclFileException;
+import eu.ai4work.sws.exception.RuleSetCompilationException;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The function blocks of an FCL file and how they depend on each other, analyzed once when the rule set is loaded.
+ * <p>
+ * An input variable of a function block that has the name of an output variable of another function block is not an
+ * input of the decision: it is chained, i.e. it gets the defuzzified value of that output variable, so the producing
+ * function block is evaluated first. The function blocks are split into stages in this dependency order; the function
+ * blocks of a stage only depend on earlier stages, so they can be evaluated concurrently (see
+ * {@link FunctionBlockEvaluation}). The decision has the input variables that no function block produces, and the
+ * output variables of all function blocks.
+ * <p>
+ * An FCL file with a single function block, like all demonstration scenarios, is evaluated exactly like before.
+ */
+public final class FunctionBlockGraph {
+    /**
+     * The names of the function blocks of each stage, in dependency order.
+     */
+    private final List<List<String>> stages;
+    /**
+     * The function block that produces each output variable.
+     */
+    private final Map<String, String> producingFunctionBlockByOutputVariable;
+    private final boolean evaluatedConcurrently;
+
+    private FunctionBlockGraph(List<List<String>> stages, Map<String, String> producingFunctionBlockByOutputVariable,
+                               boolean evaluatedConcurrently) {
+        this.stages = stages;
+        this.producingFunctionBlockByOutputVariable = producingFunctionBlockByOutputVariable;
+        this.evaluatedConcurrently = evaluatedConcurrently;
+    }
+
+    /**
+     * Analyzes the function blocks of the given FIS.
+     *
+     * @param evaluateConcurrently whether the independent function blocks of a stage are evaluated concurrently.
+     * @throws InvalidFclFileException if two function blocks produce the same output variable, or if the function
+     *                                 blocks depend on each other in a cycle.
+     */
+    public static FunctionBlockGraph of(FIS fuzzyInferenceSystem, boolean evaluateConcurrently) {
+        Map<String, FunctionBlock> functionBlocksByName = getFunctionBlocksByName(fuzzyInferenceSystem);
+        Map<String, String> producingFunctionBlockByOutputVariable = new HashMap<>();
+        functionBlocksByName.forEach((functionBlockName, functionBlock) -> {
+            for (Variable variable : functionBlock.getVariables().values()) {
+                if (variable.isOutput()) {
+                    String otherFunctionBlockName = producingFunctionBlockByOutputVariable.put(variable.getName(), functionBlockName);
+                    if (otherFunctionBlockName != null) {
+                        throw new InvalidFclFileException("The output variable '" + variable.getName() + "' is defined by the function blocks '"
+                                + otherFunctionBlockName + "' and '" + functionBlockName + "', but must be defined by only one of them.");
+                    }
+                }
+            }
+        });
+
+        // Kahn's algorithm, stage by stage: a function block is ready when all function blocks it depends on are evaluated
+        Map<String, Set<String>> remainingDependenciesByFunctionBlock = new LinkedHashMap<>();
+        functionBlocksByName.forEach((functionBlockName, functionBlock) -> {
+            Set<String> dependencies = new LinkedHashSet<>();
+            for (Variable variable : functionBlock.getVariables().values()) {
+                String producingFunctionBlockName = variable.isInput() ? producingFunctionBlockByOutputVariable.get(variable.getName()) : null;
+                if (producingFunctionBlockName != null) {
+                    dependencies.add(producingFunctionBlockName);
+                }
+            }
+            remainingDependenciesByFunctionBlock.put(functionBlockName, dependencies);
+        });
+        List<List<String>> stages = new ArrayList<>();
+        while (!remainingDependenciesByFunctionBlock.isEmpty()) {
+            List<String> stage = remainingDependenciesByFunctionBlock.entrySet().stream()
+                    .filter(remainingDependencies -> remainingDependencies.getValue().isEmpty())
+                    .map(Map.Entry::getKey)
+                    .toList();
+            if (stage.isEmpty()) {
+                throw new InvalidFclFileException("The function blocks " + remainingDependenciesByFunctionBlock.keySet()
+                        + " depend on each other's output variables in a cycle.");
+            }
+            stage.forEach(remainingDependenciesByFunctionBlock::remove);
+            remainingDependenciesByFunctionBlock.values().forEach(dependencies -> dependencies.removeAll(stage));
+            stages.add(stage);
+        }
+        return new FunctionBlockGraph(List.copyOf(stages), producingFunctionBlockByOutputVariable, evaluateConcurrently);
+    }
+
+    /**
+     * Rejects an FCL file with several function blocks for a feature that only supports a single one.
+     *
+     * @param feature the feature, e.g. "The compiled rule engine".
+     * @throws RuleSetCompilationException if the FIS has more than one function block.
+     */
+    public static void requireSingleFunctionBlock(FIS fuzzyInferenceSystem, String feature) {
+        Map<String, FunctionBlock> functionBlocksByName = getFunctionBlocksByName(fuzzyInferenceSystem);
+        if (functionBlocksByName.size() > 1) {
+            throw new RuleSetCompilationException(feature + " supports only FCL files with a single function block, this one has "
+                    + functionBlocksByName.keySet() + ".");
+        }
+    }
+
+    public boolean hasSingleFunctionBlock() {
+        return stages.size() == 1 && stages.get(0).size() == 1;
+    }
+
+    public int getNumberOfFunctionBlocks() {
+        return stages.stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @return the names of the function blocks of each stage, in dependency order.
+     */
+    public List<List<String>> getStages() {
+        return stages;
+    }
+
+    public boolean isEvaluatedConcurrently() {
+        return evaluatedConcurrently;
+    }
+
+    /**
+     * Creates the function block that describes the decision of the given FIS instance, from which the input schema,
+     * the output terms, the rule texts and the explanation are read. For a single function block, it is the function
+     * block itself. For several function blocks, it is a view of them that is never evaluated: it has the input
+     * variables that no function block produces (of the first function block that has them), the output variables of
+     * all function blocks, and their rule blocks, named {@code functionBlock.ruleBlock}.
+     */
+    public FunctionBlock createDecisionFunctionBlock(FIS fuzzyInferenceSystem) {
+        if (hasSingleFunctionBlock()) {
+            return fuzzyInferenceSystem.getFunctionBlock(null); // selects the default function block
+        }
+        FunctionBlock decisionFunctionBlock = new FunctionBlock(fuzzyInferenceSystem);
+        HashMap<String, RuleBlock> ruleBlocks = new HashMap<>();
+        for (List<String> stage : stages) {
+            for (String functionBlockName : stage) {
+                FunctionBlock functionBlock = fuzzyInferenceSystem.getFunctionBlock(functionBlockName);
+                for (Variable variable : functionBlock.getVariables().values()) {
+                    boolean chainedInputVariable = variable.isInput() && producingFunctionBlockByOutputVariable.containsKey(variable.getName());
+                    if (!chainedInputVariable && decisionFunctionBlock.getVariable(variable.getName()) == null) {
+                        decisionFunctionBlock.setVariable(variable.getName(), variable);
+                    }
+                }
+                functionBlock.getRuleBlocks().forEach((ruleBlockName, ruleBlock) ->
+                        ruleBlocks.put(functionBlockName + "." + ruleBlockName, ruleBlock));
+            }
+        }
+        decisionFunctionBlock.setRuleBlocks(ruleBlocks);
+        return decisionFunctionBlock;
+    }
+
+    /**
+     * Resolves the function blocks and chained variables of the given FIS instance for its evaluation.
+     */
+    public FunctionBlockEvaluation bind(FIS fuzzyInferenceSystem) {
+        FunctionBlockEvaluation.ChainedFunctionBlock[][] boundStages = new FunctionBlockEvaluation.ChainedFunctionBlock[stages.size()][];
+        for (int stage = 0; stage < stages.size(); stage++) {
+            List<String> functionBlockNames = stages.get(stage);
+            boundStages[stage] = new FunctionBlockEvaluation.ChainedFunctionBlock[functionBlockNames.size()];
+            for (int functionBlock = 0; functionBlock < functionBlockNames.size(); functionBlock++) {
+                boundStages[stage][functionBlock] = bindFunctionBlock(fuzzyInferenceSystem, functionBlockNames.get(functionBlock));
+            }
+        }
+        return new FunctionBlockEvaluation(boundStages, evaluatedConcurrently);
+    }
+
+    /**
+     * @return the variables of all function blocks that receive the value of the named input variable of the decision.
+     */
+    public List<Variable> getInputVariables(FIS fuzzyInferenceSystem, String inputVariableName) {
+        List<Variable> inputVariables = new ArrayList<>();
+        for (List<String> stage : stages) {
+            for (String functionBlockName : stage) {
+                Variable variable = fuzzyInferenceSystem.getFunctionBlock(functionBlockName).getVariable(inputVariableName);
+                if (variable != null && variable.isInput()) {
+                    inputVariables.add(variable);
+                }
+            }
+        }
+        return inputVariables;
+    }
+
+    private FunctionBlockEvaluation.ChainedFunctionBlock bindFunctionBlock(FIS fuzzyInferenceSystem, String functionBlockName) {
+        FunctionBlock functionBlock = fuzzyInferenceSystem.getFunctionBlock(functionBlockName);
+        List<Variable> chainedInputVariables = new ArrayList<>();
+        List<Variable> producingOutputVariables = new ArrayList<>();
+        for (Variable variable : functionBlock.getVariables().values()) {
+            String producingFunctionBlockName = variable.isInput() ? producingFunctionBlockByOutputVariable.get(variable.getName()) : null;
+            if (producingFunctionBlockName != null) {
+                chainedInputVariables.add(variable);
+                producingOutputVariables.add(fuzzyInferenceSystem.getFunctionBlock(producingFunctionBlockName).getVariable(variable.getName()));
+            }
+        }
+        return new FunctionBlockEvaluation.ChainedFunctionBlock(functionBlock,
+                chainedInputVariables.toArray(Variable[]::new), producingOutputVariables.toArray(Variable[]::new));
+    }
+
+    private static Map<String, FunctionBlock> getFunctionBlocksByName(FIS fuzzyInferenceSystem) {
+        Map<String, FunctionBlock> functionBlocksByName = new LinkedHashMap<>();
+        for (FunctionBlock functionBlock : fuzzyInferenceSystem) {
+            functionBlocksByName.put(functionBlock.getName(), functionBlock);
+        }
+        return functionBlocksByName;
+    }
+}
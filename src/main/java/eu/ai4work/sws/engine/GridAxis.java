@@ -0,0 +1,90 @@
+package eu.ai4work.sws.engine;
+
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The equidistant sampling points of one input variable in a {@link DecisionLookupTable}.
+ *
+ * @param inputVariableName the name of the input variable.
+ * @param minimum           the first sampling point.
+ * @param maximum           the last sampling point.
+ * @param numberOfPoints    the number of sampling points, including minimum and maximum.
+ */
+public record GridAxis(String inputVariableName, double minimum, double maximum, int numberOfPoints) {
+
+    public GridAxis {
+        if (!(maximum >= minimum) || numberOfPoints < 1 || (numberOfPoints == 1) != (maximum == minimum)) {
+            throw new IllegalArgumentException("Invalid grid for input variable '" + inputVariableName + "': "
+                    + minimum + " to " + maximum + " with " + numberOfPoints + " points");
+        }
+    }
+
+    /**
+     * Parses a grid specification of the form {@code minimum:maximum:step}, e.g. {@code 0:20:1}.
+     *
+     * @throws IllegalArgumentException if the specification is malformed.
+     */
+    public static GridAxis parse(String inputVariableName, String specification) {
+        String[] parts = specification.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid grid for input variable '" + inputVariableName + "': '"
+                    + specification + "', expected minimum:maximum:step");
+        }
+        double minimum = Double.parseDouble(parts[0].trim());
+        double maximum = Double.parseDouble(parts[1].trim());
+        double step = Double.parseDouble(parts[2].trim());
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("The grid step of input variable '" + inputVariableName + "' must be positive.");
+        }
+        return new GridAxis(inputVariableName, minimum, maximum, (int) Math.round((maximum - minimum) / step) + 1);
+    }
+
+    /**
+     * Creates the grid of all input variables of the function block, in the order of its variables. Input variables
+     * without a grid specification are sampled over their universe with the default number of points.
+     *
+     * @param gridSpecifications    grid specifications ({@code minimum:maximum:step}) by input variable name.
+     * @param defaultNumberOfPoints the number of points of input variables without a grid specification.
+     * @throws IllegalArgumentException if a specification is malformed or refers to an unknown input variable.
+     */
+    public static List<GridAxis> of(FunctionBlock functionBlock, Map<String, String> gridSpecifications, int defaultNumberOfPoints) {
+        List<GridAxis> gridAxes = new ArrayList<>();
+        for (Variable variable : functionBlock.getVariables().values()) {
+            if (!variable.isInput()) {
+                continue;
+            }
+            String specification = gridSpecifications.get(variable.getName());
+            if (specification != null) {
+                gridAxes.add(parse(variable.getName(), specification));
+            } else if (variable.getUniverseMax() > variable.getUniverseMin()) {
+                gridAxes.add(new GridAxis(variable.getName(), variable.getUniverseMin(), variable.getUniverseMax(), defaultNumberOfPoints));
+            } else {
+                gridAxes.add(new GridAxis(variable.getName(), variable.getUniverseMin(), variable.getUniverseMin(), 1));
+            }
+        }
+        for (String inputVariableName : gridSpecifications.keySet()) {
+            if (gridAxes.stream().noneMatch(gridAxis -> gridAxis.inputVariableName().equals(inputVariableName))) {
+                throw new IllegalArgumentException("Grid configured for unknown input variable: " + inputVariableName);
+            }
+        }
+        return gridAxes;
+    }
+
+    public double step() {
+        return numberOfPoints == 1 ? 0 : (maximum - minimum) / (numberOfPoints - 1);
+    }
+
+    public double valueAt(int point) {
+        return point == numberOfPoints - 1 ? maximum : minimum + point * step();
+    }
+
+    @Override
+    public String toString() {
+        return inputVariableName + "=" + minimum + ":" + maximum + "/" + numberOfPoints;
+    }
+}
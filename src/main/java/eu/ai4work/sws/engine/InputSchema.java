@@ -0,0 +1,241 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The input variables of a rule set, compiled once when the rule set is loaded, so that the input parameters of a
+ * request are validated and read in a single pass.
+ * <p>
+ * Every input variable has an index in the order of the variables of the function block, which is also the order of
+ * the input variables of the {@link CompiledFuzzyInferenceSystem}. Reading walks the input variables once and looks each
+ * of them up in the input parameters (which are a hash map already), so valid input is read without allocating; the
+ * detailed error message is only built for invalid input.
+ */
+public final class InputSchema {
+    private final String[] inputVariableNames;
+    private final double[] universeMinimums;
+    private final double[] universeMaximums;
+    private final boolean rejectValuesOutsideUniverse;
+    private final Map<String, Integer> inputVariableIndexByName = new HashMap<>();
+    private final WorkingMemoryPool<double[]> inputValuesPool;
+
+    private InputSchema(List<Variable> inputVariables, boolean rejectValuesOutsideUniverse) {
+        int numberOfInputVariables = inputVariables.size();
+        this.inputVariableNames = new String[numberOfInputVariables];
+        this.universeMinimums = new double[numberOfInputVariables];
+        this.universeMaximums = new double[numberOfInputVariables];
+        this.rejectValuesOutsideUniverse = rejectValuesOutsideUniverse;
+
+        for (int inputVariable = 0; inputVariable < numberOfInputVariables; inputVariable++) {
+            Variable variable = inputVariables.get(inputVariable);
+            inputVariableNames[inputVariable] = variable.getName();
+            universeMinimums[inputVariable] = variable.getUniverseMin();
+            universeMaximums[inputVariable] = variable.getUniverseMax();
+            inputVariableIndexByName.put(variable.getName(), inputVariable);
+        }
+        this.inputValuesPool = new WorkingMemoryPool<>(() -> new double[numberOfInputVariables], WorkingMemoryPool.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Compiles the input variables of the given function block.
+     *
+     * @param rejectValuesOutsideUniverse whether input values outside the universe of their variable are invalid.
+     */
+    public static InputSchema compile(FunctionBlock functionBlock, boolean rejectValuesOutsideUniverse) {
+        List<Variable> inputVariables = new ArrayList<>();
+        for (Variable variable : functionBlock.getVariables().values()) {
+            if (variable.isInput()) {
+                inputVariables.add(variable);
+            }
+        }
+        return new InputSchema(inputVariables, rejectValuesOutsideUniverse);
+    }
+
+    /**
+     * Checks that the input parameters are exactly the input variables, with finite numbers as values (within the
+     * universe of the variable, if configured), and reads the values in the order of the input variables.
+     *
+     * @param inputParameters the input parameters from the sliding decision request.
+     * @param inputValues     receives the value of each input variable at its index.
+     * @throws InvalidInputParameterException if one or more input parameters are unknown, missing or not a valid number.
+     */
+    public void readInputValues(Map<String, Object> inputParameters, double[] inputValues) throws InvalidInputParameterException {
+        if (inputParameters == null) {
+            throw new InvalidInputParameterException("Invalid sliding decision input: The input parameters must not be null.");
+        }
+        // if every input variable is present and there are no further parameters, none of them is unknown
+        if (inputParameters.size() != inputVariableNames.length) {
+            throw describeInvalidInput(inputParameters);
+        }
+        for (int inputVariable = 0; inputVariable < inputVariableNames.length; inputVariable++) {
+            if (!(inputParameters.get(inputVariableNames[inputVariable]) instanceof Number value)
+                    || !isValidValue(inputVariable, value.doubleValue())) {
+                throw describeInvalidInput(inputParameters);
+            }
+            inputValues[inputVariable] = value.doubleValue();
+        }
+    }
+
+    /**
+     * Checks input values that were read without names (see {@link DecisionVectorSchema}), like the values of
+     * {@link #readInputValues(Map, double[])}.
+     *
+     * @param inputValues the value of each input variable at its index.
+     * @throws InvalidInputParameterException if a value is not a finite number (or outside the universe, if configured).
+     */
+    public void checkInputValues(double[] inputValues) throws InvalidInputParameterException {
+        for (int inputVariable = 0; inputVariable < inputVariableNames.length; inputVariable++) {
+            if (!isValidValue(inputVariable, inputValues[inputVariable])) {
+                throw describeInvalidValue(inputVariableNames[inputVariable], inputValues[inputVariable]);
+            }
+        }
+    }
+
+    /**
+     * Reads the changed values of some input variables, e.g. of a decision session. All changed input parameters are
+     * checked like in {@link #readInputValues(Map, double[])} before any value is updated.
+     *
+     * @param changedInputParameters the input parameters whose values changed, a subset of the input variables.
+     * @param inputValues            the current value of each input variable, updated with the changed values.
+     * @param changedInputVariables  receives whether the value of each input variable changed.
+     * @throws InvalidInputParameterException if one or more input parameters are unknown or not a valid number.
+     */
+    public void readChangedInputValues(Map<String, Object> changedInputParameters, double[] inputValues, boolean[] changedInputVariables)
+            throws InvalidInputParameterException {
+        if (changedInputParameters == null) {
+            throw new InvalidInputParameterException("Invalid sliding decision input: The input parameters must not be null.");
+        }
+        List<String> unknownParameters = changedInputParameters.keySet().stream()
+                .filter(parameterName -> getInputVariableIndex(parameterName) < 0)
+                .toList();
+        if (!unknownParameters.isEmpty()) {
+            throw new InvalidInputParameterException("Invalid sliding decision input. - Unknown parameter(s): " + unknownParameters);
+        }
+        for (Map.Entry<String, Object> inputParameter : changedInputParameters.entrySet()) {
+            InvalidInputParameterException invalidValue = describeInvalidValue(inputParameter.getKey(), inputParameter.getValue());
+            if (invalidValue != null) {
+                throw invalidValue;
+            }
+        }
+
+        Arrays.fill(changedInputVariables, false);
+        changedInputParameters.forEach((parameterName, parameterValue) -> {
+            int inputVariable = getInputVariableIndex(parameterName);
+            double value = ((Number) parameterValue).doubleValue();
+            if (Double.compare(inputValues[inputVariable], value) != 0) {
+                inputValues[inputVariable] = value;
+                changedInputVariables[inputVariable] = true;
+            }
+        });
+    }
+
+    /**
+     * @return a buffer for the input values, reused by the requests of all threads; it has to be
+     * {@link #releaseInputValues released} after the request.
+     */
+    public double[] acquireInputValues() {
+        return inputValuesPool.acquire();
+    }
+
+    public void releaseInputValues(double[] inputValues) {
+        inputValuesPool.release(inputValues);
+    }
+
+    /**
+     * @return the index of the input variable, or -1 if there is no input variable with that name.
+     */
+    public int getInputVariableIndex(String inputVariableName) {
+        Integer inputVariable = inputVariableIndexByName.get(inputVariableName);
+        return inputVariable == null ? -1 : inputVariable;
+    }
+
+    public int getNumberOfInputVariables() {
+        return inputVariableNames.length;
+    }
+
+    public String getInputVariableName(int inputVariable) {
+        return inputVariableNames[inputVariable];
+    }
+
+    public double getUniverseMinimum(int inputVariable) {
+        return universeMinimums[inputVariable];
+    }
+
+    public double getUniverseMaximum(int inputVariable) {
+        return universeMaximums[inputVariable];
+    }
+
+    private boolean isValidValue(int inputVariable, double value) {
+        if (!Double.isFinite(value)) {
+            return false;
+        }
+        return !rejectValuesOutsideUniverse
+                || (value >= universeMinimums[inputVariable] && value <= universeMaximums[inputVariable]);
+    }
+
+    /**
+     * Describes everything that is wrong with invalid input parameters: first unknown and missing parameters, then the
+     * first parameter with an invalid value.
+     */
+    private InvalidInputParameterException describeInvalidInput(Map<String, Object> inputParameters) {
+        List<String> unknownParameters = new ArrayList<>();
+        for (String parameterName : inputParameters.keySet()) {
+            if (getInputVariableIndex(parameterName) < 0) {
+                unknownParameters.add(parameterName);
+            }
+        }
+        List<String> missingParameters = new ArrayList<>();
+        for (String inputVariableName : inputVariableNames) {
+            if (!inputParameters.containsKey(inputVariableName)) {
+                missingParameters.add(inputVariableName);
+            }
+        }
+        if (!(unknownParameters.isEmpty() && missingParameters.isEmpty())) {
+            String exceptionMessage = "Invalid sliding decision input.";
+            if (!unknownParameters.isEmpty()) {
+                exceptionMessage += " - Unknown parameter(s): " + unknownParameters;
+            }
+            if (!missingParameters.isEmpty()) {
+                exceptionMessage += " - Missing parameter(s): " + missingParameters;
+            }
+            return new InvalidInputParameterException(exceptionMessage);
+        }
+
+        for (Map.Entry<String, Object> inputParameter : inputParameters.entrySet()) {
+            InvalidInputParameterException invalidValue = describeInvalidValue(inputParameter.getKey(), inputParameter.getValue());
+            if (invalidValue != null) {
+                return invalidValue;
+            }
+        }
+        throw new IllegalStateException("Input parameters were rejected without a reason: " + inputParameters.keySet());
+    }
+
+    /**
+     * @return the exception for an invalid value of a known input variable, or null if the value is valid.
+     */
+    private InvalidInputParameterException describeInvalidValue(String parameterName, Object parameterValue) {
+        if (!(parameterValue instanceof Number value)) {
+            return new InvalidInputParameterException(
+                    "Invalid sliding decision input: The parameter '" + parameterName + "' must be a number.");
+        }
+        if (!Double.isFinite(value.doubleValue())) {
+            return new InvalidInputParameterException(
+                    "Invalid sliding decision input: The parameter '" + parameterName + "' must be a finite number.");
+        }
+        int inputVariable = getInputVariableIndex(parameterName);
+        if (!isValidValue(inputVariable, value.doubleValue())) {
+            return new InvalidInputParameterException(
+                    "Invalid sliding decision input: The parameter '" + parameterName + "' must be between "
+                            + universeMinimums[inputVariable] + " and " + universeMaximums[inputVariable] + ".");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,270 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.exception.RuleSetCompilationException;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunction;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionPieceWiseLinear;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionSingleton;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionTrapetzoidal;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionTriangular;
+import net.sourceforge.jFuzzyLogic.rule.LinguisticTerm;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The linguistic terms of a group of fuzzy variables, flattened into primitive arrays.
+ * <p>
+ * Every membership function is stored as a piecewise-linear table of (x, y) points, or as a singleton. The terms of
+ * variable {@code v} are the indices {@code variableTermOffsets[v]} (inclusive) to {@code variableTermOffsets[v + 1]}
+ * (exclusive), in the iteration order of {@link Variable#getLinguisticTerms()}.
+ */
+final class LinguisticTermTable {
+    private static final double MEMBERSHIP_VERIFICATION_TOLERANCE = 1e-9;
+    private static final int NUMBER_OF_MEMBERSHIP_VERIFICATION_SAMPLES = 1000;
+
+    final String[] termNames;
+    final int[] termVariables;
+    final int[] variableTermOffsets;
+    final int[] termPointOffsets;
+    final double[] pointX;
+    final double[] pointY;
+    final boolean[] singletonTerms;
+
+    private LinguisticTermTable(String[] termNames, int[] termVariables, int[] variableTermOffsets,
+                                int[] termPointOffsets, double[] pointX, double[] pointY, boolean[] singletonTerms) {
+        this.termNames = termNames;
+        this.termVariables = termVariables;
+        this.variableTermOffsets = variableTermOffsets;
+        this.termPointOffsets = termPointOffsets;
+        this.pointX = pointX;
+        this.pointY = pointY;
+        this.singletonTerms = singletonTerms;
+    }
+
+    int numberOfTerms() {
+        return termNames.length;
+    }
+
+    /**
+     * Calculates the membership degree of the given value in a term, with the same semantics as jFuzzyLogic:
+     * values left of the first point take its membership, values right of the last point take the last one's.
+     */
+    double membership(int term, double value) {
+        int firstPoint = termPointOffsets[term];
+        int lastPoint = termPointOffsets[term + 1] - 1;
+        if (singletonTerms[term]) {
+            return value == pointX[firstPoint] ? 1 : 0;
+        }
+        if (value <= pointX[firstPoint]) {
+            return pointY[firstPoint];
+        }
+        if (value > pointX[lastPoint]) {
+            return pointY[lastPoint];
+        }
+        int point = firstPoint + 1;
+        while (value > pointX[point]) {
+            point++;
+        }
+        return (pointY[point] - pointY[point - 1]) / (pointX[point] - pointX[point - 1]) * (value - pointX[point - 1]) + pointY[point - 1];
+    }
+
+    /**
+     * Flattens the linguistic terms of the given variables. Each compiled membership function is verified against
+     * the original one, so that the compiled evaluation cannot silently deviate from jFuzzyLogic.
+     *
+     * @param variables           the fuzzy variables whose terms are compiled.
+     * @param universeMinimum     per variable, the lower bound the tables are extended to; {@code null} to keep them as they are.
+     * @param universeMaximum     per variable, the upper bound the tables are extended to; {@code null} to keep them as they are.
+     * @throws RuleSetCompilationException if a membership function cannot be represented as a table.
+     */
+    static LinguisticTermTable compile(List<Variable> variables, double[] universeMinimum, double[] universeMaximum) {
+        List<String> termNames = new ArrayList<>();
+        List<Integer> termVariables = new ArrayList<>();
+        List<Boolean> singletonTerms = new ArrayList<>();
+        List<double[][]> termPoints = new ArrayList<>();
+        int[] variableTermOffsets = new int[variables.size() + 1];
+
+        for (int variable = 0; variable < variables.size(); variable++) {
+            variableTermOffsets[variable] = termNames.size();
+            for (Map.Entry<String, LinguisticTerm> linguisticTerm : variables.get(variable).getLinguisticTerms().entrySet()) {
+                MembershipFunction membershipFunction = linguisticTerm.getValue().getMembershipFunction();
+                String termDescription = variables.get(variable).getName() + " IS " + linguisticTerm.getKey();
+                boolean singleton = membershipFunction instanceof MembershipFunctionSingleton;
+                double[][] points = singleton
+                        ? new double[][]{{membershipFunction.getParameter(0)}, {1}}
+                        : readPiecewiseLinearPoints(membershipFunction, termDescription);
+                if (universeMinimum != null && !singleton) {
+                    points = extendToUniverse(points, universeMinimum[variable], universeMaximum[variable]);
+                }
+                termNames.add(linguisticTerm.getKey());
+                termVariables.add(variable);
+                singletonTerms.add(singleton);
+                termPoints.add(points);
+            }
+        }
+        variableTermOffsets[variables.size()] = termNames.size();
+
+        int numberOfPoints = termPoints.stream().mapToInt(points -> points[0].length).sum();
+        int[] termPointOffsets = new int[termPoints.size() + 1];
+        double[] pointX = new double[numberOfPoints];
+        double[] pointY = new double[numberOfPoints];
+        for (int term = 0, point = 0; term < termPoints.size(); term++) {
+            termPointOffsets[term] = point;
+            double[][] points = termPoints.get(term);
+            System.arraycopy(points[0], 0, pointX, point, points[0].length);
+            System.arraycopy(points[1], 0, pointY, point, points[1].length);
+            point += points[0].length;
+        }
+        termPointOffsets[termPoints.size()] = numberOfPoints;
+
+        boolean[] singletonTermArray = new boolean[singletonTerms.size()];
+        for (int term = 0; term < singletonTermArray.length; term++) {
+            singletonTermArray[term] = singletonTerms.get(term);
+        }
+
+        LinguisticTermTable linguisticTermTable = new LinguisticTermTable(termNames.toArray(String[]::new),
+                termVariables.stream().mapToInt(Integer::intValue).toArray(), variableTermOffsets,
+                termPointOffsets, pointX, pointY, singletonTermArray);
+        linguisticTermTable.verifyAgainst(variables);
+        return linguisticTermTable;
+    }
+
+    /**
+     * Flattens the linguistic terms of the given variables like {@link #compile}, each term extended to the universe of
+     * its variable (the range covered by all its terms), so that the tables of one variable cover the same range.
+     * Singleton terms are not extended.
+     */
+    static LinguisticTermTable compileOverUniverse(List<Variable> variables) {
+        LinguisticTermTable termsWithinTheirOwnRange = compile(variables, null, null);
+        double[] universeMinimum = new double[variables.size()];
+        double[] universeMaximum = new double[variables.size()];
+        for (int variable = 0; variable < variables.size(); variable++) {
+            universeMinimum[variable] = Double.POSITIVE_INFINITY;
+            universeMaximum[variable] = Double.NEGATIVE_INFINITY;
+            int firstPoint = termsWithinTheirOwnRange.termPointOffsets[termsWithinTheirOwnRange.variableTermOffsets[variable]];
+            int endPoint = termsWithinTheirOwnRange.termPointOffsets[termsWithinTheirOwnRange.variableTermOffsets[variable + 1]];
+            for (int point = firstPoint; point < endPoint; point++) {
+                universeMinimum[variable] = Math.min(universeMinimum[variable], termsWithinTheirOwnRange.pointX[point]);
+                universeMaximum[variable] = Math.max(universeMaximum[variable], termsWithinTheirOwnRange.pointX[point]);
+            }
+        }
+        return compile(variables, universeMinimum, universeMaximum);
+    }
+
+    /**
+     * Adds the x values at which the segments of two terms cross each other. Together with the points of the terms,
+     * these split the axis into intervals on which neither term changes from above to below the other.
+     */
+    void addIntersections(int term, int otherTerm, List<Double> breakpoints) {
+        for (int point = termPointOffsets[term] + 1; point < termPointOffsets[term + 1]; point++) {
+            for (int otherPoint = termPointOffsets[otherTerm] + 1; otherPoint < termPointOffsets[otherTerm + 1]; otherPoint++) {
+                double left = Math.max(pointX[point - 1], pointX[otherPoint - 1]);
+                double right = Math.min(pointX[point], pointX[otherPoint]);
+                if (right <= left || pointX[point] <= pointX[point - 1] || pointX[otherPoint] <= pointX[otherPoint - 1]) {
+                    continue;
+                }
+                double differenceAtLeft = interpolate(point, left) - interpolate(otherPoint, left);
+                double differenceAtRight = interpolate(point, right) - interpolate(otherPoint, right);
+                if (differenceAtLeft * differenceAtRight < 0) {
+                    breakpoints.add(left + differenceAtLeft / (differenceAtLeft - differenceAtRight) * (right - left));
+                }
+            }
+        }
+    }
+
+    private double interpolate(int point, double value) {
+        return pointY[point - 1] + (pointY[point] - pointY[point - 1]) * (value - pointX[point - 1]) / (pointX[point] - pointX[point - 1]);
+    }
+
+    static double[][] readPiecewiseLinearPoints(MembershipFunction membershipFunction, String termDescription) {
+        if (membershipFunction instanceof MembershipFunctionTriangular) {
+            return new double[][]{
+                    {membershipFunction.getParameter(0), membershipFunction.getParameter(1), membershipFunction.getParameter(2)},
+                    {0, 1, 0}};
+        }
+        if (membershipFunction instanceof MembershipFunctionTrapetzoidal) {
+            return new double[][]{
+                    {membershipFunction.getParameter(0), membershipFunction.getParameter(1), membershipFunction.getParameter(2), membershipFunction.getParameter(3)},
+                    {0, 1, 1, 0}};
+        }
+        if (membershipFunction instanceof MembershipFunctionPieceWiseLinear) {
+            int numberOfPoints = membershipFunction.getParametersLength() / 2;
+            double[][] interleavedPoints = new double[2][numberOfPoints];
+            double[][] consecutivePoints = new double[2][numberOfPoints];
+            for (int point = 0; point < numberOfPoints; point++) {
+                interleavedPoints[0][point] = membershipFunction.getParameter(2 * point);
+                interleavedPoints[1][point] = membershipFunction.getParameter(2 * point + 1);
+                consecutivePoints[0][point] = membershipFunction.getParameter(point);
+                consecutivePoints[1][point] = membershipFunction.getParameter(numberOfPoints + point);
+            }
+            // the parameters are either stored as x0, y0, x1, y1, ... or as x0, x1, ..., y0, y1, ...
+            return matchesMembershipFunction(interleavedPoints, membershipFunction) ? interleavedPoints : consecutivePoints;
+        }
+        throw new RuleSetCompilationException("Unsupported membership function for '" + termDescription + "': "
+                + membershipFunction.getClass().getSimpleName());
+    }
+
+    private static boolean matchesMembershipFunction(double[][] points, MembershipFunction membershipFunction) {
+        for (int point = 0; point < points[0].length; point++) {
+            if (point > 0 && points[0][point] < points[0][point - 1]) {
+                return false;
+            }
+            if (Math.abs(membershipFunction.membership(points[0][point]) - points[1][point]) > MEMBERSHIP_VERIFICATION_TOLERANCE
+                    && (point == 0 || points[0][point] != points[0][point - 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double[][] extendToUniverse(double[][] points, double universeMinimum, double universeMaximum) {
+        int numberOfPoints = points[0].length;
+        boolean extendToMinimum = points[0][0] > universeMinimum;
+        boolean extendToMaximum = points[0][numberOfPoints - 1] < universeMaximum;
+        int offset = extendToMinimum ? 1 : 0;
+        double[][] extendedPoints = new double[2][numberOfPoints + offset + (extendToMaximum ? 1 : 0)];
+        System.arraycopy(points[0], 0, extendedPoints[0], offset, numberOfPoints);
+        System.arraycopy(points[1], 0, extendedPoints[1], offset, numberOfPoints);
+        if (extendToMinimum) {
+            extendedPoints[0][0] = universeMinimum;
+            extendedPoints[1][0] = points[1][0];
+        }
+        if (extendToMaximum) {
+            extendedPoints[0][extendedPoints[0].length - 1] = universeMaximum;
+            extendedPoints[1][extendedPoints[0].length - 1] = points[1][numberOfPoints - 1];
+        }
+        return extendedPoints;
+    }
+
+    /**
+     * Compares every compiled term with its original membership function at all points and on a dense sample around
+     * them.
+     */
+    private void verifyAgainst(List<Variable> variables) {
+        for (int term = 0; term < numberOfTerms(); term++) {
+            Variable variable = variables.get(termVariables[term]);
+            MembershipFunction membershipFunction = variable.getLinguisticTerms().get(termNames[term]).getMembershipFunction();
+            double firstX = pointX[termPointOffsets[term]];
+            double lastX = pointX[termPointOffsets[term + 1] - 1];
+            double margin = Math.max(1, lastX - firstX);
+            for (int point = termPointOffsets[term]; point < termPointOffsets[term + 1]; point++) {
+                verifyMembership(term, pointX[point], membershipFunction, variable);
+            }
+            for (int sample = 0; sample <= NUMBER_OF_MEMBERSHIP_VERIFICATION_SAMPLES; sample++) {
+                double value = firstX - margin + (lastX - firstX + 2 * margin) * sample / NUMBER_OF_MEMBERSHIP_VERIFICATION_SAMPLES;
+                verifyMembership(term, value, membershipFunction, variable);
+            }
+        }
+    }
+
+    private void verifyMembership(int term, double value, MembershipFunction membershipFunction, Variable variable) {
+        double compiledMembership = membership(term, value);
+        double originalMembership = membershipFunction.membership(value);
+        if (Math.abs(compiledMembership - originalMembership) > MEMBERSHIP_VERIFICATION_TOLERANCE) {
+            throw new RuleSetCompilationException("Compiled membership function of '" + variable.getName() + " IS "
+                    + termNames[term] + "' deviates at " + value + ": " + compiledMembership + " instead of " + originalMembership);
+        }
+    }
+}
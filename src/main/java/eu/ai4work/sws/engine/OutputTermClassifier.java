@@ -0,0 +1,192 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.exception.RuleSetCompilationException;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunction;
+import net.sourceforge.jFuzzyLogic.rule.LinguisticTerm;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Selects the decided linguistic term of an output variable for its defuzzified value: the term with the highest
+ * membership degree. On equal membership degrees (e.g. exactly where two terms cross, or outside of all terms, where
+ * every membership degree is 0), the term that comes first in {@link Variable#getLinguisticTerms()} is selected, which
+ * is also the order of the terms in a {@link DecisionVectorSchema}.
+ * <p>
+ * For piecewise-linear, triangular, trapezoidal and singleton terms, the axis of the defuzzified values is split once
+ * into crisp intervals, each with the term that wins on it, so that selecting a term is a binary search over the
+ * interval bounds. The bounds are the points of the terms and the values where two terms cross; between two of them,
+ * no term can overtake another. Only variables with other membership functions compare the membership degrees of
+ * all terms on every selection.
+ */
+public final class OutputTermClassifier {
+    private final String[] outputVariableNames;
+    private final String[][] outputTermNames;
+    /**
+     * Per output variable, the sorted values at which the winning term changes, or null if the membership degrees
+     * are compared on every selection.
+     */
+    private final double[][] intervalBounds;
+    /**
+     * Per output variable, the winning term at each interval bound.
+     */
+    private final int[][] termsAtIntervalBounds;
+    /**
+     * Per output variable, the winning term between interval bound {@code i - 1} and {@code i} at index {@code i}, the
+     * last index is the term above the last bound.
+     */
+    private final int[][] termsBetweenIntervalBounds;
+    private final MembershipFunction[][] outputTermMembershipFunctions;
+
+    private OutputTermClassifier(List<Variable> outputVariables) {
+        outputVariableNames = new String[outputVariables.size()];
+        outputTermNames = new String[outputVariables.size()][];
+        intervalBounds = new double[outputVariables.size()][];
+        termsAtIntervalBounds = new int[outputVariables.size()][];
+        termsBetweenIntervalBounds = new int[outputVariables.size()][];
+        outputTermMembershipFunctions = new MembershipFunction[outputVariables.size()][];
+        for (int outputVariable = 0; outputVariable < outputVariables.size(); outputVariable++) {
+            Variable variable = outputVariables.get(outputVariable);
+            outputVariableNames[outputVariable] = variable.getName();
+            outputTermNames[outputVariable] = variable.getLinguisticTerms().keySet().toArray(String[]::new);
+            outputTermMembershipFunctions[outputVariable] = variable.getLinguisticTerms().values().stream()
+                    .map(LinguisticTerm::getMembershipFunction).toArray(MembershipFunction[]::new);
+            LinguisticTermTable outputTerms;
+            try {
+                outputTerms = LinguisticTermTable.compileOverUniverse(List.of(variable));
+            } catch (RuleSetCompilationException exception) {
+                continue; // not piecewise-linear, the membership degrees are compared on every selection
+            }
+            computeIntervals(outputVariable, outputTerms);
+        }
+    }
+
+    /**
+     * Computes the intervals of the output variables of the function block.
+     */
+    public static OutputTermClassifier compile(FunctionBlock functionBlock) {
+        return compile(functionBlock.getVariables().values().stream().filter(Variable::isOutput).toList());
+    }
+
+    static OutputTermClassifier compile(List<Variable> outputVariables) {
+        return new OutputTermClassifier(outputVariables);
+    }
+
+    /**
+     * @param outputVariable the index of the output variable, in the order of the function block.
+     * @param value          the defuzzified value of the output variable.
+     * @return the index of the winning term, in the order of {@link Variable#getLinguisticTerms()}.
+     */
+    public int getWinningTerm(int outputVariable, double value) {
+        double[] bounds = intervalBounds[outputVariable];
+        if (bounds == null) {
+            return getTermWithHighestMembership(outputVariable, value);
+        }
+        int bound = Arrays.binarySearch(bounds, value);
+        return bound >= 0 ? termsAtIntervalBounds[outputVariable][bound] : termsBetweenIntervalBounds[outputVariable][-bound - 1];
+    }
+
+    /**
+     * @return the name of the winning term, see {@link #getWinningTerm(int, double)}.
+     */
+    public String getWinningTermName(int outputVariable, double value) {
+        return outputTermNames[outputVariable][getWinningTerm(outputVariable, value)];
+    }
+
+    public int getNumberOfOutputVariables() {
+        return outputVariableNames.length;
+    }
+
+    public String getOutputVariableName(int outputVariable) {
+        return outputVariableNames[outputVariable];
+    }
+
+    public int getNumberOfTerms(int outputVariable) {
+        return outputTermNames[outputVariable].length;
+    }
+
+    public String getTermName(int outputVariable, int term) {
+        return outputTermNames[outputVariable][term];
+    }
+
+    /**
+     * @return the index of the term of the output variable, or -1 if it has no term of that name.
+     */
+    public int getTermIndex(int outputVariable, String termName) {
+        String[] termNames = outputTermNames[outputVariable];
+        for (int term = 0; term < termNames.length; term++) {
+            if (termNames[term].equals(termName)) {
+                return term;
+            }
+        }
+        return -1;
+    }
+
+    private int getTermWithHighestMembership(int outputVariable, double value) {
+        MembershipFunction[] membershipFunctions = outputTermMembershipFunctions[outputVariable];
+        int winningTerm = 0;
+        double winningMembership = membershipFunctions[0].membership(value);
+        for (int term = 1; term < membershipFunctions.length; term++) {
+            double membership = membershipFunctions[term].membership(value);
+            if (membership > winningMembership) {
+                winningTerm = term;
+                winningMembership = membership;
+            }
+        }
+        return winningTerm;
+    }
+
+    /**
+     * Selects the winning term at every point and intersection of the terms and once between each two of them, and
+     * keeps only the bounds at which the winning term changes.
+     */
+    private void computeIntervals(int outputVariable, LinguisticTermTable outputTerms) {
+        int numberOfTerms = outputTerms.numberOfTerms();
+        List<Double> breakpointList = new ArrayList<>();
+        for (int term = 0; term < numberOfTerms; term++) {
+            for (int point = outputTerms.termPointOffsets[term]; point < outputTerms.termPointOffsets[term + 1]; point++) {
+                breakpointList.add(outputTerms.pointX[point]);
+            }
+            for (int otherTerm = term + 1; otherTerm < numberOfTerms; otherTerm++) {
+                outputTerms.addIntersections(term, otherTerm, breakpointList);
+            }
+        }
+        double[] breakpoints = breakpointList.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+
+        List<Double> bounds = new ArrayList<>();
+        List<Integer> termsAtBounds = new ArrayList<>();
+        List<Integer> termsBetweenBounds = new ArrayList<>(List.of(getTermWithHighestMembership(outputTerms, breakpoints[0] - 1)));
+        for (int breakpoint = 0; breakpoint < breakpoints.length; breakpoint++) {
+            int termAtBreakpoint = getTermWithHighestMembership(outputTerms, breakpoints[breakpoint]);
+            int termAboveBreakpoint = getTermWithHighestMembership(outputTerms, breakpoint + 1 < breakpoints.length
+                    ? (breakpoints[breakpoint] + breakpoints[breakpoint + 1]) / 2
+                    : breakpoints[breakpoint] + 1);
+            int termBelowBreakpoint = termsBetweenBounds.get(termsBetweenBounds.size() - 1);
+            if (termAtBreakpoint == termBelowBreakpoint && termAboveBreakpoint == termBelowBreakpoint) {
+                continue;
+            }
+            bounds.add(breakpoints[breakpoint]);
+            termsAtBounds.add(termAtBreakpoint);
+            termsBetweenBounds.add(termAboveBreakpoint);
+        }
+        intervalBounds[outputVariable] = bounds.stream().mapToDouble(Double::doubleValue).toArray();
+        termsAtIntervalBounds[outputVariable] = termsAtBounds.stream().mapToInt(Integer::intValue).toArray();
+        termsBetweenIntervalBounds[outputVariable] = termsBetweenBounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int getTermWithHighestMembership(LinguisticTermTable outputTerms, double value) {
+        int winningTerm = 0;
+        double winningMembership = outputTerms.membership(0, value);
+        for (int term = 1; term < outputTerms.numberOfTerms(); term++) {
+            double membership = outputTerms.membership(term, value);
+            if (membership > winningMembership) {
+                winningTerm = term;
+                winningMembership = membership;
+            }
+        }
+        return winningTerm;
+    }
+}
@@ -0,0 +1,478 @@
+package eu.ai4work.sws.engine;
+
+import eu.ai4work.sws.exception.RuleSetCompilationException;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierCenterOfGravity;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunction;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionPieceWiseLinear;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionSingleton;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionTrapetzoidal;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunctionTriangular;
+import net.sourceforge.jFuzzyLogic.membership.Value;
+import net.sourceforge.jFuzzyLogic.rule.LinguisticTerm;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
+import net.sourceforge.jFuzzyLogic.rule.RuleExpression;
+import net.sourceforge.jFuzzyLogic.rule.RuleTerm;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+import net.sourceforge.jFuzzyLogic.ruleAccumulationMethod.RuleAccumulationMethodMax;
+import net.sourceforge.jFuzzyLogic.ruleActivationMethod.RuleActivationMethodMin;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethod;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethodAndMin;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethodAndProduct;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethodOrMax;
+import net.sourceforge.jFuzzyLogic.ruleConnectionMethod.RuleConnectionMethodOrProbOr;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * The default function block of an FCL rules file in a compact binary form, from which Fuzzy Inference System (FIS)
+ * instances are built directly with the jFuzzyLogic API, without parsing the FCL source with its ANTLR grammar.
+ * <p>
+ * The binary form holds the variables with the membership functions of their terms, the default values of the output
+ * variables and the rule blocks with their rules, each in the order of the parsed function block, so that a built FIS
+ * iterates its variables, terms and rules like a parsed one. It also holds reference evaluations: the output values
+ * of the parsed FIS for random input values. A FIS built from the binary form is only used if it reproduces all of
+ * them exactly, see {@link #reproducesReferenceEvaluations()}.
+ * <p>
+ * The features of the {@link CompiledFuzzyInferenceSystem} can be precompiled: piecewise-linear, triangular, trapezoidal
+ * and singleton terms, COG defuzzification, MIN activation, MAX accumulation and the AND (MIN, PROD) and OR (MAX,
+ * PROBOR) connection methods.
+ */
+public final class PrecompiledRuleSet {
+    private static final int FILE_MAGIC = 0x53575352; // "SWSR"
+    private static final int FILE_FORMAT_VERSION = 1;
+    private static final int RULE_SET_KEY_LENGTH = 32;
+    private static final int REFERENCE_EVALUATIONS = 64;
+    private static final long REFERENCE_EVALUATIONS_SEED = 20240101L;
+
+    private static final byte PIECEWISE_LINEAR = 1;
+    private static final byte TRIANGULAR = 2;
+    private static final byte TRAPEZOIDAL = 3;
+    private static final byte SINGLETON = 4;
+
+    private static final byte NO_CONDITION = 0;
+    private static final byte TERM_CONDITION = 1;
+    private static final byte EXPRESSION_CONDITION = 2;
+
+    private static final byte NO_CONNECTION_METHOD = 0;
+    private static final byte AND_MIN = 1;
+    private static final byte AND_PRODUCT = 2;
+    private static final byte OR_MAX = 3;
+    private static final byte OR_PROBABILISTIC = 4;
+
+    private final byte[] definition;
+    private final String[] inputVariableNames;
+    private final String[] outputVariableNames;
+    private final double[][] referenceInputValues;
+    private final double[][] referenceOutputValues;
+
+    private PrecompiledRuleSet(byte[] definition, String[] inputVariableNames, String[] outputVariableNames,
+                               double[][] referenceInputValues, double[][] referenceOutputValues) {
+        this.definition = definition;
+        this.inputVariableNames = inputVariableNames;
+        this.outputVariableNames = outputVariableNames;
+        this.referenceInputValues = referenceInputValues;
+        this.referenceOutputValues = referenceOutputValues;
+    }
+
+    /**
+     * Precompiles a parsed function block and evaluates it at the random points of the reference evaluations.
+     *
+     * @param functionBlock a function block parsed from an FCL source, which is used for the reference evaluations and
+     *                      must not be used by anything else at the same time.
+     * @throws RuleSetCompilationException if the function block uses features that cannot be precompiled.
+     */
+    public static PrecompiledRuleSet precompile(FunctionBlock functionBlock) throws RuleSetCompilationException {
+        byte[] definition = writeDefinition(functionBlock);
+        Variable[] inputVariables = functionBlock.getVariables().values().stream().filter(Variable::isInput).toArray(Variable[]::new);
+        String[] inputVariableNames = Arrays.stream(inputVariables).map(Variable::getName).toArray(String[]::new);
+        String[] outputVariableNames = functionBlock.getVariables().values().stream()
+                .filter(Variable::isOutput).map(Variable::getName).toArray(String[]::new);
+
+        Random random = new Random(REFERENCE_EVALUATIONS_SEED);
+        double[][] referenceInputValues = new double[REFERENCE_EVALUATIONS][inputVariables.length];
+        double[][] referenceOutputValues = new double[REFERENCE_EVALUATIONS][];
+        for (int evaluation = 0; evaluation < REFERENCE_EVALUATIONS; evaluation++) {
+            for (int inputVariable = 0; inputVariable < inputVariables.length; inputVariable++) {
+                double universeMinimum = inputVariables[inputVariable].getUniverseMin();
+                double universeMaximum = inputVariables[inputVariable].getUniverseMax();
+                referenceInputValues[evaluation][inputVariable] = universeMinimum + random.nextDouble() * (universeMaximum - universeMinimum);
+            }
+            referenceOutputValues[evaluation] = evaluate(functionBlock, inputVariableNames, referenceInputValues[evaluation], outputVariableNames);
+        }
+        return new PrecompiledRuleSet(definition, inputVariableNames, outputVariableNames, referenceInputValues, referenceOutputValues);
+    }
+
+    /**
+     * Reads a precompiled rule set file written by {@link #write(Path, byte[])}.
+     *
+     * @param file       the precompiled rule set file.
+     * @param ruleSetKey the key the file must have been written with, see {@link #computeRuleSetKey(byte[])}.
+     * @return the precompiled rule set, or empty if the file does not exist, is incomplete or belongs to another FCL source.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Optional<PrecompiledRuleSet> load(Path file, byte[] ruleSetKey) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            byte[] fileRuleSetKey = new byte[RULE_SET_KEY_LENGTH];
+            input.readFully(fileRuleSetKey);
+            if (!Arrays.equals(fileRuleSetKey, ruleSetKey)) {
+                return Optional.empty();
+            }
+            byte[] definition = new byte[input.readInt()];
+            input.readFully(definition);
+            String[] inputVariableNames = readNames(input);
+            String[] outputVariableNames = readNames(input);
+            int numberOfReferenceEvaluations = input.readInt();
+            double[][] referenceInputValues = new double[numberOfReferenceEvaluations][inputVariableNames.length];
+            double[][] referenceOutputValues = new double[numberOfReferenceEvaluations][outputVariableNames.length];
+            for (int evaluation = 0; evaluation < numberOfReferenceEvaluations; evaluation++) {
+                readValues(input, referenceInputValues[evaluation]);
+                readValues(input, referenceOutputValues[evaluation]);
+            }
+            return Optional.of(new PrecompiledRuleSet(definition, inputVariableNames, outputVariableNames,
+                    referenceInputValues, referenceOutputValues));
+        } catch (EOFException exception) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the precompiled rule set to a file, replacing it atomically, so that it can be read by {@link #load}.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file, byte[] ruleSetKey) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(FILE_FORMAT_VERSION);
+            output.write(ruleSetKey);
+            output.writeInt(definition.length);
+            output.write(definition);
+            writeNames(output, inputVariableNames);
+            writeNames(output, outputVariableNames);
+            output.writeInt(referenceInputValues.length);
+            for (int evaluation = 0; evaluation < referenceInputValues.length; evaluation++) {
+                writeValues(output, referenceInputValues[evaluation]);
+                writeValues(output, referenceOutputValues[evaluation]);
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Computes the key that identifies the FCL source a precompiled rule set was built from.
+     */
+    public static byte[] computeRuleSetKey(byte[] fclRulesSource) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(fclRulesSource);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    /**
+     * Builds a new, independent FIS with the precompiled function block as its only (and so default) function block.
+     */
+    public FIS createFuzzyInferenceSystem() {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(definition))) {
+            FIS fuzzyInferenceSystem = new FIS();
+            FunctionBlock functionBlock = new FunctionBlock(fuzzyInferenceSystem);
+            String functionBlockName = input.readUTF();
+            functionBlock.setName(functionBlockName);
+            fuzzyInferenceSystem.addFunctionBlock(functionBlockName, functionBlock);
+
+            int numberOfVariables = input.readInt();
+            for (int variableIndex = 0; variableIndex < numberOfVariables; variableIndex++) {
+                Variable variable = new Variable(input.readUTF());
+                int numberOfTerms = input.readInt();
+                for (int term = 0; term < numberOfTerms; term++) {
+                    variable.add(new LinguisticTerm(input.readUTF(), readMembershipFunction(input)));
+                }
+                // like in the FCL source, the defuzzifier is created after the terms, which define the universe
+                if (input.readBoolean()) {
+                    variable.setDefuzzifier(new DefuzzifierCenterOfGravity(variable));
+                    variable.setDefaultValue(input.readDouble());
+                }
+                functionBlock.setVariable(variable.getName(), variable);
+            }
+
+            HashMap<String, RuleBlock> ruleBlocks = new HashMap<>();
+            int numberOfRuleBlocks = input.readInt();
+            for (int ruleBlockIndex = 0; ruleBlockIndex < numberOfRuleBlocks; ruleBlockIndex++) {
+                RuleBlock ruleBlock = new RuleBlock(functionBlock);
+                ruleBlock.setName(input.readUTF());
+                ruleBlock.setRuleActivationMethod(new RuleActivationMethodMin());
+                ruleBlock.setRuleAccumulationMethod(new RuleAccumulationMethodMax());
+                int numberOfRules = input.readInt();
+                for (int ruleIndex = 0; ruleIndex < numberOfRules; ruleIndex++) {
+                    Rule rule = new Rule(input.readUTF(), ruleBlock);
+                    rule.setWeight(input.readDouble());
+                    rule.setAntecedents((RuleExpression) readCondition(input, functionBlock));
+                    int numberOfConsequents = input.readInt();
+                    for (int consequent = 0; consequent < numberOfConsequents; consequent++) {
+                        rule.addConsequent(functionBlock.getVariable(input.readUTF()), input.readUTF(), input.readBoolean());
+                    }
+                    ruleBlock.add(rule);
+                }
+                ruleBlocks.put(ruleBlock.getName(), ruleBlock);
+            }
+            functionBlock.setRuleBlocks(ruleBlocks);
+            return fuzzyInferenceSystem;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Invalid precompiled rule set", exception);
+        }
+    }
+
+    /**
+     * Evaluates a newly built FIS at the points of the reference evaluations.
+     *
+     * @return whether it computes exactly the same output values as the FIS parsed from the FCL source.
+     */
+    public boolean reproducesReferenceEvaluations() {
+        FunctionBlock functionBlock = createFuzzyInferenceSystem().getFunctionBlock(null);
+        for (int evaluation = 0; evaluation < referenceInputValues.length; evaluation++) {
+            double[] outputValues = evaluate(functionBlock, inputVariableNames, referenceInputValues[evaluation], outputVariableNames);
+            if (!Arrays.equals(outputValues, referenceOutputValues[evaluation])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the size of the binary form of the function block, without the reference evaluations.
+     */
+    public int getDefinitionLength() {
+        return definition.length;
+    }
+
+    private static double[] evaluate(FunctionBlock functionBlock, String[] inputVariableNames, double[] inputValues,
+                                     String[] outputVariableNames) {
+        for (int inputVariable = 0; inputVariable < inputVariableNames.length; inputVariable++) {
+            functionBlock.setVariable(inputVariableNames[inputVariable], inputValues[inputVariable]);
+        }
+        functionBlock.evaluate();
+        double[] outputValues = new double[outputVariableNames.length];
+        for (int outputVariable = 0; outputVariable < outputVariableNames.length; outputVariable++) {
+            outputValues[outputVariable] = functionBlock.getVariable(outputVariableNames[outputVariable]).getValue();
+        }
+        return outputValues;
+    }
+
+    private static byte[] writeDefinition(FunctionBlock functionBlock) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeUTF(functionBlock.getName());
+            output.writeInt(functionBlock.getVariables().size());
+            for (Variable variable : functionBlock.getVariables().values()) {
+                output.writeUTF(variable.getName());
+                output.writeInt(variable.getLinguisticTerms().size());
+                for (Map.Entry<String, LinguisticTerm> linguisticTerm : variable.getLinguisticTerms().entrySet()) {
+                    output.writeUTF(linguisticTerm.getKey());
+                    writeMembershipFunction(output, linguisticTerm.getValue().getMembershipFunction(),
+                            variable.getName() + " IS " + linguisticTerm.getKey());
+                }
+                output.writeBoolean(variable.isOutput());
+                if (variable.isOutput()) {
+                    if (!(variable.getDefuzzifier() instanceof DefuzzifierCenterOfGravity)) {
+                        throw new RuleSetCompilationException("Unsupported defuzzification method for output variable '"
+                                + variable.getName() + "', only COG can be precompiled.");
+                    }
+                    output.writeDouble(variable.getDefaultValue());
+                }
+            }
+
+            output.writeInt(functionBlock.getRuleBlocks().size());
+            for (RuleBlock ruleBlock : functionBlock.getRuleBlocks().values()) {
+                if (!(ruleBlock.getRuleActivationMethod() instanceof RuleActivationMethodMin)
+                        || !(ruleBlock.getRuleAccumulationMethod() instanceof RuleAccumulationMethodMax)) {
+                    throw new RuleSetCompilationException("Unsupported activation or accumulation method in rule block '"
+                            + ruleBlock.getName() + "', only MIN activation and MAX accumulation can be precompiled.");
+                }
+                output.writeUTF(ruleBlock.getName());
+                output.writeInt(ruleBlock.getRules().size());
+                for (Rule rule : ruleBlock.getRules()) {
+                    output.writeUTF(rule.getName());
+                    output.writeDouble(rule.getWeight());
+                    writeCondition(output, rule.getAntecedents(), rule.getName());
+                    output.writeInt(rule.getConsequents().size());
+                    for (RuleTerm consequent : rule.getConsequents()) {
+                        output.writeUTF(consequent.getVariable().getName());
+                        output.writeUTF(consequent.getTermName());
+                        output.writeBoolean(consequent.isNegated());
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeMembershipFunction(DataOutputStream output, MembershipFunction membershipFunction,
+                                                String termDescription) throws IOException {
+        if (membershipFunction instanceof MembershipFunctionSingleton) {
+            output.writeByte(SINGLETON);
+            output.writeDouble(membershipFunction.getParameter(0));
+        } else if (membershipFunction instanceof MembershipFunctionTriangular || membershipFunction instanceof MembershipFunctionTrapetzoidal) {
+            output.writeByte(membershipFunction instanceof MembershipFunctionTriangular ? TRIANGULAR : TRAPEZOIDAL);
+            for (int parameter = 0; parameter < membershipFunction.getParametersLength(); parameter++) {
+                output.writeDouble(membershipFunction.getParameter(parameter));
+            }
+        } else {
+            // throws for all other membership functions
+            double[][] points = LinguisticTermTable.readPiecewiseLinearPoints(membershipFunction, termDescription);
+            output.writeByte(PIECEWISE_LINEAR);
+            output.writeInt(points[0].length);
+            writeValues(output, points[0]);
+            writeValues(output, points[1]);
+        }
+    }
+
+    private static MembershipFunction readMembershipFunction(DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        return switch (type) {
+            case SINGLETON -> new MembershipFunctionSingleton(new Value(input.readDouble()));
+            case TRIANGULAR -> new MembershipFunctionTriangular(new Value(input.readDouble()), new Value(input.readDouble()),
+                    new Value(input.readDouble()));
+            case TRAPEZOIDAL -> new MembershipFunctionTrapetzoidal(new Value(input.readDouble()), new Value(input.readDouble()),
+                    new Value(input.readDouble()), new Value(input.readDouble()));
+            case PIECEWISE_LINEAR -> {
+                Value[] x = new Value[input.readInt()];
+                Value[] y = new Value[x.length];
+                for (int point = 0; point < x.length; point++) {
+                    x[point] = new Value(input.readDouble());
+                }
+                for (int point = 0; point < y.length; point++) {
+                    y[point] = new Value(input.readDouble());
+                }
+                yield new MembershipFunctionPieceWiseLinear(x, y);
+            }
+            default -> throw new IOException("Unknown membership function type " + type);
+        };
+    }
+
+    /**
+     * Writes a rule condition as it is nested in the parsed rule, so that the built rule connects its terms in the same
+     * order, with the same (possibly missing) connection method on expressions with a single term.
+     */
+    private static void writeCondition(DataOutputStream output, Object condition, String ruleName) throws IOException {
+        if (condition == null) {
+            output.writeByte(NO_CONDITION);
+        } else if (condition instanceof RuleTerm ruleTerm) {
+            output.writeByte(TERM_CONDITION);
+            output.writeUTF(ruleTerm.getVariable().getName());
+            output.writeUTF(ruleTerm.getTermName());
+            output.writeBoolean(ruleTerm.isNegated());
+        } else if (condition instanceof RuleExpression ruleExpression) {
+            output.writeByte(EXPRESSION_CONDITION);
+            output.writeByte(writeConnectionMethod(ruleExpression.getRuleConnectionMethod(), ruleName));
+            output.writeBoolean(ruleExpression.isNegated());
+            writeCondition(output, ruleExpression.getTerm1(), ruleName);
+            writeCondition(output, ruleExpression.getTerm2(), ruleName);
+        } else {
+            throw new RuleSetCompilationException("Unsupported condition in rule '" + ruleName + "': " + condition);
+        }
+    }
+
+    private static Object readCondition(DataInputStream input, FunctionBlock functionBlock) throws IOException {
+        byte type = input.readByte();
+        return switch (type) {
+            case NO_CONDITION -> null;
+            case TERM_CONDITION -> new RuleTerm(functionBlock.getVariable(input.readUTF()), input.readUTF(), input.readBoolean());
+            case EXPRESSION_CONDITION -> {
+                RuleConnectionMethod ruleConnectionMethod = readConnectionMethod(input.readByte());
+                boolean negated = input.readBoolean();
+                RuleExpression ruleExpression = new RuleExpression(readCondition(input, functionBlock),
+                        readCondition(input, functionBlock), ruleConnectionMethod);
+                ruleExpression.setNegated(negated);
+                yield ruleExpression;
+            }
+            default -> throw new IOException("Unknown condition type " + type);
+        };
+    }
+
+    private static byte writeConnectionMethod(RuleConnectionMethod ruleConnectionMethod, String ruleName) {
+        if (ruleConnectionMethod == null) {
+            return NO_CONNECTION_METHOD;
+        }
+        if (ruleConnectionMethod instanceof RuleConnectionMethodAndMin) {
+            return AND_MIN;
+        }
+        if (ruleConnectionMethod instanceof RuleConnectionMethodAndProduct) {
+            return AND_PRODUCT;
+        }
+        if (ruleConnectionMethod instanceof RuleConnectionMethodOrMax) {
+            return OR_MAX;
+        }
+        if (ruleConnectionMethod instanceof RuleConnectionMethodOrProbOr) {
+            return OR_PROBABILISTIC;
+        }
+        throw new RuleSetCompilationException("Unsupported connection method in rule '" + ruleName + "': " + ruleConnectionMethod);
+    }
+
+    private static RuleConnectionMethod readConnectionMethod(byte type) throws IOException {
+        return switch (type) {
+            case NO_CONNECTION_METHOD -> null;
+            case AND_MIN -> RuleConnectionMethodAndMin.get();
+            case AND_PRODUCT -> RuleConnectionMethodAndProduct.get();
+            case OR_MAX -> RuleConnectionMethodOrMax.get();
+            case OR_PROBABILISTIC -> RuleConnectionMethodOrProbOr.get();
+            default -> throw new IOException("Unknown connection method type " + type);
+        };
+    }
+
+    private static void writeNames(DataOutputStream output, String[] names) throws IOException {
+        output.writeInt(names.length);
+        for (String name : names) {
+            output.writeUTF(name);
+        }
+    }
+
+    private static String[] readNames(DataInputStream input) throws IOException {
+        String[] names = new String[input.readInt()];
+        for (int name = 0; name < names.length; name++) {
+            names[name] = input.readUTF();
+        }
+        return names;
+    }
+
+    private static void writeValues(DataOutputStream output, double[] values) throws IOException {
+        for (double value : values) {
+            output.writeDouble(value);
+        }
+    }
+
+    private static void readValues(DataInputStream input, double[] values) throws IOException {
+        for (int value = 0; value < values.length; value++) {
+            values[value] = input.readDouble();
+        }
+    }
+}
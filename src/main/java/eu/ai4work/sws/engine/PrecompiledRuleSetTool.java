@@ -0,0 +1,50 @@
+package eu.ai4work.sws.engine;
+
+import net.sourceforge.jFuzzyLogic.FIS;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line tool that writes a {@link PrecompiledRuleSet} file for an FCL rules file, e.g. while building a
+ * container image, and compares the time to parse the FCL file with the time to build a FIS from the precompiled file.
+ * <p>
+ * Usage: {@code PrecompiledRuleSetTool <fclRulesFile> <precompiledRuleSetFile>}
+ */
+public final class PrecompiledRuleSetTool {
+
+    private PrecompiledRuleSetTool() {
+    }
+
+    public static void main(String[] arguments) throws Exception {
+        if (arguments.length != 2) {
+            System.err.println("Usage: PrecompiledRuleSetTool <fclRulesFile> <precompiledRuleSetFile>");
+            System.exit(1);
+        }
+        byte[] fclRulesSource = Files.readAllBytes(Path.of(arguments[0]));
+        Path precompiledRuleSetFile = Path.of(arguments[1]);
+
+        long startTime = System.nanoTime();
+        FIS fuzzyInferenceSystem = FIS.load(new ByteArrayInputStream(fclRulesSource), true);
+        System.out.printf("Parsed %s in %.3f ms%n", arguments[0], (System.nanoTime() - startTime) / 1e6);
+
+        FunctionBlockGraph.requireSingleFunctionBlock(fuzzyInferenceSystem, "The precompiled rule set");
+        PrecompiledRuleSet precompiledRuleSet = PrecompiledRuleSet.precompile(fuzzyInferenceSystem.getFunctionBlock(null));
+        byte[] ruleSetKey = PrecompiledRuleSet.computeRuleSetKey(fclRulesSource);
+        precompiledRuleSet.write(precompiledRuleSetFile, ruleSetKey);
+        System.out.printf("Wrote %s (%d bytes, %d of them the function block)%n", precompiledRuleSetFile,
+                Files.size(precompiledRuleSetFile), precompiledRuleSet.getDefinitionLength());
+
+        startTime = System.nanoTime();
+        PrecompiledRuleSet loadedPrecompiledRuleSet = PrecompiledRuleSet.load(precompiledRuleSetFile, ruleSetKey).orElseThrow();
+        loadedPrecompiledRuleSet.createFuzzyInferenceSystem();
+        System.out.printf("Read it and built a FIS in %.3f ms%n", (System.nanoTime() - startTime) / 1e6);
+
+        if (!loadedPrecompiledRuleSet.reproducesReferenceEvaluations()) {
+            System.err.println("The precompiled rule set does not reproduce the evaluations of the FCL file, the application will parse the FCL file instead.");
+            System.exit(2);
+        }
+        System.out.println("Reproduces the evaluations of the FCL file");
+    }
+}
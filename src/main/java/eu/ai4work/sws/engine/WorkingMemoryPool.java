@@ -0,0 +1,48 @@
+package eu.ai4work.sws.engine;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Working memory of evaluations, e.g. the input value buffers of an {@link InputSchema} or the
+ * {@link CompiledEvaluationState}s of a {@link CompiledFuzzyInferenceSystem}, shared by all threads.
+ * <p>
+ * Unlike a thread-local buffer, which a virtual thread per request would allocate anew for every request, the pool
+ * keeps the working memory of the evaluations that ran, so it is reused by the next ones, whichever thread they run on.
+ * Acquiring never waits: if all working memory is in use, a new one is created, and it is only kept when it is released
+ * while the pool has room for it. As long as no more than {@code capacity} evaluations run at the same time, which the
+ * evaluation permits of the request execution usually ensure, evaluating does not allocate.
+ *
+ * @param <T> the type of the working memory.
+ */
+public final class WorkingMemoryPool<T> {
+    /**
+     * The number of working memories kept by default, more than the evaluations the request execution runs at the same
+     * time by default.
+     */
+    public static final int DEFAULT_CAPACITY = 4 * Runtime.getRuntime().availableProcessors();
+
+    private final Supplier<T> workingMemoryFactory;
+    private final BlockingQueue<T> availableWorkingMemory;
+
+    public WorkingMemoryPool(Supplier<T> workingMemoryFactory, int capacity) {
+        this.workingMemoryFactory = workingMemoryFactory;
+        this.availableWorkingMemory = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @return working memory for the exclusive use of the caller, until it {@link #release releases} it.
+     */
+    public T acquire() {
+        T workingMemory = availableWorkingMemory.poll();
+        return workingMemory != null ? workingMemory : workingMemoryFactory.get();
+    }
+
+    /**
+     * Returns working memory to the pool; the caller must not use it afterward.
+     */
+    public void release(T workingMemory) {
+        availableWorkingMemory.offer(workingMemory);
+    }
+}
@@ -0,0 +1,17 @@
+package eu.ai4work.sws.exception;
+
+public class ClientRateLimitExceededException extends RuntimeException {
+    /**
+     * The seconds until the client may send its next request.
+     */
+    private final long retryAfterSeconds;
+
+    public ClientRateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package eu.ai4work.sws.exception;
+
+public class ClusterNodeUnavailableException extends RuntimeException {
+    public ClusterNodeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
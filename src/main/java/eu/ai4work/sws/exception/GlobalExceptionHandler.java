@@ -4,8 +4,10 @@ import eu.ai4work.sws.model.DebugHint;
 import eu.ai4work.sws.model.SlidingDecisionStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -26,6 +28,54 @@ public class GlobalExceptionHandler {
         return createErrorResponse(ex, DebugHint.UNKNOWN_INPUT, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(UnknownScenarioException.class)
+    public ResponseEntity<Map<String, Object>> handleUnknownScenarioException(UnknownScenarioException ex) {
+        return createErrorResponse(ex, DebugHint.UNKNOWN_SCENARIO, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(UnknownDecisionSessionException.class)
+    public ResponseEntity<Map<String, Object>> handleUnknownDecisionSessionException(UnknownDecisionSessionException ex) {
+        return createErrorResponse(ex, DebugHint.UNKNOWN_SESSION, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        return createErrorResponse(ex, DebugHint.OVERLOADED, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ClientRateLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleClientRateLimitExceededException(ClientRateLimitExceededException ex) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        return createErrorResponse(ex, DebugHint.RATE_LIMITED, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(ClusterNodeUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleClusterNodeUnavailableException(ClusterNodeUnavailableException ex) {
+        logger.warn(ex.getMessage(), ex.getCause());
+        return createErrorResponse(ex, DebugHint.NODE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(NotAClusterMemberException.class)
+    public ResponseEntity<Map<String, Object>> handleNotAClusterMemberException(NotAClusterMemberException ex) {
+        logger.warn(ex.getMessage());
+        return createErrorResponse(ex, DebugHint.NOT_A_CLUSTER_MEMBER, HttpStatus.FORBIDDEN);
+    }
+
+    /**
+     * An invalid value in the request body, e.g. an unknown explanation level, is reported like the same invalid value in
+     * a query parameter, any other unreadable body like an unexpected exception.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvalidInputParameterException invalidInputParameterException) {
+                return handleUnknownInputParameterException(invalidInputParameterException);
+            }
+        }
+        return handleUnexpectedExceptions(ex);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleUnexpectedExceptions(Exception ex) {
         logger.error("An unexpected exception occurred.", ex);
@@ -33,6 +83,10 @@ public class GlobalExceptionHandler {
     }
 
     private ResponseEntity<Map<String, Object>> createErrorResponse(Exception exception, DebugHint debugHint, HttpStatus status) {
+        return createErrorResponse(exception, debugHint, new HttpHeaders(), status);
+    }
+
+    private ResponseEntity<Map<String, Object>> createErrorResponse(Exception exception, DebugHint debugHint, HttpHeaders headers, HttpStatus status) {
         Map<String, Object> errorDetails = new HashMap<>();
         errorDetails.put(EXCEPTION_NAME, exception.getClass().getName());
         errorDetails.put(EXCEPTION_MESSAGE, exception.getMessage());
@@ -42,6 +96,6 @@ public class GlobalExceptionHandler {
         errorResponse.put(DECISION_STATUS, SlidingDecisionStatus.ERROR);
         errorResponse.put(ERROR_DETAILS, errorDetails);
 
-        return new ResponseEntity<>(errorResponse, status);
+        return new ResponseEntity<>(errorResponse, headers, status);
     }
 }
@@ -0,0 +1,7 @@
+package eu.ai4work.sws.exception;
+
+public class LookupTableAccuracyException extends RuntimeException {
+    public LookupTableAccuracyException(String message) {
+        super(message);
+    }
+}
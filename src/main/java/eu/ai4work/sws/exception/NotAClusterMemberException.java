@@ -0,0 +1,7 @@
+package eu.ai4work.sws.exception;
+
+public class NotAClusterMemberException extends RuntimeException {
+    public NotAClusterMemberException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package eu.ai4work.sws.exception;
+
+public class RuleSetCompilationException extends RuntimeException {
+    public RuleSetCompilationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package eu.ai4work.sws.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
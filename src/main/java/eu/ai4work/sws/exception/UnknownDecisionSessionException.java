@@ -0,0 +1,7 @@
+package eu.ai4work.sws.exception;
+
+public class UnknownDecisionSessionException extends RuntimeException {
+    public UnknownDecisionSessionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package eu.ai4work.sws.exception;
+
+public class UnknownScenarioException extends RuntimeException {
+    public UnknownScenarioException(String message) {
+        super(message);
+    }
+}
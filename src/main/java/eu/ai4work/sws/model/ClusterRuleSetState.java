@@ -0,0 +1,22 @@
+package eu.ai4work.sws.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The active rule set of a scenario on one node of a cluster, which the other nodes compare with theirs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterRuleSetState {
+    private String scenarioName;
+    private String fclRulesSha256;
+    private String ruleSetVersion;
+    /**
+     * The revision in the header of the FCL file of the rule set, 0 if it has none; the rule set of the highest revision
+     * is activated on all nodes.
+     */
+    private long fclRulesRevision;
+}
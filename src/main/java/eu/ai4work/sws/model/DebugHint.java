@@ -5,6 +5,18 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public enum DebugHint {
     @JsonProperty("Please check the provided sliding decision input parameter(s) and try again.")
     UNKNOWN_INPUT,
+    @JsonProperty("Please check the scenario name in the request path and try again.")
+    UNKNOWN_SCENARIO,
+    @JsonProperty("The decision session was closed, or it expired. Please open a new session and try again.")
+    UNKNOWN_SESSION,
+    @JsonProperty("The service is overloaded. Please try again later.")
+    OVERLOADED,
+    @JsonProperty("Too many requests of this client. Please wait for the time in the Retry-After header and try again.")
+    RATE_LIMITED,
+    @JsonProperty("The node of the cluster that serves this request is not available. Please try again later.")
+    NODE_UNAVAILABLE,
+    @JsonProperty("This request is only served to the other nodes of the cluster.")
+    NOT_A_CLUSTER_MEMBER,
     @JsonProperty("An unexpected error occurred. Check the exception message or system logs for more details")
     UNEXPECTED_ERROR;
 }
@@ -0,0 +1,35 @@
+package eu.ai4work.sws.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The names behind the positions of the binary requests and responses of a scenario.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DecisionVectorSchemaResponse {
+    /**
+     * Sent with every binary response; it only changes if a new rule set changes the layout.
+     */
+    private String decisionVectorSchema;
+    /**
+     * The input variables in the order of the values of a request.
+     */
+    private List<String> inputVariables;
+    /**
+     * The output variables in the order of the term indices of a response.
+     */
+    private List<OutputVariable> outputVariables;
+    private String ruleSetVersion;
+
+    /**
+     * @param linguisticTerms the linguistic terms in the order of their indices.
+     */
+    public record OutputVariable(String name, List<String> linguisticTerms) {
+    }
+}
@@ -0,0 +1,12 @@
+package eu.ai4work.sws.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ErrorDetails {
+    private String exceptionName;
+    private String exceptionMessage;
+    private DebugHint debugHint;
+}
@@ -0,0 +1,45 @@
+package eu.ai4work.sws.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+
+import java.util.Locale;
+
+/**
+ * How much of the decision explanation is computed and returned.
+ */
+public enum ExplanationLevel {
+    /**
+     * No explanation.
+     */
+    NONE,
+    /**
+     * Only the names of the applied rules.
+     */
+    SUMMARY,
+    /**
+     * The input variables, the applied rules and the output variables.
+     */
+    FULL;
+
+    /**
+     * Parses an explanation level of a query parameter or a request body, ignoring case and surrounding whitespace.
+     *
+     * @throws InvalidInputParameterException if the value is not a known explanation level.
+     */
+    @JsonCreator
+    public static ExplanationLevel parse(String explanationLevel) {
+        try {
+            return valueOf(explanationLevel.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidInputParameterException("Invalid explanation level '" + explanationLevel
+                    + "'. Supported levels: none, summary, full");
+        }
+    }
+
+    @JsonValue
+    public String toJson() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
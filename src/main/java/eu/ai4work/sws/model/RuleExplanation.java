@@ -1,14 +1,23 @@
 package eu.ai4work.sws.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class RuleExplanation {
     private String name;
     private String condition;
     private String consequence;
     private String weight;
     private String degreeOfSupport;
+
+    /**
+     * Creates the explanation of an applied rule for the {@link ExplanationLevel#SUMMARY} level.
+     */
+    public static RuleExplanation withNameOnly(String name) {
+        return new RuleExplanation(name, null, null, null, null);
+    }
 }
@@ -10,4 +10,8 @@ import java.util.Map;
 public class SlidingDecision {
     private Map<String, String> decisionResultPerOutputParameter;
     private SlidingDecisionExplanation decisionExplanation;
+    /**
+     * Version of the rule set the decision was evaluated with.
+     */
+    private String ruleSetVersion;
 }
@@ -0,0 +1,15 @@
+package eu.ai4work.sws.model;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class SlidingDecisionBatchRequest {
+    private List<Map<String, Object>> slidingDecisionInputParameters;
+    /**
+     * Optional, defaults to {@link ExplanationLevel#FULL}. The query parameter {@code explanationLevel} takes precedence.
+     */
+    private ExplanationLevel explanationLevel;
+}
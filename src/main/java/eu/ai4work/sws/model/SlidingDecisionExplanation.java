@@ -2,11 +2,14 @@ package eu.ai4work.sws.model;
 
 import java.util.List;
 import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL) // the variables are omitted for the summary explanation level
 public class SlidingDecisionExplanation {
     private Map<String, VariableExplanation> inputVariables;
     private List<RuleExplanation> appliedRules;
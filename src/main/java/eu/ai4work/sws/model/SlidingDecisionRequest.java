@@ -6,4 +6,8 @@ import java.util.Map;
 @Data
 public class SlidingDecisionRequest {
     private Map<String, Object> slidingDecisionInputParameters;
+    /**
+     * Optional, defaults to {@link ExplanationLevel#FULL}. The query parameter {@code explanationLevel} takes precedence.
+     */
+    private ExplanationLevel explanationLevel;
 }
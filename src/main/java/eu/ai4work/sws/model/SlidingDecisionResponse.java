@@ -1,5 +1,6 @@
 package eu.ai4work.sws.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 import java.util.Map;
@@ -9,5 +10,24 @@ import java.util.Map;
 public class SlidingDecisionResponse {
     private SlidingDecisionStatus decisionStatus;
     private Map<String, ResultForOutputVariable> slidingDecisionOutputParameters;
+    /**
+     * Omitted if the explanation level is {@link ExplanationLevel#NONE}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private SlidingDecisionExplanation decisionExplanation;
+    /**
+     * Version of the FCL rule set the decision was evaluated with, the first 12 hex digits of its SHA-256.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String ruleSetVersion;
+    /**
+     * Only set in the response that opens a decision session.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String sessionId;
+    /**
+     * Only set for the failed items of a batch response, single requests report errors with an HTTP error status.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ErrorDetails errorDetails;
 }
@@ -0,0 +1,40 @@
+package eu.ai4work.sws.service;
+
+/**
+ * Holds the rule set that new requests are evaluated with. Activating a new rule set is atomic: requests that already
+ * took the previous rule set finish with it, all later requests use the new one.
+ */
+public class ActiveRuleSet {
+    private volatile RuleSet ruleSet;
+
+    public ActiveRuleSet(RuleSet initialRuleSet) {
+        this.ruleSet = initialRuleSet;
+    }
+
+    public RuleSet get() {
+        return ruleSet;
+    }
+
+    /**
+     * @return the previously active rule set.
+     */
+    public synchronized RuleSet activate(RuleSet newRuleSet) {
+        RuleSet previousRuleSet = ruleSet;
+        ruleSet = newRuleSet;
+        return previousRuleSet;
+    }
+
+    /**
+     * Activates a new rule set only if the expected rule set is still active, e.g. if no changed FCL file was
+     * activated while the new rule set was created.
+     *
+     * @return whether the new rule set was activated.
+     */
+    public synchronized boolean activate(RuleSet expectedRuleSet, RuleSet newRuleSet) {
+        if (ruleSet != expectedRuleSet) {
+            return false;
+        }
+        ruleSet = newRuleSet;
+        return true;
+    }
+}
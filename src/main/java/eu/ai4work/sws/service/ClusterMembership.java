@@ -0,0 +1,188 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The nodes of the cluster this node belongs to, and which of them owns a scenario or a decision session. The owner is
+ * selected by a {@link ConsistentHashRing} of the reachable nodes; a node that does not respond to the rule set
+ * synchronization is taken off the ring until it responds again, so its scenarios and sessions move to the other nodes
+ * in the meantime. Only available if the cluster is enabled.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application-scenario-config.cluster", name = "enabled", havingValue = "true")
+public class ClusterMembership {
+    private static final Logger logger = LogManager.getLogger(ClusterMembership.class);
+    /**
+     * A session ID owned by this node is found after as many attempts as there are nodes on average.
+     */
+    private static final int MAXIMUM_SESSION_ID_ATTEMPTS = 1_000;
+
+    private final String nodeUrl;
+    private final List<String> members;
+    private final int virtualNodesPerMember;
+    /**
+     * Whether each member responded to its last rule set synchronization, this node always.
+     */
+    private final Map<String, Boolean> reachableByMember = new LinkedHashMap<>();
+    /**
+     * The resolved addresses of the hosts of the other members, refreshed whenever a member responds.
+     */
+    private final Map<String, Set<InetAddress>> addressesByMember = new ConcurrentHashMap<>();
+    private volatile ConsistentHashRing ring;
+
+    /**
+     * @throws IllegalArgumentException if the node URL is not one of the members.
+     */
+    public ClusterMembership(ApplicationScenarioConfiguration applicationScenarioConfiguration) {
+        ApplicationScenarioConfiguration.Cluster cluster = applicationScenarioConfiguration.getCluster();
+        this.nodeUrl = normalizeNodeUrl(cluster.getNodeUrl());
+        this.members = cluster.getMembers().stream().map(ClusterMembership::normalizeNodeUrl).distinct().toList();
+        if (!members.contains(nodeUrl)) {
+            throw new IllegalArgumentException("The cluster node URL '" + cluster.getNodeUrl() + "' is not one of the cluster members " + members + ".");
+        }
+        this.virtualNodesPerMember = cluster.getVirtualNodesPerMember();
+        // all members are assumed to be reachable until a synchronization fails, so all nodes start with the same ring
+        members.forEach(member -> reachableByMember.put(member, true));
+        this.ring = new ConsistentHashRing(members, virtualNodesPerMember);
+        getOtherMembers().forEach(this::resolveAddresses);
+        logger.info("Node " + nodeUrl + " joins the cluster of " + members);
+    }
+
+    /**
+     * @return the routing key of the requests of a scenario.
+     */
+    public static String getScenarioKey(String scenarioName) {
+        return "scenario:" + scenarioName;
+    }
+
+    /**
+     * @return the routing key of the requests of a decision session.
+     */
+    public static String getSessionKey(String sessionId) {
+        return "session:" + sessionId;
+    }
+
+    public String getNodeUrl() {
+        return nodeUrl;
+    }
+
+    /**
+     * @return the URLs of the other members of the cluster.
+     */
+    public List<String> getOtherMembers() {
+        return members.stream().filter(member -> !member.equals(nodeUrl)).toList();
+    }
+
+    /**
+     * @return the URL of the reachable node that owns the routing key.
+     */
+    public String getOwner(String routingKey) {
+        return ring.getNode(routingKey);
+    }
+
+    public boolean isOwnedByThisNode(String routingKey) {
+        return getOwner(routingKey).equals(nodeUrl);
+    }
+
+    /**
+     * Creates a random session ID that this node owns, so the later requests of the session are routed to this node.
+     */
+    public String createSessionId() {
+        String sessionId = UUID.randomUUID().toString();
+        for (int attempt = 1; attempt < MAXIMUM_SESSION_ID_ATTEMPTS && !isOwnedByThisNode(getSessionKey(sessionId)); attempt++) {
+            sessionId = UUID.randomUUID().toString();
+        }
+        return sessionId;
+    }
+
+    /**
+     * Tells whether a request was sent by another member, e.g. forwarded by it: the claimed member must be one of the
+     * other members, and the remote address of the request one of the addresses of its host.
+     *
+     * @param member        the URL of the member that claims to have sent the request.
+     * @param remoteAddress the IP address the request was received from.
+     */
+    public boolean isSentByOtherMember(String member, String remoteAddress) {
+        Set<InetAddress> memberAddresses = addressesByMember.get(member);
+        if (memberAddresses == null || remoteAddress == null) {
+            return false;
+        }
+        try {
+            // an IP address literal is not looked up
+            return memberAddresses.contains(InetAddress.getByName(remoteAddress));
+        } catch (UnknownHostException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Tells whether a request was sent from the host of another member, e.g. by its rule set synchronization.
+     *
+     * @param remoteAddress the IP address the request was received from.
+     */
+    public boolean isSentFromOtherMember(String remoteAddress) {
+        return getOtherMembers().stream().anyMatch(member -> isSentByOtherMember(member, remoteAddress));
+    }
+
+    /**
+     * Records whether a member responded, and takes it off or puts it back on the hash ring if that changed.
+     */
+    public synchronized void setReachable(String member, boolean reachable) {
+        if (member.equals(nodeUrl)) {
+            return;
+        }
+        if (reachable) {
+            resolveAddresses(member);
+        }
+        Boolean previouslyReachable = reachableByMember.put(member, reachable);
+        if (previouslyReachable != null && previouslyReachable != reachable) {
+            List<String> reachableMembers = reachableByMember.entrySet().stream()
+                    .filter(Map.Entry::getValue)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            ring = new ConsistentHashRing(reachableMembers, virtualNodesPerMember);
+            logger.warn("Cluster member " + member + " is " + (reachable ? "reachable again" : "not reachable")
+                    + ", the scenarios and sessions are distributed over " + reachableMembers);
+        }
+    }
+
+    /**
+     * @return whether each member of the cluster is reachable.
+     */
+    public synchronized Map<String, Boolean> getReachableByMember() {
+        return new LinkedHashMap<>(reachableByMember);
+    }
+
+    private void resolveAddresses(String member) {
+        try {
+            String host = URI.create(member).getHost();
+            if (host != null) {
+                addressesByMember.put(member, Set.copyOf(List.of(InetAddress.getAllByName(host))));
+            }
+        } catch (UnknownHostException | IllegalArgumentException exception) {
+            // the addresses resolved before, if any, are kept until the member responds again
+            logger.debug("The host of cluster member " + member + " could not be resolved: " + exception);
+        }
+    }
+
+    private static String normalizeNodeUrl(String nodeUrl) {
+        if (nodeUrl == null || nodeUrl.isBlank()) {
+            throw new IllegalArgumentException("The cluster node URL and the URLs of all cluster members must be configured.");
+        }
+        return nodeUrl.endsWith("/") ? nodeUrl.substring(0, nodeUrl.length() - 1) : nodeUrl;
+    }
+}
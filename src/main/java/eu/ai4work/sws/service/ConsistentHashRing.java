@@ -0,0 +1,59 @@
+package eu.ai4work.sws.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Assigns keys (e.g. scenario names) to the nodes of a cluster by consistent hashing: every node has a number of
+ * virtual nodes, i.e. points on a ring of 64-bit hashes, and a key belongs to the node of the first point at or after
+ * its hash. When a node joins or leaves, only the keys between its points and their predecessors move, all other keys
+ * stay with their node.
+ * <p>
+ * The hashes only depend on the node URLs and the key, so all nodes with the same members assign every key alike.
+ * Immutable.
+ */
+public final class ConsistentHashRing {
+    private final TreeMap<Long, String> nodesByPoint = new TreeMap<>();
+
+    /**
+     * @param nodes                the URLs of the nodes on the ring, at least one.
+     * @param virtualNodesPerNode the number of points of every node.
+     * @throws IllegalArgumentException if there is no node or no point per node.
+     */
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodesPerNode) {
+        if (nodes.isEmpty() || virtualNodesPerNode < 1) {
+            throw new IllegalArgumentException("A hash ring needs at least one node with at least one virtual node, not "
+                    + nodes.size() + " nodes with " + virtualNodesPerNode + " virtual nodes.");
+        }
+        for (String node : nodes) {
+            for (int virtualNode = 0; virtualNode < virtualNodesPerNode; virtualNode++) {
+                // on the rare collision of two points, the smaller node URL wins on every node
+                nodesByPoint.merge(hash(node + "#" + virtualNode), node, (first, second) -> first.compareTo(second) <= 0 ? first : second);
+            }
+        }
+    }
+
+    /**
+     * @return the URL of the node that owns the key.
+     */
+    public String getNode(String key) {
+        Map.Entry<Long, String> point = nodesByPoint.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : nodesByPoint.firstEntry().getValue();
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, with the finalizer of SplitMix64 to spread similar keys over the whole ring.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte keyByte : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= keyByte & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,253 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.engine.CompiledEvaluationState;
+import eu.ai4work.sws.engine.CompiledFuzzyInferenceSystem;
+import eu.ai4work.sws.engine.OutputTermClassifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every sliding decision for audits of the human oversight: its input values, the decided term and the
+ * defuzzified value of every output variable, and the fired rules with their degrees of support.
+ * <p>
+ * The request threads only copy these values into a slot of a lock-free {@link DecisionAuditRingBuffer}. A single
+ * writer thread drains the buffer in batches into the memory-mapped segment files of a
+ * {@link DecisionAuditSegmentWriter}, and forces them to the disk at the configured interval. When the buffer is full,
+ * the request waits for the writer thread or the decision is dropped, depending on the overflow strategy. If the
+ * audit log is disabled, recording a decision costs one check of a field.
+ * <p>
+ * The metrics {@code sliding.decision.audit.records} and {@code sliding.decision.audit.dropped} count the written and
+ * the dropped decisions, {@code sliding.decision.audit.pending} is the number of decisions waiting in the buffer.
+ */
+@Service
+public class DecisionAuditLog {
+    private static final Logger logger = LogManager.getLogger(DecisionAuditLog.class);
+    /**
+     * The maximum number of decisions the writer thread appends before it checks whether it has to force them.
+     */
+    private static final int WRITE_BATCH_SIZE = 4_096;
+    /**
+     * How long the writer thread sleeps when the buffer is empty.
+     */
+    private static final long IDLE_NANOSECONDS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCKED_NANOSECONDS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    private final boolean enabled;
+    private final boolean dropWhenFull;
+    private final DecisionAuditRingBuffer ringBuffer;
+    private final DecisionAuditSegmentWriter segmentWriter;
+    private final long forceIntervalNanos;
+    private final Counter writtenRecordsCounter;
+    private final Counter droppedRecordsCounter;
+    private final Thread writerThread;
+    private volatile boolean running;
+    /**
+     * Whether the latest decision could not be written, so that a failing disk is logged once and not per decision.
+     */
+    private boolean failing;
+
+    public DecisionAuditLog(ApplicationScenarioConfiguration applicationScenarioConfiguration, MeterRegistry meterRegistry) {
+        ApplicationScenarioConfiguration.AuditLog auditLog = applicationScenarioConfiguration.getAuditLog();
+        enabled = auditLog.isEnabled();
+        if (!enabled) {
+            dropWhenFull = false;
+            ringBuffer = null;
+            segmentWriter = null;
+            forceIntervalNanos = 0;
+            writtenRecordsCounter = null;
+            droppedRecordsCounter = null;
+            writerThread = null;
+            return;
+        }
+        dropWhenFull = auditLog.getOverflowStrategy() == ApplicationScenarioConfiguration.AuditLog.OverflowStrategy.DROP;
+        ringBuffer = new DecisionAuditRingBuffer(auditLog.getRingBufferCapacity());
+        segmentWriter = new DecisionAuditSegmentWriter(Path.of(auditLog.getDirectory()), auditLog.getSegmentSize().toBytes(),
+                auditLog.getSegmentDuration(), auditLog.getRetention(), Clock.systemUTC());
+        forceIntervalNanos = auditLog.getForceInterval().toNanos();
+        writtenRecordsCounter = Counter.builder("sliding.decision.audit.records")
+                .description("Number of sliding decisions written to the audit log")
+                .register(meterRegistry);
+        droppedRecordsCounter = Counter.builder("sliding.decision.audit.dropped")
+                .description("Number of sliding decisions that were not recorded, because the audit ring buffer was full or writing failed")
+                .register(meterRegistry);
+        Gauge.builder("sliding.decision.audit.pending", ringBuffer, DecisionAuditRingBuffer::getSize)
+                .description("Number of sliding decisions waiting in the audit ring buffer")
+                .register(meterRegistry);
+
+        logger.info("Recording all sliding decisions in the audit log " + Path.of(auditLog.getDirectory()).toAbsolutePath()
+                + " (ring buffer of " + ringBuffer.getCapacity() + " decisions, " + auditLog.getOverflowStrategy() + " when full)");
+        running = true;
+        writerThread = new Thread(this::writeRecords, "decision-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a decision whose output values and fired rules are unknown, e.g. one from the lookup table or the cache.
+     *
+     * @param inputValues                      the input values in the order of the input variables of the rule set.
+     * @param decisionResultPerOutputParameter the decided term by output variable name.
+     */
+    public void recordDecision(RuleSet ruleSet, DecisionAuditRecord.Source source, double[] inputValues,
+                               Map<String, String> decisionResultPerOutputParameter) {
+        if (!enabled) {
+            return;
+        }
+        DecisionAuditRecord record = claim(ruleSet, source);
+        if (record != null) {
+            try {
+                record.setInputValues(inputValues);
+                record.setOutputTerms(decisionResultPerOutputParameter);
+            } finally {
+                ringBuffer.publish(record);
+            }
+        }
+    }
+
+    /**
+     * Records the decision that the function block has just evaluated.
+     *
+     * @param inputValues the input values in the order of the input variables of the rule set.
+     */
+    public void recordEvaluation(RuleSet ruleSet, double[] inputValues, FunctionBlock functionBlock) {
+        if (!enabled) {
+            return;
+        }
+        DecisionAuditRecord record = claim(ruleSet, DecisionAuditRecord.Source.RULE_ENGINE);
+        if (record != null) {
+            try {
+                record.setInputValues(inputValues);
+                OutputTermClassifier outputTermClassifier = ruleSet.getOutputTermClassifier();
+                for (int outputVariable = 0; outputVariable < outputTermClassifier.getNumberOfOutputVariables(); outputVariable++) {
+                    record.setOutputValue(outputVariable, functionBlock.getVariable(
+                            outputTermClassifier.getOutputVariableName(outputVariable)).getLatestDefuzzifiedValue());
+                }
+                int rule = 0;
+                for (RuleBlock ruleBlock : functionBlock.getRuleBlocks().values()) {
+                    for (Rule ruleOfBlock : ruleBlock.getRules()) {
+                        record.addRule(rule++, ruleOfBlock.getDegreeOfSupport());
+                    }
+                }
+            } finally {
+                ringBuffer.publish(record);
+            }
+        }
+    }
+
+    /**
+     * Records the decision that the compiled fuzzy inference system has just evaluated in the working memory.
+     */
+    public void recordEvaluation(RuleSet ruleSet, DecisionAuditRecord.Source source,
+                                 CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem, CompiledEvaluationState evaluationState) {
+        if (!enabled) {
+            return;
+        }
+        DecisionAuditRecord record = claim(ruleSet, source);
+        if (record != null) {
+            try {
+                for (int inputVariable = 0; inputVariable < compiledFuzzyInferenceSystem.getNumberOfInputVariables(); inputVariable++) {
+                    record.setInputValue(inputVariable, evaluationState.getInputValue(inputVariable));
+                }
+                for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+                    record.setOutputValue(outputVariable, evaluationState.getOutputValue(outputVariable),
+                            evaluationState.getWinningOutputTerm(outputVariable) - compiledFuzzyInferenceSystem.getOutputTermsStart(outputVariable));
+                }
+                for (int rule = 0; rule < compiledFuzzyInferenceSystem.getNumberOfRules(); rule++) {
+                    record.addRule(rule, evaluationState.getDegreeOfSupport(rule));
+                }
+            } finally {
+                ringBuffer.publish(record);
+            }
+        }
+    }
+
+    /**
+     * @return the record of a claimed slot, or null if the buffer is full and decisions are dropped then.
+     */
+    private DecisionAuditRecord claim(RuleSet ruleSet, DecisionAuditRecord.Source source) {
+        long timestampMillis = System.currentTimeMillis();
+        DecisionAuditRecord record = ringBuffer.tryClaim();
+        while (record == null) {
+            if (dropWhenFull || !running) {
+                droppedRecordsCounter.increment();
+                return null;
+            }
+            LockSupport.parkNanos(BLOCKED_NANOSECONDS);
+            record = ringBuffer.tryClaim();
+        }
+        record.start(ruleSet, source, timestampMillis);
+        return record;
+    }
+
+    private void writeRecords() {
+        long lastForceNanoTime = System.nanoTime();
+        boolean stopping = false;
+        while (true) {
+            int drainedRecords = ringBuffer.drain(this::writeRecord, WRITE_BATCH_SIZE);
+            if (System.nanoTime() - lastForceNanoTime >= forceIntervalNanos) {
+                segmentWriter.force();
+                lastForceNanoTime = System.nanoTime();
+            }
+            if (drainedRecords == 0) {
+                if (stopping) {
+                    break;
+                }
+                // the last drain after the requests stopped, so no claimed decision is left behind
+                stopping = !running;
+                if (!stopping) {
+                    LockSupport.parkNanos(IDLE_NANOSECONDS);
+                }
+            }
+        }
+        segmentWriter.close();
+    }
+
+    private void writeRecord(DecisionAuditRecord record) {
+        try {
+            segmentWriter.write(record);
+            writtenRecordsCounter.increment();
+            if (failing) {
+                failing = false;
+                logger.info("Writing the audit log again");
+            }
+        } catch (IOException | RuntimeException exception) {
+            droppedRecordsCounter.increment();
+            if (!failing) {
+                failing = true;
+                logger.error("Failed to write a sliding decision to the audit log, further failures are only counted", exception);
+            }
+        }
+    }
+
+    /**
+     * Writes the decisions that are still waiting in the buffer and forces them to the disk.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (enabled && running) {
+            running = false;
+            writerThread.join();
+            logger.info("Closed the audit log");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.engine.OutputTermClassifier;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * One sliding decision in a slot of the {@link DecisionAuditRingBuffer}: the input values, the decided term and the
+ * defuzzified value of every output variable, and the fired rules with their degrees of support. The arrays of a slot
+ * are reused for all decisions that pass through it and only grow if a rule set needs more room.
+ * <p>
+ * The variables, terms and rules are indexed like in the rule set: the input variables in the order of its
+ * {@link eu.ai4work.sws.engine.InputSchema}, the output variables and terms in the order of its
+ * {@link OutputTermClassifier}, and the rules in the order of the rule blocks of its function block.
+ */
+public final class DecisionAuditRecord {
+
+    /**
+     * Where the decision came from, which determines what is known about it.
+     */
+    public enum Source {
+        /**
+         * Evaluated by the rule engine, with output values and fired rules.
+         */
+        RULE_ENGINE,
+        /**
+         * Evaluated in a decision session, with output values and fired rules.
+         */
+        DECISION_SESSION,
+        /**
+         * Read from the decision lookup table, without output values and fired rules.
+         */
+        LOOKUP_TABLE,
+        /**
+         * Read from the sliding decision cache, without output values and fired rules. The input values are the ones of
+         * the request, not the quantized ones the cached decision was evaluated for.
+         */
+        CACHE
+    }
+
+    /**
+     * The position in the ring buffer this slot was claimed for.
+     */
+    long position;
+    RuleSet ruleSet;
+    Source source;
+    long timestampMillis;
+    double[] inputValues = new double[0];
+    int[] outputTerms = new int[0];
+    double[] outputValues = new double[0];
+    int numberOfFiredRules;
+    int[] firedRules = new int[8];
+    double[] degreesOfSupport = new double[8];
+
+    DecisionAuditRecord() {
+    }
+
+    /**
+     * Starts a new decision in this slot, with all decided terms and output values unknown and no fired rules.
+     */
+    public void start(RuleSet ruleSet, Source source, long timestampMillis) {
+        this.ruleSet = ruleSet;
+        this.source = source;
+        this.timestampMillis = timestampMillis;
+        int numberOfInputVariables = ruleSet.getInputSchema().getNumberOfInputVariables();
+        if (inputValues.length != numberOfInputVariables) {
+            inputValues = new double[numberOfInputVariables];
+        }
+        int numberOfOutputVariables = ruleSet.getOutputTermClassifier().getNumberOfOutputVariables();
+        if (outputTerms.length != numberOfOutputVariables) {
+            outputTerms = new int[numberOfOutputVariables];
+            outputValues = new double[numberOfOutputVariables];
+        }
+        Arrays.fill(outputTerms, -1);
+        Arrays.fill(outputValues, Double.NaN);
+        numberOfFiredRules = 0;
+    }
+
+    /**
+     * Drops the reference to the rule set once the record is consumed, so the slot does not keep it alive.
+     */
+    void release() {
+        ruleSet = null;
+    }
+
+    public void setInputValues(double[] inputValues) {
+        System.arraycopy(inputValues, 0, this.inputValues, 0, this.inputValues.length);
+    }
+
+    public void setInputValue(int inputVariable, double value) {
+        inputValues[inputVariable] = value;
+    }
+
+    /**
+     * Sets the defuzzified value of an output variable and its decided term.
+     */
+    public void setOutputValue(int outputVariable, double value) {
+        outputValues[outputVariable] = value;
+        outputTerms[outputVariable] = ruleSet.getOutputTermClassifier().getWinningTerm(outputVariable, value);
+    }
+
+    /**
+     * Sets the defuzzified value of an output variable and its decided term, which was already selected for the value.
+     *
+     * @param outputTerm the index of the decided term among the terms of the output variable.
+     */
+    public void setOutputValue(int outputVariable, double value, int outputTerm) {
+        outputValues[outputVariable] = value;
+        outputTerms[outputVariable] = outputTerm;
+    }
+
+    /**
+     * Sets the decided terms of all output variables by their names, for decisions without output values.
+     */
+    public void setOutputTerms(Map<String, String> decisionResultPerOutputParameter) {
+        OutputTermClassifier outputTermClassifier = ruleSet.getOutputTermClassifier();
+        for (int outputVariable = 0; outputVariable < outputTerms.length; outputVariable++) {
+            outputTerms[outputVariable] = outputTermClassifier.getTermIndex(outputVariable,
+                    decisionResultPerOutputParameter.get(outputTermClassifier.getOutputVariableName(outputVariable)));
+        }
+    }
+
+    /**
+     * Adds the rule if it fired, i.e. its degree of support is greater than zero.
+     */
+    public void addRule(int rule, double degreeOfSupport) {
+        if (degreeOfSupport > 0) {
+            if (numberOfFiredRules == firedRules.length) {
+                firedRules = Arrays.copyOf(firedRules, 2 * numberOfFiredRules);
+                degreesOfSupport = Arrays.copyOf(degreesOfSupport, 2 * numberOfFiredRules);
+            }
+            firedRules[numberOfFiredRules] = rule;
+            degreesOfSupport[numberOfFiredRules] = degreeOfSupport;
+            numberOfFiredRules++;
+        }
+    }
+}
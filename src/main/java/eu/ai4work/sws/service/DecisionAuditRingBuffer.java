@@ -0,0 +1,110 @@
+package eu.ai4work.sws.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free ring buffer of preallocated {@link DecisionAuditRecord}s with many producers (the request
+ * threads) and a single consumer (the audit writer thread).
+ * <p>
+ * A producer claims the next free slot with a compare-and-set on the claim position, fills the record of the slot and
+ * publishes it; the slots are reused, so recording a decision allocates nothing. Each slot has a sequence number that
+ * tells whether it is free for the position that claims it ({@code position}) or published for the consumer
+ * ({@code position + 1}). The consumer frees a slot for the claim one round later ({@code position + capacity}).
+ */
+public final class DecisionAuditRingBuffer {
+    private final DecisionAuditRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong claimPosition = new AtomicLong();
+    /**
+     * Only written by the consumer thread.
+     */
+    private volatile long consumePosition;
+
+    /**
+     * @param capacity the number of slots, rounded up to the next power of two.
+     */
+    public DecisionAuditRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("The capacity of the audit ring buffer must be between 1 and 2^30, not " + capacity);
+        }
+        int slotCount = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        slots = new DecisionAuditRecord[slotCount];
+        sequences = new AtomicLongArray(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            slots[slot] = new DecisionAuditRecord();
+            sequences.set(slot, slot);
+        }
+        mask = slotCount - 1;
+    }
+
+    /**
+     * Claims the next slot. The caller must fill its record and {@link #publish(DecisionAuditRecord) publish} it,
+     * otherwise the consumer stops at this slot.
+     *
+     * @return the record of the claimed slot, or null if the buffer is full.
+     */
+    public DecisionAuditRecord tryClaim() {
+        while (true) {
+            long position = claimPosition.get();
+            int slot = (int) position & mask;
+            long difference = sequences.getAcquire(slot) - position;
+            if (difference == 0) {
+                if (claimPosition.compareAndSet(position, position + 1)) {
+                    DecisionAuditRecord record = slots[slot];
+                    record.position = position;
+                    return record;
+                }
+            } else if (difference < 0) {
+                return null; // the slot is still held by the previous round
+            }
+            // otherwise another producer claimed the position in the meantime
+        }
+    }
+
+    /**
+     * Hands the filled record of a claimed slot over to the consumer.
+     */
+    public void publish(DecisionAuditRecord record) {
+        sequences.setRelease((int) record.position & mask, record.position + 1);
+    }
+
+    /**
+     * Passes the published records in the order of their claims to the consumer, up to the first slot that is not
+     * published yet. Only called by the single consumer thread.
+     *
+     * @return the number of consumed records.
+     */
+    public int drain(Consumer<DecisionAuditRecord> consumer, int maximumRecords) {
+        int consumedRecords = 0;
+        while (consumedRecords < maximumRecords) {
+            int slot = (int) consumePosition & mask;
+            if (sequences.getAcquire(slot) != consumePosition + 1) {
+                break;
+            }
+            DecisionAuditRecord record = slots[slot];
+            try {
+                consumer.accept(record);
+            } finally {
+                record.release();
+                sequences.setRelease(slot, consumePosition + slots.length);
+                consumePosition++;
+                consumedRecords++;
+            }
+        }
+        return consumedRecords;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return the approximate number of claimed slots that were not consumed yet.
+     */
+    public long getSize() {
+        return Math.max(0, claimPosition.get() - consumePosition);
+    }
+}
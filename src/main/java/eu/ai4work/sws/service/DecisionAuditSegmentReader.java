@@ -0,0 +1,240 @@
+package eu.ai4work.sws.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Scans the segment files of the audit log (see {@link DecisionAuditSegmentWriter} for their format) for the decisions
+ * that match a {@link Query}.
+ * <p>
+ * Segments that ended before or started after the queried time window are not opened at all, as the name of each
+ * segment file holds its start timestamp and a segment ends where the next one starts. The other segments are
+ * memory-mapped and scanned record by record; the timestamp, the scenario and the decided term of a decision are
+ * compared at their fixed offsets before anything else of it is decoded. The segment that is currently written can be
+ * scanned as well, up to the last complete record.
+ */
+public final class DecisionAuditSegmentReader {
+    private static final Pattern SEGMENT_FILE_NAME = Pattern.compile("decisions-(\\d{20})\\.audit");
+    /**
+     * Decisions are written shortly after they were taken, so a segment may start with decisions from before its start
+     * timestamp. A segment that starts this much after the queried time window is not scanned.
+     */
+    private static final long MAXIMUM_WRITE_DELAY_MILLIS = 60_000;
+
+    private DecisionAuditSegmentReader() {
+    }
+
+    /**
+     * Selects decisions, every criterion that is null matches all decisions.
+     *
+     * @param from             the earliest timestamp (inclusive).
+     * @param to               the latest timestamp (exclusive).
+     * @param scenarioName     the scenario of the decisions.
+     * @param outputVariableName the output variable whose decided term is selected, together with {@code termName}.
+     * @param termName         the decided term of the output variable.
+     */
+    public record Query(Instant from, Instant to, String scenarioName, String outputVariableName, String termName) {
+    }
+
+    /**
+     * A decision read from the audit log. Output values that are unknown (see {@link DecisionAuditRecord.Source}) are
+     * NaN, and the fired rules are empty then.
+     *
+     * @param inputValues  the input values by input variable name.
+     * @param decidedTerms the decided term by output variable name.
+     * @param outputValues the defuzzified value by output variable name.
+     * @param firedRules   the degree of support of every fired rule by rule name, in the order of the rule blocks.
+     */
+    public record AuditedDecision(Instant timestamp, String scenarioName, String ruleSetVersion, DecisionAuditRecord.Source source,
+                                  Map<String, Double> inputValues, Map<String, String> decidedTerms,
+                                  Map<String, Double> outputValues, Map<String, Double> firedRules) {
+    }
+
+    /**
+     * Passes all decisions of the audit log that match the query to the consumer, in the order they were written.
+     *
+     * @param directory the directory of the segment files.
+     * @return the number of matching decisions.
+     * @throws IOException if a segment file cannot be read or is not a segment of the audit log.
+     */
+    public static long read(Path directory, Query query, Consumer<AuditedDecision> consumer) throws IOException {
+        List<Path> segmentFiles = listSegmentFiles(directory);
+        long fromMillis = query.from() == null ? Long.MIN_VALUE : query.from().toEpochMilli();
+        long toMillis = query.to() == null ? Long.MAX_VALUE : query.to().toEpochMilli();
+        long numberOfDecisions = 0;
+        for (int segmentFile = 0; segmentFile < segmentFiles.size(); segmentFile++) {
+            boolean endsBeforeFrom = segmentFile + 1 < segmentFiles.size()
+                    && getSegmentStartMillis(segmentFiles.get(segmentFile + 1)) <= fromMillis;
+            boolean startsAfterTo = toMillis != Long.MAX_VALUE
+                    && getSegmentStartMillis(segmentFiles.get(segmentFile)) >= toMillis + MAXIMUM_WRITE_DELAY_MILLIS;
+            if (!endsBeforeFrom && !startsAfterTo) {
+                numberOfDecisions += readSegment(segmentFiles.get(segmentFile), query, fromMillis, toMillis, consumer);
+            }
+        }
+        return numberOfDecisions;
+    }
+
+    /**
+     * @return the segment files of the directory, in the order of their start timestamps.
+     */
+    public static List<Path> listSegmentFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(file -> SEGMENT_FILE_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    static long getSegmentStartMillis(Path segmentFile) {
+        Matcher matcher = SEGMENT_FILE_NAME.matcher(segmentFile.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(segmentFile + " is not an audit segment file");
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    static String getSegmentFileName(long startMillis) {
+        return String.format("decisions-%020d.audit", startMillis);
+    }
+
+    private static long readSegment(Path segmentFile, Query query, long fromMillis, long toMillis,
+                                    Consumer<AuditedDecision> consumer) throws IOException {
+        ByteBuffer segment;
+        try (FileChannel fileChannel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+            segment = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (segment.limit() < DecisionAuditSegmentWriter.SEGMENT_HEADER_LENGTH
+                || segment.getInt(0) != DecisionAuditSegmentWriter.SEGMENT_MAGIC
+                || segment.getInt(4) != DecisionAuditSegmentWriter.SEGMENT_FORMAT_VERSION) {
+            throw new IOException(segmentFile + " is not an audit segment of format version " + DecisionAuditSegmentWriter.SEGMENT_FORMAT_VERSION);
+        }
+
+        List<Schema> schemas = new ArrayList<>();
+        long numberOfDecisions = 0;
+        int position = DecisionAuditSegmentWriter.SEGMENT_HEADER_LENGTH;
+        while (position + 4 <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + 4 + length > segment.limit()) {
+                break; // the end of the segment, or of what was written so far
+            }
+            int recordStart = position + 4;
+            position = recordStart + length;
+            if (segment.get(recordStart) == DecisionAuditSegmentWriter.SCHEMA_RECORD) {
+                schemas.add(Schema.read(segment.slice(recordStart + 1, length - 1).order(ByteOrder.LITTLE_ENDIAN), query));
+                continue;
+            }
+            long timestampMillis = segment.getLong(recordStart + 1);
+            Schema schema = schemas.get(segment.getInt(recordStart + 9));
+            if (timestampMillis < fromMillis || timestampMillis >= toMillis || !schema.matchesScenario()) {
+                continue;
+            }
+            int outputsStart = recordStart + 14 + schema.inputVariableNames().size() * Double.BYTES;
+            if (schema.selectedOutputVariable() >= 0 && Short.toUnsignedInt(
+                    segment.getShort(outputsStart + schema.selectedOutputVariable() * (Short.BYTES + Double.BYTES))) != schema.selectedTerm()) {
+                continue;
+            }
+            consumer.accept(readDecision(segment, recordStart, timestampMillis, schema));
+            numberOfDecisions++;
+        }
+        return numberOfDecisions;
+    }
+
+    private static AuditedDecision readDecision(ByteBuffer segment, int recordStart, long timestampMillis, Schema schema) {
+        ByteBuffer decision = segment.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(recordStart + 13);
+        DecisionAuditRecord.Source source = DecisionAuditRecord.Source.values()[decision.get()];
+        Map<String, Double> inputValues = new LinkedHashMap<>();
+        for (String inputVariableName : schema.inputVariableNames()) {
+            inputValues.put(inputVariableName, decision.getDouble());
+        }
+        Map<String, String> decidedTerms = new LinkedHashMap<>();
+        Map<String, Double> outputValues = new LinkedHashMap<>();
+        for (int outputVariable = 0; outputVariable < schema.outputVariableNames().size(); outputVariable++) {
+            int term = Short.toUnsignedInt(decision.getShort());
+            List<String> termNames = schema.outputTermNames().get(outputVariable);
+            decidedTerms.put(schema.outputVariableNames().get(outputVariable), term < termNames.size() ? termNames.get(term) : null);
+            outputValues.put(schema.outputVariableNames().get(outputVariable), decision.getDouble());
+        }
+        Map<String, Double> firedRules = new LinkedHashMap<>();
+        int numberOfFiredRules = Short.toUnsignedInt(decision.getShort());
+        for (int firedRule = 0; firedRule < numberOfFiredRules; firedRule++) {
+            String ruleName = schema.ruleNames().get(Short.toUnsignedInt(decision.getShort()));
+            firedRules.put(ruleName, (double) decision.getFloat());
+        }
+        return new AuditedDecision(Instant.ofEpochMilli(timestampMillis), schema.scenarioName(), schema.ruleSetVersion(),
+                source, inputValues, decidedTerms, outputValues, firedRules);
+    }
+
+    /**
+     * The names of a rule set, and how its decisions are selected by the query.
+     *
+     * @param selectedOutputVariable the output variable whose term is queried, or -1 if no term is queried.
+     * @param selectedTerm           the queried term, or -1 if the output variable has no such term (so that no
+     *                               decision matches).
+     */
+    private record Schema(String scenarioName, String ruleSetVersion, List<String> inputVariableNames,
+                          List<String> outputVariableNames, List<List<String>> outputTermNames, List<String> ruleNames,
+                          boolean matchesScenario, int selectedOutputVariable, int selectedTerm) {
+
+        static Schema read(ByteBuffer record, Query query) {
+            record.getInt(); // the schema number, which is the index of the schema in the segment
+            String scenarioName = readString(record);
+            String ruleSetVersion = readString(record);
+            List<String> inputVariableNames = readStrings(record);
+            int numberOfOutputVariables = Short.toUnsignedInt(record.getShort());
+            List<String> outputVariableNames = new ArrayList<>();
+            List<List<String>> outputTermNames = new ArrayList<>();
+            for (int outputVariable = 0; outputVariable < numberOfOutputVariables; outputVariable++) {
+                outputVariableNames.add(readString(record));
+                outputTermNames.add(readStrings(record));
+            }
+            List<String> ruleNames = readStrings(record);
+
+            boolean matchesScenario = query.scenarioName() == null || query.scenarioName().equals(scenarioName);
+            int selectedOutputVariable = -1;
+            int selectedTerm = -1;
+            if (query.outputVariableName() != null) {
+                selectedOutputVariable = outputVariableNames.indexOf(query.outputVariableName());
+                if (selectedOutputVariable < 0) {
+                    matchesScenario = false; // the rule set does not decide on the queried output variable
+                } else {
+                    selectedTerm = outputTermNames.get(selectedOutputVariable).indexOf(query.termName());
+                }
+            }
+            return new Schema(scenarioName, ruleSetVersion, inputVariableNames, outputVariableNames, outputTermNames,
+                    ruleNames, matchesScenario, selectedOutputVariable, selectedTerm);
+        }
+
+        private static List<String> readStrings(ByteBuffer record) {
+            int numberOfStrings = Short.toUnsignedInt(record.getShort());
+            List<String> strings = new ArrayList<>(numberOfStrings);
+            for (int string = 0; string < numberOfStrings; string++) {
+                strings.add(readString(record));
+            }
+            return strings;
+        }
+
+        private static String readString(ByteBuffer record) {
+            byte[] bytes = new byte[Short.toUnsignedInt(record.getShort())];
+            record.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.engine.InputSchema;
+import eu.ai4work.sws.engine.OutputTermClassifier;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends {@link DecisionAuditRecord}s to memory-mapped segment files of the audit log. Not thread-safe, it is only
+ * used by the audit writer thread.
+ * <p>
+ * A segment file ({@code decisions-<start timestamp in milliseconds>.audit}) is mapped with its full size up front,
+ * so appending a record is a copy into memory; the operating system writes the pages back to the file, and
+ * {@link #force()} waits until it has. Pages that were never written stay holes in the file. A new segment is started
+ * when the current one is full or older than the segment duration, and whenever the application starts. Segments that
+ * ended longer than the retention ago are deleted when a new segment is started.
+ * <p>
+ * The format is little-endian. A segment starts with a header ({@code "SWSA"}, the format version and the start
+ * timestamp), followed by records, each of them prefixed by its length (without the prefix); a length of 0 ends the
+ * segment. The length is written after the record, so a reader never sees a record that is only partly written.
+ * Records are either
+ * <ul>
+ *     <li>a schema ({@code 1}, the schema number, the scenario name, the rule set version, the input variable names,
+ *     the output variable names with their term names, and the rule names), written once per rule set and segment
+ *     before its first decision, or</li>
+ *     <li>a decision ({@code 2}, the timestamp in milliseconds, the schema number, the {@link DecisionAuditRecord.Source},
+ *     the input values, the decided term (unsigned 16-bit, {@code 0xFFFF} if unknown) and the defuzzified value (NaN
+ *     if unknown) of every output variable, and the fired rules with their degrees of support as 32-bit floats).</li>
+ * </ul>
+ * Strings are written as their UTF-8 length (unsigned 16-bit) and bytes, counts as unsigned 16-bit numbers.
+ */
+public final class DecisionAuditSegmentWriter implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(DecisionAuditSegmentWriter.class);
+    static final int SEGMENT_MAGIC = 0x53575341; // "SWSA"
+    static final int SEGMENT_FORMAT_VERSION = 1;
+    static final int SEGMENT_HEADER_LENGTH = 16;
+    static final byte SCHEMA_RECORD = 1;
+    static final byte DECISION_RECORD = 2;
+    private static final int MINIMUM_SEGMENT_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long segmentDurationMillis;
+    private final long retentionMillis;
+    private final Clock clock;
+    /**
+     * The schema number of each rule set in the current segment.
+     */
+    private final Map<RuleSet, Integer> schemaNumbers = new IdentityHashMap<>();
+    private MappedByteBuffer segment;
+    private long segmentStartMillis;
+    private boolean written;
+
+    /**
+     * @param directory       the directory of the segment files, created if it does not exist.
+     * @param segmentSize     the size of a segment file in bytes, at most 2 GB.
+     * @param segmentDuration a new segment is started once the current one is older than this.
+     * @param retention       segments that ended longer than this ago are deleted.
+     * @param clock           the clock of the segment start timestamps and the retention.
+     */
+    public DecisionAuditSegmentWriter(Path directory, long segmentSize, Duration segmentDuration, Duration retention, Clock clock) {
+        if (segmentSize < MINIMUM_SEGMENT_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The audit segment size must be between " + MINIMUM_SEGMENT_SIZE + " bytes and 2 GB, not " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.segmentDurationMillis = segmentDuration.toMillis();
+        this.retentionMillis = retention.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Appends the decision of the record, preceded by the schema of its rule set if the current segment does not have
+     * it yet.
+     *
+     * @throws IOException if a segment file cannot be created or mapped.
+     */
+    public void write(DecisionAuditRecord record) throws IOException {
+        long currentTimeMillis = clock.millis();
+        if (segment == null || currentTimeMillis - segmentStartMillis >= segmentDurationMillis) {
+            startSegment(currentTimeMillis);
+        }
+        Integer schemaNumber = schemaNumbers.get(record.ruleSet);
+        Schema schema = schemaNumber == null ? Schema.of(record.ruleSet) : null;
+        int decisionLength = 4 + getDecisionLength(record);
+        if ((schema == null ? 0 : 4 + schema.getLength()) + decisionLength > segment.remaining()) {
+            startSegment(currentTimeMillis);
+            schemaNumber = null;
+            schema = Schema.of(record.ruleSet);
+            if (4 + schema.getLength() + decisionLength > segment.remaining()) {
+                throw new IOException("The audit record of rule set " + record.ruleSet.getVersion() + " does not fit into a segment of " + segmentSize + " bytes");
+            }
+        }
+        if (schemaNumber == null) {
+            schemaNumber = schemaNumbers.size();
+            schemaNumbers.put(record.ruleSet, schemaNumber);
+            writeSchema(schemaNumber, schema);
+        }
+        writeDecision(schemaNumber, record);
+        written = true;
+    }
+
+    /**
+     * Waits until the records written so far are stored in the segment file.
+     */
+    public void force() {
+        if (written) {
+            segment.force();
+            written = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (segment != null) {
+            force();
+            segment = null;
+            schemaNumbers.clear();
+        }
+    }
+
+    private void startSegment(long currentTimeMillis) throws IOException {
+        close();
+        Files.createDirectories(directory);
+        // the start timestamps of the segments are unique and ascending, even if two segments start in one millisecond
+        List<Path> segmentFiles = DecisionAuditSegmentReader.listSegmentFiles(directory);
+        long startMillis = currentTimeMillis;
+        if (!segmentFiles.isEmpty()) {
+            startMillis = Math.max(startMillis, DecisionAuditSegmentReader.getSegmentStartMillis(segmentFiles.get(segmentFiles.size() - 1)) + 1);
+        }
+        Path segmentFile = directory.resolve(DecisionAuditSegmentReader.getSegmentFileName(startMillis));
+        try (FileChannel fileChannel = FileChannel.open(segmentFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segment.putInt(SEGMENT_MAGIC).putInt(SEGMENT_FORMAT_VERSION).putLong(startMillis);
+        segmentStartMillis = startMillis;
+        logger.info("Started audit segment " + segmentFile);
+
+        segmentFiles.add(segmentFile);
+        deleteExpiredSegments(segmentFiles, currentTimeMillis);
+    }
+
+    /**
+     * Deletes the segments whose successor started longer than the retention ago.
+     */
+    private void deleteExpiredSegments(List<Path> segmentFiles, long currentTimeMillis) throws IOException {
+        for (int segmentFile = 0; segmentFile + 1 < segmentFiles.size(); segmentFile++) {
+            long endMillis = DecisionAuditSegmentReader.getSegmentStartMillis(segmentFiles.get(segmentFile + 1));
+            if (currentTimeMillis - endMillis <= retentionMillis) {
+                break;
+            }
+            Files.deleteIfExists(segmentFiles.get(segmentFile));
+            logger.info("Deleted audit segment " + segmentFiles.get(segmentFile) + " after its retention");
+        }
+    }
+
+    private static int getDecisionLength(DecisionAuditRecord record) {
+        return 1 + Long.BYTES + Integer.BYTES + 1 + record.inputValues.length * Double.BYTES
+                + record.outputTerms.length * (Short.BYTES + Double.BYTES)
+                + Short.BYTES + record.numberOfFiredRules * (Short.BYTES + Float.BYTES);
+    }
+
+    private void writeDecision(int schemaNumber, DecisionAuditRecord record) {
+        int start = segment.position();
+        segment.position(start + 4);
+        segment.put(DECISION_RECORD).putLong(record.timestampMillis).putInt(schemaNumber).put((byte) record.source.ordinal());
+        for (double inputValue : record.inputValues) {
+            segment.putDouble(inputValue);
+        }
+        for (int outputVariable = 0; outputVariable < record.outputTerms.length; outputVariable++) {
+            segment.putShort((short) record.outputTerms[outputVariable]).putDouble(record.outputValues[outputVariable]);
+        }
+        segment.putShort((short) record.numberOfFiredRules);
+        for (int firedRule = 0; firedRule < record.numberOfFiredRules; firedRule++) {
+            segment.putShort((short) record.firedRules[firedRule]).putFloat((float) record.degreesOfSupport[firedRule]);
+        }
+        segment.putInt(start, segment.position() - start - 4);
+    }
+
+    private void writeSchema(int schemaNumber, Schema schema) {
+        int start = segment.position();
+        segment.position(start + 4);
+        segment.put(SCHEMA_RECORD).putInt(schemaNumber);
+        putString(schema.scenarioName());
+        putString(schema.ruleSetVersion());
+        putStrings(schema.inputVariableNames());
+        segment.putShort((short) schema.outputVariableNames().size());
+        for (int outputVariable = 0; outputVariable < schema.outputVariableNames().size(); outputVariable++) {
+            putString(schema.outputVariableNames().get(outputVariable));
+            putStrings(schema.outputTermNames().get(outputVariable));
+        }
+        putStrings(schema.ruleNames());
+        segment.putInt(start, segment.position() - start - 4);
+    }
+
+    private void putStrings(List<byte[]> strings) {
+        segment.putShort((short) strings.size());
+        strings.forEach(this::putString);
+    }
+
+    private void putString(byte[] string) {
+        segment.putShort((short) string.length).put(string);
+    }
+
+    /**
+     * The names of a rule set, encoded as UTF-8.
+     */
+    private record Schema(byte[] scenarioName, byte[] ruleSetVersion, List<byte[]> inputVariableNames,
+                          List<byte[]> outputVariableNames, List<List<byte[]>> outputTermNames, List<byte[]> ruleNames) {
+
+        static Schema of(RuleSet ruleSet) {
+            InputSchema inputSchema = ruleSet.getInputSchema();
+            List<byte[]> inputVariableNames = new ArrayList<>();
+            for (int inputVariable = 0; inputVariable < inputSchema.getNumberOfInputVariables(); inputVariable++) {
+                inputVariableNames.add(encode(inputSchema.getInputVariableName(inputVariable)));
+            }
+            OutputTermClassifier outputTermClassifier = ruleSet.getOutputTermClassifier();
+            List<byte[]> outputVariableNames = new ArrayList<>();
+            List<List<byte[]>> outputTermNames = new ArrayList<>();
+            for (int outputVariable = 0; outputVariable < outputTermClassifier.getNumberOfOutputVariables(); outputVariable++) {
+                outputVariableNames.add(encode(outputTermClassifier.getOutputVariableName(outputVariable)));
+                List<byte[]> termNames = new ArrayList<>();
+                for (int term = 0; term < outputTermClassifier.getNumberOfTerms(outputVariable); term++) {
+                    termNames.add(encode(outputTermClassifier.getTermName(outputVariable, term)));
+                }
+                outputTermNames.add(termNames);
+            }
+            List<byte[]> ruleNames = new ArrayList<>();
+            for (RuleBlock ruleBlock : ruleSet.getFunctionBlock().getRuleBlocks().values()) {
+                for (Rule rule : ruleBlock.getRules()) {
+                    ruleNames.add(encode(rule.getName()));
+                }
+            }
+            return new Schema(encode(ruleSet.getScenarioName()), encode(ruleSet.getVersion()), inputVariableNames,
+                    outputVariableNames, outputTermNames, ruleNames);
+        }
+
+        int getLength() {
+            int length = 1 + Integer.BYTES + getLength(scenarioName) + getLength(ruleSetVersion) + getLength(inputVariableNames)
+                    + Short.BYTES + getLength(ruleNames);
+            for (int outputVariable = 0; outputVariable < outputVariableNames.size(); outputVariable++) {
+                length += getLength(outputVariableNames.get(outputVariable)) + getLength(outputTermNames.get(outputVariable));
+            }
+            return length;
+        }
+
+        private static int getLength(List<byte[]> strings) {
+            return Short.BYTES + strings.stream().mapToInt(Schema::getLength).sum();
+        }
+
+        private static int getLength(byte[] string) {
+            return Short.BYTES + string.length;
+        }
+
+        private static byte[] encode(String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("The name '" + string.substring(0, 32) + "...' is too long for the audit log");
+            }
+            return bytes;
+        }
+    }
+}
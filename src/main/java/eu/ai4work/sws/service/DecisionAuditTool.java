@@ -0,0 +1,87 @@
+package eu.ai4work.sws.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Command line tool that exports the decisions of the audit log that match a query as JSON lines, or only counts them,
+ * e.g. all decisions of the last hour that required human approval:
+ * {@code DecisionAuditTool audit --since=PT1H --decided=suggestedApproach=requireHumanApproval}
+ * <p>
+ * Usage: {@code DecisionAuditTool <auditDirectory> [--since=<duration>] [--from=<instant>] [--to=<instant>]
+ * [--scenario=<scenarioName>] [--decided=<outputVariable>=<term>] [--count]}
+ * <p>
+ * The duration and the instants are in ISO-8601 format, e.g. {@code PT1H} and {@code 2024-05-01T08:00:00Z}.
+ */
+public final class DecisionAuditTool {
+
+    private DecisionAuditTool() {
+    }
+
+    public static void main(String[] arguments) throws Exception {
+        if (arguments.length < 1) {
+            System.err.println("Usage: DecisionAuditTool <auditDirectory> [--since=<duration>] [--from=<instant>] [--to=<instant>]"
+                    + " [--scenario=<scenarioName>] [--decided=<outputVariable>=<term>] [--count]");
+            System.exit(1);
+        }
+        Path auditDirectory = Path.of(arguments[0]);
+        Instant from = null;
+        Instant to = null;
+        String scenarioName = null;
+        String outputVariableName = null;
+        String termName = null;
+        boolean countOnly = false;
+        for (int argument = 1; argument < arguments.length; argument++) {
+            String[] nameAndValue = arguments[argument].split("=", 2);
+            switch (nameAndValue[0]) {
+                case "--since" -> from = Instant.now().minus(Duration.parse(nameAndValue[1]));
+                case "--from" -> from = Instant.parse(nameAndValue[1]);
+                case "--to" -> to = Instant.parse(nameAndValue[1]);
+                case "--scenario" -> scenarioName = nameAndValue[1];
+                case "--decided" -> {
+                    String[] outputVariableAndTerm = nameAndValue[1].split("=", 2);
+                    if (outputVariableAndTerm.length != 2) {
+                        throw new IllegalArgumentException("Expected --decided=<outputVariable>=<term>, not " + arguments[argument]);
+                    }
+                    outputVariableName = outputVariableAndTerm[0];
+                    termName = outputVariableAndTerm[1];
+                }
+                case "--count" -> countOnly = true;
+                default -> throw new IllegalArgumentException("Unknown argument " + arguments[argument]);
+            }
+        }
+        DecisionAuditSegmentReader.Query query = new DecisionAuditSegmentReader.Query(from, to, scenarioName, outputVariableName, termName);
+
+        long startTime = System.nanoTime();
+        long numberOfDecisions;
+        if (countOnly) {
+            numberOfDecisions = DecisionAuditSegmentReader.read(auditDirectory, query, decision -> {
+            });
+        } else {
+            ObjectMapper objectMapper = new ObjectMapper()
+                    .registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+                numberOfDecisions = DecisionAuditSegmentReader.read(auditDirectory, query, decision -> {
+                    try {
+                        writer.write(objectMapper.writeValueAsString(decision));
+                        writer.newLine();
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            }
+        }
+        System.err.printf("%d matching decisions, scanned in %.1f ms%n", numberOfDecisions, (System.nanoTime() - startTime) / 1e6);
+    }
+}
@@ -0,0 +1,166 @@
+package eu.ai4work.sws.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics of the decision pipeline of a rule set:
+ * <ul>
+ *     <li>{@code sliding.decision.stage}: the duration of each {@link Stage}, tagged with {@code stage}</li>
+ *     <li>{@code sliding.decision.output.terms}: how often each linguistic term was decided, tagged with {@code output} and {@code term}</li>
+ *     <li>{@code sliding.decision.fired.rules}: how often each rule fired, tagged with {@code rule.block} and {@code rule}</li>
+ *     <li>{@code sliding.decision.rule.degree.of.support}: the degree of support of each fired rule, with fixed buckets</li>
+ * </ul>
+ * All of them are also tagged with the {@code scenario}. The meters are resolved once for the rule set, so recording
+ * a value costs no lookup in the meter registry. The rules are indexed in the order of the rule blocks of the function
+ * block, which is the order of the rules in the compiled fuzzy inference system as well.
+ */
+public class DecisionPipelineMetrics {
+    private static final double[] DEGREE_OF_SUPPORT_BUCKETS = {0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+
+    public enum Stage {
+        VALIDATION("validation"),
+        LOOKUP("lookup"),
+        FIS_CHECKOUT("fis-checkout"),
+        INPUT_BINDING("input-binding"),
+        EVALUATION("evaluation"),
+        OUTPUT_TERM_SELECTION("output-term-selection"),
+        EXPLANATION("explanation"),
+        RESPONSE_MAPPING("response-mapping");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    private final Timer[] stageTimers;
+    private final Map<String, Map<String, Counter>> outputTermCounters;
+    private final Counter[] firedRuleCounters;
+    private final DistributionSummary[] degreeOfSupportSummaries;
+
+    private DecisionPipelineMetrics(Timer[] stageTimers, Map<String, Map<String, Counter>> outputTermCounters,
+                                    Counter[] firedRuleCounters, DistributionSummary[] degreeOfSupportSummaries) {
+        this.stageTimers = stageTimers;
+        this.outputTermCounters = outputTermCounters;
+        this.firedRuleCounters = firedRuleCounters;
+        this.degreeOfSupportSummaries = degreeOfSupportSummaries;
+    }
+
+    /**
+     * Registers the metrics of the rule set of the function block. Meters that exist already (e.g. of a previous
+     * version of the rule set) are reused by the meter registry.
+     */
+    public static DecisionPipelineMetrics register(MeterRegistry meterRegistry, String scenarioName, FunctionBlock functionBlock) {
+        Timer[] stageTimers = new Timer[Stage.values().length];
+        for (Stage stage : Stage.values()) {
+            stageTimers[stage.ordinal()] = Timer.builder("sliding.decision.stage")
+                    .description("Duration of a stage of the sliding decision pipeline")
+                    .tag("scenario", scenarioName)
+                    .tag("stage", stage.tagValue)
+                    .register(meterRegistry);
+        }
+
+        Map<String, Map<String, Counter>> outputTermCounters = new HashMap<>();
+        for (Variable variable : functionBlock.getVariables().values()) {
+            if (variable.isOutput()) {
+                Map<String, Counter> termCounters = new HashMap<>();
+                for (String termName : variable.getLinguisticTerms().keySet()) {
+                    termCounters.put(termName, Counter.builder("sliding.decision.output.terms")
+                            .description("Number of sliding decisions per output linguistic term")
+                            .tag("scenario", scenarioName)
+                            .tag("output", variable.getName())
+                            .tag("term", termName)
+                            .register(meterRegistry));
+                }
+                outputTermCounters.put(variable.getName(), termCounters);
+            }
+        }
+
+        List<Counter> firedRuleCounters = new ArrayList<>();
+        List<DistributionSummary> degreeOfSupportSummaries = new ArrayList<>();
+        for (Map.Entry<String, RuleBlock> ruleBlock : functionBlock.getRuleBlocks().entrySet()) {
+            for (Rule rule : ruleBlock.getValue().getRules()) {
+                firedRuleCounters.add(Counter.builder("sliding.decision.fired.rules")
+                        .description("Number of evaluations in which the rule fired (degree of support greater than zero)")
+                        .tag("scenario", scenarioName)
+                        .tag("rule.block", ruleBlock.getKey())
+                        .tag("rule", rule.getName())
+                        .register(meterRegistry));
+                degreeOfSupportSummaries.add(DistributionSummary.builder("sliding.decision.rule.degree.of.support")
+                        .description("Degree of support of the rule when it fired")
+                        .tag("scenario", scenarioName)
+                        .tag("rule.block", ruleBlock.getKey())
+                        .tag("rule", rule.getName())
+                        .serviceLevelObjectives(DEGREE_OF_SUPPORT_BUCKETS)
+                        .register(meterRegistry));
+            }
+        }
+
+        return new DecisionPipelineMetrics(stageTimers, outputTermCounters,
+                firedRuleCounters.toArray(new Counter[0]), degreeOfSupportSummaries.toArray(new DistributionSummary[0]));
+    }
+
+    /**
+     * Records the duration of a stage that started at the given {@link System#nanoTime()}.
+     */
+    public void recordStage(Stage stage, long startNanoTime) {
+        stageTimers[stage.ordinal()].record(System.nanoTime() - startNanoTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts the decided linguistic term of every output variable.
+     */
+    public void countOutputTerms(Map<String, String> decisionResultPerOutputParameter) {
+        decisionResultPerOutputParameter.forEach(this::countOutputTerm);
+    }
+
+    /**
+     * Counts the decided linguistic term of one output variable.
+     */
+    public void countOutputTerm(String outputVariableName, String termName) {
+        Map<String, Counter> termCounters = outputTermCounters.get(outputVariableName);
+        Counter termCounter = termCounters == null ? null : termCounters.get(termName);
+        if (termCounter != null) {
+            termCounter.increment();
+        }
+    }
+
+    /**
+     * Records the degree of support of a rule, if it fired.
+     *
+     * @param rule            the index of the rule in the order of the rule blocks.
+     * @param degreeOfSupport the degree of support of the rule in the latest evaluation.
+     */
+    public void recordRule(int rule, double degreeOfSupport) {
+        if (degreeOfSupport > 0) {
+            firedRuleCounters[rule].increment();
+            degreeOfSupportSummaries[rule].record(degreeOfSupport);
+        }
+    }
+
+    /**
+     * Records the degrees of support of all rules of the function block after its evaluation.
+     */
+    public void recordRules(FunctionBlock functionBlock) {
+        int rule = 0;
+        for (RuleBlock ruleBlock : functionBlock.getRuleBlocks().values()) {
+            for (Rule ruleOfBlock : ruleBlock.getRules()) {
+                recordRule(rule++, ruleOfBlock.getDegreeOfSupport());
+            }
+        }
+    }
+}
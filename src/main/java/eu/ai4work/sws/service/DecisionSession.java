@@ -0,0 +1,62 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.engine.CompiledEvaluationState;
+import eu.ai4work.sws.engine.InputSchema;
+import eu.ai4work.sws.model.ExplanationLevel;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A stateful decision session of one client: the input values it sent so far and the working memory of their last
+ * evaluation, so that a change of some input values only re-evaluates what depends on them.
+ * <p>
+ * A session must only be used by one request at a time, see {@link DecisionSessionService}.
+ */
+@Getter
+public class DecisionSession {
+    private final String id;
+    private final Scenario scenario;
+    private final ExplanationLevel explanationLevel;
+    /**
+     * The rule set the working memory belongs to, which may no longer be the active one.
+     */
+    private RuleSet ruleSet;
+    private CompiledEvaluationState evaluationState;
+    private double[] inputValues;
+    private boolean[] changedInputVariables;
+
+    DecisionSession(String id, Scenario scenario, ExplanationLevel explanationLevel) {
+        this.id = id;
+        this.scenario = scenario;
+        this.explanationLevel = explanationLevel;
+    }
+
+    /**
+     * Switches the session to the given rule set, with new working memory and without input values.
+     */
+    void useRuleSet(RuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+        this.evaluationState = ruleSet.getCompiledFuzzyInferenceSystem().orElseThrow().newEvaluationState();
+        this.inputValues = new double[ruleSet.getInputSchema().getNumberOfInputVariables()];
+        this.changedInputVariables = new boolean[inputValues.length];
+    }
+
+    /**
+     * Projects the current input values onto the input variables of another rule set, e.g. after a reload: the input
+     * variables that the other rule set no longer has are dropped, and its new input variables are missing.
+     *
+     * @return the current input values by input variable name, of the input variables that both rule sets have.
+     */
+    Map<String, Object> getInputParameters(InputSchema inputSchema) {
+        Map<String, Object> inputParameters = new HashMap<>();
+        for (int inputVariable = 0; inputVariable < inputValues.length; inputVariable++) {
+            String inputVariableName = ruleSet.getInputSchema().getInputVariableName(inputVariable);
+            if (inputSchema.getInputVariableIndex(inputVariableName) >= 0) {
+                inputParameters.put(inputVariableName, inputValues[inputVariable]);
+            }
+        }
+        return inputParameters;
+    }
+}
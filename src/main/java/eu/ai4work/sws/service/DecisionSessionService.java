@@ -0,0 +1,140 @@
+package eu.ai4work.sws.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import eu.ai4work.sws.exception.UnknownDecisionSessionException;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps the open {@link DecisionSession}s. A session is opened with all input values and evaluated fully; afterward,
+ * the client only sends the input values that changed, and only the rules that depend on them are evaluated again.
+ * <p>
+ * The number of sessions is bounded: the least recently used sessions are closed when there are too many, and sessions
+ * that are idle for too long are closed anyway. In a cluster, the sessions get IDs that this node owns, so all requests
+ * of a session are routed to the node that keeps it.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application-scenario-config.decision-sessions", name = "enabled", havingValue = "true")
+public class DecisionSessionService {
+    private static final String CACHE_NAME = "decisionSessions";
+
+    /**
+     * A sliding decision of a session, with the scenario that describes its results.
+     */
+    public record SessionDecision(String sessionId, Scenario scenario, SlidingDecision slidingDecision) {
+    }
+
+    private final RuleEngineService ruleEngineService;
+    private final Optional<ClusterMembership> clusterMembership;
+    private final Cache<String, DecisionSession> sessions;
+
+    public DecisionSessionService(RuleEngineService ruleEngineService, ApplicationScenarioConfiguration applicationScenarioConfiguration,
+                                  MeterRegistry meterRegistry, Optional<ClusterMembership> clusterMembership) {
+        this.ruleEngineService = ruleEngineService;
+        this.clusterMembership = clusterMembership;
+        ApplicationScenarioConfiguration.DecisionSessions decisionSessions = applicationScenarioConfiguration.getDecisionSessions();
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(decisionSessions.getMaximumSessions())
+                .expireAfterAccess(decisionSessions.getIdleTimeout())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, CACHE_NAME);
+    }
+
+    /**
+     * Opens a session and evaluates all rules for its initial input values.
+     *
+     * @param slidingDecisionInputParameters All input parameters of the scenario.
+     * @param explanationLevel               How much of the explanation is computed for each decision of the session.
+     * @return the ID of the new session and its first sliding decision.
+     * @throws InvalidInputParameterException if one or more input parameters are unknown, missing or not a valid number.
+     */
+    public SessionDecision openSession(Scenario scenario, Map<String, Object> slidingDecisionInputParameters,
+                                     ExplanationLevel explanationLevel) {
+        String sessionId = clusterMembership.map(ClusterMembership::createSessionId).orElseGet(() -> UUID.randomUUID().toString());
+        DecisionSession session = new DecisionSession(sessionId, scenario, explanationLevel);
+        SlidingDecision slidingDecision = scenario.getSlidingDecisionTimer().record(() ->
+                evaluateAllRules(session, scenario.getActiveRuleSet().get(), slidingDecisionInputParameters, explanationLevel));
+        sessions.put(session.getId(), session);
+        return new SessionDecision(session.getId(), scenario, slidingDecision);
+    }
+
+    /**
+     * Updates the changed input values of a session and evaluates only what depends on them. If another rule set was
+     * activated since the last decision of the session, all rules of the new rule set are evaluated instead: the input
+     * values of the session are kept for the input variables that the new rule set still has, the others are dropped,
+     * and the input variables that are new in it must be among the changed input parameters.
+     *
+     * @param changedInputParameters The input parameters whose values changed.
+     * @param explanationLevel       How much of the explanation is computed, or null for the level of the session.
+     * @return the new sliding decision of the session.
+     * @throws UnknownDecisionSessionException if there is no open session with this ID.
+     * @throws InvalidInputParameterException  if one or more input parameters are unknown, not a valid number, or new in
+     *                                         the activated rule set but missing; the session then keeps its previous
+     *                                         input values.
+     */
+    public SessionDecision updateSession(String sessionId, Map<String, Object> changedInputParameters, ExplanationLevel explanationLevel) {
+        DecisionSession session = getSession(sessionId);
+        ExplanationLevel resolvedExplanationLevel = explanationLevel != null ? explanationLevel : session.getExplanationLevel();
+        SlidingDecision slidingDecision = session.getScenario().getSlidingDecisionTimer().record(() -> {
+            synchronized (session) {
+                RuleSet activeRuleSet = session.getScenario().getActiveRuleSet().get();
+                if (activeRuleSet != session.getRuleSet()) {
+                    Map<String, Object> inputParameters = session.getInputParameters(activeRuleSet.getInputSchema());
+                    if (changedInputParameters != null) {
+                        inputParameters.putAll(changedInputParameters);
+                    }
+                    return evaluateAllRules(session, activeRuleSet, inputParameters, resolvedExplanationLevel);
+                }
+                activeRuleSet.getInputSchema().readChangedInputValues(changedInputParameters, session.getInputValues(),
+                        session.getChangedInputVariables());
+                session.getEvaluationState().setInputValues(session.getInputValues());
+                return ruleEngineService.applySlidingDecisionRulesOfSession(activeRuleSet, session.getEvaluationState(),
+                        session.getChangedInputVariables(), resolvedExplanationLevel);
+            }
+        });
+        return new SessionDecision(sessionId, session.getScenario(), slidingDecision);
+    }
+
+    /**
+     * Closes a session, if it is still open.
+     */
+    public void closeSession(String sessionId) {
+        sessions.invalidate(sessionId);
+    }
+
+    /**
+     * @throws UnknownDecisionSessionException if there is no open session with this ID.
+     */
+    private DecisionSession getSession(String sessionId) {
+        DecisionSession session = sessions.getIfPresent(sessionId);
+        if (session == null) {
+            throw new UnknownDecisionSessionException("Unknown decision session '" + sessionId + "'. It was closed, or it expired.");
+        }
+        return session;
+    }
+
+    /**
+     * Must be called while no other request uses the session.
+     */
+    private SlidingDecision evaluateAllRules(DecisionSession session, RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters,
+                                             ExplanationLevel explanationLevel) {
+        double[] inputValues = new double[ruleSet.getInputSchema().getNumberOfInputVariables()];
+        ruleSet.getInputSchema().readInputValues(slidingDecisionInputParameters, inputValues);
+        session.useRuleSet(ruleSet);
+        System.arraycopy(inputValues, 0, session.getInputValues(), 0, inputValues.length);
+        session.getEvaluationState().setInputValues(inputValues);
+        return ruleEngineService.applySlidingDecisionRulesOfSession(ruleSet, session.getEvaluationState(), null, explanationLevel);
+    }
+}
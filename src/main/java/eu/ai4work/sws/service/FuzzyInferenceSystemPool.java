@@ -0,0 +1,99 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.engine.FunctionBlockGraph;
+import eu.ai4work.sws.engine.InputSchema;
+import net.sourceforge.jFuzzyLogic.FIS;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds up to a fixed number of independently parsed Fuzzy Inference System (FIS) instances.
+ * <p>
+ * A FIS is stateful (input values, degrees of support and defuzzified values are stored inside it), so it must never
+ * be used by two requests at the same time. Each evaluation checks out one instance, uses it exclusively and returns
+ * it to the pool afterward. Only the initial instances are created with the pool, further ones are created when all
+ * instances are in use, until the pool size is reached; from then on, the caller waits until one becomes available.
+ * The input variables and function blocks of each instance are resolved once, see {@link PooledFuzzyInferenceSystem}.
+ */
+public class FuzzyInferenceSystemPool {
+    private final Supplier<FIS> fuzzyInferenceSystemFactory;
+    private final InputSchema inputSchema;
+    private final FunctionBlockGraph functionBlockGraph;
+    private final BlockingQueue<PooledFuzzyInferenceSystem> availableFuzzyInferenceSystems;
+    private final AtomicInteger createdFuzzyInferenceSystems = new AtomicInteger();
+    private final int poolSize;
+
+    /**
+     * @param fuzzyInferenceSystemFactory creates a new, independent FIS on each call.
+     * @param inputSchema                 the input variables of the rule set, in the order of the input values.
+     * @param functionBlockGraph          the function blocks of the rule set, in the order of their evaluation.
+     * @param poolSize                    the maximum number of FIS instances held by the pool.
+     * @param initialSize                 the number of FIS instances created with the pool, at most the pool size.
+     */
+    public FuzzyInferenceSystemPool(Supplier<FIS> fuzzyInferenceSystemFactory, InputSchema inputSchema, FunctionBlockGraph functionBlockGraph,
+                                    int poolSize, int initialSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("The Fuzzy Inference System (FIS) pool size must be at least 1, but was " + poolSize);
+        }
+        this.fuzzyInferenceSystemFactory = fuzzyInferenceSystemFactory;
+        this.inputSchema = inputSchema;
+        this.functionBlockGraph = functionBlockGraph;
+        this.poolSize = poolSize;
+        this.availableFuzzyInferenceSystems = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < Math.min(initialSize, poolSize); i++) {
+            createdFuzzyInferenceSystems.incrementAndGet();
+            availableFuzzyInferenceSystems.add(new PooledFuzzyInferenceSystem(fuzzyInferenceSystemFactory.get(), inputSchema, functionBlockGraph));
+        }
+    }
+
+    /**
+     * Runs the given evaluation on a FIS instance that is exclusively checked out for the duration of the call.
+     *
+     * @param evaluation the work to do with the FIS; it must not keep a reference to the FIS after returning.
+     * @return the result of the evaluation.
+     */
+    public <T> T evaluateExclusively(Function<PooledFuzzyInferenceSystem, T> evaluation) {
+        PooledFuzzyInferenceSystem fuzzyInferenceSystem = checkOut();
+        try {
+            return evaluation.apply(fuzzyInferenceSystem);
+        } finally {
+            availableFuzzyInferenceSystems.add(fuzzyInferenceSystem);
+        }
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return the number of FIS instances created so far, at most the pool size.
+     */
+    public int getNumberOfCreatedFuzzyInferenceSystems() {
+        return createdFuzzyInferenceSystems.get();
+    }
+
+    private PooledFuzzyInferenceSystem checkOut() {
+        PooledFuzzyInferenceSystem availableFuzzyInferenceSystem = availableFuzzyInferenceSystems.poll();
+        if (availableFuzzyInferenceSystem != null) {
+            return availableFuzzyInferenceSystem;
+        }
+        if (createdFuzzyInferenceSystems.getAndUpdate(created -> created < poolSize ? created + 1 : created) < poolSize) {
+            try {
+                return new PooledFuzzyInferenceSystem(fuzzyInferenceSystemFactory.get(), inputSchema, functionBlockGraph);
+            } catch (RuntimeException exception) {
+                createdFuzzyInferenceSystems.decrementAndGet();
+                throw exception;
+            }
+        }
+        try {
+            return availableFuzzyInferenceSystems.take();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a Fuzzy Inference System (FIS) instance.", exception);
+        }
+    }
+}
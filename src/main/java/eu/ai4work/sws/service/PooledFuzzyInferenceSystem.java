@@ -0,0 +1,61 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.engine.FunctionBlockEvaluation;
+import eu.ai4work.sws.engine.FunctionBlockGraph;
+import eu.ai4work.sws.engine.InputSchema;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+
+/**
+ * A FIS instance of the {@link FuzzyInferenceSystemPool}, with its input variables resolved once in the order of the
+ * {@link InputSchema}, so that binding the input values of a request does not look up any variable by name. If the FCL
+ * file has several function blocks, an input value is bound to the input variable of every function block that has it,
+ * and the function blocks are evaluated as described by the {@link FunctionBlockGraph}.
+ */
+public final class PooledFuzzyInferenceSystem {
+    private final FIS fuzzyInferenceSystem;
+    private final FunctionBlock functionBlock;
+    private final Variable[][] inputVariables;
+    private final FunctionBlockEvaluation functionBlockEvaluation;
+
+    PooledFuzzyInferenceSystem(FIS fuzzyInferenceSystem, InputSchema inputSchema, FunctionBlockGraph functionBlockGraph) {
+        this.fuzzyInferenceSystem = fuzzyInferenceSystem;
+        this.functionBlock = functionBlockGraph.createDecisionFunctionBlock(fuzzyInferenceSystem);
+        this.inputVariables = new Variable[inputSchema.getNumberOfInputVariables()][];
+        for (int inputVariable = 0; inputVariable < inputVariables.length; inputVariable++) {
+            inputVariables[inputVariable] = functionBlockGraph.getInputVariables(fuzzyInferenceSystem, inputSchema.getInputVariableName(inputVariable))
+                    .toArray(Variable[]::new);
+        }
+        this.functionBlockEvaluation = functionBlockGraph.bind(fuzzyInferenceSystem);
+    }
+
+    /**
+     * @param inputValues the value of each input variable, in the order of the {@link InputSchema}.
+     */
+    public void setInputValues(double[] inputValues) {
+        for (int inputVariable = 0; inputVariable < inputVariables.length; inputVariable++) {
+            for (Variable variable : inputVariables[inputVariable]) {
+                variable.setValue(inputValues[inputVariable]);
+            }
+        }
+    }
+
+    /**
+     * Evaluates all function blocks with the input values that were set last.
+     */
+    public void evaluate() {
+        functionBlockEvaluation.evaluate();
+    }
+
+    public FIS getFuzzyInferenceSystem() {
+        return fuzzyInferenceSystem;
+    }
+
+    /**
+     * @return the function block that describes the decision, see {@link FunctionBlockGraph#createDecisionFunctionBlock(FIS)}.
+     */
+    public FunctionBlock getFunctionBlock() {
+        return functionBlock;
+    }
+}
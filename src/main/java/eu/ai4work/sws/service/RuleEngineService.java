@@ -1,13 +1,19 @@
 package eu.ai4work.sws.service;
 
+import eu.ai4work.sws.engine.CompiledEvaluationState;
+import eu.ai4work.sws.engine.CompiledFuzzyInferenceSystem;
+import eu.ai4work.sws.engine.OutputTermClassifier;
+import eu.ai4work.sws.model.ExplanationLevel;
 import eu.ai4work.sws.model.SlidingDecisionExplanation;
 import eu.ai4work.sws.exception.InvalidInputParameterException;
 import eu.ai4work.sws.model.VariableExplanation;
 import eu.ai4work.sws.model.RuleExplanation;
 import eu.ai4work.sws.model.SlidingDecision;
 import lombok.RequiredArgsConstructor;
-import net.sourceforge.jFuzzyLogic.FIS;
 import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.LinguisticTerm;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
 import net.sourceforge.jFuzzyLogic.rule.Variable;
 import org.springframework.stereotype.Service;
 
@@ -18,127 +24,338 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class RuleEngineService {
-    private final FIS fuzzyInferenceSystem;
-    private final List<String> requiredFuzzyInputParameters;
-    private final List<String> outputVariableNamesFromFIS;
+    private final ScenarioRegistry scenarioRegistry;
+    private final DecisionAuditLog decisionAuditLog;
+    /**
+     * Builds the {@link SlidingDecision} that the methods without {@link SlidingDecisionHandler} return.
+     */
+    private final SlidingDecisionHandler<SlidingDecision> slidingDecisionBuilder = new SlidingDecisionHandler<>() {
+        @Override
+        public SlidingDecision handleSlidingDecision(RuleSet ruleSet, SlidingDecision slidingDecision) {
+            return slidingDecision;
+        }
+
+        @Override
+        public SlidingDecision handleCompiledEvaluation(RuleSet ruleSet, CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem,
+                                                        CompiledEvaluationState evaluationState, ExplanationLevel explanationLevel) {
+            return readSlidingDecisionFromCompiledFuzzyInferenceSystem(ruleSet, compiledFuzzyInferenceSystem, evaluationState, explanationLevel);
+        }
+    };
 
     /**
-     * Evaluates the fuzzy inference rules based on the provided inputs, and it returns the sliding decision with its explanation.
+     * Evaluates the fuzzy inference rules of the default scenario based on the provided inputs, and it returns the sliding decision with its full explanation.
      *
      * @param slidingDecisionInputParameters The input parameters from the sliding decision request.
      * @return SlidingDecision containing the result and the explanation of the sliding decision.
      */
     public SlidingDecision applySlidingDecisionRules(Map<String, Object> slidingDecisionInputParameters) {
+        return applySlidingDecisionRules(slidingDecisionInputParameters, ExplanationLevel.FULL);
+    }
+
+    /**
+     * Evaluates the fuzzy inference rules of the default scenario based on the provided inputs, and it returns the sliding decision with its explanation.
+     * The evaluation runs either on the compiled fuzzy inference system (if configured), or on a FIS instance that is
+     * exclusively checked out from the pool, so concurrent requests cannot interfere with each other. Requests without
+     * explanation are answered from the decision lookup table instead (if configured and the input is within its grid).
+     * The duration of every stage, the decided terms and the fired rules are recorded in the {@link DecisionPipelineMetrics},
+     * and the decision in the {@link DecisionAuditLog} (if enabled).
+     *
+     * @param slidingDecisionInputParameters The input parameters from the sliding decision request.
+     * @param explanationLevel               How much of the explanation is computed, nothing at all for {@link ExplanationLevel#NONE}.
+     * @return SlidingDecision containing the result and the explanation of the sliding decision (null for {@link ExplanationLevel#NONE}).
+     */
+    public SlidingDecision applySlidingDecisionRules(Map<String, Object> slidingDecisionInputParameters, ExplanationLevel explanationLevel) {
+        return applySlidingDecisionRules(scenarioRegistry.getDefaultScenario().getActiveRuleSet().get(), slidingDecisionInputParameters, explanationLevel);
+    }
+
+    /**
+     * Evaluates the fuzzy inference rules of the given rule set, see {@link #applySlidingDecisionRules(Map, ExplanationLevel)}.
+     *
+     * @param ruleSet                        The rule set the request evaluates, even if another one is activated in the meantime.
+     * @param slidingDecisionInputParameters The input parameters from the sliding decision request.
+     * @param explanationLevel               How much of the explanation is computed, nothing at all for {@link ExplanationLevel#NONE}.
+     * @return SlidingDecision containing the result and the explanation of the sliding decision (null for {@link ExplanationLevel#NONE}).
+     */
+    public SlidingDecision applySlidingDecisionRules(RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters,
+                                                     ExplanationLevel explanationLevel) {
+        return applySlidingDecisionRules(ruleSet, slidingDecisionInputParameters, explanationLevel, slidingDecisionBuilder);
+    }
+
+    /**
+     * Evaluates the fuzzy inference rules of the given rule set like {@link #applySlidingDecisionRules(RuleSet, Map, ExplanationLevel)},
+     * but hands the decision over to the handler instead of returning it: a decision of the compiled rule engine as its
+     * working memory, so nothing has to be copied out of it, and all other decisions as a {@link SlidingDecision}.
+     *
+     * @param ruleSet                        The rule set the request evaluates, even if another one is activated in the meantime.
+     * @param slidingDecisionInputParameters The input parameters from the sliding decision request.
+     * @param explanationLevel               How much of the explanation is computed, nothing at all for {@link ExplanationLevel#NONE}.
+     * @param slidingDecisionHandler         Takes over the decision.
+     * @return what the handler made of the decision.
+     */
+    public <T> T applySlidingDecisionRules(RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters,
+                                           ExplanationLevel explanationLevel, SlidingDecisionHandler<T> slidingDecisionHandler) {
+
+        // the input values are read once, in the order of the input variables of the rule set
+        double[] inputValues = ruleSet.getInputSchema().acquireInputValues();
+        try {
+            readSlidingDecisionInputValues(ruleSet, slidingDecisionInputParameters, inputValues);
+            return applySlidingDecisionRulesToVerifiedInputValues(ruleSet, inputValues, explanationLevel, slidingDecisionHandler);
+        } finally {
+            ruleSet.getInputSchema().releaseInputValues(inputValues);
+        }
+    }
+
+    /**
+     * Evaluates the fuzzy inference rules of the given rule set for input values without names, e.g. from a
+     * {@link eu.ai4work.sws.engine.DecisionVectorSchema decision vector}, see {@link #applySlidingDecisionRules(Map, ExplanationLevel)}.
+     *
+     * @param ruleSet          The rule set the request evaluates, even if another one is activated in the meantime.
+     * @param inputValues      The input values in the order of the input variables of the rule set.
+     * @param explanationLevel How much of the explanation is computed, nothing at all for {@link ExplanationLevel#NONE}.
+     * @return SlidingDecision containing the result and the explanation of the sliding decision (null for {@link ExplanationLevel#NONE}).
+     * @throws InvalidInputParameterException if an input value is not a valid number.
+     */
+    public SlidingDecision applySlidingDecisionRules(RuleSet ruleSet, double[] inputValues, ExplanationLevel explanationLevel) {
+        long startNanoTime = System.nanoTime();
+        try {
+            ruleSet.getInputSchema().checkInputValues(inputValues);
+        } finally {
+            ruleSet.getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.VALIDATION, startNanoTime);
+        }
+        return applySlidingDecisionRulesToVerifiedInputValues(ruleSet, inputValues, explanationLevel, slidingDecisionBuilder);
+    }
+
+    private <T> T applySlidingDecisionRulesToVerifiedInputValues(RuleSet ruleSet, double[] inputValues, ExplanationLevel explanationLevel,
+                                                                 SlidingDecisionHandler<T> slidingDecisionHandler) {
+        DecisionPipelineMetrics metrics = ruleSet.getDecisionPipelineMetrics();
+
+        // the lookup table has no explanation, and does not cover inputs outside its grid
+        if (explanationLevel == ExplanationLevel.NONE && ruleSet.getDecisionLookupTable().isPresent()) {
+            long lookupStartNanoTime = System.nanoTime();
+            Map<String, String> decisionResultsForAllOutputParameters = ruleSet.getDecisionLookupTable().get().lookupDecisions(inputValues);
+            metrics.recordStage(DecisionPipelineMetrics.Stage.LOOKUP, lookupStartNanoTime);
+            if (decisionResultsForAllOutputParameters != null) {
+                metrics.countOutputTerms(decisionResultsForAllOutputParameters);
+                decisionAuditLog.recordDecision(ruleSet, DecisionAuditRecord.Source.LOOKUP_TABLE, inputValues, decisionResultsForAllOutputParameters);
+                return slidingDecisionHandler.handleSlidingDecision(ruleSet,
+                        new SlidingDecision(decisionResultsForAllOutputParameters, null, ruleSet.getVersion()));
+            }
+        }
+
+        if (ruleSet.isEvaluatedByCompiledRuleEngine()) {
+            return applySlidingDecisionRulesWithCompiledFuzzyInferenceSystem(ruleSet, ruleSet.getCompiledFuzzyInferenceSystem().orElseThrow(),
+                    inputValues, explanationLevel, slidingDecisionHandler);
+        }
 
-        verifySlidingDecisionInputParameters(slidingDecisionInputParameters);
+        long checkoutStartNanoTime = System.nanoTime();
+        SlidingDecision slidingDecision = ruleSet.getFuzzyInferenceSystemPool().evaluateExclusively(pooledFuzzyInferenceSystem -> {
+            metrics.recordStage(DecisionPipelineMetrics.Stage.FIS_CHECKOUT, checkoutStartNanoTime);
+            FunctionBlock functionBlock = pooledFuzzyInferenceSystem.getFunctionBlock();
 
-        setInputParametersToFuzzyInferenceSystem(slidingDecisionInputParameters);
+            long stageStartNanoTime = System.nanoTime();
+            pooledFuzzyInferenceSystem.setInputValues(inputValues);
+            metrics.recordStage(DecisionPipelineMetrics.Stage.INPUT_BINDING, stageStartNanoTime);
 
-        fuzzyInferenceSystem.evaluate();
+            stageStartNanoTime = System.nanoTime();
+            pooledFuzzyInferenceSystem.evaluate();
+            metrics.recordStage(DecisionPipelineMetrics.Stage.EVALUATION, stageStartNanoTime);
+            metrics.recordRules(functionBlock);
+            decisionAuditLog.recordEvaluation(ruleSet, inputValues, functionBlock);
 
-        Map<String, String> decisionResultsForAllOutputParameters = readAllSlidingDecisionResultsFromFIS();
+            stageStartNanoTime = System.nanoTime();
+            Map<String, String> decisionResultsForAllOutputParameters = readAllSlidingDecisionResultsFromFIS(ruleSet, functionBlock);
+            metrics.recordStage(DecisionPipelineMetrics.Stage.OUTPUT_TERM_SELECTION, stageStartNanoTime);
+            metrics.countOutputTerms(decisionResultsForAllOutputParameters);
 
-        SlidingDecisionExplanation decisionExplanation = readSlidingDecisionExplanationFromFuzzyInferenceSystem();
+            stageStartNanoTime = System.nanoTime();
+            SlidingDecisionExplanation decisionExplanation = readSlidingDecisionExplanationFromFuzzyInferenceSystem(ruleSet, functionBlock, explanationLevel);
+            metrics.recordStage(DecisionPipelineMetrics.Stage.EXPLANATION, stageStartNanoTime);
 
-        return new SlidingDecision(decisionResultsForAllOutputParameters, decisionExplanation);
+            return new SlidingDecision(decisionResultsForAllOutputParameters, decisionExplanation, ruleSet.getVersion());
+        });
+        // the FIS instance is already returned to the pool
+        return slidingDecisionHandler.handleSlidingDecision(ruleSet, slidingDecision);
     }
 
     /**
-     * Checks if any required sliding decision input parameters are unknown or missing.
+     * Evaluates the rules with the compiled fuzzy inference system, in a working memory of its pool.
      *
-     * @param slidingDecisionInputParameters The input parameters from the sliding decision request.
-     * @throws InvalidInputParameterException if one or more input parameters are unknown or missing.
+     * @param ruleSet                        The rule set the request evaluates.
+     * @param compiledFuzzyInferenceSystem   The compiled fuzzy inference system of the rule set.
+     * @param inputValues                    The verified input values, in the order of the input variables.
+     * @param explanationLevel               How much of the explanation is computed.
+     * @param slidingDecisionHandler         Takes over the decision in the working memory.
+     * @return what the handler made of the decision.
      */
-    private void verifySlidingDecisionInputParameters(Map<String, Object> slidingDecisionInputParameters)
-            throws InvalidInputParameterException {
-        Set<String> providedParameters = slidingDecisionInputParameters.keySet();
-
-        // detect provided input parameters that are not required
-        List<String> unknownParameters = providedParameters.stream()
-                .filter(providedParameter -> !requiredFuzzyInputParameters.contains(providedParameter))
-                .toList();
-
-        // detect required parameters that are missing in the provided input
-        List<String> missingParameters = requiredFuzzyInputParameters.stream()
-                .filter(requiredParameter -> !providedParameters.contains(requiredParameter))
-                .toList();
-
-        if (!(unknownParameters.isEmpty() && missingParameters.isEmpty())) {
-            String exceptionMessage = "Invalid sliding decision input.";
-            if (!unknownParameters.isEmpty()) {
-                exceptionMessage += " - Unknown parameter(s): " + unknownParameters;
-            }
-            if (!missingParameters.isEmpty()) {
-                exceptionMessage += " - Missing parameter(s): " + missingParameters;
-            }
-            throw new InvalidInputParameterException(exceptionMessage);
+    private <T> T applySlidingDecisionRulesWithCompiledFuzzyInferenceSystem(
+            RuleSet ruleSet, CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem, double[] inputValues,
+            ExplanationLevel explanationLevel, SlidingDecisionHandler<T> slidingDecisionHandler) {
+        CompiledEvaluationState evaluationState = compiledFuzzyInferenceSystem.acquireEvaluationState();
+        try {
+            long stageStartNanoTime = System.nanoTime();
+            evaluationState.setInputValues(inputValues);
+            ruleSet.getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.INPUT_BINDING, stageStartNanoTime);
+
+            stageStartNanoTime = System.nanoTime();
+            compiledFuzzyInferenceSystem.evaluate(evaluationState);
+            ruleSet.getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.EVALUATION, stageStartNanoTime);
+            decisionAuditLog.recordEvaluation(ruleSet, DecisionAuditRecord.Source.RULE_ENGINE, compiledFuzzyInferenceSystem, evaluationState);
+            recordCompiledEvaluation(ruleSet, compiledFuzzyInferenceSystem, evaluationState);
+            return slidingDecisionHandler.handleCompiledEvaluation(ruleSet, compiledFuzzyInferenceSystem, evaluationState, explanationLevel);
+        } finally {
+            compiledFuzzyInferenceSystem.releaseEvaluationState(evaluationState);
         }
     }
 
     /**
-     * Reads all sliding decision results to their corresponding linguistic terms from the fuzzy inference system.
+     * Evaluates the rules of a decision session for its (verified) input values, with the compiled fuzzy inference
+     * system of the rule set and the working memory of the session.
      *
-     * @return Map of sliding decision results which contains output variable names and
-     * maps them to their result as a linguistic term.
+     * @param ruleSet               The rule set of the session, which must be compiled.
+     * @param evaluationState       The working memory of the session.
+     * @param changedInputVariables Whether each input variable changed since the last evaluation of the session, or
+     *                              null to evaluate all rules (the first evaluation of the session).
+     * @param explanationLevel      How much of the explanation is computed.
+     * @return SlidingDecision containing the result and the explanation of the sliding decision.
      */
-    private Map<String, String> readAllSlidingDecisionResultsFromFIS() {
-        Map<String, String> resultsByOutputVariable = new HashMap<>();
-        for (String outputVariableNameFromFIS : outputVariableNamesFromFIS) {
-            resultsByOutputVariable.put(outputVariableNameFromFIS, getLinguisticTermForOutputVariable(outputVariableNameFromFIS));
+    public SlidingDecision applySlidingDecisionRulesOfSession(RuleSet ruleSet, CompiledEvaluationState evaluationState,
+                                                              boolean[] changedInputVariables, ExplanationLevel explanationLevel) {
+        CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem = ruleSet.getCompiledFuzzyInferenceSystem().orElseThrow();
+        long stageStartNanoTime = System.nanoTime();
+        if (changedInputVariables == null) {
+            compiledFuzzyInferenceSystem.evaluate(evaluationState);
+        } else {
+            compiledFuzzyInferenceSystem.evaluateChangedInputs(evaluationState, changedInputVariables);
         }
-        return resultsByOutputVariable;
+        ruleSet.getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.EVALUATION, stageStartNanoTime);
+        decisionAuditLog.recordEvaluation(ruleSet, DecisionAuditRecord.Source.DECISION_SESSION, compiledFuzzyInferenceSystem, evaluationState);
+        recordCompiledEvaluation(ruleSet, compiledFuzzyInferenceSystem, evaluationState);
+        return readSlidingDecisionFromCompiledFuzzyInferenceSystem(ruleSet, compiledFuzzyInferenceSystem, evaluationState, explanationLevel);
     }
 
-    private String getLinguisticTermForOutputVariable(String outputVariableNameFromFIS) {
-        Variable resultAsFuzzyVariable = fuzzyInferenceSystem.getVariable(outputVariableNameFromFIS);
-        return resultAsFuzzyVariable.getLinguisticTerms().entrySet().stream()
-                // Map each linguistic term to its corresponding membership degree
-                .map(linguisticTermWithMembershipDegree -> Map.entry(
-                        // The key is the linguistic term name
-                        linguisticTermWithMembershipDegree.getKey(),
-                        // The value is membership degree for the latest defuzzified value
-                        linguisticTermWithMembershipDegree.getValue().getMembershipFunction()
-                                .membership(resultAsFuzzyVariable.getLatestDefuzzifiedValue())
-                ))
-                // Identify the linguistic term with the highest membership degree
-                .max(Map.Entry.comparingByValue())
-                // Retrieve the linguistic term name
-                .get().getKey();
+    /**
+     * Records the fired rules and the decided terms of an evaluation of the compiled rule engine in the metrics.
+     */
+    private static void recordCompiledEvaluation(RuleSet ruleSet, CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem,
+                                                 CompiledEvaluationState evaluationState) {
+        DecisionPipelineMetrics metrics = ruleSet.getDecisionPipelineMetrics();
+        for (int rule = 0; rule < compiledFuzzyInferenceSystem.getNumberOfRules(); rule++) {
+            metrics.recordRule(rule, evaluationState.getDegreeOfSupport(rule));
+        }
+
+        for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+            metrics.countOutputTerm(compiledFuzzyInferenceSystem.getOutputVariableName(outputVariable),
+                    compiledFuzzyInferenceSystem.getOutputTermName(evaluationState.getWinningOutputTerm(outputVariable)));
+        }
+    }
+
+    private SlidingDecision readSlidingDecisionFromCompiledFuzzyInferenceSystem(
+            RuleSet ruleSet, CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem, CompiledEvaluationState evaluationState,
+            ExplanationLevel explanationLevel) {
+        DecisionPipelineMetrics metrics = ruleSet.getDecisionPipelineMetrics();
+        Map<String, String> decisionResultsForAllOutputParameters = new HashMap<>();
+        for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+            decisionResultsForAllOutputParameters.put(compiledFuzzyInferenceSystem.getOutputVariableName(outputVariable),
+                    compiledFuzzyInferenceSystem.getOutputTermName(evaluationState.getWinningOutputTerm(outputVariable)));
+        }
+
+        long stageStartNanoTime = System.nanoTime();
+        SlidingDecisionExplanation decisionExplanation = switch (explanationLevel) {
+            case NONE -> null;
+            case SUMMARY -> new SlidingDecisionExplanation(null,
+                    getAppliedRuleNamesFromCompiledFuzzyInferenceSystem(compiledFuzzyInferenceSystem, evaluationState), null);
+            case FULL -> readSlidingDecisionExplanationFromCompiledFuzzyInferenceSystem(compiledFuzzyInferenceSystem, evaluationState);
+        };
+        metrics.recordStage(DecisionPipelineMetrics.Stage.EXPLANATION, stageStartNanoTime);
+
+        return new SlidingDecision(decisionResultsForAllOutputParameters, decisionExplanation, ruleSet.getVersion());
     }
 
     /**
-     * Sets input parameters to the Fuzzy Inference System (FIS).
+     * Checks if any required sliding decision input parameters of the default scenario are unknown, missing or not a valid number.
      *
      * @param slidingDecisionInputParameters The input parameters from the sliding decision request.
+     * @throws InvalidInputParameterException if one or more input parameters are unknown, missing or not a valid number.
      */
-    private void setInputParametersToFuzzyInferenceSystem(Map<String, Object> slidingDecisionInputParameters) {
-        slidingDecisionInputParameters.forEach((parameterName, parameterValue) -> {
-            if (parameterValue instanceof Number parameterValueAsNumber) {
-                fuzzyInferenceSystem.getVariable(parameterName).setValue(parameterValueAsNumber.doubleValue());
-            } else {
-                throw new InvalidInputParameterException(
-                        "Invalid sliding decision input: The parameter '" + parameterName + "' must be a number."
-                );
-            }
-        });
+    public void verifySlidingDecisionInputParameters(Map<String, Object> slidingDecisionInputParameters)
+            throws InvalidInputParameterException {
+        verifySlidingDecisionInputParameters(scenarioRegistry.getDefaultScenario().getActiveRuleSet().get(), slidingDecisionInputParameters);
+    }
+
+    /**
+     * Checks if any required sliding decision input parameters are unknown, missing or not a valid number.
+     *
+     * @param ruleSet                        The rule set that defines the required input parameters.
+     * @param slidingDecisionInputParameters The input parameters from the sliding decision request.
+     * @throws InvalidInputParameterException if one or more input parameters are unknown, missing or not a valid number.
+     */
+    public void verifySlidingDecisionInputParameters(RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters)
+            throws InvalidInputParameterException {
+        double[] inputValues = ruleSet.getInputSchema().acquireInputValues();
+        try {
+            readSlidingDecisionInputValues(ruleSet, slidingDecisionInputParameters, inputValues);
+        } finally {
+            ruleSet.getInputSchema().releaseInputValues(inputValues);
+        }
+    }
+
+    /**
+     * Checks the sliding decision input parameters like {@link #verifySlidingDecisionInputParameters(RuleSet, Map)}, and
+     * reads their values in the order of the input variables of the rule set.
+     *
+     * @param inputValues Receives the value of each input variable at its index.
+     * @throws InvalidInputParameterException if one or more input parameters are unknown, missing or not a valid number.
+     */
+    public void readSlidingDecisionInputValues(RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters,
+                                               double[] inputValues) throws InvalidInputParameterException {
+        long startNanoTime = System.nanoTime();
+        try {
+            ruleSet.getInputSchema().readInputValues(slidingDecisionInputParameters, inputValues);
+        } finally {
+            ruleSet.getDecisionPipelineMetrics().recordStage(DecisionPipelineMetrics.Stage.VALIDATION, startNanoTime);
+        }
+    }
+
+    /**
+     * Reads all sliding decision results to their corresponding linguistic terms from the fuzzy inference system.
+     *
+     * @return Map of sliding decision results which contains output variable names and
+     * maps them to their result as a linguistic term.
+     */
+    private Map<String, String> readAllSlidingDecisionResultsFromFIS(RuleSet ruleSet, FunctionBlock functionBlock) {
+        OutputTermClassifier outputTermClassifier = ruleSet.getOutputTermClassifier();
+        Map<String, String> resultsByOutputVariable = new HashMap<>();
+        for (int outputVariable = 0; outputVariable < outputTermClassifier.getNumberOfOutputVariables(); outputVariable++) {
+            String outputVariableName = outputTermClassifier.getOutputVariableName(outputVariable);
+            // the term with the highest membership degree for the latest defuzzified value, the first one on equal degrees
+            resultsByOutputVariable.put(outputVariableName, outputTermClassifier.getWinningTermName(outputVariable,
+                    functionBlock.getVariable(outputVariableName).getLatestDefuzzifiedValue()));
+        }
+        return resultsByOutputVariable;
     }
 
     /**
      * Reads the explanation for the sliding decision.
      *
-     * @return SlidingDecisionExplanation containing explanation of the input variables, applied rules and output variables.
+     * @return SlidingDecisionExplanation containing explanation of the input variables, applied rules and output variables,
+     * only the names of the applied rules for {@link ExplanationLevel#SUMMARY}, or null for {@link ExplanationLevel#NONE}.
      */
-    private SlidingDecisionExplanation readSlidingDecisionExplanationFromFuzzyInferenceSystem() {
-        var functionBlock = fuzzyInferenceSystem.getFunctionBlock(null); // selects the default function block
-        return new SlidingDecisionExplanation(extractFuzzyVariableExplanation(functionBlock, Variable::isInput),
-                getAppliedRules(functionBlock),
-                extractFuzzyVariableExplanation(functionBlock, Variable::isOutput));
+    private SlidingDecisionExplanation readSlidingDecisionExplanationFromFuzzyInferenceSystem(RuleSet ruleSet, FunctionBlock functionBlock,
+                                                                                          ExplanationLevel explanationLevel) {
+        return switch (explanationLevel) {
+            case NONE -> null;
+            case SUMMARY -> new SlidingDecisionExplanation(null, getAppliedRuleNames(functionBlock), null);
+            case FULL -> new SlidingDecisionExplanation(extractFuzzyVariableExplanation(functionBlock, Variable::isInput),
+                    getAppliedRules(ruleSet.getRuleExplanationTexts(), functionBlock),
+                    extractFuzzyVariableExplanation(functionBlock, Variable::isOutput));
+        };
     }
 
     /**
      * extracts explanation for all fuzzy variables that match the given filter.
+     * Package-private (like {@link #getAppliedRules(RuleExplanationTexts, FunctionBlock)}) so that the explanation building can be benchmarked.
      */
-    private Map<String, VariableExplanation> extractFuzzyVariableExplanation(FunctionBlock functionBlock, Predicate<Variable> variableFilter) {
+    Map<String, VariableExplanation> extractFuzzyVariableExplanation(FunctionBlock functionBlock, Predicate<Variable> variableFilter) {
         return functionBlock.getVariables().values().stream()
                 .filter(variableFilter)
                 // return the map with fuzzy variables name, value and linguistic terms (term name and membership value).
@@ -151,28 +368,114 @@ public class RuleEngineService {
     }
 
     private Map<String, Double> extractLinguisticTermNameAndMembershipValue(Variable fuzzyVariable) {
-        return fuzzyVariable.getLinguisticTerms().entrySet().stream()
-                // filter the linguistic term which has the membership value greater than 0
-                .filter(linguisticTerm -> linguisticTerm.getValue().getMembershipFunction().membership(fuzzyVariable.getValue()) > 0)
-                // return the map of linguistic name and membership value.
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey, // Linguistic term name
-                        linguisticTerm -> linguisticTerm.getValue().getMembershipFunction().membership(fuzzyVariable.getValue())
-                ));
-    }
-
-    private List<RuleExplanation> getAppliedRules(FunctionBlock functionBlock) {
-        return functionBlock.getRuleBlocks().values().stream()
-                .flatMap(ruleBlock -> ruleBlock.getRules().stream())
-                // filters the rules with a degree of support greater than zero.
-                .filter(rule -> rule.getDegreeOfSupport() > 0)
-                .map(rule -> new RuleExplanation(
-                        rule.getName(),
-                        "IF " + rule.getAntecedents().toString(),
-                        "THEN " + rule.getConsequents().toString(),
-                        Double.toString(rule.getWeight()),
-                        Double.toString(rule.getDegreeOfSupport())
-                ))
-                .collect(Collectors.toList());
+        Map<String, Double> membershipValues = new HashMap<>();
+        double value = fuzzyVariable.getValue();
+        for (Map.Entry<String, LinguisticTerm> linguisticTerm : fuzzyVariable.getLinguisticTerms().entrySet()) {
+            double membershipValue = linguisticTerm.getValue().getMembershipFunction().membership(value);
+            // only the linguistic terms with a membership value greater than 0
+            if (membershipValue > 0) {
+                membershipValues.put(linguisticTerm.getKey(), membershipValue);
+            }
+        }
+        return membershipValues;
+    }
+
+    /**
+     * Explains the applied rules, with the rule texts that were computed once for the rule set.
+     */
+    List<RuleExplanation> getAppliedRules(RuleExplanationTexts ruleExplanationTexts, FunctionBlock functionBlock) {
+        List<RuleExplanation> appliedRules = new ArrayList<>();
+        functionBlock.getRuleBlocks().forEach((ruleBlockName, ruleBlock) -> {
+            for (Rule rule : ruleBlock.getRules()) {
+                // only the rules with a degree of support greater than zero are applied.
+                if (rule.getDegreeOfSupport() > 0) {
+                    RuleExplanationTexts.RuleText ruleText = ruleExplanationTexts.getRuleText(ruleBlockName, rule);
+                    appliedRules.add(new RuleExplanation(
+                            rule.getName(),
+                            ruleText.condition(),
+                            ruleText.consequence(),
+                            ruleText.weight(),
+                            Double.toString(rule.getDegreeOfSupport())));
+                }
+            }
+        });
+        return appliedRules;
+    }
+
+    /**
+     * Summarizes the applied rules by their names only.
+     */
+    private List<RuleExplanation> getAppliedRuleNames(FunctionBlock functionBlock) {
+        List<RuleExplanation> appliedRules = new ArrayList<>();
+        for (RuleBlock ruleBlock : functionBlock.getRuleBlocks().values()) {
+            for (Rule rule : ruleBlock.getRules()) {
+                if (rule.getDegreeOfSupport() > 0) {
+                    appliedRules.add(RuleExplanation.withNameOnly(rule.getName()));
+                }
+            }
+        }
+        return appliedRules;
+    }
+
+    private List<RuleExplanation> getAppliedRuleNamesFromCompiledFuzzyInferenceSystem(
+            CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem, CompiledEvaluationState evaluationState) {
+        List<RuleExplanation> appliedRules = new ArrayList<>();
+        for (int rule = 0; rule < compiledFuzzyInferenceSystem.getNumberOfRules(); rule++) {
+            if (evaluationState.getDegreeOfSupport(rule) > 0) {
+                appliedRules.add(RuleExplanation.withNameOnly(compiledFuzzyInferenceSystem.getRuleName(rule)));
+            }
+        }
+        return appliedRules;
+    }
+
+    /**
+     * Reads the explanation for the sliding decision from the working memory of the compiled fuzzy inference system,
+     * in the same form as {@link #readSlidingDecisionExplanationFromFuzzyInferenceSystem(RuleSet, FunctionBlock, ExplanationLevel)}.
+     *
+     * @return SlidingDecisionExplanation containing explanation of the input variables, applied rules and output variables.
+     */
+    private SlidingDecisionExplanation readSlidingDecisionExplanationFromCompiledFuzzyInferenceSystem(
+            CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem, CompiledEvaluationState evaluationState) {
+        Map<String, VariableExplanation> inputVariables = new HashMap<>();
+        for (int inputVariable = 0; inputVariable < compiledFuzzyInferenceSystem.getNumberOfInputVariables(); inputVariable++) {
+            Map<String, Double> membershipValues = new HashMap<>();
+            for (int inputTerm = compiledFuzzyInferenceSystem.getInputTermsStart(inputVariable); inputTerm < compiledFuzzyInferenceSystem.getInputTermsEnd(inputVariable); inputTerm++) {
+                double membershipValue = evaluationState.getInputTermMembership(inputTerm);
+                if (membershipValue > 0) {
+                    membershipValues.put(compiledFuzzyInferenceSystem.getInputTermName(inputTerm), membershipValue);
+                }
+            }
+            inputVariables.put(compiledFuzzyInferenceSystem.getInputVariableName(inputVariable),
+                    new VariableExplanation(evaluationState.getInputValue(inputVariable), membershipValues));
+        }
+
+        List<RuleExplanation> appliedRules = new ArrayList<>();
+        for (int rule = 0; rule < compiledFuzzyInferenceSystem.getNumberOfRules(); rule++) {
+            double degreeOfSupport = evaluationState.getDegreeOfSupport(rule);
+            if (degreeOfSupport > 0) {
+                appliedRules.add(new RuleExplanation(
+                        compiledFuzzyInferenceSystem.getRuleName(rule),
+                        compiledFuzzyInferenceSystem.getRuleCondition(rule),
+                        compiledFuzzyInferenceSystem.getRuleConsequence(rule),
+                        Double.toString(compiledFuzzyInferenceSystem.getRuleWeight(rule)),
+                        Double.toString(degreeOfSupport)));
+            }
+        }
+
+        Map<String, VariableExplanation> outputVariables = new HashMap<>();
+        for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+            double outputValue = evaluationState.getOutputValue(outputVariable);
+            Map<String, Double> membershipValues = new HashMap<>();
+            for (int outputTerm = compiledFuzzyInferenceSystem.getOutputTermsStart(outputVariable); outputTerm < compiledFuzzyInferenceSystem.getOutputTermsEnd(outputVariable); outputTerm++) {
+                double membershipValue = compiledFuzzyInferenceSystem.getOutputTermMembership(outputTerm, outputValue);
+                if (membershipValue > 0) {
+                    membershipValues.put(compiledFuzzyInferenceSystem.getOutputTermName(outputTerm), membershipValue);
+                }
+            }
+            outputVariables.put(compiledFuzzyInferenceSystem.getOutputVariableName(outputVariable),
+                    new VariableExplanation(outputValue, membershipValues));
+        }
+
+        return new SlidingDecisionExplanation(inputVariables, appliedRules, outputVariables);
     }
 }
@@ -0,0 +1,38 @@
+package eu.ai4work.sws.service;
+
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The condition, consequence and weight texts of all rules of a rule set, as shown in the decision explanation.
+ * They never change for a rule set, so they are computed once instead of for every request.
+ * The texts are looked up by rule block and rule name, so they apply to every FIS instance parsed from the same rule set.
+ */
+public final class RuleExplanationTexts {
+    private final Map<String, RuleText> ruleTextsByRule = new HashMap<>();
+
+    public RuleExplanationTexts(FunctionBlock functionBlock) {
+        functionBlock.getRuleBlocks().forEach((ruleBlockName, ruleBlock) -> ruleBlock.getRules().forEach(rule ->
+                ruleTextsByRule.put(toKey(ruleBlockName, rule), new RuleText(
+                        "IF " + rule.getAntecedents().toString(),
+                        "THEN " + rule.getConsequents().toString(),
+                        Double.toString(rule.getWeight())))));
+    }
+
+    /**
+     * @return the texts of the rule, or null if the rule is not part of the rule set.
+     */
+    RuleText getRuleText(String ruleBlockName, Rule rule) {
+        return ruleTextsByRule.get(toKey(ruleBlockName, rule));
+    }
+
+    private static String toKey(String ruleBlockName, Rule rule) {
+        return ruleBlockName + '\n' + rule.getName();
+    }
+
+    record RuleText(String condition, String consequence, String weight) {
+    }
+}
@@ -0,0 +1,110 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.engine.CompiledFuzzyInferenceSystem;
+import eu.ai4work.sws.engine.DecisionLookupTable;
+import eu.ai4work.sws.engine.DecisionVectorSchema;
+import eu.ai4work.sws.engine.FunctionBlockGraph;
+import eu.ai4work.sws.engine.InputSchema;
+import eu.ai4work.sws.engine.OutputTermClassifier;
+import lombok.Builder;
+import lombok.Getter;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable snapshot of everything derived from one version of the FCL rules file.
+ * <p>
+ * A request takes the active rule set once and uses it until it is done, so that a rule set that is activated in the
+ * meantime never mixes with the one the request started with.
+ */
+@Getter
+@Builder
+public class RuleSet {
+    /**
+     * The {@link #fclRulesRevision} of an FCL file without revision in its header.
+     */
+    public static final long NO_REVISION = 0;
+
+    /**
+     * Short form of {@link #fclRulesSha256}, reported in the responses.
+     */
+    private final String version;
+    /**
+     * The scenario the rule set belongs to.
+     */
+    private final String scenarioName;
+    private final String fclRulesSha256;
+    /**
+     * The raw content of the FCL file, which the other nodes of a cluster fetch to activate the same rule set.
+     */
+    private final byte[] fclRulesSource;
+    /**
+     * When the FCL file was last modified, {@link Instant#EPOCH} for a classpath resource.
+     */
+    private final Instant fclRulesModifiedAt;
+    /**
+     * The revision in the header of the FCL file, or {@link #NO_REVISION}. Of two rule sets of a scenario, the one of
+     * the higher revision is activated on all nodes of a cluster.
+     */
+    private final long fclRulesRevision;
+    private final Instant loadedAt;
+    /**
+     * Describes the rule set (e.g. its input and output variables), it is never evaluated.
+     */
+    private final FIS fuzzyInferenceSystem;
+    /**
+     * The function block of the {@link #fuzzyInferenceSystem} that describes the decision, a view of all function
+     * blocks if the FCL file has several (see {@link FunctionBlockGraph#createDecisionFunctionBlock(FIS)}).
+     */
+    private final FunctionBlock functionBlock;
+    /**
+     * The function blocks of the FCL file, in the order of their evaluation.
+     */
+    private final FunctionBlockGraph functionBlockGraph;
+    private final FuzzyInferenceSystemPool fuzzyInferenceSystemPool;
+    private final CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem;
+    /**
+     * Whether requests are evaluated by the {@link #compiledFuzzyInferenceSystem}, otherwise it is only used by the
+     * decision sessions.
+     */
+    private final boolean evaluatedByCompiledRuleEngine;
+    private final List<String> requiredFuzzyInputParameters;
+    /**
+     * The {@link #requiredFuzzyInputParameters} compiled for validating and reading the input of a request.
+     */
+    private final InputSchema inputSchema;
+    /**
+     * The layout of the binary requests and responses of this rule set.
+     */
+    private final DecisionVectorSchema decisionVectorSchema;
+    private final List<String> outputVariableNames;
+    /**
+     * Selects the decided term of each output variable from its defuzzified value.
+     */
+    private final OutputTermClassifier outputTermClassifier;
+    private final RuleExplanationTexts ruleExplanationTexts;
+    /**
+     * The texts of the JSON responses, encoded once for all requests.
+     */
+    private final SlidingDecisionResponseTexts slidingDecisionResponseTexts;
+    private final DecisionLookupTable decisionLookupTable;
+    private final DecisionPipelineMetrics decisionPipelineMetrics;
+
+    /**
+     * @return the compiled rule set, if the compiled rule engine or the decision sessions are configured.
+     */
+    public Optional<CompiledFuzzyInferenceSystem> getCompiledFuzzyInferenceSystem() {
+        return Optional.ofNullable(compiledFuzzyInferenceSystem);
+    }
+
+    /**
+     * @return the decision lookup table, if it is enabled.
+     */
+    public Optional<DecisionLookupTable> getDecisionLookupTable() {
+        return Optional.ofNullable(decisionLookupTable);
+    }
+}
@@ -0,0 +1,8 @@
+package eu.ai4work.sws.service;
+
+/**
+ * Published when a new rule set becomes active for a scenario, so that everything derived from the previous rule set
+ * (e.g. cached sliding decisions) can be discarded.
+ */
+public record RuleSetChangedEvent(String scenarioName, String ruleSetVersion) {
+}
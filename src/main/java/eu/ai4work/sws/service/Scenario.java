@@ -0,0 +1,42 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import io.micrometer.core.instrument.Timer;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An application scenario served by this application: its FCL file, the descriptions of its decision results and
+ * everything that evaluates its rules. Scenarios share nothing but the configuration of the rule engine.
+ */
+@Getter
+@Builder
+public class Scenario {
+    private final String name;
+    private final ApplicationScenarioConfiguration.ScenarioConfiguration configuration;
+    private final ActiveRuleSet activeRuleSet;
+    private final SlidingDecisionCache slidingDecisionCache;
+    /**
+     * Measures the sliding decisions of this scenario, published as the {@code sliding.decisions} metric with the tag
+     * {@code scenario}.
+     */
+    private final Timer slidingDecisionTimer;
+
+    public String getFclRulesFilePath() {
+        return configuration.getFclRulesFilePath();
+    }
+
+    public Map<String, String> getDecisionResultsDescription() {
+        return configuration.getDecisionResultsDescription();
+    }
+
+    /**
+     * @return the sliding decision cache, if it is enabled for this scenario.
+     */
+    public Optional<SlidingDecisionCache> getSlidingDecisionCache() {
+        return Optional.ofNullable(slidingDecisionCache);
+    }
+}
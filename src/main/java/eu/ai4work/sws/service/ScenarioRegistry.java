@@ -0,0 +1,58 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.exception.UnknownScenarioException;
+import org.springframework.context.event.EventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All application scenarios served by this application, by name.
+ */
+public class ScenarioRegistry {
+    /**
+     * The name of the scenario that is configured at the top level of the application scenario configuration, and
+     * served at the endpoints without scenario name.
+     */
+    public static final String DEFAULT_SCENARIO_NAME = "default";
+
+    private final Map<String, Scenario> scenariosByName;
+
+    public ScenarioRegistry(Map<String, Scenario> scenariosByName) {
+        this.scenariosByName = Collections.unmodifiableMap(new LinkedHashMap<>(scenariosByName));
+    }
+
+    /**
+     * @throws UnknownScenarioException if there is no scenario with this name.
+     */
+    public Scenario getScenario(String scenarioName) {
+        Scenario scenario = scenariosByName.get(scenarioName);
+        if (scenario == null) {
+            throw new UnknownScenarioException("Unknown scenario '" + scenarioName + "'. Available scenarios: "
+                    + scenariosByName.keySet().stream().sorted().toList());
+        }
+        return scenario;
+    }
+
+    /**
+     * @throws UnknownScenarioException if no FCL file is configured at the top level of the configuration.
+     */
+    public Scenario getDefaultScenario() {
+        return getScenario(DEFAULT_SCENARIO_NAME);
+    }
+
+    public Collection<Scenario> getScenarios() {
+        return scenariosByName.values();
+    }
+
+    /**
+     * Discards the cached sliding decisions of a scenario whose rule set changed.
+     */
+    @EventListener
+    public void onRuleSetChanged(RuleSetChangedEvent ruleSetChangedEvent) {
+        getScenario(ruleSetChangedEvent.scenarioName()).getSlidingDecisionCache()
+                .ifPresent(slidingDecisionCache -> slidingDecisionCache.onRuleSetChanged(ruleSetChangedEvent));
+    }
+}
@@ -0,0 +1,201 @@
+package eu.ai4work.sws.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * A bounded cache of sliding decisions, keyed on the rule set version, the (quantized) input vector and the explanation
+ * level.
+ * <p>
+ * Input values of variables with a quantization step are rounded to the nearest multiple of the step, but never beyond
+ * the universe of the variable (unless the value itself is beyond it), and a missing decision is evaluated with these
+ * rounded values, so the cached decision does not depend on which request of a step came first. So the input values in
+ * the full explanation of a cached decision are the quantized ones, and the decision audit log records the quantized
+ * values for hits and misses alike, see {@link #quantizeInputValues}. The hit, miss and eviction counts are published as the {@code cache.*} metrics with the tags
+ * {@code cache=slidingDecisionCache} and {@code scenario}. As the rule set version is part of the key, a request that finishes with the
+ * previous rule set after a reload cannot put its decision into the cache for the new rule set.
+ */
+public class SlidingDecisionCache {
+    private static final Logger logger = LogManager.getLogger(SlidingDecisionCache.class);
+    public static final String CACHE_NAME = "slidingDecisionCache";
+
+    private final Cache<InputVectorKey, SlidingDecision> cache;
+    private final Map<String, Double> quantization;
+    /**
+     * The quantization steps in the order of the input variables of the most recently used rule set.
+     */
+    private volatile InputVectorLayout inputVectorLayout;
+
+    /**
+     * @param scenarioName  The scenario whose sliding decisions are cached, tagged on the cache metrics.
+     * @param quantization  The quantization step per input variable.
+     * @param maximumSize   The maximum number of cached sliding decisions.
+     * @param meterRegistry The registry the cache metrics are published to.
+     * @throws IllegalArgumentException if a quantization step is not positive.
+     */
+    public SlidingDecisionCache(String scenarioName, Map<String, Double> quantization, long maximumSize, MeterRegistry meterRegistry) {
+        quantization.forEach((parameterName, quantizationStep) -> {
+            if (quantizationStep == null || !(quantizationStep > 0)) {
+                throw new IllegalArgumentException("The quantization step of '" + parameterName + "' must be positive.");
+            }
+        });
+        this.quantization = Map.copyOf(quantization);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME, "scenario", scenarioName);
+    }
+
+    /**
+     * Checks that the quantization only refers to input variables of the rule set.
+     *
+     * @throws IllegalArgumentException if a quantization step belongs to an unknown input variable.
+     */
+    public void verifyQuantization(RuleSet ruleSet) {
+        List<String> unknownParameters = quantization.keySet().stream()
+                .filter(parameterName -> !ruleSet.getRequiredFuzzyInputParameters().contains(parameterName))
+                .toList();
+        if (!unknownParameters.isEmpty()) {
+            throw new IllegalArgumentException("Quantization configured for unknown input variable(s): " + unknownParameters);
+        }
+    }
+
+    /**
+     * Returns the cached sliding decision for the input parameters, or evaluates and caches it.
+     *
+     * @param ruleSet                        The rule set the request evaluates, part of the cache key.
+     * @param slidingDecisionInputParameters The verified input parameters from the sliding decision request.
+     * @param explanationLevel               The explanation level, part of the cache key.
+     * @param evaluation                     Evaluates the (quantized) input parameters on a cache miss.
+     * @return the sliding decision for the quantized input parameters.
+     */
+    public SlidingDecision getSlidingDecision(RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters,
+                                              ExplanationLevel explanationLevel,
+                                              BiFunction<Map<String, Object>, ExplanationLevel, SlidingDecision> evaluation) {
+        InputVectorLayout layout = getInputVectorLayout(ruleSet);
+        List<String> inputParameterNames = layout.inputParameterNames();
+        double[] quantizationSteps = layout.quantizationSteps();
+        double[] inputValues = new double[inputParameterNames.size()];
+        long[] keyValues = new long[inputValues.length];
+        for (int parameter = 0; parameter < inputValues.length; parameter++) {
+            double value = layout.quantize(parameter,
+                    ((Number) slidingDecisionInputParameters.get(inputParameterNames.get(parameter))).doubleValue());
+            keyValues[parameter] = Double.doubleToLongBits(value == 0.0 ? 0.0 : value); // -0.0 and 0.0 share one entry
+            inputValues[parameter] = value;
+        }
+
+        return cache.get(new InputVectorKey(ruleSet.getVersion(), keyValues, explanationLevel), key -> {
+            Map<String, Object> quantizedInputParameters = new HashMap<>();
+            for (int parameter = 0; parameter < inputValues.length; parameter++) {
+                quantizedInputParameters.put(inputParameterNames.get(parameter), inputValues[parameter]);
+            }
+            return evaluation.apply(quantizedInputParameters, explanationLevel);
+        });
+    }
+
+    /**
+     * Quantizes input values like {@link #getSlidingDecision} does, e.g. to record the values a cached decision was
+     * evaluated for.
+     *
+     * @param inputValues the verified input values in the order of the input variables of the rule set, quantized in
+     *                    place.
+     */
+    public void quantizeInputValues(RuleSet ruleSet, double[] inputValues) {
+        InputVectorLayout layout = getInputVectorLayout(ruleSet);
+        for (int parameter = 0; parameter < layout.inputParameterNames().size(); parameter++) {
+            int inputVariable = ruleSet.getInputSchema().getInputVariableIndex(layout.inputParameterNames().get(parameter));
+            inputValues[inputVariable] = layout.quantize(parameter, inputValues[inputVariable]);
+        }
+    }
+
+    private InputVectorLayout getInputVectorLayout(RuleSet ruleSet) {
+        InputVectorLayout layout = inputVectorLayout;
+        if (layout == null || !layout.ruleSetVersion().equals(ruleSet.getVersion())) {
+            List<String> inputParameterNames = ruleSet.getRequiredFuzzyInputParameters();
+            double[] quantizationSteps = new double[inputParameterNames.size()];
+            double[] universeMinimums = new double[inputParameterNames.size()];
+            double[] universeMaximums = new double[inputParameterNames.size()];
+            for (int parameter = 0; parameter < inputParameterNames.size(); parameter++) {
+                Double quantizationStep = quantization.get(inputParameterNames.get(parameter));
+                // a reloaded rule set may no longer have a quantized input variable, or have new ones
+                quantizationSteps[parameter] = quantizationStep != null ? quantizationStep : 0;
+                int inputVariable = ruleSet.getInputSchema() != null
+                        ? ruleSet.getInputSchema().getInputVariableIndex(inputParameterNames.get(parameter)) : -1;
+                universeMinimums[parameter] = inputVariable >= 0 ? ruleSet.getInputSchema().getUniverseMinimum(inputVariable) : Double.NEGATIVE_INFINITY;
+                universeMaximums[parameter] = inputVariable >= 0 ? ruleSet.getInputSchema().getUniverseMaximum(inputVariable) : Double.POSITIVE_INFINITY;
+            }
+            layout = new InputVectorLayout(ruleSet.getVersion(), inputParameterNames, quantizationSteps, universeMinimums, universeMaximums);
+            inputVectorLayout = layout;
+        }
+        return layout;
+    }
+
+    /**
+     * Discards all cached sliding decisions, as they were derived from the previous rule set.
+     */
+    public void onRuleSetChanged(RuleSetChangedEvent ruleSetChangedEvent) {
+        logger.info("Invalidating the sliding decision cache of scenario " + ruleSetChangedEvent.scenarioName()
+                + " for rule set version " + ruleSetChangedEvent.ruleSetVersion());
+        cache.invalidateAll();
+    }
+
+    public long getEstimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private record InputVectorLayout(String ruleSetVersion, List<String> inputParameterNames, double[] quantizationSteps,
+                                     double[] universeMinimums, double[] universeMaximums) {
+
+        /**
+         * @return the value rounded to the nearest multiple of the quantization step of the input parameter, if it has
+         * one, within the universe of the input variable or at least as close to it as the value itself.
+         */
+        double quantize(int parameter, double value) {
+            if (quantizationSteps[parameter] == 0) {
+                return value;
+            }
+            double quantizedValue = Math.round(value / quantizationSteps[parameter]) * quantizationSteps[parameter];
+            return Math.clamp(quantizedValue, Math.min(value, universeMinimums[parameter]), Math.max(value, universeMaximums[parameter]));
+        }
+    }
+
+    private static final class InputVectorKey {
+        private final String ruleSetVersion;
+        private final long[] keyValues;
+        private final ExplanationLevel explanationLevel;
+        private final int hashCode;
+
+        private InputVectorKey(String ruleSetVersion, long[] keyValues, ExplanationLevel explanationLevel) {
+            this.ruleSetVersion = ruleSetVersion;
+            this.keyValues = keyValues;
+            this.explanationLevel = explanationLevel;
+            this.hashCode = 31 * (31 * ruleSetVersion.hashCode() + Arrays.hashCode(keyValues)) + explanationLevel.ordinal();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof InputVectorKey otherKey
+                    && explanationLevel == otherKey.explanationLevel
+                    && Arrays.equals(keyValues, otherKey.keyValues)
+                    && ruleSetVersion.equals(otherKey.ruleSetVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.engine.CompiledEvaluationState;
+import eu.ai4work.sws.engine.CompiledFuzzyInferenceSystem;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+
+/**
+ * Takes over a sliding decision as soon as it is evaluated, e.g. to write it to a response without building a
+ * {@link SlidingDecision} first.
+ *
+ * @param <T> what the handler makes of the decision.
+ */
+public interface SlidingDecisionHandler<T> {
+
+    /**
+     * Handles a decision that is only available as a {@link SlidingDecision}, e.g. one from the cache, the lookup
+     * table or a pooled FIS instance.
+     */
+    T handleSlidingDecision(RuleSet ruleSet, SlidingDecision slidingDecision);
+
+    /**
+     * Handles a decision of the compiled rule engine, right after its evaluation in the working memory. The working
+     * memory is reused by other evaluations and is only valid until this method returns.
+     *
+     * @param explanationLevel how much of the explanation the request asked for.
+     */
+    T handleCompiledEvaluation(RuleSet ruleSet, CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem,
+                               CompiledEvaluationState evaluationState, ExplanationLevel explanationLevel);
+}
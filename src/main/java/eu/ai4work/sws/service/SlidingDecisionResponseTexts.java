@@ -0,0 +1,137 @@
+package eu.ai4work.sws.service;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import eu.ai4work.sws.engine.CompiledFuzzyInferenceSystem;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The texts of the JSON responses of a rule set, encoded once as UTF-8 JSON strings, so that a response is written
+ * without escaping and encoding them again for every request: the rule set version, the descriptions of the decision
+ * results, and, if the rule set is compiled, the names of its variables, terms and rules and the rule texts, indexed
+ * like in the {@link CompiledFuzzyInferenceSystem}.
+ */
+public final class SlidingDecisionResponseTexts {
+    private final SerializedString version;
+    private final Map<String, SerializedString> descriptionsByTerm = new HashMap<>();
+    private final SerializedString[] inputVariableNames;
+    private final SerializedString[] inputTermNames;
+    private final SerializedString[] outputVariableNames;
+    private final SerializedString[] outputTermNames;
+    /**
+     * The description of each output term, null if the term has none.
+     */
+    private final SerializedString[] outputTermDescriptions;
+    private final SerializedString[] ruleNames;
+    private final SerializedString[] ruleConditions;
+    private final SerializedString[] ruleConsequences;
+    private final SerializedString[] ruleWeights;
+
+    /**
+     * @param decisionResultsDescription  the description of the decision results by their linguistic term, may be null.
+     * @param compiledFuzzyInferenceSystem the compiled rule set, or null if the rule set is not compiled.
+     */
+    public SlidingDecisionResponseTexts(String version, Map<String, String> decisionResultsDescription,
+                                        CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem) {
+        this.version = new SerializedString(version);
+        if (decisionResultsDescription != null) {
+            decisionResultsDescription.forEach((term, description) -> {
+                if (description != null) {
+                    descriptionsByTerm.put(term, new SerializedString(description));
+                }
+            });
+        }
+        if (compiledFuzzyInferenceSystem == null) {
+            inputVariableNames = inputTermNames = outputVariableNames = outputTermNames = outputTermDescriptions = new SerializedString[0];
+            ruleNames = ruleConditions = ruleConsequences = ruleWeights = new SerializedString[0];
+            return;
+        }
+
+        int numberOfInputVariables = compiledFuzzyInferenceSystem.getNumberOfInputVariables();
+        inputVariableNames = new SerializedString[numberOfInputVariables];
+        inputTermNames = new SerializedString[numberOfInputVariables == 0 ? 0 : compiledFuzzyInferenceSystem.getInputTermsEnd(numberOfInputVariables - 1)];
+        for (int inputVariable = 0; inputVariable < numberOfInputVariables; inputVariable++) {
+            inputVariableNames[inputVariable] = new SerializedString(compiledFuzzyInferenceSystem.getInputVariableName(inputVariable));
+            for (int inputTerm = compiledFuzzyInferenceSystem.getInputTermsStart(inputVariable); inputTerm < compiledFuzzyInferenceSystem.getInputTermsEnd(inputVariable); inputTerm++) {
+                inputTermNames[inputTerm] = new SerializedString(compiledFuzzyInferenceSystem.getInputTermName(inputTerm));
+            }
+        }
+
+        int numberOfOutputVariables = compiledFuzzyInferenceSystem.getNumberOfOutputVariables();
+        int numberOfOutputTerms = numberOfOutputVariables == 0 ? 0 : compiledFuzzyInferenceSystem.getOutputTermsEnd(numberOfOutputVariables - 1);
+        outputVariableNames = new SerializedString[numberOfOutputVariables];
+        outputTermNames = new SerializedString[numberOfOutputTerms];
+        outputTermDescriptions = new SerializedString[numberOfOutputTerms];
+        for (int outputVariable = 0; outputVariable < numberOfOutputVariables; outputVariable++) {
+            outputVariableNames[outputVariable] = new SerializedString(compiledFuzzyInferenceSystem.getOutputVariableName(outputVariable));
+            for (int outputTerm = compiledFuzzyInferenceSystem.getOutputTermsStart(outputVariable); outputTerm < compiledFuzzyInferenceSystem.getOutputTermsEnd(outputVariable); outputTerm++) {
+                String outputTermName = compiledFuzzyInferenceSystem.getOutputTermName(outputTerm);
+                outputTermNames[outputTerm] = new SerializedString(outputTermName);
+                outputTermDescriptions[outputTerm] = descriptionsByTerm.get(outputTermName);
+            }
+        }
+
+        int numberOfRules = compiledFuzzyInferenceSystem.getNumberOfRules();
+        ruleNames = new SerializedString[numberOfRules];
+        ruleConditions = new SerializedString[numberOfRules];
+        ruleConsequences = new SerializedString[numberOfRules];
+        ruleWeights = new SerializedString[numberOfRules];
+        for (int rule = 0; rule < numberOfRules; rule++) {
+            ruleNames[rule] = new SerializedString(compiledFuzzyInferenceSystem.getRuleName(rule));
+            ruleConditions[rule] = new SerializedString(compiledFuzzyInferenceSystem.getRuleCondition(rule));
+            ruleConsequences[rule] = new SerializedString(compiledFuzzyInferenceSystem.getRuleConsequence(rule));
+            ruleWeights[rule] = new SerializedString(Double.toString(compiledFuzzyInferenceSystem.getRuleWeight(rule)));
+        }
+    }
+
+    public SerializedString getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the description of the decision result, or null if it has none.
+     */
+    public SerializedString getDescription(String term) {
+        return descriptionsByTerm.get(term);
+    }
+
+    public SerializedString getInputVariableName(int inputVariable) {
+        return inputVariableNames[inputVariable];
+    }
+
+    public SerializedString getInputTermName(int inputTerm) {
+        return inputTermNames[inputTerm];
+    }
+
+    public SerializedString getOutputVariableName(int outputVariable) {
+        return outputVariableNames[outputVariable];
+    }
+
+    public SerializedString getOutputTermName(int outputTerm) {
+        return outputTermNames[outputTerm];
+    }
+
+    /**
+     * @return the description of the output term, or null if it has none.
+     */
+    public SerializedString getOutputTermDescription(int outputTerm) {
+        return outputTermDescriptions[outputTerm];
+    }
+
+    public SerializedString getRuleName(int rule) {
+        return ruleNames[rule];
+    }
+
+    public SerializedString getRuleCondition(int rule) {
+        return ruleConditions[rule];
+    }
+
+    public SerializedString getRuleConsequence(int rule) {
+        return ruleConsequences[rule];
+    }
+
+    public SerializedString getRuleWeight(int rule) {
+        return ruleWeights[rule];
+    }
+}
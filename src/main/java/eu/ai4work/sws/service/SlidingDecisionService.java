@@ -1,17 +1,156 @@
 package eu.ai4work.sws.service;
 
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.model.ExplanationLevel;
 import eu.ai4work.sws.model.SlidingDecision;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class SlidingDecisionService {
     private final RuleEngineService ruleEngineService;
+    private final ApplicationScenarioConfiguration applicationScenarioConfiguration;
+    private final DecisionAuditLog decisionAuditLog;
 
-    public SlidingDecision getSlidingDecision(Map<String, Object> slidingDecisionInputParameters) {
-        return ruleEngineService.applySlidingDecisionRules(slidingDecisionInputParameters);
+    /**
+     * Returns the sliding decision of the scenario from its cache (if enabled), otherwise from the rule engine. Decisions
+     * from the cache are recorded in the {@link DecisionAuditLog} here, all others by the rule engine.
+     */
+    public SlidingDecision getSlidingDecision(Scenario scenario, Map<String, Object> slidingDecisionInputParameters,
+                                              ExplanationLevel explanationLevel) {
+        return getSlidingDecision(scenario, scenario.getActiveRuleSet().get(), slidingDecisionInputParameters, explanationLevel);
+    }
+
+    /**
+     * Returns the sliding decision of the scenario like {@link #getSlidingDecision(Scenario, Map, ExplanationLevel)},
+     * but hands it over to the handler (see {@link RuleEngineService#applySlidingDecisionRules(RuleSet, Map, ExplanationLevel, SlidingDecisionHandler)}).
+     * The sliding decision timer of the scenario includes the handler.
+     *
+     * @return what the handler made of the decision.
+     */
+    public <T> T getSlidingDecision(Scenario scenario, Map<String, Object> slidingDecisionInputParameters,
+                                    ExplanationLevel explanationLevel, SlidingDecisionHandler<T> slidingDecisionHandler) {
+        RuleSet ruleSet = scenario.getActiveRuleSet().get();
+        return scenario.getSlidingDecisionTimer().record(() -> {
+            if (scenario.getSlidingDecisionCache().isPresent()) {
+                return slidingDecisionHandler.handleSlidingDecision(ruleSet,
+                        getCachedSlidingDecision(scenario, ruleSet, slidingDecisionInputParameters, explanationLevel));
+            }
+            return ruleEngineService.applySlidingDecisionRules(ruleSet, slidingDecisionInputParameters, explanationLevel, slidingDecisionHandler);
+        });
+    }
+
+    private SlidingDecision getSlidingDecision(Scenario scenario, RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters,
+                                               ExplanationLevel explanationLevel) {
+        return scenario.getSlidingDecisionTimer().record(() -> {
+            if (scenario.getSlidingDecisionCache().isPresent()) {
+                return getCachedSlidingDecision(scenario, ruleSet, slidingDecisionInputParameters, explanationLevel);
+            }
+            return ruleEngineService.applySlidingDecisionRules(ruleSet, slidingDecisionInputParameters, explanationLevel);
+        });
+    }
+
+    private SlidingDecision getCachedSlidingDecision(Scenario scenario, RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters,
+                                                     ExplanationLevel explanationLevel) {
+        double[] inputValues = ruleSet.getInputSchema().acquireInputValues();
+        try {
+            ruleEngineService.readSlidingDecisionInputValues(ruleSet, slidingDecisionInputParameters, inputValues);
+            boolean[] evaluated = new boolean[1];
+            SlidingDecision slidingDecision = scenario.getSlidingDecisionCache().get().getSlidingDecision(ruleSet,
+                    slidingDecisionInputParameters, explanationLevel, (inputParameters, level) -> {
+                        evaluated[0] = true;
+                        return ruleEngineService.applySlidingDecisionRules(ruleSet, inputParameters, level);
+                    });
+            if (!evaluated[0]) {
+                // like a miss, which evaluates and records the quantized values
+                scenario.getSlidingDecisionCache().get().quantizeInputValues(ruleSet, inputValues);
+                decisionAuditLog.recordDecision(ruleSet, DecisionAuditRecord.Source.CACHE, inputValues,
+                        slidingDecision.getDecisionResultPerOutputParameter());
+            }
+            return slidingDecision;
+        } finally {
+            ruleSet.getInputSchema().releaseInputValues(inputValues);
+        }
+    }
+
+    /**
+     * Returns the sliding decision for input values without names (see {@link eu.ai4work.sws.engine.DecisionVectorSchema}),
+     * like {@link #getSlidingDecision(Scenario, Map, ExplanationLevel)}. The values are only named if the decision
+     * cache of the scenario is enabled, as it is keyed on the input parameters.
+     *
+     * @param ruleSet     The rule set whose input variables the values belong to.
+     * @param inputValues The input values in the order of the input variables of the rule set.
+     */
+    public SlidingDecision getSlidingDecision(Scenario scenario, RuleSet ruleSet, double[] inputValues, ExplanationLevel explanationLevel) {
+        if (scenario.getSlidingDecisionCache().isPresent()) {
+            Map<String, Object> slidingDecisionInputParameters = new HashMap<>();
+            for (int inputVariable = 0; inputVariable < inputValues.length; inputVariable++) {
+                slidingDecisionInputParameters.put(ruleSet.getInputSchema().getInputVariableName(inputVariable), inputValues[inputVariable]);
+            }
+            return getSlidingDecision(scenario, ruleSet, slidingDecisionInputParameters, explanationLevel);
+        }
+        return scenario.getSlidingDecisionTimer().record(() -> ruleEngineService.applySlidingDecisionRules(ruleSet, inputValues, explanationLevel));
+    }
+
+    /**
+     * Evaluates a batch of sliding decision input parameter sets of a scenario. All sets are verified up front, then the valid ones
+     * are evaluated in parallel, chunk by chunk, so that only the results of one chunk are held in memory.
+     * <p>
+     * The result consumer is called once per input parameter set, in the order of the batch, either with the sliding
+     * decision or with the exception that prevented it (the other argument is null). An invalid set does not affect
+     * the other sets of the batch. The whole batch is evaluated with the rule set that is active when it starts.
+     *
+     * @param scenario                          The scenario whose rules are evaluated.
+     * @param slidingDecisionInputParameterSets The input parameter sets from the batch request.
+     * @param explanationLevel                  How much of the explanation is computed for each set.
+     * @param resultConsumer                    Receives the sliding decision or the exception of each set.
+     */
+    public void getSlidingDecisions(Scenario scenario, List<Map<String, Object>> slidingDecisionInputParameterSets,
+                                    ExplanationLevel explanationLevel, BiConsumer<SlidingDecision, RuntimeException> resultConsumer) {
+        RuleSet ruleSet = scenario.getActiveRuleSet().get();
+        int numberOfSets = slidingDecisionInputParameterSets.size();
+        RuntimeException[] verificationExceptions = new RuntimeException[numberOfSets];
+        for (int set = 0; set < numberOfSets; set++) {
+            verificationExceptions[set] = verify(ruleSet, slidingDecisionInputParameterSets.get(set));
+        }
+
+        int chunkSize = Math.max(1, applicationScenarioConfiguration.getBatchEvaluationChunkSize());
+        SlidingDecision[] slidingDecisions = new SlidingDecision[Math.min(chunkSize, numberOfSets)];
+        RuntimeException[] exceptions = new RuntimeException[slidingDecisions.length];
+        for (int chunkStart = 0; chunkStart < numberOfSets; chunkStart += chunkSize) {
+            int chunkEnd = Math.min(chunkStart + chunkSize, numberOfSets);
+            int offset = chunkStart;
+            IntStream.range(chunkStart, chunkEnd).parallel().forEach(set -> {
+                slidingDecisions[set - offset] = null;
+                exceptions[set - offset] = verificationExceptions[set];
+                if (verificationExceptions[set] != null) {
+                    return;
+                }
+                try {
+                    slidingDecisions[set - offset] = getSlidingDecision(scenario, ruleSet, slidingDecisionInputParameterSets.get(set), explanationLevel);
+                } catch (RuntimeException exception) {
+                    exceptions[set - offset] = exception;
+                }
+            });
+            for (int set = chunkStart; set < chunkEnd; set++) {
+                resultConsumer.accept(slidingDecisions[set - offset], exceptions[set - offset]);
+            }
+        }
+    }
+
+    private RuntimeException verify(RuleSet ruleSet, Map<String, Object> slidingDecisionInputParameters) {
+        try {
+            ruleEngineService.verifySlidingDecisionInputParameters(ruleSet, slidingDecisionInputParameters);
+            return null;
+        } catch (RuntimeException exception) {
+            return exception;
+        }
     }
 }
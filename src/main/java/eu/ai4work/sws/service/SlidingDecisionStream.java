@@ -0,0 +1,139 @@
+package eu.ai4work.sws.service;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * A continuous stream of input parameter sets of one client, e.g. the state a robot reports many times per second.
+ * <p>
+ * The input parameter sets are evaluated one after the other on the shared executor, with the same rule engine (and
+ * cache) as single requests. A sliding decision is only emitted if its linguistic terms differ from the previously
+ * emitted one, while errors are always emitted. Input parameter sets that arrive while the previous one is evaluated
+ * wait in a bounded queue; when it is full, they are coalesced or the client is blocked, according to the
+ * {@link ApplicationScenarioConfiguration.DecisionStream.OverflowStrategy}.
+ */
+public class SlidingDecisionStream {
+    private final Scenario scenario;
+    private final ExplanationLevel explanationLevel;
+    private final SlidingDecisionService slidingDecisionService;
+    private final Executor executor;
+    private final int maximumPendingInputs;
+    private final ApplicationScenarioConfiguration.DecisionStream.OverflowStrategy overflowStrategy;
+    private final Counter droppedInputsCounter;
+    private final BiConsumer<SlidingDecision, RuntimeException> resultConsumer;
+
+    private final Deque<Map<String, Object>> pendingInputs = new ArrayDeque<>();
+    private boolean evaluationScheduled;
+    private boolean closed;
+    /**
+     * Only accessed by the evaluation, which never runs concurrently with itself.
+     */
+    private Map<String, String> lastEmittedDecisionResults;
+
+    /**
+     * @param resultConsumer receives either the changed sliding decision or the exception of an input parameter set
+     *                       (the other argument is null), never concurrently.
+     */
+    public SlidingDecisionStream(Scenario scenario, ExplanationLevel explanationLevel, SlidingDecisionService slidingDecisionService,
+                                 Executor executor, ApplicationScenarioConfiguration.DecisionStream decisionStreamConfiguration,
+                                 Counter droppedInputsCounter, BiConsumer<SlidingDecision, RuntimeException> resultConsumer) {
+        this.scenario = scenario;
+        this.explanationLevel = explanationLevel;
+        this.slidingDecisionService = slidingDecisionService;
+        this.executor = executor;
+        this.maximumPendingInputs = Math.max(1, decisionStreamConfiguration.getMaximumPendingInputs());
+        this.overflowStrategy = decisionStreamConfiguration.getOverflowStrategy();
+        this.droppedInputsCounter = droppedInputsCounter;
+        this.resultConsumer = resultConsumer;
+    }
+
+    /**
+     * Queues an input parameter set for evaluation. With {@code BLOCK}, it waits while the queue is full.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void submit(Map<String, Object> slidingDecisionInputParameters) throws InterruptedException {
+        synchronized (pendingInputs) {
+            while (!closed && pendingInputs.size() >= maximumPendingInputs) {
+                if (overflowStrategy == ApplicationScenarioConfiguration.DecisionStream.OverflowStrategy.DROP_OLDEST) {
+                    pendingInputs.removeFirst();
+                    droppedInputsCounter.increment();
+                } else {
+                    pendingInputs.wait();
+                }
+            }
+            if (closed) {
+                return;
+            }
+            pendingInputs.addLast(slidingDecisionInputParameters);
+            scheduleEvaluation();
+        }
+    }
+
+    /**
+     * Discards the waiting input parameter sets and releases a blocked {@link #submit(Map)}. An evaluation in progress
+     * still completes.
+     */
+    public void close() {
+        synchronized (pendingInputs) {
+            closed = true;
+            pendingInputs.clear();
+            pendingInputs.notifyAll();
+        }
+    }
+
+    /**
+     * Must be called while holding the lock of {@link #pendingInputs}.
+     */
+    private void scheduleEvaluation() {
+        if (!evaluationScheduled && !pendingInputs.isEmpty()) {
+            evaluationScheduled = true;
+            executor.execute(this::evaluateNextInput);
+        }
+    }
+
+    /**
+     * Evaluates one input parameter set and then schedules the next one, so that busy streams share the executor fairly.
+     */
+    private void evaluateNextInput() {
+        Map<String, Object> slidingDecisionInputParameters;
+        synchronized (pendingInputs) {
+            slidingDecisionInputParameters = pendingInputs.pollFirst();
+            pendingInputs.notifyAll();
+        }
+        try {
+            if (slidingDecisionInputParameters != null) {
+                evaluate(slidingDecisionInputParameters);
+            }
+        } finally {
+            synchronized (pendingInputs) {
+                evaluationScheduled = false;
+                if (!closed) {
+                    scheduleEvaluation();
+                }
+            }
+        }
+    }
+
+    private void evaluate(Map<String, Object> slidingDecisionInputParameters) {
+        SlidingDecision slidingDecision;
+        try {
+            slidingDecision = slidingDecisionService.getSlidingDecision(scenario, slidingDecisionInputParameters, explanationLevel);
+        } catch (RuntimeException exception) {
+            resultConsumer.accept(null, exception);
+            return;
+        }
+        if (!slidingDecision.getDecisionResultPerOutputParameter().equals(lastEmittedDecisionResults)) {
+            lastEmittedDecisionResults = slidingDecision.getDecisionResultPerOutputParameter();
+            resultConsumer.accept(slidingDecision, null);
+        }
+    }
+}
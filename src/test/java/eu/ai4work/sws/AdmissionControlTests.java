@@ -0,0 +1,135 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.controller.AdaptiveConcurrencyLimit;
+import eu.ai4work.sws.controller.ClientRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "application-scenario-config.admission-control.client-id-header=X-Client-Id",
+        "application-scenario-config.admission-control.client-rate-limit.enabled=true",
+        "application-scenario-config.admission-control.client-rate-limit.requests-per-second=0.01",
+        "application-scenario-config.admission-control.client-rate-limit.burst=2"})
+class AdmissionControlTests {
+    private static final String REQUEST_BODY = """
+            {
+              "slidingDecisionInputParameters": {
+                "numberOfTrucksInQueue": 7,
+                "positionOfTruckToBePrioritized": 5,
+                "materialUrgency": 30,
+                "operationalWorkload": 80
+              }
+            }
+            """;
+
+    @Autowired
+    private TestRestTemplate testSlidingDecisionRestTemplate;
+
+    @Test
+    void testRequestsBeyondTheRateOfAClientAreRejectedWithTooManyRequests() {
+        assertThat(postRequestOfClient("replanning-loop").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(postRequestOfClient("replanning-loop").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> rejectedResponse = postRequestOfClient("replanning-loop");
+        assertThat(rejectedResponse.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejectedResponse.getHeaders().getFirst("Retry-After")).isEqualTo("100");
+        assertThat(rejectedResponse.getBody())
+                .contains("\"decisionStatus\":\"ERROR\"")
+                .contains("Too many requests of this client")
+                .contains("ClientRateLimitExceededException");
+
+        // the other clients are not affected
+        assertThat(postRequestOfClient("dispatcher").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        String admissionStatistics = testSlidingDecisionRestTemplate.getForObject("/actuator/admission", String.class);
+        assertThat(admissionStatistics).contains("\"replanning-loop\":1").doesNotContain("\"dispatcher\"");
+    }
+
+    @Test
+    void testTokensAreRefilledAtTheConfiguredRate() {
+        ClientRateLimiter clientRateLimiter = new ClientRateLimiter(1, 2, 100);
+        long startNanos = System.nanoTime();
+
+        assertThat(clientRateLimiter.tryAcquire("client", startNanos)).isZero();
+        assertThat(clientRateLimiter.tryAcquire("client", startNanos)).isZero();
+        assertThat(clientRateLimiter.tryAcquire("client", startNanos)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(clientRateLimiter.tryAcquire("other client", startNanos)).isZero();
+
+        long halfASecondLater = startNanos + TimeUnit.MILLISECONDS.toNanos(500);
+        assertThat(clientRateLimiter.tryAcquire("client", halfASecondLater)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+        long oneSecondLater = startNanos + TimeUnit.SECONDS.toNanos(1);
+        assertThat(clientRateLimiter.tryAcquire("client", oneSecondLater)).isZero();
+        assertThat(clientRateLimiter.tryAcquire("client", oneSecondLater)).isPositive();
+        assertThat(clientRateLimiter.getRejectedRequestsOfTopClients(10)).containsOnlyKeys("client");
+    }
+
+    @Test
+    void testClientsBeyondTheTrackedClientsShareOneBucket() {
+        ClientRateLimiter clientRateLimiter = new ClientRateLimiter(1, 2, 2);
+        long startNanos = System.nanoTime();
+
+        assertThat(clientRateLimiter.tryAcquire("client", startNanos)).isZero();
+        assertThat(clientRateLimiter.tryAcquire("other client", startNanos)).isZero();
+        // every made up client id takes a token of the same overflow bucket
+        assertThat(clientRateLimiter.tryAcquire("made up client 1", startNanos)).isZero();
+        assertThat(clientRateLimiter.tryAcquire("made up client 2", startNanos)).isZero();
+        assertThat(clientRateLimiter.tryAcquire("made up client 3", startNanos)).isPositive();
+        assertThat(clientRateLimiter.getNumberOfTrackedClients()).isEqualTo(2);
+
+        // the tracked clients keep their buckets
+        assertThat(clientRateLimiter.tryAcquire("client", startNanos)).isZero();
+        assertThat(clientRateLimiter.getRejectedRequestsOfTopClients(10)).containsOnlyKeys(ClientRateLimiter.OVERFLOW_CLIENT_ID);
+    }
+
+    @Test
+    void testConcurrencyLimitGrowsWithStableLatencyAndShrinksWhenTheLatencyRises() {
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(10, 2, 100, 1.5, 10);
+        assertThat(acquireAll(concurrencyLimit)).isEqualTo(10);
+        assertThat(concurrencyLimit.tryAcquire()).isFalse();
+        releaseAll(concurrencyLimit, 10, TimeUnit.MILLISECONDS.toNanos(1));
+
+        for (int window = 0; window < 20; window++) {
+            releaseAll(concurrencyLimit, acquireAll(concurrencyLimit), TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        int grownLimit = concurrencyLimit.getLimit();
+        assertThat(grownLimit).isGreaterThan(10);
+
+        for (int window = 0; window < 5; window++) {
+            releaseAll(concurrencyLimit, acquireAll(concurrencyLimit), TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertThat(concurrencyLimit.getLimit()).isLessThan(grownLimit).isGreaterThanOrEqualTo(2);
+        assertThat(concurrencyLimit.getInFlightRequests()).isZero();
+    }
+
+    private static int acquireAll(AdaptiveConcurrencyLimit concurrencyLimit) {
+        int acquiredPermits = 0;
+        while (concurrencyLimit.tryAcquire()) {
+            acquiredPermits++;
+        }
+        return acquiredPermits;
+    }
+
+    private static void releaseAll(AdaptiveConcurrencyLimit concurrencyLimit, int permits, long latencyNanos) {
+        for (int permit = 0; permit < permits; permit++) {
+            concurrencyLimit.release(latencyNanos);
+        }
+    }
+
+    private ResponseEntity<String> postRequestOfClient(String clientId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_JSON);
+        headers.set("X-Client-Id", clientId);
+        return testSlidingDecisionRestTemplate.postForEntity("/sliding-decision", new HttpEntity<>(REQUEST_BODY, headers), String.class);
+    }
+}
@@ -0,0 +1,275 @@
+package eu.ai4work.sws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ai4work.sws.controller.ClusterForwardingInterceptor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a cluster of two nodes on localhost, both serving all scenarios. The second node has a newer revision of the FCL
+ * file of the logistics scenario than the first one, and a changed FCL file of the construction scenario without revision.
+ */
+class ClusterTests {
+
+    private static final long SYNCHRONIZATION_TIMEOUT_MILLISECONDS = 30_000;
+    private static final List<String> SCENARIO_NAMES = List.of("logistics", "construction", "agriculture");
+    private static final String LOGISTICS_REQUEST_BODY = """
+            {
+              "slidingDecisionInputParameters": {
+                "numberOfTrucksInQueue": 7,
+                "positionOfTruckToBePrioritized": 5,
+                "materialUrgency":30,
+                "operationalWorkload":80
+              }
+            }
+            """;
+    private static final String CONSTRUCTION_REQUEST_BODY = """
+            {
+              "slidingDecisionInputParameters": {
+                "timeTheRobotIsAlreadyMoving": 4,
+                "robotBatteryStatus": 65,
+                "noOfHumansInTheRoom": 10
+              }
+            }
+            """;
+    private static final String AGRICULTURE_REQUEST_BODY = """
+            {
+              "slidingDecisionInputParameters": {
+                "distanceToCentralCollectionPoint": 250,
+                "fatigueLevelOfWorker": 90,
+                "isDroneCurrentlyAvailable": 0,
+                "droneBatteryLevel": 80
+              }
+            }
+            """;
+
+    private static final HttpClient httpClient = HttpClient.newHttpClient();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static ConfigurableApplicationContext firstNode;
+    private static ConfigurableApplicationContext secondNode;
+    private static String firstNodeUrl;
+    private static String secondNodeUrl;
+    private static String newerLogisticsFclRulesSha256;
+    private static String constructionFclRulesSha256;
+    private static String changedConstructionFclRulesSha256;
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        int firstNodePort = findFreePort();
+        int secondNodePort = findFreePort();
+        firstNodeUrl = "http://localhost:" + firstNodePort;
+        secondNodeUrl = "http://localhost:" + secondNodePort;
+
+        Path fclRulesDirectory = Files.createTempDirectory("fcl-rules");
+        byte[] logisticsFclRules = readFclRulesResource("rules/TruckSchedulingSlidingDecisionRules.fcl");
+        Path olderLogisticsFclRulesFile = Files.write(fclRulesDirectory.resolve("OlderTruckSchedulingSlidingDecisionRules.fcl"),
+                withHeader("// VERSION: 1\n", logisticsFclRules));
+        byte[] newerLogisticsFclRules = withHeader("// VERSION: 2\n", logisticsFclRules);
+        Path newerLogisticsFclRulesFile = Files.write(fclRulesDirectory.resolve("NewerTruckSchedulingSlidingDecisionRules.fcl"), newerLogisticsFclRules);
+        newerLogisticsFclRulesSha256 = computeSha256(newerLogisticsFclRules);
+        // a changed FCL file of the construction scenario without revision, which the first node must not activate
+        byte[] constructionFclRules = readFclRulesResource("rules/ConstructionRobotAssistanceDecisionRules.fcl");
+        constructionFclRulesSha256 = computeSha256(constructionFclRules);
+        byte[] changedConstructionFclRules = withHeader("// changed\n", constructionFclRules);
+        Path changedConstructionFclRulesFile = Files.write(fclRulesDirectory.resolve("ConstructionRobotAssistanceDecisionRules.fcl"),
+                changedConstructionFclRules);
+        changedConstructionFclRulesSha256 = computeSha256(changedConstructionFclRules);
+
+        firstNode = startNode(firstNodePort, firstNodeUrl,
+                "--application-scenario-config.scenarios.logistics.fcl-rules-file-path=" + olderLogisticsFclRulesFile);
+        secondNode = startNode(secondNodePort, secondNodeUrl,
+                "--application-scenario-config.scenarios.logistics.fcl-rules-file-path=" + newerLogisticsFclRulesFile,
+                "--application-scenario-config.scenarios.construction.fcl-rules-file-path=" + changedConstructionFclRulesFile);
+        // the first node took the second one off its hash ring while it was starting
+        awaitAllMembersAreReachable(firstNodeUrl);
+        awaitAllMembersAreReachable(secondNodeUrl);
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        if (secondNode != null) {
+            secondNode.close();
+        }
+        if (firstNode != null) {
+            firstNode.close();
+        }
+    }
+
+    @Test
+    void testEveryScenarioIsServedByItsOwnerOnBothNodes() throws Exception {
+        JsonNode ownerByScenario = objectMapper.readTree(get(firstNodeUrl + "/cluster/members").body()).get("ownerByScenario");
+        for (String scenarioName : SCENARIO_NAMES) {
+            String owner = ownerByScenario.get(scenarioName).asText();
+            assertThat(owner).isIn(firstNodeUrl, secondNodeUrl);
+            for (String nodeUrl : List.of(firstNodeUrl, secondNodeUrl)) {
+                HttpResponse<String> response = post(nodeUrl + "/scenarios/" + scenarioName + "/sliding-decision", getRequestBody(scenarioName));
+
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.headers().firstValue(ClusterForwardingInterceptor.CLUSTER_NODE_HEADER)).hasValue(owner);
+                assertThat(objectMapper.readTree(response.body()).get("decisionStatus").asText()).isEqualTo("Sliding Decision Response");
+            }
+        }
+    }
+
+    @Test
+    void testForwardedByHeaderOfAnUnknownNodeIsIgnored() throws Exception {
+        JsonNode ownerByScenario = objectMapper.readTree(get(firstNodeUrl + "/cluster/members").body()).get("ownerByScenario");
+        for (String scenarioName : SCENARIO_NAMES) {
+            for (String nodeUrl : List.of(firstNodeUrl, secondNodeUrl)) {
+                HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(nodeUrl + "/scenarios/" + scenarioName + "/sliding-decision"))
+                        .header("Content-Type", "application/json")
+                        .header(ClusterForwardingInterceptor.FORWARDED_BY_HEADER, "http://unknown-node:8080")
+                        .POST(HttpRequest.BodyPublishers.ofString(getRequestBody(scenarioName))));
+
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.headers().firstValue(ClusterForwardingInterceptor.CLUSTER_NODE_HEADER))
+                        .hasValue(ownerByScenario.get(scenarioName).asText());
+            }
+        }
+    }
+
+    @Test
+    void testSessionIsUpdatedOnItsNodeFromBothNodes() throws Exception {
+        HttpResponse<String> openedSession = post(firstNodeUrl + "/scenarios/construction/sliding-decision/sessions", CONSTRUCTION_REQUEST_BODY);
+        assertThat(openedSession.statusCode()).isEqualTo(201);
+        String sessionId = objectMapper.readTree(openedSession.body()).get("sessionId").asText();
+        String sessionNode = openedSession.headers().firstValue(ClusterForwardingInterceptor.CLUSTER_NODE_HEADER).orElseThrow();
+
+        for (String nodeUrl : List.of(firstNodeUrl, secondNodeUrl)) {
+            HttpResponse<String> updatedSession = send(HttpRequest.newBuilder(URI.create(nodeUrl + "/sliding-decision/sessions/" + sessionId))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("""
+                            { "slidingDecisionInputParameters": { "robotBatteryStatus": 10 } }
+                            """)));
+
+            assertThat(updatedSession.statusCode()).isEqualTo(200);
+            assertThat(updatedSession.headers().firstValue(ClusterForwardingInterceptor.CLUSTER_NODE_HEADER)).hasValue(sessionNode);
+        }
+    }
+
+    @Test
+    void testNodesAgreeOnTheNewerRuleSet() throws Exception {
+        awaitNewerLogisticsRuleSetOnBothNodes();
+
+        assertThat(getLogisticsFclRulesSha256(firstNodeUrl)).isEqualTo(newerLogisticsFclRulesSha256);
+        assertThat(getLogisticsFclRulesSha256(secondNodeUrl)).isEqualTo(newerLogisticsFclRulesSha256);
+        HttpResponse<String> response = post(firstNodeUrl + "/scenarios/logistics/sliding-decision", LOGISTICS_REQUEST_BODY);
+        assertThat(objectMapper.readTree(response.body()).get("ruleSetVersion").asText())
+                .isEqualTo(newerLogisticsFclRulesSha256.substring(0, 12));
+    }
+
+    @Test
+    void testRuleSetWithoutRevisionIsNotActivated() throws Exception {
+        // the logistics rule sets agree after a few synchronizations, the construction rule sets must still differ then
+        awaitNewerLogisticsRuleSetOnBothNodes();
+        Thread.sleep(1_000);
+
+        assertThat(getFclRulesSha256(firstNodeUrl, "construction")).isEqualTo(constructionFclRulesSha256);
+        assertThat(getFclRulesSha256(secondNodeUrl, "construction")).isEqualTo(changedConstructionFclRulesSha256);
+    }
+
+    private static ConfigurableApplicationContext startNode(int port, String nodeUrl, String... furtherArguments) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.profiles.active=all",
+                "--server.port=" + port,
+                "--application-scenario-config.decision-sessions.enabled=true",
+                "--application-scenario-config.cluster.enabled=true",
+                "--application-scenario-config.cluster.node-url=" + nodeUrl,
+                "--application-scenario-config.cluster.members=" + firstNodeUrl + "," + secondNodeUrl,
+                "--application-scenario-config.cluster.rule-set-sync-interval=200ms"));
+        arguments.addAll(List.of(furtherArguments));
+        return new SpringApplicationBuilder(SlidingWorkSharingApplication.class).run(arguments.toArray(String[]::new));
+    }
+
+    private static void awaitNewerLogisticsRuleSetOnBothNodes() throws Exception {
+        long deadline = System.currentTimeMillis() + SYNCHRONIZATION_TIMEOUT_MILLISECONDS;
+        while (!(getLogisticsFclRulesSha256(firstNodeUrl).equals(newerLogisticsFclRulesSha256)
+                && getLogisticsFclRulesSha256(secondNodeUrl).equals(newerLogisticsFclRulesSha256)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static void awaitAllMembersAreReachable(String nodeUrl) throws Exception {
+        long deadline = System.currentTimeMillis() + SYNCHRONIZATION_TIMEOUT_MILLISECONDS;
+        while (objectMapper.readTree(get(nodeUrl + "/cluster/members").body()).get("reachableByMember").toString().contains("false")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static String getRequestBody(String scenarioName) {
+        return switch (scenarioName) {
+            case "logistics" -> LOGISTICS_REQUEST_BODY;
+            case "construction" -> CONSTRUCTION_REQUEST_BODY;
+            default -> AGRICULTURE_REQUEST_BODY;
+        };
+    }
+
+    private static String getLogisticsFclRulesSha256(String nodeUrl) throws Exception {
+        return getFclRulesSha256(nodeUrl, "logistics");
+    }
+
+    private static String getFclRulesSha256(String nodeUrl, String scenarioName) throws Exception {
+        for (JsonNode ruleSetState : objectMapper.readTree(get(nodeUrl + "/cluster/rule-sets").body())) {
+            if (ruleSetState.get("scenarioName").asText().equals(scenarioName)) {
+                return ruleSetState.get("fclRulesSha256").asText();
+            }
+        }
+        throw new AssertionError("The node " + nodeUrl + " does not serve the " + scenarioName + " scenario");
+    }
+
+    private static byte[] readFclRulesResource(String fclRulesResourcePath) throws IOException {
+        try (InputStream fclRulesResource = ClusterTests.class.getClassLoader().getResourceAsStream(fclRulesResourcePath)) {
+            return fclRulesResource.readAllBytes();
+        }
+    }
+
+    private static byte[] withHeader(String header, byte[] fclRules) {
+        return (header + new String(fclRules, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String computeSha256(byte[] fclRules) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(fclRules));
+    }
+
+    private static HttpResponse<String> get(String url) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(url)).GET());
+    }
+
+    private static HttpResponse<String> post(String url, String jsonBody) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody)));
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+}
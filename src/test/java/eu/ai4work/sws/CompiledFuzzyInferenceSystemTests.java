@@ -0,0 +1,268 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.engine.BatchEvaluationResult;
+import eu.ai4work.sws.engine.CompiledEvaluationState;
+import eu.ai4work.sws.engine.CompiledFuzzyInferenceSystem;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.LinguisticTerm;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class CompiledFuzzyInferenceSystemTests {
+
+    /**
+     * jFuzzyLogic samples the output universe for the center of gravity, while the compiled evaluator integrates it
+     * exactly, so the defuzzified values differ slightly.
+     */
+    private static final double DEFUZZIFIED_VALUE_TOLERANCE = 0.01;
+    private static final double DEGREE_OF_SUPPORT_TOLERANCE = 1e-12;
+
+    @Test
+    void testTruckSchedulingRulesMatchJFuzzyLogic() {
+        Map<String, double[]> inputValues = new LinkedHashMap<>();
+        inputValues.put("numberOfTrucksInQueue", range(0, 20, 1));
+        inputValues.put("positionOfTruckToBePrioritized", range(0, 20, 2));
+        inputValues.put("materialUrgency", range(0, 100, 10));
+        inputValues.put("operationalWorkload", range(0, 100, 10));
+        assertCompiledEvaluationMatchesJFuzzyLogic("rules/TruckSchedulingSlidingDecisionRules.fcl", inputValues);
+    }
+
+    @Test
+    void testConstructionRobotAssistanceRulesMatchJFuzzyLogic() {
+        Map<String, double[]> inputValues = new LinkedHashMap<>();
+        inputValues.put("timeTheRobotIsAlreadyMoving", range(0, 15, 0.5));
+        inputValues.put("robotBatteryStatus", range(0, 100, 5));
+        inputValues.put("noOfHumansInTheRoom", range(0, 20, 1));
+        assertCompiledEvaluationMatchesJFuzzyLogic("rules/ConstructionRobotAssistanceDecisionRules.fcl", inputValues);
+    }
+
+    @Test
+    void testAgricultureSchedulingRulesMatchJFuzzyLogic() {
+        Map<String, double[]> inputValues = new LinkedHashMap<>();
+        inputValues.put("distanceToCentralCollectionPoint", range(0, 300, 15));
+        inputValues.put("fatigueLevelOfWorker", range(0, 100, 5));
+        inputValues.put("isDroneCurrentlyAvailable", range(0, 1, 1));
+        inputValues.put("droneBatteryLevel", range(0, 100, 5));
+        assertCompiledEvaluationMatchesJFuzzyLogic("rules/AgricultureSchedulingSlidingDecisionRules.fcl", inputValues);
+    }
+
+    @Test
+    void testCompiledEvaluationDoesNotAllocate() {
+        CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem = CompiledFuzzyInferenceSystem.compile(
+                loadFunctionBlock("rules/TruckSchedulingSlidingDecisionRules.fcl"));
+        CompiledEvaluationState evaluationState = compiledFuzzyInferenceSystem.newEvaluationState();
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        evaluateRepeatedly(compiledFuzzyInferenceSystem, evaluationState, 10_000); // warm up
+        long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        evaluateRepeatedly(compiledFuzzyInferenceSystem, evaluationState, 100_000);
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+
+        // allow a few bytes for the measurement itself
+        assertThat(allocatedBytes).isLessThan(1024);
+    }
+
+    @Test
+    void testEvaluatingChangedInputsMatchesFullEvaluation() {
+        FunctionBlock functionBlock = loadFunctionBlock("rules/AgricultureSchedulingSlidingDecisionRules.fcl");
+        CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem = CompiledFuzzyInferenceSystem.compile(functionBlock);
+        CompiledEvaluationState incrementalState = compiledFuzzyInferenceSystem.newEvaluationState();
+        CompiledEvaluationState fullState = compiledFuzzyInferenceSystem.newEvaluationState();
+        double[] maximumInputValues = {300, 100, 1, 100};
+        Random random = new Random(42);
+        compiledFuzzyInferenceSystem.evaluate(incrementalState);
+
+        boolean[] changedInputVariables = new boolean[compiledFuzzyInferenceSystem.getNumberOfInputVariables()];
+        for (int evaluation = 0; evaluation < 10_000; evaluation++) {
+            for (int inputVariable = 0; inputVariable < changedInputVariables.length; inputVariable++) {
+                // mostly a single input variable changes
+                changedInputVariables[inputVariable] = random.nextInt(changedInputVariables.length * 2) == 0;
+                if (changedInputVariables[inputVariable]) {
+                    incrementalState.setInputValue(inputVariable, random.nextDouble() * maximumInputValues[inputVariable]);
+                }
+                fullState.setInputValue(inputVariable, incrementalState.getInputValue(inputVariable));
+            }
+            compiledFuzzyInferenceSystem.evaluateChangedInputs(incrementalState, changedInputVariables);
+            compiledFuzzyInferenceSystem.evaluate(fullState);
+
+            for (int rule = 0; rule < compiledFuzzyInferenceSystem.getNumberOfRules(); rule++) {
+                assertThat(incrementalState.getDegreeOfSupport(rule)).isEqualTo(fullState.getDegreeOfSupport(rule));
+            }
+            for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+                assertThat(incrementalState.getOutputValue(outputVariable)).isEqualTo(fullState.getOutputValue(outputVariable));
+                assertThat(incrementalState.getWinningOutputTerm(outputVariable)).isEqualTo(fullState.getWinningOutputTerm(outputVariable));
+            }
+        }
+    }
+
+    @Test
+    void testBatchEvaluationMatchesRowByRowEvaluation() {
+        CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem = CompiledFuzzyInferenceSystem.compile(
+                loadFunctionBlock("rules/AgricultureSchedulingSlidingDecisionRules.fcl"));
+        CompiledEvaluationState evaluationState = compiledFuzzyInferenceSystem.newEvaluationState();
+        double[] maximumInputValues = {300, 100, 1, 100};
+        // not a multiple of the block size, so that the last block is only partly filled
+        int numberOfRows = 10_007;
+        double[][] inputColumns = new double[maximumInputValues.length][numberOfRows];
+        Random random = new Random(42);
+        for (int row = 0; row < numberOfRows; row++) {
+            for (int inputVariable = 0; inputVariable < maximumInputValues.length; inputVariable++) {
+                // whole numbers hit the points of the terms, a few values are outside the universe
+                inputColumns[inputVariable][row] = row % 2 == 0
+                        ? random.nextInt((int) maximumInputValues[inputVariable] + 1)
+                        : (random.nextDouble() * 1.2 - 0.1) * maximumInputValues[inputVariable];
+            }
+        }
+
+        BatchEvaluationResult result;
+        try (ForkJoinPool forkJoinPool = new ForkJoinPool(3)) {
+            result = compiledFuzzyInferenceSystem.evaluateBatch(inputColumns, forkJoinPool);
+        }
+
+        assertThat(result.getNumberOfRows()).isEqualTo(numberOfRows);
+        for (int row = 0; row < numberOfRows; row++) {
+            for (int inputVariable = 0; inputVariable < maximumInputValues.length; inputVariable++) {
+                evaluationState.setInputValue(inputVariable, inputColumns[inputVariable][row]);
+            }
+            compiledFuzzyInferenceSystem.evaluate(evaluationState);
+            for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+                double outputValue = evaluationState.getOutputValue(outputVariable);
+                assertThat(result.getOutputValues(outputVariable)[row]).as("value of row %d", row).isEqualTo(outputValue);
+                assertThat(result.getWinningOutputTerms(outputVariable)[row]).as("winning term of row %d", row)
+                        .isEqualTo(compiledFuzzyInferenceSystem.getWinningOutputTerm(outputVariable, outputValue)
+                                - compiledFuzzyInferenceSystem.getOutputTermsStart(outputVariable));
+            }
+        }
+    }
+
+    @Test
+    void testBatchEvaluationRejectsMismatchingInputColumns() {
+        CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem = CompiledFuzzyInferenceSystem.compile(
+                loadFunctionBlock("rules/ConstructionRobotAssistanceDecisionRules.fcl"));
+
+        assertThatThrownBy(() -> compiledFuzzyInferenceSystem.evaluateBatch(new double[2][10]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Expected 3 input columns");
+        assertThatThrownBy(() -> compiledFuzzyInferenceSystem.evaluateBatch(new double[][]{new double[10], new double[10], new double[9]}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("has 9 rows");
+        assertThat(compiledFuzzyInferenceSystem.evaluateBatch(new double[3][0]).getNumberOfRows()).isZero();
+    }
+
+    private static void evaluateRepeatedly(CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem,
+                                           CompiledEvaluationState evaluationState, int numberOfEvaluations) {
+        for (int evaluation = 0; evaluation < numberOfEvaluations; evaluation++) {
+            for (int inputVariable = 0; inputVariable < compiledFuzzyInferenceSystem.getNumberOfInputVariables(); inputVariable++) {
+                evaluationState.setInputValue(inputVariable, (evaluation * (inputVariable + 3)) % 21);
+            }
+            compiledFuzzyInferenceSystem.evaluate(evaluationState);
+        }
+    }
+
+    private static void assertCompiledEvaluationMatchesJFuzzyLogic(String fclRulesFilePath, Map<String, double[]> inputValues) {
+        FunctionBlock functionBlock = loadFunctionBlock(fclRulesFilePath);
+        CompiledFuzzyInferenceSystem compiledFuzzyInferenceSystem = CompiledFuzzyInferenceSystem.compile(functionBlock);
+        CompiledEvaluationState evaluationState = compiledFuzzyInferenceSystem.newEvaluationState();
+        List<Rule> rules = new ArrayList<>();
+        for (RuleBlock ruleBlock : functionBlock.getRuleBlocks().values()) {
+            rules.addAll(ruleBlock.getRules());
+        }
+        List<String> inputVariableNames = new ArrayList<>(inputValues.keySet());
+        int[] valueIndices = new int[inputVariableNames.size()];
+
+        do {
+            for (int inputVariable = 0; inputVariable < inputVariableNames.size(); inputVariable++) {
+                String inputVariableName = inputVariableNames.get(inputVariable);
+                double inputValue = inputValues.get(inputVariableName)[valueIndices[inputVariable]];
+                functionBlock.getVariable(inputVariableName).setValue(inputValue);
+                evaluationState.setInputValue(compiledFuzzyInferenceSystem.getInputVariableIndex(inputVariableName), inputValue);
+            }
+            functionBlock.evaluate();
+            compiledFuzzyInferenceSystem.evaluate(evaluationState);
+
+            for (int rule = 0; rule < rules.size(); rule++) {
+                assertThat(evaluationState.getDegreeOfSupport(rule))
+                        .as("degree of support of rule %s", rules.get(rule).getName())
+                        .isCloseTo(rules.get(rule).getDegreeOfSupport(), within(DEGREE_OF_SUPPORT_TOLERANCE));
+            }
+
+            for (int outputVariable = 0; outputVariable < compiledFuzzyInferenceSystem.getNumberOfOutputVariables(); outputVariable++) {
+                Variable variable = functionBlock.getVariable(compiledFuzzyInferenceSystem.getOutputVariableName(outputVariable));
+                double compiledValue = evaluationState.getOutputValue(outputVariable);
+                assertThat(compiledValue).as("value of %s", variable.getName())
+                        .isCloseTo(variable.getValue(), within(DEFUZZIFIED_VALUE_TOLERANCE));
+
+                assertThat(evaluationState.getWinningOutputTerm(outputVariable)).as("winning term of %s", variable.getName())
+                        .isEqualTo(compiledFuzzyInferenceSystem.getWinningOutputTerm(outputVariable, compiledValue));
+                String compiledTerm = compiledFuzzyInferenceSystem.getOutputTermName(evaluationState.getWinningOutputTerm(outputVariable));
+                // close to the border between two terms, the slightly different values may select different terms
+                if (!isNearTermCrossing(variable, compiledValue, DEFUZZIFIED_VALUE_TOLERANCE)) {
+                    assertThat(compiledTerm).as("decision for %s", variable.getName())
+                            .isEqualTo(getTermWithHighestMembership(variable, variable.getValue()));
+                }
+            }
+        } while (nextCombination(valueIndices, inputVariableNames, inputValues));
+    }
+
+    private static boolean nextCombination(int[] valueIndices, List<String> inputVariableNames, Map<String, double[]> inputValues) {
+        for (int inputVariable = 0; inputVariable < valueIndices.length; inputVariable++) {
+            if (++valueIndices[inputVariable] < inputValues.get(inputVariableNames.get(inputVariable)).length) {
+                return true;
+            }
+            valueIndices[inputVariable] = 0;
+        }
+        return false;
+    }
+
+    /**
+     * @return whether another term has the highest membership within the tolerance below or above the value.
+     */
+    private static boolean isNearTermCrossing(Variable variable, double value, double tolerance) {
+        String term = getTermWithHighestMembership(variable, value);
+        return !getTermWithHighestMembership(variable, value - tolerance).equals(term)
+                || !getTermWithHighestMembership(variable, value + tolerance).equals(term);
+    }
+
+    private static String getTermWithHighestMembership(Variable variable, double value) {
+        String termWithHighestMembership = null;
+        double highestMembership = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<String, LinguisticTerm> linguisticTerm : variable.getLinguisticTerms().entrySet()) {
+            double membership = linguisticTerm.getValue().getMembershipFunction().membership(value);
+            if (membership > highestMembership) {
+                termWithHighestMembership = linguisticTerm.getKey();
+                highestMembership = membership;
+            }
+        }
+        return termWithHighestMembership;
+    }
+
+    private static double[] range(double from, double to, double step) {
+        int numberOfValues = (int) Math.round((to - from) / step) + 1;
+        double[] values = new double[numberOfValues];
+        for (int value = 0; value < numberOfValues; value++) {
+            values[value] = from + value * step;
+        }
+        return values;
+    }
+
+    private static FunctionBlock loadFunctionBlock(String fclRulesFilePath) {
+        return FIS.load(CompiledFuzzyInferenceSystemTests.class.getClassLoader().getResourceAsStream(fclRulesFilePath), true)
+                .getFunctionBlock(null);
+    }
+}
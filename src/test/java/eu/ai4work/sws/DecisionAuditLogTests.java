@@ -0,0 +1,203 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.service.DecisionAuditRecord;
+import eu.ai4work.sws.service.DecisionAuditRingBuffer;
+import eu.ai4work.sws.service.DecisionAuditSegmentReader;
+import eu.ai4work.sws.service.DecisionAuditSegmentWriter;
+import eu.ai4work.sws.service.RuleEngineService;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"spring.profiles.active=logistics", "application-scenario-config.audit-log.enabled=true"})
+class DecisionAuditLogTests {
+
+    private static final long AUDIT_TIMEOUT_MILLISECONDS = 10_000;
+    private static Path auditDirectory;
+
+    @Autowired
+    private RuleEngineService ruleEngineService;
+
+    @Autowired
+    private ScenarioRegistry scenarioRegistry;
+
+    @DynamicPropertySource
+    static void useTemporaryAuditDirectory(DynamicPropertyRegistry registry) throws IOException {
+        auditDirectory = Files.createTempDirectory("decision-audit");
+        registry.add("application-scenario-config.audit-log.directory", auditDirectory::toString);
+    }
+
+    @Test
+    void testDecisionsAreRecordedAndFoundByTheirDecidedTerm() throws Exception {
+        Instant start = Instant.now();
+        Map<String, Object> humanApprovalInputParameters = Map.of(
+                "numberOfTrucksInQueue", 18, "positionOfTruckToBePrioritized", 17, "materialUrgency", 50, "operationalWorkload", 90);
+        Map<String, Object> otherInputParameters = Map.of(
+                "numberOfTrucksInQueue", 7, "positionOfTruckToBePrioritized", 3, "materialUrgency", 80, "operationalWorkload", 20);
+        SlidingDecision humanApprovalDecision = ruleEngineService.applySlidingDecisionRules(humanApprovalInputParameters, ExplanationLevel.NONE);
+        SlidingDecision otherDecision = ruleEngineService.applySlidingDecisionRules(otherInputParameters, ExplanationLevel.NONE);
+        assertThat(humanApprovalDecision.getDecisionResultPerOutputParameter()).containsEntry("suggestedApproach", "requireHumanApproval");
+        assertThat(otherDecision.getDecisionResultPerOutputParameter()).doesNotContainEntry("suggestedApproach", "requireHumanApproval");
+
+        DecisionAuditSegmentReader.Query allDecisionsSinceStart = new DecisionAuditSegmentReader.Query(start, null, "default", null, null);
+        long deadline = System.currentTimeMillis() + AUDIT_TIMEOUT_MILLISECONDS;
+        while (DecisionAuditSegmentReader.read(auditDirectory, allDecisionsSinceStart, decision -> {
+        }) < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        List<DecisionAuditSegmentReader.AuditedDecision> humanApprovalDecisions = new ArrayList<>();
+        DecisionAuditSegmentReader.read(auditDirectory, new DecisionAuditSegmentReader.Query(start, null, null,
+                "suggestedApproach", "requireHumanApproval"), humanApprovalDecisions::add);
+        assertThat(humanApprovalDecisions).hasSize(1);
+        DecisionAuditSegmentReader.AuditedDecision auditedDecision = humanApprovalDecisions.get(0);
+        assertThat(auditedDecision.scenarioName()).isEqualTo("default");
+        assertThat(auditedDecision.ruleSetVersion()).isEqualTo(humanApprovalDecision.getRuleSetVersion());
+        assertThat(auditedDecision.source()).isEqualTo(DecisionAuditRecord.Source.RULE_ENGINE);
+        assertThat(auditedDecision.inputValues()).containsEntry("numberOfTrucksInQueue", 18.0).containsEntry("operationalWorkload", 90.0);
+        assertThat(auditedDecision.decidedTerms()).isEqualTo(humanApprovalDecision.getDecisionResultPerOutputParameter());
+        assertThat(auditedDecision.outputValues().get("suggestedApproach")).isFinite();
+        assertThat(auditedDecision.firedRules()).isNotEmpty().allSatisfy((ruleName, degreeOfSupport) -> assertThat(degreeOfSupport).isPositive());
+        assertThat(auditedDecision.timestamp()).isBetween(start, Instant.now());
+    }
+
+    @Test
+    void testSegmentsAreRotatedAndDeletedAfterTheirRetention(@TempDir Path temporaryDirectory) throws IOException {
+        RuleSet ruleSet = scenarioRegistry.getDefaultScenario().getActiveRuleSet().get();
+        MutableClock clock = new MutableClock(Instant.parse("2024-05-01T08:00:00Z"));
+        DecisionAuditRingBuffer ringBuffer = new DecisionAuditRingBuffer(1);
+        try (DecisionAuditSegmentWriter segmentWriter = new DecisionAuditSegmentWriter(temporaryDirectory, 64 * 1024,
+                Duration.ofHours(1), Duration.ofHours(3), clock)) {
+            for (int hour = 0; hour < 6; hour++) {
+                DecisionAuditRecord record = ringBuffer.tryClaim();
+                record.start(ruleSet, DecisionAuditRecord.Source.CACHE, clock.millis());
+                record.setInputValue(0, hour);
+                ringBuffer.publish(record);
+                ringBuffer.drain(auditRecord -> write(segmentWriter, auditRecord), 1);
+                clock.advance(Duration.ofHours(1));
+            }
+        }
+
+        // started at 8:00 ... 13:00, only the one that ended at 9:00 is older than the retention
+        assertThat(DecisionAuditSegmentReader.listSegmentFiles(temporaryDirectory)).hasSize(5);
+        List<Double> hours = new ArrayList<>();
+        long numberOfDecisions = DecisionAuditSegmentReader.read(temporaryDirectory, new DecisionAuditSegmentReader.Query(
+                        Instant.parse("2024-05-01T11:00:00Z"), Instant.parse("2024-05-01T13:00:00Z"), null, null, null),
+                decision -> hours.add(decision.inputValues().get(ruleSet.getInputSchema().getInputVariableName(0))));
+        assertThat(numberOfDecisions).isEqualTo(2);
+        assertThat(hours).containsExactly(3.0, 4.0);
+    }
+
+    @Test
+    void testRingBufferHandsOverEveryDecisionOnceAndInOrder(@TempDir Path temporaryDirectory) throws Exception {
+        RuleSet ruleSet = scenarioRegistry.getDefaultScenario().getActiveRuleSet().get();
+        int numberOfProducers = 4;
+        int decisionsPerProducer = 20_000;
+        DecisionAuditRingBuffer ringBuffer = new DecisionAuditRingBuffer(64);
+        AtomicBoolean producing = new AtomicBoolean(true);
+
+        try (DecisionAuditSegmentWriter segmentWriter = new DecisionAuditSegmentWriter(temporaryDirectory, 64 * 1024 * 1024,
+                Duration.ofDays(1), Duration.ofDays(1), Clock.systemUTC())) {
+            Thread consumer = new Thread(() -> {
+                while (producing.get() || ringBuffer.getSize() > 0) {
+                    ringBuffer.drain(record -> write(segmentWriter, record), 256);
+                }
+            });
+            consumer.start();
+            List<Thread> producers = new ArrayList<>();
+            for (int producer = 0; producer < numberOfProducers; producer++) {
+                int producerNumber = producer;
+                producers.add(Thread.ofPlatform().start(() -> {
+                    for (int decision = 0; decision < decisionsPerProducer; decision++) {
+                        DecisionAuditRecord record;
+                        while ((record = ringBuffer.tryClaim()) == null) {
+                            Thread.onSpinWait();
+                        }
+                        record.start(ruleSet, DecisionAuditRecord.Source.RULE_ENGINE, System.currentTimeMillis());
+                        record.setInputValue(0, producerNumber);
+                        record.setInputValue(1, decision);
+                        ringBuffer.publish(record);
+                    }
+                }));
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            producing.set(false);
+            consumer.join();
+        }
+
+        String producerVariable = ruleSet.getInputSchema().getInputVariableName(0);
+        String decisionVariable = ruleSet.getInputSchema().getInputVariableName(1);
+        double[] lastDecisionPerProducer = {-1, -1, -1, -1};
+        List<String> errors = new ArrayList<>();
+        long numberOfDecisions = DecisionAuditSegmentReader.read(temporaryDirectory,
+                new DecisionAuditSegmentReader.Query(null, null, null, null, null), decision -> {
+                    int producer = decision.inputValues().get(producerVariable).intValue();
+                    double decisionNumber = decision.inputValues().get(decisionVariable);
+                    if (decisionNumber != lastDecisionPerProducer[producer] + 1) {
+                        errors.add("decision " + decisionNumber + " of producer " + producer + " after " + lastDecisionPerProducer[producer]);
+                    }
+                    lastDecisionPerProducer[producer] = decisionNumber;
+                });
+        assertThat(errors).isEmpty();
+        assertThat(numberOfDecisions).isEqualTo((long) numberOfProducers * decisionsPerProducer);
+    }
+
+    private static void write(DecisionAuditSegmentWriter segmentWriter, DecisionAuditRecord record) {
+        try {
+            segmentWriter.write(record);
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.engine.DecisionLookupTable;
+import eu.ai4work.sws.engine.GridAxis;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DecisionLookupTableTests {
+
+    private static final Map<String, String> TRUCK_SCHEDULING_GRID = Map.of(
+            "numberOfTrucksInQueue", "0:20:1",
+            "positionOfTruckToBePrioritized", "0:20:2",
+            "materialUrgency", "0:100:10",
+            "operationalWorkload", "0:100:10");
+
+    @Test
+    void testLookupAtGridPointsMatchesRuleEvaluation() throws IOException {
+        Supplier<FIS> fuzzyInferenceSystemSupplier = fuzzyInferenceSystemSupplier("rules/TruckSchedulingSlidingDecisionRules.fcl");
+        FunctionBlock functionBlock = fuzzyInferenceSystemSupplier.get().getFunctionBlock(null);
+        List<GridAxis> gridAxes = GridAxis.of(functionBlock, TRUCK_SCHEDULING_GRID, 21);
+        DecisionLookupTable decisionLookupTable = DecisionLookupTable.build(fuzzyInferenceSystemSupplier, gridAxes, true);
+
+        for (double materialUrgency = 0; materialUrgency <= 100; materialUrgency += 10) {
+            for (double numberOfTrucksInQueue = 0; numberOfTrucksInQueue <= 20; numberOfTrucksInQueue++) {
+                Map<String, Object> inputParameters = Map.of("numberOfTrucksInQueue", numberOfTrucksInQueue,
+                        "positionOfTruckToBePrioritized", 4.0, "materialUrgency", materialUrgency, "operationalWorkload", 80.0);
+                inputParameters.forEach((parameterName, parameterValue) -> functionBlock.getVariable(parameterName).setValue((Double) parameterValue));
+                functionBlock.evaluate();
+
+                String expectedDecision = decisionLookupTable.getWinningOutputTermName(0, functionBlock.getVariable("suggestedApproach").getValue());
+                assertThat(decisionLookupTable.lookupDecisions(inputParameters)).containsEntry("suggestedApproach", expectedDecision);
+            }
+        }
+    }
+
+    @Test
+    void testInputOutsideOfGridIsNotLookedUp() throws IOException {
+        Supplier<FIS> fuzzyInferenceSystemSupplier = fuzzyInferenceSystemSupplier("rules/TruckSchedulingSlidingDecisionRules.fcl");
+        List<GridAxis> gridAxes = GridAxis.of(fuzzyInferenceSystemSupplier.get().getFunctionBlock(null), TRUCK_SCHEDULING_GRID, 21);
+        DecisionLookupTable decisionLookupTable = DecisionLookupTable.build(fuzzyInferenceSystemSupplier, gridAxes, true);
+
+        assertThat(decisionLookupTable.lookupDecisions(Map.of("numberOfTrucksInQueue", 25, "positionOfTruckToBePrioritized", 4,
+                "materialUrgency", 30, "operationalWorkload", 80))).isNull();
+    }
+
+    @Test
+    void testTableFileIsOnlyReusedForSameRuleSetAndGrid(@TempDir Path temporaryDirectory) throws IOException {
+        byte[] fclRulesSource = readFclRulesSource("rules/TruckSchedulingSlidingDecisionRules.fcl");
+        Supplier<FIS> fuzzyInferenceSystemSupplier = () -> FIS.load(new ByteArrayInputStream(fclRulesSource), true);
+        FunctionBlock functionBlock = fuzzyInferenceSystemSupplier.get().getFunctionBlock(null);
+        List<GridAxis> gridAxes = GridAxis.of(functionBlock, TRUCK_SCHEDULING_GRID, 21);
+        byte[] ruleSetKey = DecisionLookupTable.computeRuleSetKey(fclRulesSource, gridAxes);
+        Path tableFile = temporaryDirectory.resolve("truck-scheduling.table");
+
+        DecisionLookupTable builtDecisionLookupTable = DecisionLookupTable.build(fuzzyInferenceSystemSupplier, gridAxes, true);
+        builtDecisionLookupTable.write(tableFile, ruleSetKey);
+        DecisionLookupTable mappedDecisionLookupTable = DecisionLookupTable.load(tableFile, functionBlock, gridAxes, ruleSetKey, true).orElseThrow();
+
+        double[] inputValues = {8.5, 9, 63, 71};
+        assertThat(mappedDecisionLookupTable.lookupOutputValue(inputValues, 0))
+                .isCloseTo(builtDecisionLookupTable.lookupOutputValue(inputValues, 0), within(1e-12));
+
+        List<GridAxis> otherGridAxes = GridAxis.of(functionBlock, Map.of("numberOfTrucksInQueue", "0:20:2"), 21);
+        assertThat(DecisionLookupTable.load(tableFile, functionBlock, otherGridAxes,
+                DecisionLookupTable.computeRuleSetKey(fclRulesSource, otherGridAxes), true)).isEmpty();
+        assertThat(DecisionLookupTable.load(tableFile, functionBlock, gridAxes,
+                DecisionLookupTable.computeRuleSetKey(new byte[0], gridAxes), true)).isEmpty();
+    }
+
+    @Test
+    void testDeviationReportOfCoarseGridIsLargerThanOfFineGrid() throws IOException {
+        Supplier<FIS> fuzzyInferenceSystemSupplier = fuzzyInferenceSystemSupplier("rules/ConstructionRobotAssistanceDecisionRules.fcl");
+        FunctionBlock functionBlock = fuzzyInferenceSystemSupplier.get().getFunctionBlock(null);
+
+        DecisionLookupTable.DeviationReport coarseDeviation = DecisionLookupTable.build(fuzzyInferenceSystemSupplier,
+                        GridAxis.of(functionBlock, Map.of(), 5), true)
+                .measureDeviation(fuzzyInferenceSystemSupplier, 2_000, DecisionLookupTable.DEVIATION_SAMPLES_SEED);
+        DecisionLookupTable.DeviationReport fineDeviation = DecisionLookupTable.build(fuzzyInferenceSystemSupplier,
+                        GridAxis.of(functionBlock, Map.of(), 41), true)
+                .measureDeviation(fuzzyInferenceSystemSupplier, 2_000, DecisionLookupTable.DEVIATION_SAMPLES_SEED);
+
+        assertThat(fineDeviation.maximumDeviation()).isLessThan(coarseDeviation.maximumDeviation());
+    }
+
+    private static Supplier<FIS> fuzzyInferenceSystemSupplier(String fclRulesFilePath) throws IOException {
+        byte[] fclRulesSource = readFclRulesSource(fclRulesFilePath);
+        return () -> FIS.load(new ByteArrayInputStream(fclRulesSource), true);
+    }
+
+    private static byte[] readFclRulesSource(String fclRulesFilePath) throws IOException {
+        try (InputStream fclRulesStream = DecisionLookupTableTests.class.getClassLoader().getResourceAsStream(fclRulesFilePath)) {
+            return fclRulesStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package eu.ai4work.sws;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.profiles.active=logistics")
+class DecisionPipelineMetricsTests {
+
+    @Autowired
+    private TestRestTemplate testSlidingDecisionRestTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testEveryStageAndTheDecisionAreMeasured() {
+        String slidingDecisionRequestJsonBody = """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency":30,
+                    "operationalWorkload":80
+                  }
+                }
+                """;
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(APPLICATION_JSON);
+        ResponseEntity<String> response = testSlidingDecisionRestTemplate.postForEntity("/sliding-decision",
+                new HttpEntity<>(slidingDecisionRequestJsonBody, httpHeaders), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        for (String stage : new String[]{"validation", "fis-checkout", "input-binding", "evaluation", "output-term-selection", "explanation", "response-mapping"}) {
+            assertThat(meterRegistry.get("sliding.decision.stage").tag("scenario", "default").tag("stage", stage).timer().count())
+                    .as("measurements of stage %s", stage)
+                    .isPositive();
+        }
+        assertThat(meterRegistry.get("sliding.decision.output.terms").tag("scenario", "default")
+                .tag("output", "suggestedApproach").tag("term", "informHuman").counter().count()).isPositive();
+        assertThat(meterRegistry.get("sliding.decision.fired.rules").tag("scenario", "default").counters().stream()
+                .mapToDouble(Counter::count).sum()).isPositive();
+
+        ResponseEntity<String> prometheusResponse = testSlidingDecisionRestTemplate.getForEntity("/actuator/prometheus", String.class);
+        assertThat(prometheusResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(prometheusResponse.getBody()).contains("sliding_decision_stage_seconds_bucket", "sliding_decision_fired_rules_total",
+                "sliding_decision_rule_degree_of_support_bucket");
+    }
+}
@@ -0,0 +1,106 @@
+package eu.ai4work.sws;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "application-scenario-config.decision-sessions.enabled=true")
+class DecisionSessionControllerTests {
+
+    @Autowired
+    private TestRestTemplate testSlidingDecisionRestTemplate;
+
+    @Test
+    void testSessionDecisionsMatchSingleRequests() {
+        ResponseEntity<Map> openResponse = exchange(HttpMethod.POST, "/sliding-decision/sessions?explanationLevel=none", """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 3,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency": 30,
+                    "operationalWorkload": 20
+                  }
+                }
+                """);
+        assertThat(openResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(openResponse.getBody().toString()).contains("autonomousReprioritization");
+        String sessionId = (String) openResponse.getBody().get("sessionId");
+        assertThat(openResponse.getHeaders().getLocation().toString()).endsWith("/sliding-decision/sessions/" + sessionId);
+
+        String changedInput = """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "operationalWorkload": 80
+                  },
+                  "explanationLevel": "full"
+                }
+                """;
+        ResponseEntity<Map> updateResponse = exchange(HttpMethod.PATCH, "/sliding-decision/sessions/" + sessionId, changedInput);
+        ResponseEntity<Map> singleResponse = exchange(HttpMethod.POST, "/sliding-decision", """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency": 30,
+                    "operationalWorkload": 80
+                  }
+                }
+                """);
+        assertThat(updateResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updateResponse.getBody().get("slidingDecisionOutputParameters"))
+                .isEqualTo(singleResponse.getBody().get("slidingDecisionOutputParameters"));
+        assertThat(updateResponse.getBody().toString()).contains("informHuman", "appliedRules");
+
+        assertThat(exchange(HttpMethod.DELETE, "/sliding-decision/sessions/" + sessionId, null).getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+        ResponseEntity<Map> closedSessionResponse = exchange(HttpMethod.PATCH, "/sliding-decision/sessions/" + sessionId, changedInput);
+        assertThat(closedSessionResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(closedSessionResponse.getBody().toString()).contains("UnknownDecisionSessionException");
+    }
+
+    @Test
+    void testInvalidChangeKeepsTheSession() {
+        ResponseEntity<Map> openResponse = exchange(HttpMethod.POST, "/sliding-decision/sessions", """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency": 30,
+                    "operationalWorkload": 80
+                  }
+                }
+                """);
+        String sessionId = (String) openResponse.getBody().get("sessionId");
+
+        ResponseEntity<Map> invalidResponse = exchange(HttpMethod.PATCH, "/sliding-decision/sessions/" + sessionId, """
+                { "slidingDecisionInputParameters": { "numberOfTrucksInQueue": 3, "materialUrgencyy": 40 } }
+                """);
+        assertThat(invalidResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(invalidResponse.getBody().toString()).contains("Unknown parameter(s): [materialUrgencyy]");
+
+        ResponseEntity<Map> unchangedResponse = exchange(HttpMethod.PATCH, "/sliding-decision/sessions/" + sessionId, """
+                { "slidingDecisionInputParameters": { "materialUrgency": 30 } }
+                """);
+        assertThat(unchangedResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(unchangedResponse.getBody().toString()).contains("informHuman");
+    }
+
+    private ResponseEntity<Map> exchange(HttpMethod method, String path, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_JSON);
+        return testSlidingDecisionRestTemplate.exchange(path, method, new HttpEntity<>(body, headers), Map.class);
+    }
+}
@@ -0,0 +1,115 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.profiles.active=logistics",
+        "application-scenario-config.reload-fcl-rules-file-on-change=true",
+        "application-scenario-config.decision-sessions.enabled=true"})
+class DecisionSessionReloadTests {
+
+    private static final long RELOAD_TIMEOUT_MILLISECONDS = 30_000;
+    private static Path fclRulesFile;
+
+    @Autowired
+    private TestRestTemplate testSlidingDecisionRestTemplate;
+
+    @Autowired
+    private ScenarioRegistry scenarioRegistry;
+
+    @DynamicPropertySource
+    static void useExternalFclRulesFile(DynamicPropertyRegistry registry) throws IOException {
+        fclRulesFile = Files.createTempDirectory("fcl-rules").resolve("TruckSchedulingSlidingDecisionRules.fcl");
+        try (InputStream fclRulesResource = DecisionSessionReloadTests.class.getClassLoader()
+                .getResourceAsStream("rules/TruckSchedulingSlidingDecisionRules.fcl")) {
+            Files.write(fclRulesFile, fclRulesResource.readAllBytes());
+        }
+        registry.add("application-scenario-config.fcl-rules-file-path", fclRulesFile::toString);
+    }
+
+    /**
+     * The reloaded rule set renames the input variable materialUrgency to materialPriority, so the session drops the
+     * old variable, keeps the others and needs a value of the new one before it decides again.
+     */
+    @Test
+    void testSessionIsProjectedOntoTheInputVariablesOfAReloadedRuleSet() throws Exception {
+        ResponseEntity<Map> openResponse = exchange(HttpMethod.POST, "/sliding-decision/sessions", """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency": 30,
+                    "operationalWorkload": 80
+                  }
+                }
+                """);
+        assertThat(openResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        String sessionId = (String) openResponse.getBody().get("sessionId");
+
+        RuleSet initialRuleSet = scenarioRegistry.getDefaultScenario().getActiveRuleSet().get();
+        Files.writeString(fclRulesFile, Files.readString(fclRulesFile, StandardCharsets.UTF_8)
+                .replace("materialUrgency", "materialPriority"), StandardCharsets.UTF_8);
+        awaitRuleSetChange(initialRuleSet);
+
+        ResponseEntity<Map> missingInputResponse = exchange(HttpMethod.PATCH, "/sliding-decision/sessions/" + sessionId, """
+                { "slidingDecisionInputParameters": { "numberOfTrucksInQueue": 3 } }
+                """);
+        assertThat(missingInputResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(missingInputResponse.getBody().toString())
+                .contains("Missing parameter(s): [materialPriority]")
+                .doesNotContain("Unknown parameter(s)");
+
+        ResponseEntity<Map> updateResponse = exchange(HttpMethod.PATCH, "/sliding-decision/sessions/" + sessionId, """
+                { "slidingDecisionInputParameters": { "materialPriority": 30 } }
+                """);
+        ResponseEntity<Map> singleResponse = exchange(HttpMethod.POST, "/sliding-decision", """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialPriority": 30,
+                    "operationalWorkload": 80
+                  }
+                }
+                """);
+        assertThat(updateResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updateResponse.getBody().get("slidingDecisionOutputParameters"))
+                .isEqualTo(singleResponse.getBody().get("slidingDecisionOutputParameters"));
+    }
+
+    private void awaitRuleSetChange(RuleSet previousRuleSet) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + RELOAD_TIMEOUT_MILLISECONDS;
+        while (scenarioRegistry.getDefaultScenario().getActiveRuleSet().get() == previousRuleSet && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(scenarioRegistry.getDefaultScenario().getActiveRuleSet().get()).isNotSameAs(previousRuleSet);
+    }
+
+    private ResponseEntity<Map> exchange(HttpMethod method, String path, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_JSON);
+        return testSlidingDecisionRestTemplate.exchange(path, method, new HttpEntity<>(body, headers), Map.class);
+    }
+}
@@ -0,0 +1,111 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.engine.Defuzzification;
+import eu.ai4work.sws.engine.DefuzzificationComparison;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.defuzzifier.DefuzzifierMeanMax;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class DefuzzificationTests {
+
+    private static final String TRUCK_SCHEDULING_RULES = "rules/TruckSchedulingSlidingDecisionRules.fcl";
+
+    @Test
+    void testParseMethodAndResolution() {
+        assertThat(Defuzzification.parse("suggestedApproach", "COG:100"))
+                .isEqualTo(new Defuzzification(Defuzzification.Method.COG, 100));
+        assertThat(Defuzzification.parse("suggestedApproach", "mm"))
+                .isEqualTo(new Defuzzification(Defuzzification.Method.MM, Defuzzification.DEFAULT_RESOLUTION));
+
+        assertThatThrownBy(() -> Defuzzification.parse("suggestedApproach", "COGS:100"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("COGS");
+        assertThatThrownBy(() -> Defuzzification.parse("suggestedApproach", "MEDIAN"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("MEDIAN");
+        assertThatThrownBy(() -> Defuzzification.parse("suggestedApproach", "COG:1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testCoarserResolutionKeepsTheDecision() throws IOException {
+        Supplier<FIS> fuzzyInferenceSystemSupplier = fuzzyInferenceSystemSupplier(TRUCK_SCHEDULING_RULES);
+        FunctionBlock functionBlock = fuzzyInferenceSystemSupplier.get().getFunctionBlock(null);
+        FIS coarseFuzzyInferenceSystem = Defuzzification.configure(fuzzyInferenceSystemSupplier,
+                Defuzzification.parseAll(Map.of("suggestedApproach", "COG:100"))).get();
+        FunctionBlock coarseFunctionBlock = coarseFuzzyInferenceSystem.getFunctionBlock(null);
+
+        for (FunctionBlock evaluatedFunctionBlock : List.of(functionBlock, coarseFunctionBlock)) {
+            evaluatedFunctionBlock.setVariable("numberOfTrucksInQueue", 7);
+            evaluatedFunctionBlock.setVariable("positionOfTruckToBePrioritized", 5);
+            evaluatedFunctionBlock.setVariable("materialUrgency", 30);
+            evaluatedFunctionBlock.setVariable("operationalWorkload", 80);
+            evaluatedFunctionBlock.evaluate();
+        }
+
+        assertThat(coarseFunctionBlock.getVariable("suggestedApproach").getValue())
+                .isCloseTo(functionBlock.getVariable("suggestedApproach").getValue(), within(0.05));
+    }
+
+    @Test
+    void testMethodReplacesTheOneOfTheFclFile() throws IOException {
+        FIS fuzzyInferenceSystem = Defuzzification.apply(fuzzyInferenceSystemSupplier(TRUCK_SCHEDULING_RULES).get(),
+                Defuzzification.parseAll(Map.of("suggestedApproach", "MM")));
+
+        assertThat(fuzzyInferenceSystem.getFunctionBlock(null).getVariable("suggestedApproach").getDefuzzifier())
+                .isInstanceOf(DefuzzifierMeanMax.class);
+    }
+
+    @Test
+    void testInvalidDefuzzificationIsRejected() throws IOException {
+        Supplier<FIS> fuzzyInferenceSystemSupplier = fuzzyInferenceSystemSupplier(TRUCK_SCHEDULING_RULES);
+
+        assertThatThrownBy(() -> Defuzzification.apply(fuzzyInferenceSystemSupplier.get(),
+                Defuzzification.parseAll(Map.of("materialUrgency", "COG:100"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("materialUrgency");
+        // the terms of suggestedApproach are not singletons
+        assertThatThrownBy(() -> Defuzzification.apply(fuzzyInferenceSystemSupplier.get(),
+                Defuzzification.parseAll(Map.of("suggestedApproach", "COGS"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("singleton");
+    }
+
+    @Test
+    void testComparisonReportsDifferingDecisions() throws IOException {
+        Defuzzification referenceDefuzzification = new Defuzzification(Defuzzification.Method.COG, 2_000);
+        List<DefuzzificationComparison> comparisons = DefuzzificationComparison.compare(fuzzyInferenceSystemSupplier(TRUCK_SCHEDULING_RULES),
+                Arrays.asList(referenceDefuzzification, new Defuzzification(Defuzzification.Method.COG, 50), null),
+                referenceDefuzzification, 1_000, DefuzzificationComparison.SAMPLES_SEED);
+
+        assertThat(comparisons).hasSize(3);
+        assertThat(comparisons.get(0).differingDecisions()).isZero();
+        assertThat(comparisons.get(0).maximumDeviation()).isZero();
+        assertThat(comparisons.get(1).differingDecisions()).isLessThan(50);
+        assertThat(comparisons.get(1).maximumDeviation()).isLessThan(0.1);
+        assertThat(comparisons.get(1).differingDecisionsByOutputVariable()).containsOnlyKeys("suggestedApproach");
+        assertThat(comparisons.get(2).defuzzification()).isNull();
+        assertThat(comparisons).allSatisfy(comparison -> assertThat(comparison.microsecondsPerEvaluation()).isPositive());
+    }
+
+    private static Supplier<FIS> fuzzyInferenceSystemSupplier(String fclRulesFilePath) throws IOException {
+        byte[] fclRulesSource;
+        try (InputStream fclRulesStream = DefuzzificationTests.class.getClassLoader().getResourceAsStream(fclRulesFilePath)) {
+            fclRulesSource = fclRulesStream.readAllBytes();
+        }
+        return () -> FIS.load(new ByteArrayInputStream(fclRulesSource), true);
+    }
+}
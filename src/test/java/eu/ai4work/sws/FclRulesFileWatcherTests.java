@@ -0,0 +1,71 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.service.RuleEngineService;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"spring.profiles.active=logistics", "application-scenario-config.reload-fcl-rules-file-on-change=true"})
+class FclRulesFileWatcherTests {
+
+    private static final long RELOAD_TIMEOUT_MILLISECONDS = 30_000;
+    private static Path fclRulesFile;
+
+    @Autowired
+    private ScenarioRegistry scenarioRegistry;
+
+    @Autowired
+    private RuleEngineService ruleEngineService;
+
+    @DynamicPropertySource
+    static void useExternalFclRulesFile(DynamicPropertyRegistry registry) throws IOException {
+        fclRulesFile = Files.createTempDirectory("fcl-rules").resolve("TruckSchedulingSlidingDecisionRules.fcl");
+        try (InputStream fclRulesResource = FclRulesFileWatcherTests.class.getClassLoader()
+                .getResourceAsStream("rules/TruckSchedulingSlidingDecisionRules.fcl")) {
+            Files.write(fclRulesFile, fclRulesResource.readAllBytes());
+        }
+        registry.add("application-scenario-config.fcl-rules-file-path", fclRulesFile::toString);
+    }
+
+    @Test
+    void testInvalidChangeKeepsRuleSetAndValidChangeActivatesNewRuleSet() throws Exception {
+        RuleSet initialRuleSet = scenarioRegistry.getDefaultScenario().getActiveRuleSet().get();
+        byte[] validFclRules = Files.readAllBytes(fclRulesFile);
+
+        Files.writeString(fclRulesFile, "FUNCTION_BLOCK broken", StandardCharsets.UTF_8);
+        Thread.sleep(2_000); // there is no event when a change is rejected, so give the watcher time to try
+        assertThat(scenarioRegistry.getDefaultScenario().getActiveRuleSet().get()).isSameAs(initialRuleSet);
+
+        Files.write(fclRulesFile, validFclRules);
+        Files.writeString(fclRulesFile, "\n// reloaded\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        RuleSet reloadedRuleSet = awaitRuleSetChange(initialRuleSet);
+
+        assertThat(reloadedRuleSet.getVersion()).isNotEqualTo(initialRuleSet.getVersion());
+        SlidingDecision slidingDecision = ruleEngineService.applySlidingDecisionRules(Map.of(
+                "numberOfTrucksInQueue", 7, "positionOfTruckToBePrioritized", 3, "materialUrgency", 80, "operationalWorkload", 20));
+        assertThat(slidingDecision.getRuleSetVersion()).isEqualTo(reloadedRuleSet.getVersion());
+    }
+
+    private RuleSet awaitRuleSetChange(RuleSet previousRuleSet) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + RELOAD_TIMEOUT_MILLISECONDS;
+        while (scenarioRegistry.getDefaultScenario().getActiveRuleSet().get() == previousRuleSet && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        return scenarioRegistry.getDefaultScenario().getActiveRuleSet().get();
+    }
+}
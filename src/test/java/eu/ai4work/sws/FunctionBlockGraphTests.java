@@ -0,0 +1,130 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.engine.FunctionBlockGraph;
+import eu.ai4work.sws.exception.InvalidFclFileException;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import eu.ai4work.sws.service.SlidingDecisionService;
+import net.sourceforge.jFuzzyLogic.FIS;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"spring.profiles.active=agriculture",
+        "application-scenario-config.scenarios.chained.fcl-rules-file-path=rules/ChainedAgricultureSchedulingSlidingDecisionRules.fcl"})
+class FunctionBlockGraphTests {
+
+    @Autowired
+    private ScenarioRegistry scenarioRegistry;
+
+    @Autowired
+    private SlidingDecisionService slidingDecisionService;
+
+    @Test
+    void testIndependentFunctionBlocksAreEvaluatedBeforeChainedOnes() {
+        RuleSet ruleSet = scenarioRegistry.getScenario("chained").getActiveRuleSet().get();
+
+        assertThat(ruleSet.getFunctionBlockGraph().getStages()).hasSize(2);
+        assertThat(ruleSet.getFunctionBlockGraph().getStages().get(0)).containsExactlyInAnyOrder("taskAssignment", "supervisorNotification");
+        assertThat(ruleSet.getFunctionBlockGraph().getStages().get(1)).containsExactly("workerBreak");
+        // the chained variable is an output of the decision, not an input
+        assertThat(ruleSet.getRequiredFuzzyInputParameters()).containsExactlyInAnyOrder(
+                "distanceToCentralCollectionPoint", "fatigueLevelOfWorker", "isDroneCurrentlyAvailable", "droneBatteryLevel");
+        assertThat(ruleSet.getOutputVariableNames()).containsExactlyInAnyOrder(
+                "suggestedApproach", "shouldSupervisorBeInformed", "shouldWorkerTakeABreak");
+    }
+
+    @Test
+    void testSplitFunctionBlocksDecideLikeASingleFunctionBlock() {
+        Scenario singleFunctionBlockScenario = scenarioRegistry.getDefaultScenario();
+        Scenario chainedScenario = scenarioRegistry.getScenario("chained");
+        for (int distance = 0; distance <= 300; distance += 30) {
+            for (int fatigue = 0; fatigue <= 100; fatigue += 10) {
+                for (int droneAvailable = 0; droneAvailable <= 1; droneAvailable++) {
+                    for (int droneBattery = 0; droneBattery <= 100; droneBattery += 25) {
+                        Map<String, Object> slidingDecisionInputParameters = Map.of(
+                                "distanceToCentralCollectionPoint", distance,
+                                "fatigueLevelOfWorker", fatigue,
+                                "isDroneCurrentlyAvailable", droneAvailable,
+                                "droneBatteryLevel", droneBattery);
+                        Map<String, String> expectedDecisions = slidingDecisionService.getSlidingDecision(singleFunctionBlockScenario,
+                                slidingDecisionInputParameters, ExplanationLevel.NONE).getDecisionResultPerOutputParameter();
+                        Map<String, String> chainedDecisions = slidingDecisionService.getSlidingDecision(chainedScenario,
+                                slidingDecisionInputParameters, ExplanationLevel.NONE).getDecisionResultPerOutputParameter();
+
+                        assertThat(chainedDecisions).containsAllEntriesOf(expectedDecisions);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testChainedFunctionBlockGetsTheDefuzzifiedValue() {
+        Scenario chainedScenario = scenarioRegistry.getScenario("chained");
+
+        SlidingDecision tiredWorkerDecision = slidingDecisionService.getSlidingDecision(chainedScenario, Map.of(
+                "distanceToCentralCollectionPoint", 250,
+                "fatigueLevelOfWorker", 90,
+                "isDroneCurrentlyAvailable", 0,
+                "droneBatteryLevel", 80), ExplanationLevel.FULL);
+        assertThat(tiredWorkerDecision.getDecisionResultPerOutputParameter())
+                .containsEntry("shouldSupervisorBeInformed", "yes")
+                .containsEntry("shouldWorkerTakeABreak", "yes");
+        assertThat(tiredWorkerDecision.getDecisionExplanation().getInputVariables()).doesNotContainKey("shouldSupervisorBeInformed");
+        assertThat(tiredWorkerDecision.getDecisionExplanation().getOutputVariables()).containsKey("shouldSupervisorBeInformed");
+        assertThat(tiredWorkerDecision.getDecisionExplanation().getAppliedRules())
+                .anySatisfy(appliedRule -> assertThat(appliedRule.getCondition()).contains("shouldSupervisorBeInformed"));
+
+        SlidingDecision restedWorkerDecision = slidingDecisionService.getSlidingDecision(chainedScenario, Map.of(
+                "distanceToCentralCollectionPoint", 250,
+                "fatigueLevelOfWorker", 10,
+                "isDroneCurrentlyAvailable", 0,
+                "droneBatteryLevel", 80), ExplanationLevel.NONE);
+        assertThat(restedWorkerDecision.getDecisionResultPerOutputParameter())
+                .containsEntry("shouldSupervisorBeInformed", "no")
+                .containsEntry("shouldWorkerTakeABreak", "no");
+    }
+
+    @Test
+    void testCyclicFunctionBlocksAreRejected() {
+        FIS fuzzyInferenceSystem = FIS.createFromString("""
+                FUNCTION_BLOCK first
+                VAR_INPUT b : REAL; END_VAR
+                VAR_OUTPUT a : REAL; END_VAR
+                FUZZIFY b TERM low := (0, 1) (1, 0); END_FUZZIFY
+                DEFUZZIFY a TERM low := (0, 1) (1, 0); METHOD : COG; DEFAULT := 0; END_DEFUZZIFY
+                RULEBLOCK No1 AND : MIN; RULE 1 : IF b IS low THEN a IS low; END_RULEBLOCK
+                END_FUNCTION_BLOCK
+
+                FUNCTION_BLOCK second
+                VAR_INPUT a : REAL; END_VAR
+                VAR_OUTPUT b : REAL; END_VAR
+                FUZZIFY a TERM low := (0, 1) (1, 0); END_FUZZIFY
+                DEFUZZIFY b TERM low := (0, 1) (1, 0); METHOD : COG; DEFAULT := 0; END_DEFUZZIFY
+                RULEBLOCK No1 AND : MIN; RULE 1 : IF a IS low THEN b IS low; END_RULEBLOCK
+                END_FUNCTION_BLOCK
+                """, false);
+
+        assertThatThrownBy(() -> FunctionBlockGraph.of(fuzzyInferenceSystem, true))
+                .isInstanceOf(InvalidFclFileException.class)
+                .hasMessageContaining("cycle");
+        assertThat(FunctionBlockGraph.of(FIS.createFromString("""
+                FUNCTION_BLOCK single
+                VAR_INPUT b : REAL; END_VAR
+                VAR_OUTPUT a : REAL; END_VAR
+                FUZZIFY b TERM low := (0, 1) (1, 0); END_FUZZIFY
+                DEFUZZIFY a TERM low := (0, 1) (1, 0); METHOD : COG; DEFAULT := 0; END_DEFUZZIFY
+                RULEBLOCK No1 AND : MIN; RULE 1 : IF b IS low THEN a IS low; END_RULEBLOCK
+                END_FUNCTION_BLOCK
+                """, false), true).hasSingleFunctionBlock()).isTrue();
+    }
+}
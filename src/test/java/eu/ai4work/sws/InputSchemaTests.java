@@ -0,0 +1,104 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.engine.InputSchema;
+import eu.ai4work.sws.exception.InvalidInputParameterException;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InputSchemaTests {
+
+    @Test
+    void testInputValuesAreReadInTheOrderOfTheInputVariables() {
+        InputSchema inputSchema = InputSchema.compile(loadTruckSchedulingFunctionBlock(), false);
+        double[] inputValues = new double[inputSchema.getNumberOfInputVariables()];
+
+        inputSchema.readInputValues(createValidInputParameters(), inputValues);
+
+        assertThat(inputValues).containsExactly(5, 8, 90, 70);
+        assertThat(inputSchema.getInputVariableIndex("materialUrgency")).isEqualTo(2);
+        assertThat(inputSchema.getInputVariableIndex("unknownParameter")).isEqualTo(-1);
+    }
+
+    @Test
+    void testUnknownAndMissingParametersAreReported() {
+        InputSchema inputSchema = InputSchema.compile(loadTruckSchedulingFunctionBlock(), false);
+        Map<String, Object> inputParameters = createValidInputParameters();
+        inputParameters.remove("operationalWorkload");
+        inputParameters.put("unknownParameter", 1);
+
+        assertThatThrownBy(() -> inputSchema.readInputValues(inputParameters, new double[4]))
+                .isInstanceOf(InvalidInputParameterException.class)
+                .hasMessageContaining("Invalid sliding decision input. - Unknown parameter(s): [unknownParameter]"
+                        + " - Missing parameter(s): [operationalWorkload]");
+    }
+
+    @Test
+    void testValuesThatAreNotFiniteNumbersAreRejected() {
+        InputSchema inputSchema = InputSchema.compile(loadTruckSchedulingFunctionBlock(), false);
+        Map<String, Object> inputParameters = createValidInputParameters();
+
+        inputParameters.put("materialUrgency", "high");
+        assertThatThrownBy(() -> inputSchema.readInputValues(inputParameters, new double[4]))
+                .isInstanceOf(InvalidInputParameterException.class)
+                .hasMessageContaining("'materialUrgency' must be a number");
+
+        inputParameters.put("materialUrgency", Double.POSITIVE_INFINITY);
+        assertThatThrownBy(() -> inputSchema.readInputValues(inputParameters, new double[4]))
+                .isInstanceOf(InvalidInputParameterException.class)
+                .hasMessageContaining("'materialUrgency' must be a finite number");
+    }
+
+    @Test
+    void testValuesOutsideTheUniverseAreRejectedIfConfigured() {
+        Map<String, Object> inputParameters = createValidInputParameters();
+        inputParameters.put("numberOfTrucksInQueue", 25);
+
+        InputSchema.compile(loadTruckSchedulingFunctionBlock(), false).readInputValues(inputParameters, new double[4]);
+        assertThatThrownBy(() -> InputSchema.compile(loadTruckSchedulingFunctionBlock(), true).readInputValues(inputParameters, new double[4]))
+                .isInstanceOf(InvalidInputParameterException.class)
+                .hasMessageContaining("'numberOfTrucksInQueue' must be between 0.0 and 20.0");
+    }
+
+    @Test
+    void testReadingValidInputValuesDoesNotAllocate() {
+        InputSchema inputSchema = InputSchema.compile(loadTruckSchedulingFunctionBlock(), true);
+        Map<String, Object> inputParameters = createValidInputParameters();
+        double[] inputValues = new double[inputSchema.getNumberOfInputVariables()];
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int repetition = 0; repetition < 10_000; repetition++) { // warm up
+            inputSchema.readInputValues(inputParameters, inputValues);
+        }
+        long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int repetition = 0; repetition < 100_000; repetition++) {
+            inputSchema.readInputValues(inputParameters, inputValues);
+        }
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+
+        // allow a few bytes for the measurement itself
+        assertThat(allocatedBytes).isLessThan(1024);
+    }
+
+    private static Map<String, Object> createValidInputParameters() {
+        Map<String, Object> inputParameters = new HashMap<>();
+        inputParameters.put("numberOfTrucksInQueue", 5);
+        inputParameters.put("positionOfTruckToBePrioritized", 8);
+        inputParameters.put("materialUrgency", 90.0);
+        inputParameters.put("operationalWorkload", 70);
+        return inputParameters;
+    }
+
+    private static FunctionBlock loadTruckSchedulingFunctionBlock() {
+        return FIS.load(InputSchemaTests.class.getClassLoader().getResourceAsStream("rules/TruckSchedulingSlidingDecisionRules.fcl"), true)
+                .getFunctionBlock(null);
+    }
+}
@@ -0,0 +1,85 @@
+package eu.ai4work.sws;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.profiles.active=all")
+class MultiScenarioControllerTests {
+
+    @Autowired
+    private TestRestTemplate testSlidingDecisionRestTemplate;
+
+    @Test
+    void testEachScenarioIsServedWithItsOwnRules() {
+        ResponseEntity<String> logisticsResponse = postRequestWithBody("/scenarios/logistics/sliding-decision", """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency":30,
+                    "operationalWorkload":80
+                  }
+                }
+                """);
+        assertThat(logisticsResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(logisticsResponse.getBody()).contains("informHuman", "Human has to be informed about AI's rescheduling");
+
+        ResponseEntity<String> constructionResponse = postRequestWithBody("/scenarios/construction/sliding-decision", """
+                {
+                  "slidingDecisionInputParameters": {
+                    "timeTheRobotIsAlreadyMoving": 4,
+                    "robotBatteryStatus": 65,
+                    "noOfHumansInTheRoom": 10
+                  }
+                }
+                """);
+        assertThat(constructionResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(constructionResponse.getBody()).contains("suggestedApproach", "askForHumanHelp", "Ask human for help");
+    }
+
+    @Test
+    void testInputOfAnotherScenarioIsRejected() {
+        ResponseEntity<String> response = postRequestWithBody("/scenarios/construction/sliding-decision", """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency":30,
+                    "operationalWorkload":80
+                  }
+                }
+                """);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Unknown parameter(s)", "Missing parameter(s)");
+    }
+
+    @Test
+    void testUnknownScenario() {
+        String slidingDecisionRequestJsonBody = """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7
+                  }
+                }
+                """;
+        ResponseEntity<String> unknownScenarioResponse = postRequestWithBody("/scenarios/mining/sliding-decision", slidingDecisionRequestJsonBody);
+        assertThat(unknownScenarioResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(unknownScenarioResponse.getBody()).contains("mining", "[agriculture, construction, logistics]");
+
+        // this profile has no default scenario
+        assertThat(postRequestWithBody("/sliding-decision", slidingDecisionRequestJsonBody).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<String> postRequestWithBody(String url, String jsonEntityBody) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(APPLICATION_JSON);
+        HttpEntity<String> slidingDecisionRequestHttpEntity = new HttpEntity<>(jsonEntityBody, httpHeaders);
+        return testSlidingDecisionRestTemplate.postForEntity(url, slidingDecisionRequestHttpEntity, String.class);
+    }
+}
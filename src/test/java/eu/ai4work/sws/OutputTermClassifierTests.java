@@ -0,0 +1,108 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.engine.OutputTermClassifier;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.membership.MembershipFunction;
+import net.sourceforge.jFuzzyLogic.rule.LinguisticTerm;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputTermClassifierTests {
+    /**
+     * Exactly where two terms cross, the membership degrees of jFuzzyLogic may differ in the last bits.
+     */
+    private static final double MEMBERSHIP_TOLERANCE = 1e-9;
+
+    private static final String TIED_TERMS_RULES = """
+            FUNCTION_BLOCK tiedTerms
+            VAR_INPUT
+                x : REAL;
+            END_VAR
+            VAR_OUTPUT
+                decision : REAL;
+            END_VAR
+            FUZZIFY x
+                TERM low := (0, 1) (10, 0);
+                TERM high := (0, 0) (10, 1);
+            END_FUZZIFY
+            DEFUZZIFY decision
+                TERM left := (0, 0) (1, 1) (2, 0);
+                TERM sameAsLeft := (0, 0) (1, 1) (2, 0);
+                TERM right := (1, 0) (2, 1) (3, 0);
+                METHOD : COG;
+                DEFAULT := 0;
+            END_DEFUZZIFY
+            RULEBLOCK No1
+                AND : MIN;
+                ACT : MIN;
+                ACCU : MAX;
+                RULE 1 : IF x IS low THEN decision IS left;
+                RULE 2 : IF x IS high THEN decision IS right;
+            END_RULEBLOCK
+            END_FUNCTION_BLOCK
+            """;
+
+    @Test
+    void testWinningTermHasTheHighestMembership() {
+        for (String fclRulesFilePath : List.of("rules/TruckSchedulingSlidingDecisionRules.fcl",
+                "rules/ConstructionRobotAssistanceDecisionRules.fcl", "rules/AgricultureSchedulingSlidingDecisionRules.fcl")) {
+            FunctionBlock functionBlock = FIS.load(OutputTermClassifierTests.class.getClassLoader().getResourceAsStream(fclRulesFilePath), true)
+                    .getFunctionBlock(null);
+            OutputTermClassifier outputTermClassifier = OutputTermClassifier.compile(functionBlock);
+
+            for (int outputVariable = 0; outputVariable < outputTermClassifier.getNumberOfOutputVariables(); outputVariable++) {
+                Variable variable = functionBlock.getVariable(outputTermClassifier.getOutputVariableName(outputVariable));
+                List<MembershipFunction> membershipFunctions = variable.getLinguisticTerms().values().stream()
+                        .map(LinguisticTerm::getMembershipFunction).toList();
+                double minimum = variable.getUniverseMin() - 1;
+                double maximum = variable.getUniverseMax() + 1;
+                for (int sample = 0; sample <= 10_000; sample++) {
+                    double value = minimum + (maximum - minimum) * sample / 10_000;
+                    assertIsWinningTerm(outputTermClassifier, outputVariable, membershipFunctions, value);
+                }
+                for (MembershipFunction membershipFunction : membershipFunctions) {
+                    for (int parameter = 0; parameter < membershipFunction.getParametersLength(); parameter++) {
+                        assertIsWinningTerm(outputTermClassifier, outputVariable, membershipFunctions, membershipFunction.getParameter(parameter));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFirstTermWinsOnEqualMemberships() {
+        FunctionBlock functionBlock = FIS.load(new ByteArrayInputStream(TIED_TERMS_RULES.getBytes(StandardCharsets.UTF_8)), true)
+                .getFunctionBlock(null);
+        OutputTermClassifier outputTermClassifier = OutputTermClassifier.compile(functionBlock);
+        List<String> termNames = List.copyOf(functionBlock.getVariable("decision").getLinguisticTerms().keySet());
+        String firstTerm = termNames.get(0);
+        String firstOfLeftAndSameAsLeft = termNames.indexOf("left") < termNames.indexOf("sameAsLeft") ? "left" : "sameAsLeft";
+
+        // left and sameAsLeft are always equal
+        assertThat(outputTermClassifier.getWinningTermName(0, 0.5)).isEqualTo(firstOfLeftAndSameAsLeft);
+        assertThat(outputTermClassifier.getWinningTermName(0, 1)).isEqualTo(firstOfLeftAndSameAsLeft);
+        assertThat(outputTermClassifier.getWinningTermName(0, Math.nextDown(1.5))).isEqualTo(firstOfLeftAndSameAsLeft);
+        // all three terms have the membership 0.5
+        assertThat(outputTermClassifier.getWinningTermName(0, 1.5)).isEqualTo(firstTerm);
+        assertThat(outputTermClassifier.getWinningTermName(0, Math.nextUp(1.5))).isEqualTo("right");
+        assertThat(outputTermClassifier.getWinningTermName(0, 2.5)).isEqualTo("right");
+        // outside of all terms, every membership is 0
+        assertThat(outputTermClassifier.getWinningTermName(0, -5)).isEqualTo(firstTerm);
+        assertThat(outputTermClassifier.getWinningTermName(0, 10)).isEqualTo(firstTerm);
+    }
+
+    private static void assertIsWinningTerm(OutputTermClassifier outputTermClassifier, int outputVariable,
+                                            List<MembershipFunction> membershipFunctions, double value) {
+        int winningTerm = outputTermClassifier.getWinningTerm(outputVariable, value);
+        double highestMembership = membershipFunctions.stream().mapToDouble(membershipFunction -> membershipFunction.membership(value)).max().orElseThrow();
+        assertThat(membershipFunctions.get(winningTerm).membership(value)).as("membership of the winning term at %s", value)
+                .isGreaterThanOrEqualTo(highestMembership - MEMBERSHIP_TOLERANCE);
+    }
+}
@@ -0,0 +1,128 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.engine.PrecompiledRuleSet;
+import eu.ai4work.sws.exception.RuleSetCompilationException;
+import net.sourceforge.jFuzzyLogic.FIS;
+import net.sourceforge.jFuzzyLogic.FunctionBlock;
+import net.sourceforge.jFuzzyLogic.rule.Rule;
+import net.sourceforge.jFuzzyLogic.rule.RuleBlock;
+import net.sourceforge.jFuzzyLogic.rule.Variable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrecompiledRuleSetTests {
+
+    private static final String PRODUCT_ACTIVATION_RULES = """
+            FUNCTION_BLOCK productActivation
+            VAR_INPUT
+                x : REAL;
+            END_VAR
+            VAR_OUTPUT
+                decision : REAL;
+            END_VAR
+            FUZZIFY x
+                TERM low := (0, 1) (10, 0);
+                TERM high := (0, 0) (10, 1);
+            END_FUZZIFY
+            DEFUZZIFY decision
+                TERM left := (0, 0) (1, 1) (2, 0);
+                TERM right := (1, 0) (2, 1) (3, 0);
+                METHOD : COG;
+                DEFAULT := 0;
+            END_DEFUZZIFY
+            RULEBLOCK No1
+                AND : MIN;
+                ACT : PROD;
+                ACCU : MAX;
+                RULE 1 : IF x IS low THEN decision IS left;
+                RULE 2 : IF x IS high THEN decision IS right;
+            END_RULEBLOCK
+            END_FUNCTION_BLOCK
+            """;
+
+    @Test
+    void testBuiltFuzzyInferenceSystemEvaluatesLikeParsedOne() throws IOException {
+        for (String fclRulesFilePath : List.of("rules/TruckSchedulingSlidingDecisionRules.fcl",
+                "rules/ConstructionRobotAssistanceDecisionRules.fcl", "rules/AgricultureSchedulingSlidingDecisionRules.fcl")) {
+            byte[] fclRulesSource = readFclRulesSource(fclRulesFilePath);
+            PrecompiledRuleSet precompiledRuleSet = PrecompiledRuleSet.precompile(parse(fclRulesSource));
+            assertThat(precompiledRuleSet.reproducesReferenceEvaluations()).as(fclRulesFilePath).isTrue();
+
+            FunctionBlock parsedFunctionBlock = parse(fclRulesSource);
+            FunctionBlock builtFunctionBlock = precompiledRuleSet.createFuzzyInferenceSystem().getFunctionBlock(null);
+            assertThat(List.copyOf(builtFunctionBlock.getVariables().keySet())).isEqualTo(List.copyOf(parsedFunctionBlock.getVariables().keySet()));
+            assertThat(getRuleNames(builtFunctionBlock)).isEqualTo(getRuleNames(parsedFunctionBlock));
+
+            List<Variable> inputVariables = parsedFunctionBlock.getVariables().values().stream().filter(Variable::isInput).toList();
+            List<String> outputVariableNames = parsedFunctionBlock.getVariables().values().stream()
+                    .filter(Variable::isOutput).map(Variable::getName).toList();
+            Random random = new Random(42);
+            for (int sample = 0; sample < 1_000; sample++) {
+                for (Variable inputVariable : inputVariables) {
+                    double value = inputVariable.getUniverseMin() - 1
+                            + random.nextDouble() * (inputVariable.getUniverseMax() - inputVariable.getUniverseMin() + 2);
+                    parsedFunctionBlock.setVariable(inputVariable.getName(), value);
+                    builtFunctionBlock.setVariable(inputVariable.getName(), value);
+                }
+                parsedFunctionBlock.evaluate();
+                builtFunctionBlock.evaluate();
+                for (String outputVariableName : outputVariableNames) {
+                    assertThat(builtFunctionBlock.getVariable(outputVariableName).getValue())
+                            .isEqualTo(parsedFunctionBlock.getVariable(outputVariableName).getValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFileIsOnlyReusedForSameFclSource(@TempDir Path temporaryDirectory) throws IOException {
+        byte[] fclRulesSource = readFclRulesSource("rules/TruckSchedulingSlidingDecisionRules.fcl");
+        byte[] ruleSetKey = PrecompiledRuleSet.computeRuleSetKey(fclRulesSource);
+        Path precompiledRuleSetFile = temporaryDirectory.resolve("truck-scheduling.swsr");
+
+        assertThat(PrecompiledRuleSet.load(precompiledRuleSetFile, ruleSetKey)).isEmpty();
+        PrecompiledRuleSet.precompile(parse(fclRulesSource)).write(precompiledRuleSetFile, ruleSetKey);
+
+        PrecompiledRuleSet loadedPrecompiledRuleSet = PrecompiledRuleSet.load(precompiledRuleSetFile, ruleSetKey).orElseThrow();
+        assertThat(loadedPrecompiledRuleSet.reproducesReferenceEvaluations()).isTrue();
+        assertThat(PrecompiledRuleSet.load(precompiledRuleSetFile, PrecompiledRuleSet.computeRuleSetKey(new byte[0]))).isEmpty();
+    }
+
+    @Test
+    void testUnsupportedActivationMethodIsRejected() {
+        FunctionBlock functionBlock = parse(PRODUCT_ACTIVATION_RULES.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> PrecompiledRuleSet.precompile(functionBlock))
+                .isInstanceOf(RuleSetCompilationException.class)
+                .hasMessageContaining("only MIN activation and MAX accumulation");
+    }
+
+    private static List<String> getRuleNames(FunctionBlock functionBlock) {
+        return functionBlock.getRuleBlocks().values().stream()
+                .map(RuleBlock::getRules)
+                .flatMap(List::stream)
+                .map(Rule::getName)
+                .toList();
+    }
+
+    private static FunctionBlock parse(byte[] fclRulesSource) {
+        return FIS.load(new ByteArrayInputStream(fclRulesSource), true).getFunctionBlock(null);
+    }
+
+    private static byte[] readFclRulesSource(String fclRulesFilePath) throws IOException {
+        try (InputStream fclRulesStream = PrecompiledRuleSetTests.class.getClassLoader().getResourceAsStream(fclRulesFilePath)) {
+            return fclRulesStream.readAllBytes();
+        }
+    }
+}
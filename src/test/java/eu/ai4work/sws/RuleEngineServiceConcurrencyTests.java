@@ -0,0 +1,79 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.service.RuleEngineService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.profiles.active=logistics")
+class RuleEngineServiceConcurrencyTests {
+
+    private static final int NUMBER_OF_EVALUATIONS_PER_THREAD = 2_000;
+
+    @Autowired
+    private RuleEngineService ruleEngineService;
+
+    @Test
+    void testConcurrentSlidingDecisionsStayCorrect() throws Exception {
+        List<Map<String, Object>> slidingDecisionInputParameters = createInputParametersCoveringAllDecisions();
+        List<SlidingDecision> expectedSlidingDecisions = slidingDecisionInputParameters.stream()
+                .map(ruleEngineService::applySlidingDecisionRules)
+                .toList();
+
+        int numberOfThreads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        AtomicInteger numberOfWrongDecisions = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<?>> evaluations = new ArrayList<>();
+            for (int thread = 0; thread < numberOfThreads; thread++) {
+                int firstInputIndex = thread;
+                evaluations.add(executorService.submit(() -> {
+                    for (int i = 0; i < NUMBER_OF_EVALUATIONS_PER_THREAD; i++) {
+                        // every thread walks through the inputs with a different offset, so that concurrent requests differ
+                        int inputIndex = (firstInputIndex + i) % slidingDecisionInputParameters.size();
+                        SlidingDecision slidingDecision = ruleEngineService.applySlidingDecisionRules(slidingDecisionInputParameters.get(inputIndex));
+                        if (!slidingDecision.equals(expectedSlidingDecisions.get(inputIndex))) {
+                            numberOfWrongDecisions.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> evaluation : evaluations) {
+                evaluation.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertThat(numberOfWrongDecisions.get()).isZero();
+    }
+
+    private static List<Map<String, Object>> createInputParametersCoveringAllDecisions() {
+        List<Map<String, Object>> slidingDecisionInputParameters = new ArrayList<>();
+        for (int numberOfTrucksInQueue = 0; numberOfTrucksInQueue <= 20; numberOfTrucksInQueue += 4) {
+            for (int positionOfTruckToBePrioritized = 0; positionOfTruckToBePrioritized <= numberOfTrucksInQueue; positionOfTruckToBePrioritized += 5) {
+                for (int materialUrgency = 0; materialUrgency <= 100; materialUrgency += 35) {
+                    for (int operationalWorkload = 0; operationalWorkload <= 100; operationalWorkload += 35) {
+                        slidingDecisionInputParameters.add(Map.of(
+                                "numberOfTrucksInQueue", numberOfTrucksInQueue,
+                                "positionOfTruckToBePrioritized", positionOfTruckToBePrioritized,
+                                "materialUrgency", materialUrgency,
+                                "operationalWorkload", operationalWorkload));
+                    }
+                }
+            }
+        }
+        return slidingDecisionInputParameters;
+    }
+}
@@ -0,0 +1,109 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.engine.InputSchema;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.RuleSetChangedEvent;
+import eu.ai4work.sws.service.SlidingDecisionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sourceforge.jFuzzyLogic.FIS;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingDecisionCacheTests {
+
+    private final List<Map<String, Object>> evaluatedInputParameters = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SlidingDecisionCache slidingDecisionCache = new SlidingDecisionCache(
+            "logistics", Map.of("materialUrgency", 5.0), 100, meterRegistry);
+    private RuleSet ruleSet = ruleSet("version-1");
+
+    @Test
+    void testQuantizedInputsShareOneCacheEntry() {
+        SlidingDecision firstDecision = getSlidingDecision(7, 31, ExplanationLevel.FULL);
+        SlidingDecision secondDecision = getSlidingDecision(7, 29.5, ExplanationLevel.FULL);
+
+        assertThat(secondDecision).isSameAs(firstDecision);
+        assertThat(evaluatedInputParameters).hasSize(1);
+        // the decision is evaluated for the quantized value, independent of the first request
+        assertThat(evaluatedInputParameters.get(0).get("materialUrgency")).isEqualTo(30.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", SlidingDecisionCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testQuantizedInputsStayWithinTheUniverse() {
+        SlidingDecisionCache coarseSlidingDecisionCache = new SlidingDecisionCache("logistics", Map.of("materialUrgency", 40.0), 100, meterRegistry);
+        InputSchema inputSchema = InputSchema.compile(FIS.load(SlidingDecisionCacheTests.class.getClassLoader()
+                .getResourceAsStream("rules/TruckSchedulingSlidingDecisionRules.fcl"), true).getFunctionBlock(null), false);
+        ruleSet = RuleSet.builder()
+                .version("version-1")
+                .requiredFuzzyInputParameters(List.of("numberOfTrucksInQueue", "materialUrgency"))
+                .inputSchema(inputSchema)
+                .build();
+
+        coarseSlidingDecisionCache.getSlidingDecision(ruleSet, Map.of("numberOfTrucksInQueue", 7.0, "materialUrgency", 100.0),
+                ExplanationLevel.FULL, (inputParameters, level) -> {
+                    evaluatedInputParameters.add(inputParameters);
+                    return new SlidingDecision(Map.of("suggestedWorkSharingApproach", "informHuman"), null, ruleSet.getVersion());
+                });
+
+        // 100 is rounded to 120, beyond the universe of 0 to 100
+        assertThat(evaluatedInputParameters.get(0).get("materialUrgency")).isEqualTo(100.0);
+        double[] inputValues = new double[inputSchema.getNumberOfInputVariables()];
+        inputValues[inputSchema.getInputVariableIndex("materialUrgency")] = 100;
+        coarseSlidingDecisionCache.quantizeInputValues(ruleSet, inputValues);
+        assertThat(inputValues[inputSchema.getInputVariableIndex("materialUrgency")]).isEqualTo(100.0);
+    }
+
+    @Test
+    void testNotQuantizedInputsAndExplanationLevelsHaveSeparateCacheEntries() {
+        getSlidingDecision(7, 30, ExplanationLevel.FULL);
+        getSlidingDecision(8, 30, ExplanationLevel.FULL);
+        getSlidingDecision(7, 30, ExplanationLevel.NONE);
+
+        assertThat(evaluatedInputParameters).hasSize(3);
+    }
+
+    @Test
+    void testRuleSetChangeInvalidatesCache() {
+        getSlidingDecision(7, 30, ExplanationLevel.FULL);
+        slidingDecisionCache.onRuleSetChanged(new RuleSetChangedEvent("logistics", "new-version"));
+        getSlidingDecision(7, 30, ExplanationLevel.FULL);
+
+        assertThat(evaluatedInputParameters).hasSize(2);
+    }
+
+    @Test
+    void testDecisionsOfDifferentRuleSetVersionsHaveSeparateCacheEntries() {
+        SlidingDecision firstDecision = getSlidingDecision(7, 30, ExplanationLevel.FULL);
+        ruleSet = ruleSet("version-2");
+        SlidingDecision secondDecision = getSlidingDecision(7, 30, ExplanationLevel.FULL);
+
+        assertThat(evaluatedInputParameters).hasSize(2);
+        assertThat(firstDecision.getRuleSetVersion()).isEqualTo("version-1");
+        assertThat(secondDecision.getRuleSetVersion()).isEqualTo("version-2");
+    }
+
+    private SlidingDecision getSlidingDecision(double numberOfTrucksInQueue, double materialUrgency, ExplanationLevel explanationLevel) {
+        return slidingDecisionCache.getSlidingDecision(ruleSet,
+                Map.of("numberOfTrucksInQueue", numberOfTrucksInQueue, "materialUrgency", materialUrgency), explanationLevel,
+                (inputParameters, level) -> {
+                    evaluatedInputParameters.add(inputParameters);
+                    return new SlidingDecision(Map.of("suggestedWorkSharingApproach", "informHuman"), null, ruleSet.getVersion());
+                });
+    }
+
+    private static RuleSet ruleSet(String version) {
+        return RuleSet.builder()
+                .version(version)
+                .requiredFuzzyInputParameters(List.of("numberOfTrucksInQueue", "materialUrgency"))
+                .build();
+    }
+}
@@ -37,6 +37,61 @@ class SlidingDecisionControllerTests {
                 "informHuman");
     }
 
+    @Test
+    void testExplanationLevels() {
+        String slidingDecisionRequestJsonBody = """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency":30,
+                    "operationalWorkload":80
+                  }
+                }
+                """;
+        ResponseEntity<String> responseWithoutExplanation = postRequestWithBody("/sliding-decision?explanationLevel=none", slidingDecisionRequestJsonBody);
+        assertSlidingDecisionResponseStatusAndContents(responseWithoutExplanation, HttpStatus.OK, "informHuman");
+        assertThat(responseWithoutExplanation.getBody()).doesNotContain("decisionExplanation");
+
+        ResponseEntity<String> responseWithSummary = postRequestWithBody("/sliding-decision?explanationLevel=summary", slidingDecisionRequestJsonBody);
+        assertSlidingDecisionResponseStatusAndContents(responseWithSummary, HttpStatus.OK, "informHuman", "\"appliedRules\":[{\"name\":");
+        assertThat(responseWithSummary.getBody()).doesNotContain("inputVariables", "condition", "degreeOfSupport");
+
+        ResponseEntity<String> responseWithFullExplanation = postRequestWithBody("/sliding-decision", slidingDecisionRequestJsonBody);
+        assertSlidingDecisionResponseStatusAndContents(responseWithFullExplanation, HttpStatus.OK,
+                "inputVariables", "\"condition\":\"IF ", "\"consequence\":\"THEN ", "degreeOfSupport", "outputVariables");
+
+        assertSlidingDecisionResponseStatusAndContents(
+                postRequestWithBody("/sliding-decision?explanationLevel=verbose", slidingDecisionRequestJsonBody),
+                HttpStatus.BAD_REQUEST,
+                DECISION_STATUS_ERROR_STRING,
+                "verbose");
+    }
+
+    @Test
+    void testExplanationLevelOfRequestBody() {
+        String slidingDecisionRequestJsonBodyTemplate = """
+                {
+                  "explanationLevel": "%s",
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency":30,
+                    "operationalWorkload":80
+                  }
+                }
+                """;
+        ResponseEntity<String> responseWithSummary = postSlidingDecisionRequestWithBody(slidingDecisionRequestJsonBodyTemplate.formatted("Summary"));
+        assertSlidingDecisionResponseStatusAndContents(responseWithSummary, HttpStatus.OK, "informHuman", "\"appliedRules\":[{\"name\":");
+        assertThat(responseWithSummary.getBody()).doesNotContain("inputVariables", "condition", "degreeOfSupport");
+
+        assertSlidingDecisionResponseStatusAndContents(
+                postSlidingDecisionRequestWithBody(slidingDecisionRequestJsonBodyTemplate.formatted("verbose")),
+                HttpStatus.BAD_REQUEST,
+                DECISION_STATUS_ERROR_STRING,
+                "Invalid explanation level 'verbose'");
+    }
+
     @Test
     void testInvalidJson() {
         String slidingDecisionRequestInvalidJsonBody = """
@@ -118,6 +173,46 @@ class SlidingDecisionControllerTests {
                 "numberOfTrucksInQueue");
     }
 
+    @Test
+    void testBatchWithValidAndInvalidItems() {
+        String slidingDecisionBatchRequestJsonBody = """
+                {
+                  "slidingDecisionInputParameters": [
+                    {
+                      "numberOfTrucksInQueue": 7,
+                      "positionOfTruckToBePrioritized": 5,
+                      "materialUrgency":30,
+                      "operationalWorkload":80
+                    },
+                    {
+                      "positionOfTruckToBePrioritized": 5,
+                      "materialUrgency":30,
+                      "operationalWorkload":80
+                    },
+                    {
+                      "numberOfTrucksInQueue": 7,
+                      "positionOfTruckToBePrioritized": 5,
+                      "materialUrgency":30,
+                      "operationalWorkload":80
+                    }
+                  ]
+                }
+                """;
+        ResponseEntity<String> slidingDecisionBatchResponse = postRequestWithBody("/sliding-decision/batch", slidingDecisionBatchRequestJsonBody);
+        assertSlidingDecisionResponseStatusAndContents(
+                slidingDecisionBatchResponse,
+                HttpStatus.OK,
+                "\"decisionStatus\":\"Sliding Decision Response\"",
+                DECISION_STATUS_ERROR_STRING,
+                "Missing parameter(s): [numberOfTrucksInQueue]");
+
+        // the responses are in the order of the request
+        String responseBody = slidingDecisionBatchResponse.getBody();
+        int errorPosition = responseBody.indexOf(DECISION_STATUS_ERROR_STRING);
+        assertThat(responseBody.indexOf("informHuman")).isLessThan(errorPosition);
+        assertThat(responseBody.lastIndexOf("informHuman")).isGreaterThan(errorPosition);
+    }
+
     private ResponseEntity<String> postSlidingDecisionRequestWithParameters(String slidingDecisionInputParametersJson) {
         return postSlidingDecisionRequestWithBody(
                 String.format("""
@@ -132,10 +227,14 @@ class SlidingDecisionControllerTests {
     }
 
     private ResponseEntity<String> postSlidingDecisionRequestWithBody(String jsonEntityBody) {
+        return postRequestWithBody("/sliding-decision", jsonEntityBody);
+    }
+
+    private ResponseEntity<String> postRequestWithBody(String url, String jsonEntityBody) {
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.setContentType(APPLICATION_JSON);
         HttpEntity<String> slidingDecisionRequestHttpEntity = new HttpEntity<>(jsonEntityBody, httpHeaders);
-        return testSlidingDecisionRestTemplate.postForEntity("/sliding-decision", slidingDecisionRequestHttpEntity, String.class);
+        return testSlidingDecisionRestTemplate.postForEntity(url, slidingDecisionRequestHttpEntity, String.class);
     }
 
     private void assertSlidingDecisionResponseStatusAndContents(ResponseEntity<String> slidingDecisionResponse, HttpStatus expectedResponseStatus, String... expectedResponseContains) {
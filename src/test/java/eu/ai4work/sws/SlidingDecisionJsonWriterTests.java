@@ -0,0 +1,121 @@
+package eu.ai4work.sws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ai4work.sws.controller.SlidingDecisionJsonWriter;
+import eu.ai4work.sws.controller.SlidingDecisionResponseMapper;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.service.RuleSet;
+import eu.ai4work.sws.service.Scenario;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import eu.ai4work.sws.service.SlidingDecisionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.profiles.active=logistics", "application-scenario-config.rule-engine=compiled"})
+class SlidingDecisionJsonWriterTests {
+
+    @Autowired
+    private TestRestTemplate testSlidingDecisionRestTemplate;
+
+    @Autowired
+    private SlidingDecisionService slidingDecisionService;
+
+    @Autowired
+    private SlidingDecisionResponseMapper slidingDecisionResponseMapper;
+
+    @Autowired
+    private SlidingDecisionJsonWriter slidingDecisionJsonWriter;
+
+    @Autowired
+    private ScenarioRegistry scenarioRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testCompiledEvaluationIsWrittenLikeTheMappedResponse() throws Exception {
+        Scenario scenario = scenarioRegistry.getDefaultScenario();
+        for (ExplanationLevel explanationLevel : ExplanationLevel.values()) {
+            for (Map<String, Object> slidingDecisionInputParameters : createInputParameters()) {
+                SlidingDecision slidingDecision = slidingDecisionService.getSlidingDecision(scenario, slidingDecisionInputParameters, explanationLevel);
+                byte[] writtenResponse = slidingDecisionService.getSlidingDecision(scenario, slidingDecisionInputParameters, explanationLevel,
+                        slidingDecisionJsonWriter);
+
+                // the trees are compared, since the entries of the maps may be written in a different order
+                assertThat(objectMapper.readTree(writtenResponse))
+                        .isEqualTo(objectMapper.valueToTree(slidingDecisionResponseMapper.createResponse(scenario, slidingDecision)));
+            }
+        }
+    }
+
+    @Test
+    void testSlidingDecisionIsWrittenLikeTheMappedResponse() throws Exception {
+        Scenario scenario = scenarioRegistry.getDefaultScenario();
+        RuleSet ruleSet = scenario.getActiveRuleSet().get();
+        for (ExplanationLevel explanationLevel : ExplanationLevel.values()) {
+            for (Map<String, Object> slidingDecisionInputParameters : createInputParameters()) {
+                SlidingDecision slidingDecision = slidingDecisionService.getSlidingDecision(scenario, slidingDecisionInputParameters, explanationLevel);
+
+                JsonNode writtenResponse = objectMapper.readTree(slidingDecisionJsonWriter.handleSlidingDecision(ruleSet, slidingDecision));
+                assertThat(writtenResponse)
+                        .isEqualTo(objectMapper.valueToTree(slidingDecisionResponseMapper.createResponse(scenario, slidingDecision)));
+            }
+        }
+    }
+
+    @Test
+    void testSlidingDecisionEndpointRespondsWithTheWrittenJson() throws Exception {
+        String slidingDecisionRequestJsonBody = """
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency":30,
+                    "operationalWorkload":80
+                  }
+                }
+                """;
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(APPLICATION_JSON);
+        ResponseEntity<String> response = testSlidingDecisionRestTemplate.postForEntity("/sliding-decision",
+                new HttpEntity<>(slidingDecisionRequestJsonBody, httpHeaders), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(APPLICATION_JSON);
+        JsonNode responseBody = objectMapper.readTree(response.getBody());
+        assertThat(responseBody.get("decisionStatus").asText()).isEqualTo("Sliding Decision Response");
+        assertThat(responseBody.get("slidingDecisionOutputParameters").get("suggestedApproach").get("slidingDecision").asText())
+                .isEqualTo("informHuman");
+        assertThat(responseBody.get("decisionExplanation").get("appliedRules").size()).isPositive();
+        assertThat(responseBody.get("ruleSetVersion").asText()).isNotEmpty();
+    }
+
+    private static List<Map<String, Object>> createInputParameters() {
+        List<Map<String, Object>> slidingDecisionInputParameters = new ArrayList<>();
+        for (int numberOfTrucksInQueue = 0; numberOfTrucksInQueue <= 20; numberOfTrucksInQueue += 5) {
+            for (int materialUrgency = 0; materialUrgency <= 100; materialUrgency += 25) {
+                for (int operationalWorkload = 0; operationalWorkload <= 100; operationalWorkload += 50) {
+                    slidingDecisionInputParameters.add(Map.of(
+                            "numberOfTrucksInQueue", numberOfTrucksInQueue,
+                            "positionOfTruckToBePrioritized", 5,
+                            "materialUrgency", materialUrgency,
+                            "operationalWorkload", operationalWorkload));
+                }
+            }
+        }
+        return slidingDecisionInputParameters;
+    }
+}
@@ -0,0 +1,190 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.controller.SlidingDecisionRequestExecutor;
+import eu.ai4work.sws.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "application-scenario-config.request-execution.mode=evaluation-executor")
+class SlidingDecisionRequestExecutorTests {
+
+    @Autowired
+    private TestRestTemplate testSlidingDecisionRestTemplate;
+
+    @Test
+    void testRequestsAreAnsweredByTheEvaluationExecutor() {
+        ResponseEntity<String> response = postRequestWithBody("""
+                {
+                  "slidingDecisionInputParameters": {
+                    "numberOfTrucksInQueue": 7,
+                    "positionOfTruckToBePrioritized": 5,
+                    "materialUrgency": 30,
+                    "operationalWorkload": 80
+                  }
+                }
+                """);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("informHuman");
+
+        ResponseEntity<String> invalidResponse = postRequestWithBody("""
+                { "slidingDecisionInputParameters": { "numberOfTrucksInQueue": 7 } }
+                """);
+        assertThat(invalidResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(invalidResponse.getBody()).contains("Missing parameter(s)");
+    }
+
+    @Test
+    void testRequestsBeyondTheQueueAreRejectedOnTheEvaluationExecutor() throws Exception {
+        assertRequestsBeyondTheQueueAreRejected(ApplicationScenarioConfiguration.RequestExecution.Mode.EVALUATION_EXECUTOR);
+    }
+
+    @Test
+    void testRequestsBeyondTheQueueAreRejectedOnVirtualThreads() throws Exception {
+        assertRequestsBeyondTheQueueAreRejected(ApplicationScenarioConfiguration.RequestExecution.Mode.VIRTUAL_THREADS);
+    }
+
+    @Test
+    void testRequestsAreNotLimitedOnPlatformThreads() throws Exception {
+        SlidingDecisionRequestExecutor slidingDecisionRequestExecutor = createSlidingDecisionRequestExecutor(
+                ApplicationScenarioConfiguration.RequestExecution.Mode.PLATFORM_THREADS, new SimpleMeterRegistry());
+        CountDownLatch evaluationStarted = new CountDownLatch(1);
+        CountDownLatch evaluationMayComplete = new CountDownLatch(1);
+
+        try {
+            CompletableFuture<String> evaluatedRequest = executeOnOwnThread(slidingDecisionRequestExecutor,
+                    ApplicationScenarioConfiguration.RequestExecution.Mode.PLATFORM_THREADS, () -> {
+                        evaluationStarted.countDown();
+                        await(evaluationMayComplete);
+                        return "evaluated";
+                    });
+            assertThat(evaluationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // evaluated at once on the calling thread, although the only evaluation thread and queue place are taken
+            assertThat(slidingDecisionRequestExecutor.execute(() -> "accepted")).isEqualTo("accepted");
+            slidingDecisionRequestExecutor.admitBatch();
+            assertThatThrownBy(() -> slidingDecisionRequestExecutor.executeAsynchronously(() -> "asynchronous"))
+                    .isInstanceOf(IllegalStateException.class);
+
+            evaluationMayComplete.countDown();
+            assertThat(evaluatedRequest.get(10, TimeUnit.SECONDS)).isEqualTo("evaluated");
+        } finally {
+            evaluationMayComplete.countDown();
+            slidingDecisionRequestExecutor.shutdown();
+        }
+    }
+
+    /**
+     * One request is evaluated and one waits, so the third one and a batch are rejected, and requests are accepted again
+     * once the evaluation completed.
+     */
+    private void assertRequestsBeyondTheQueueAreRejected(ApplicationScenarioConfiguration.RequestExecution.Mode mode) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SlidingDecisionRequestExecutor slidingDecisionRequestExecutor = createSlidingDecisionRequestExecutor(mode, meterRegistry);
+        CountDownLatch evaluationStarted = new CountDownLatch(1);
+        CountDownLatch evaluationMayComplete = new CountDownLatch(1);
+
+        try {
+            CompletableFuture<String> evaluatedRequest = executeOnOwnThread(slidingDecisionRequestExecutor, mode, () -> {
+                evaluationStarted.countDown();
+                await(evaluationMayComplete);
+                return "evaluated";
+            });
+            assertThat(evaluationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> queuedRequest = executeOnOwnThread(slidingDecisionRequestExecutor, mode, () -> "queued");
+            while (meterRegistry.get("sliding.decision.queued.requests").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> execute(slidingDecisionRequestExecutor, mode, () -> "rejected"))
+                    .isInstanceOf(ServiceOverloadedException.class);
+            assertThatThrownBy(slidingDecisionRequestExecutor::admitBatch)
+                    .isInstanceOf(ServiceOverloadedException.class);
+            assertThat(meterRegistry.get("sliding.decision.rejected.requests").counter().count()).isEqualTo(2);
+
+            evaluationMayComplete.countDown();
+            assertThat(evaluatedRequest.get(10, TimeUnit.SECONDS)).isEqualTo("evaluated");
+            assertThat(queuedRequest.get(10, TimeUnit.SECONDS)).isEqualTo("queued");
+            assertThat(execute(slidingDecisionRequestExecutor, mode, () -> "accepted").get(10, TimeUnit.SECONDS)).isEqualTo("accepted");
+            slidingDecisionRequestExecutor.admitBatch();
+        } finally {
+            evaluationMayComplete.countDown();
+            slidingDecisionRequestExecutor.shutdown();
+        }
+    }
+
+    private static SlidingDecisionRequestExecutor createSlidingDecisionRequestExecutor(ApplicationScenarioConfiguration.RequestExecution.Mode mode,
+                                                                                      SimpleMeterRegistry meterRegistry) {
+        ApplicationScenarioConfiguration applicationScenarioConfiguration = new ApplicationScenarioConfiguration();
+        applicationScenarioConfiguration.getRequestExecution().setMode(mode);
+        applicationScenarioConfiguration.getRequestExecution().setEvaluationThreads(1);
+        applicationScenarioConfiguration.getRequestExecution().setMaximumQueuedRequests(1);
+        return new SlidingDecisionRequestExecutor(applicationScenarioConfiguration, meterRegistry);
+    }
+
+    /**
+     * Executes the request like the controller of the mode does, synchronously or asynchronously.
+     */
+    private static CompletableFuture<String> execute(SlidingDecisionRequestExecutor slidingDecisionRequestExecutor,
+                                                     ApplicationScenarioConfiguration.RequestExecution.Mode mode,
+                                                     Supplier<String> evaluation) {
+        if (mode == ApplicationScenarioConfiguration.RequestExecution.Mode.EVALUATION_EXECUTOR) {
+            return slidingDecisionRequestExecutor.executeAsynchronously(evaluation);
+        }
+        return CompletableFuture.completedFuture(slidingDecisionRequestExecutor.execute(evaluation));
+    }
+
+    /**
+     * Executes the request like a web server thread would, which waits for the evaluation unless the executor releases it.
+     */
+    private static CompletableFuture<String> executeOnOwnThread(SlidingDecisionRequestExecutor slidingDecisionRequestExecutor,
+                                                               ApplicationScenarioConfiguration.RequestExecution.Mode mode,
+                                                               Supplier<String> evaluation) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                execute(slidingDecisionRequestExecutor, mode, evaluation).whenComplete((value, exception) -> {
+                    if (exception != null) {
+                        result.completeExceptionally(exception);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (RuntimeException exception) {
+                result.completeExceptionally(exception);
+            }
+        });
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ResponseEntity<String> postRequestWithBody(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_JSON);
+        return testSlidingDecisionRestTemplate.postForEntity("/sliding-decision", new HttpEntity<>(body, headers), String.class);
+    }
+}
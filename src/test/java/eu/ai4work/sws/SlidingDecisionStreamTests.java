@@ -0,0 +1,131 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.config.ApplicationScenarioConfiguration;
+import eu.ai4work.sws.model.ExplanationLevel;
+import eu.ai4work.sws.model.SlidingDecision;
+import eu.ai4work.sws.service.ScenarioRegistry;
+import eu.ai4work.sws.service.SlidingDecisionService;
+import eu.ai4work.sws.service.SlidingDecisionStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "application-scenario-config.decision-stream.overflow-strategy=block",
+        "application-scenario-config.decision-stream.maximum-pending-inputs=16"})
+class SlidingDecisionStreamTests {
+    private static final String AUTONOMOUS_REPRIORITIZATION_INPUT = """
+            {"slidingDecisionInputParameters": {"numberOfTrucksInQueue": 3, "positionOfTruckToBePrioritized": 5, "materialUrgency": 30, "operationalWorkload": 20}}""";
+    private static final String SIMILAR_AUTONOMOUS_REPRIORITIZATION_INPUT = """
+            {"slidingDecisionInputParameters": {"numberOfTrucksInQueue": 4, "positionOfTruckToBePrioritized": 5, "materialUrgency": 30, "operationalWorkload": 20}}""";
+    private static final String INFORM_HUMAN_INPUT = """
+            {"slidingDecisionInputParameters": {"numberOfTrucksInQueue": 7, "positionOfTruckToBePrioritized": 5, "materialUrgency": 30, "operationalWorkload": 80}}""";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SlidingDecisionService slidingDecisionService;
+
+    @Autowired
+    private ScenarioRegistry scenarioRegistry;
+
+    @Test
+    void testDecisionIsOnlySentWhenItChanges() throws Exception {
+        BlockingQueue<String> receivedMessages = new LinkedBlockingQueue<>();
+        WebSocketSession session = connect("/sliding-decision/stream", receivedMessages);
+
+        session.sendMessage(new TextMessage(AUTONOMOUS_REPRIORITIZATION_INPUT));
+        session.sendMessage(new TextMessage(SIMILAR_AUTONOMOUS_REPRIORITIZATION_INPUT));
+        session.sendMessage(new TextMessage(INFORM_HUMAN_INPUT));
+        session.sendMessage(new TextMessage(INFORM_HUMAN_INPUT));
+        session.sendMessage(new TextMessage("{\"slidingDecisionInputParameters\": {\"numberOfTrucksInQueue\": 7}}"));
+
+        assertThat(receivedMessages.poll(10, TimeUnit.SECONDS)).contains("autonomousReprioritization", "ruleSetVersion");
+        assertThat(receivedMessages.poll(10, TimeUnit.SECONDS)).contains("informHuman");
+        assertThat(receivedMessages.poll(10, TimeUnit.SECONDS)).contains("Error - Sliding Decision not possible", "Missing parameter(s)");
+        assertThat(receivedMessages.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        session.close();
+    }
+
+    @Test
+    void testNamedScenarioIsStreamed() throws Exception {
+        BlockingQueue<String> receivedMessages = new LinkedBlockingQueue<>();
+        WebSocketSession session = connect("/scenarios/default/sliding-decision/stream?explanationLevel=summary", receivedMessages);
+
+        session.sendMessage(new TextMessage(INFORM_HUMAN_INPUT));
+
+        assertThat(receivedMessages.poll(10, TimeUnit.SECONDS)).contains("informHuman", "appliedRules");
+        session.close();
+    }
+
+    @Test
+    void testUnknownScenarioClosesTheConnection() throws Exception {
+        BlockingQueue<String> receivedMessages = new LinkedBlockingQueue<>();
+        List<CloseStatus> closeStatuses = new ArrayList<>();
+        new StandardWebSocketClient().execute(new TextWebSocketHandler() {
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+                closeStatuses.add(status);
+                receivedMessages.add("closed");
+            }
+        }, "ws://localhost:" + port + "/scenarios/unknown/sliding-decision/stream").get(10, TimeUnit.SECONDS);
+
+        assertThat(receivedMessages.poll(10, TimeUnit.SECONDS)).isEqualTo("closed");
+        assertThat(closeStatuses.get(0).getCode()).isEqualTo(CloseStatus.POLICY_VIOLATION.getCode());
+    }
+
+    @Test
+    void testBurstIsCoalescedIntoItsLatestInput() throws InterruptedException {
+        Queue<Runnable> scheduledEvaluations = new ArrayDeque<>();
+        Counter droppedInputsCounter = Counter.builder("dropped").register(new SimpleMeterRegistry());
+        List<SlidingDecision> emittedDecisions = new ArrayList<>();
+        SlidingDecisionStream slidingDecisionStream = new SlidingDecisionStream(scenarioRegistry.getDefaultScenario(), ExplanationLevel.NONE,
+                slidingDecisionService, scheduledEvaluations::add, new ApplicationScenarioConfiguration.DecisionStream(), droppedInputsCounter,
+                (slidingDecision, exception) -> emittedDecisions.add(slidingDecision));
+
+        slidingDecisionStream.submit(truckSchedulingInput(3, 20));
+        slidingDecisionStream.submit(truckSchedulingInput(4, 20));
+        slidingDecisionStream.submit(truckSchedulingInput(7, 80));
+        while (!scheduledEvaluations.isEmpty()) {
+            scheduledEvaluations.poll().run();
+        }
+
+        assertThat(droppedInputsCounter.count()).isEqualTo(2);
+        assertThat(emittedDecisions).hasSize(1);
+        assertThat(emittedDecisions.get(0).getDecisionResultPerOutputParameter()).containsEntry("suggestedApproach", "informHuman");
+    }
+
+    private WebSocketSession connect(String path, BlockingQueue<String> receivedMessages) throws Exception {
+        return new StandardWebSocketClient().execute(new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                receivedMessages.add(message.getPayload());
+            }
+        }, "ws://localhost:" + port + path).get(10, TimeUnit.SECONDS);
+    }
+
+    private static Map<String, Object> truckSchedulingInput(int numberOfTrucksInQueue, int operationalWorkload) {
+        return Map.of("numberOfTrucksInQueue", numberOfTrucksInQueue, "positionOfTruckToBePrioritized", 5,
+                "materialUrgency", 30, "operationalWorkload", operationalWorkload);
+    }
+}
@@ -0,0 +1,95 @@
+package eu.ai4work.sws;
+
+import eu.ai4work.sws.controller.SlidingDecisionVectorController;
+import eu.ai4work.sws.model.DecisionVectorSchemaResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.profiles.active=logistics")
+class SlidingDecisionVectorControllerTests {
+    private static final Map<String, Double> INFORM_HUMAN_INPUT = Map.of(
+            "numberOfTrucksInQueue", 7.0,
+            "positionOfTruckToBePrioritized", 5.0,
+            "materialUrgency", 30.0,
+            "operationalWorkload", 80.0);
+
+    @Autowired
+    private TestRestTemplate testSlidingDecisionRestTemplate;
+
+    @Test
+    void testDecisionVectorIsTheIndexOfTheDecidedTerm() {
+        DecisionVectorSchemaResponse schema = testSlidingDecisionRestTemplate.getForObject("/sliding-decision/vector-schema", DecisionVectorSchemaResponse.class);
+        assertThat(schema.getInputVariables()).containsExactlyInAnyOrderElementsOf(INFORM_HUMAN_INPUT.keySet());
+
+        ResponseEntity<byte[]> response = postInputVector("/sliding-decision", encode(schema.getInputVariables(), INFORM_HUMAN_INPUT),
+                schema.getDecisionVectorSchema(), byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(SlidingDecisionVectorController.DECISION_VECTOR_SCHEMA_HEADER)).isEqualTo(schema.getDecisionVectorSchema());
+        assertThat(response.getBody()).hasSize(schema.getOutputVariables().size() * Short.BYTES);
+        DecisionVectorSchemaResponse.OutputVariable suggestedApproach = schema.getOutputVariables().get(0);
+        assertThat(suggestedApproach.name()).isEqualTo("suggestedApproach");
+        assertThat(suggestedApproach.linguisticTerms().get(ByteBuffer.wrap(response.getBody()).getShort(0))).isEqualTo("informHuman");
+    }
+
+    @Test
+    void testScenarioIsServedInTheDecisionVectorFormat() {
+        DecisionVectorSchemaResponse schema = testSlidingDecisionRestTemplate.getForObject("/scenarios/default/sliding-decision/vector-schema",
+                DecisionVectorSchemaResponse.class);
+
+        ResponseEntity<byte[]> response = postInputVector("/scenarios/default/sliding-decision",
+                encode(schema.getInputVariables(), INFORM_HUMAN_INPUT), null, byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(Short.BYTES);
+    }
+
+    @Test
+    void testInvalidDecisionVectorsAreRejected() {
+        DecisionVectorSchemaResponse schema = testSlidingDecisionRestTemplate.getForObject("/sliding-decision/vector-schema", DecisionVectorSchemaResponse.class);
+        byte[] inputVector = encode(schema.getInputVariables(), INFORM_HUMAN_INPUT);
+
+        ResponseEntity<String> tooShortResponse = postInputVector("/sliding-decision", new byte[Double.BYTES], null, String.class);
+        assertThat(tooShortResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooShortResponse.getBody()).contains("expected 32 bytes");
+
+        ResponseEntity<String> otherSchemaResponse = postInputVector("/sliding-decision", inputVector, "000000000000", String.class);
+        assertThat(otherSchemaResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(otherSchemaResponse.getBody()).contains("encoded for the decision vector schema 000000000000");
+
+        ByteBuffer.wrap(inputVector).putDouble(0, Double.NaN);
+        ResponseEntity<String> notFiniteResponse = postInputVector("/sliding-decision", inputVector, null, String.class);
+        assertThat(notFiniteResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(notFiniteResponse.getBody()).contains("must be a finite number");
+    }
+
+    private static byte[] encode(List<String> inputVariables, Map<String, Double> inputParameters) {
+        ByteBuffer inputVector = ByteBuffer.allocate(inputVariables.size() * Double.BYTES);
+        for (String inputVariable : inputVariables) {
+            inputVector.putDouble(inputParameters.get(inputVariable));
+        }
+        return inputVector.array();
+    }
+
+    private <T> ResponseEntity<T> postInputVector(String path, byte[] inputVector, String decisionVectorSchema, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(SlidingDecisionVectorController.DECISION_VECTOR_MEDIA_TYPE));
+        if (decisionVectorSchema != null) {
+            headers.set(SlidingDecisionVectorController.DECISION_VECTOR_SCHEMA_HEADER, decisionVectorSchema);
+        }
+        return testSlidingDecisionRestTemplate.postForEntity(path, new HttpEntity<>(inputVector, headers), responseType);
+    }
+}